@@ -1,12 +1,94 @@
 package org.monkey;
 
+import org.monkey.cache.AstCache;
+import org.monkey.engine.Engine;
+import org.monkey.engine.OptimizingEngine;
+import org.monkey.memo.Memoizer;
+import org.monkey.optimizer.Optimization;
+import org.monkey.optimizer.Optimizer;
 import org.monkey.repl.Repl;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
 public class Main {
-    public static void main(String[] args) {
-        String userName = System.getProperty("user.name");
-        System.out.printf("Hello %s! This is the Monkey programming language!\n", userName);
-        System.out.println("Feel free to type in commands");
-        new Repl().start();
+    public static void main(String[] args) throws IOException {
+        var engineName = "eval";
+        Path script = null;
+        AstCache cache = null;
+        ForkJoinPool pool = null;
+        Optimizer optimizer = null;
+        Memoizer memoizer = null;
+        var printStats = false;
+        var printMemoStats = false;
+        for (String arg : args) {
+            if (arg.startsWith("--engine=")) {
+                engineName = arg.substring("--engine=".length());
+            } else if (arg.equals("--optimize")) {
+                optimizer = new Optimizer();
+            } else if (arg.startsWith("--optimize=")) {
+                EnumSet<Optimization> passes;
+                try {
+                    passes = Arrays.stream(arg.substring("--optimize=".length()).split(","))
+                                   .filter(pass -> !pass.isEmpty())
+                                   .map(Optimization::of)
+                                   .collect(Collectors.toCollection(() -> EnumSet.noneOf(Optimization.class)));
+                } catch (IllegalArgumentException e) {
+                    System.err.printf("unknown argument: %s (%s)\n", arg, e.getMessage());
+                    System.exit(2);
+                    return;
+                }
+                optimizer = new Optimizer(passes);
+            } else if (arg.equals("--ast-cache")) {
+                cache = AstCache.inUserCache();
+            } else if (arg.startsWith("--ast-cache=")) {
+                cache = new AstCache(Path.of(arg.substring("--ast-cache=".length())));
+            } else if (arg.equals("--parallel-parse")) {
+                pool = ForkJoinPool.commonPool();
+            } else if (arg.equals("--memoize")) {
+                memoizer = new Memoizer();
+            } else if (arg.equals("--memo-stats")) {
+                printMemoStats = true;
+            } else if (arg.equals("--optimizer-stats")) {
+                printStats = true;
+            } else if (!arg.startsWith("--") && script == null) {
+                script = Path.of(arg);
+            } else {
+                System.err.printf("unknown argument: %s\n", arg);
+                System.exit(2);
+            }
+        }
+
+        Engine engine;
+        try {
+            engine = Engine.of(engineName, memoizer);
+        } catch (IllegalArgumentException e) {
+            System.err.printf("unknown argument: --engine=%s (%s)\n", engineName, e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (optimizer != null) {
+            engine = new OptimizingEngine(engine, optimizer);
+        }
+
+        if (script != null) {
+            new Repl(engine, cache, pool).run(script);
+        } else {
+            String userName = System.getProperty("user.name");
+            System.out.printf("Hello %s! This is the Monkey programming language!\n", userName);
+            System.out.println("Feel free to type in commands");
+            new Repl(engine).start();
+        }
+
+        if (printStats && optimizer != null) {
+            System.out.print(optimizer.report());
+        }
+        if (printMemoStats && memoizer != null) {
+            System.out.print(memoizer.report());
+        }
     }
-}
\ No newline at end of file
+}
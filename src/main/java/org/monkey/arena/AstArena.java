@@ -0,0 +1,255 @@
+package org.monkey.arena;
+
+import org.monkey.ast.*;
+import org.monkey.parser.Parser;
+import org.monkey.token.Token;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+// A program stored as columns of ints instead of a graph of records. Node i has a kind, the index of its token
+// in a table of distinct tokens, and three fields whose meaning depends on the kind: child nodes, the index of
+// an interned literal, or a slice of the list column, which holds the children of blocks, calls, arrays and
+// hashes side by side. A missing child is NONE.
+//
+// program() is a view: its statements are rebuilt as records when they are read, one top-level statement at a
+// time, so an evaluator that walks them in order only holds the records of the statement it is running.
+public final class AstArena {
+
+    static final int NONE = -1;
+
+    static final int LET = 1; // name, value
+    static final int RETURN = 2; // value
+    static final int EXPRESSION_STATEMENT = 3; // expression
+    static final int BLOCK = 4; // list start, size
+    static final int IDENTIFIER = 5; // literal
+    static final int INTEGER = 6; // low and high half of the value
+    static final int STRING = 7; // literal
+    static final int BOOLEAN = 8; // 0 or 1
+    static final int PREFIX = 9; // operator literal, right
+    static final int INFIX = 10; // operator literal, left, right
+    static final int IF = 11; // condition, consequence, alternative
+    static final int FUNCTION = 12; // list start, size of the parameters, body
+    static final int CALL = 13; // function, list start, size of the arguments
+    static final int ARRAY = 14; // list start, size
+    static final int INDEX = 15; // left, index
+    static final int HASH = 16; // list start, number of key-value pairs
+
+    private final int[] kinds;
+    private final int[] tokens;
+    private final int[] first;
+    private final int[] second;
+    private final int[] third;
+    private final int[] lists;
+    private final int[] statements;
+    private final Token[] tokenTable;
+    private final String[] literals;
+
+    private AstArena(Builder builder) {
+        this.kinds = Arrays.copyOf(builder.kinds, builder.size);
+        this.tokens = Arrays.copyOf(builder.tokens, builder.size);
+        this.first = Arrays.copyOf(builder.first, builder.size);
+        this.second = Arrays.copyOf(builder.second, builder.size);
+        this.third = Arrays.copyOf(builder.third, builder.size);
+        this.lists = Arrays.copyOf(builder.lists, builder.listSize);
+        this.statements = Arrays.copyOf(builder.statements, builder.statementCount);
+        this.tokenTable = new Token[builder.tokenIndex.size()];
+        builder.tokenIndex.forEach((token, index) -> this.tokenTable[index] = token);
+        this.literals = new String[builder.literalIndex.size()];
+        builder.literalIndex.forEach((literal, index) -> this.literals[index] = literal);
+    }
+
+    // stores the statements as the parser produces them, so the records of the whole program never exist at once
+    public static AstArena parse(Parser parser) {
+        var builder = new Builder();
+        parser.parseProgram(builder::statement);
+        return new AstArena(builder);
+    }
+
+    public static AstArena of(Program program) {
+        var builder = new Builder();
+        program.statements.forEach(builder::statement);
+        return new AstArena(builder);
+    }
+
+    public Program program() {
+        return new Program(new StatementView());
+    }
+
+    public int size() {
+        return this.kinds.length;
+    }
+
+    // the bytes held by the columns and tables, not counting the tokens and literals, which the lexer shares
+    public long bytes() {
+        return 4L * (5L * this.kinds.length + this.lists.length + this.statements.length
+                + this.tokenTable.length + this.literals.length);
+    }
+
+    private final class StatementView extends AbstractList<Statement> implements RandomAccess {
+        @Override
+        public Statement get(int index) {
+            return (Statement) node(statements[index]);
+        }
+
+        @Override
+        public int size() {
+            return statements.length;
+        }
+    }
+
+    private Node node(int index) {
+        if (index == NONE) {
+            return null;
+        }
+        var token = this.tokenTable[this.tokens[index]];
+        var a = this.first[index];
+        var b = this.second[index];
+        var c = this.third[index];
+        return switch (this.kinds[index]) {
+            case LET -> new LetStatement(token, (Identifier) this.node(a), (Expression) this.node(b));
+            case RETURN -> new ReturnStatement(token, (Expression) this.node(a));
+            case EXPRESSION_STATEMENT -> new ExpressionStatement(token, (Expression) this.node(a));
+            case BLOCK -> new BlockStatement(token, this.list(a, b));
+            case IDENTIFIER -> new Identifier(token, this.literals[a]);
+            case INTEGER -> new IntegerLiteral(token, (a & 0xffffffffL) | ((long) b << 32));
+            case STRING -> new StringLiteral(token, this.literals[a]);
+            case BOOLEAN -> new BooleanLiteral(token, a != 0);
+            case PREFIX -> new PrefixExpression(token, this.literals[a], (Expression) this.node(b));
+            case INFIX -> new InfixExpression(token, this.literals[a], (Expression) this.node(b),
+                                              (Expression) this.node(c));
+            case IF -> new IfExpression(token, (Expression) this.node(a), (BlockStatement) this.node(b),
+                                        (BlockStatement) this.node(c));
+            case FUNCTION -> new FunctionLiteral(token, this.list(a, b), (BlockStatement) this.node(c));
+            case CALL -> new CallExpression(token, (Expression) this.node(a), this.list(b, c));
+            case ARRAY -> new ArrayLiteral(token, this.list(a, b));
+            case INDEX -> new IndexExpression(token, (Expression) this.node(a), (Expression) this.node(b));
+            case HASH -> {
+                var pairs = new HashMap<Expression, Expression>();
+                for (int i = 0; i < b; i++) {
+                    pairs.put((Expression) this.node(this.lists[a + 2 * i]),
+                              (Expression) this.node(this.lists[a + 2 * i + 1]));
+                }
+                yield new HashLiteral(token, pairs);
+            }
+            default -> throw new IllegalStateException("unknown node kind: " + this.kinds[index]);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Node> List<T> list(int start, int size) {
+        var nodes = new Node[size];
+        for (int i = 0; i < size; i++) {
+            nodes[i] = this.node(this.lists[start + i]);
+        }
+        return (List<T>) Arrays.asList(nodes);
+    }
+
+    private static final class Builder {
+        private int[] kinds = new int[1024];
+        private int[] tokens = new int[1024];
+        private int[] first = new int[1024];
+        private int[] second = new int[1024];
+        private int[] third = new int[1024];
+        private int size;
+        private int[] lists = new int[1024];
+        private int listSize;
+        private int[] statements = new int[256];
+        private int statementCount;
+        private final Map<Token, Integer> tokenIndex = new HashMap<>();
+        private final Map<String, Integer> literalIndex = new HashMap<>();
+
+        private void statement(Statement statement) {
+            var index = this.add(statement);
+            if (this.statementCount == this.statements.length) {
+                this.statements = Arrays.copyOf(this.statements, this.statementCount * 2);
+            }
+            this.statements[this.statementCount++] = index;
+        }
+
+        private int add(Node n) {
+            return switch (n) {
+                case null -> NONE;
+                case LetStatement node -> this.node(LET, node.token(), this.add(node.name()), this.add(node.value()), NONE);
+                case ReturnStatement node -> this.node(RETURN, node.token(), this.add(node.returnValue()), NONE, NONE);
+                case ExpressionStatement node ->
+                        this.node(EXPRESSION_STATEMENT, node.token(), this.add(node.expression()), NONE, NONE);
+                case BlockStatement node ->
+                        this.node(BLOCK, node.token(), this.list(node.statements()), node.statements().size(), NONE);
+                case Identifier node -> this.node(IDENTIFIER, node.token(), this.literal(node.value()), NONE, NONE);
+                case IntegerLiteral node ->
+                        this.node(INTEGER, node.token(), (int) node.value(), (int) (node.value() >>> 32), NONE);
+                case StringLiteral node -> this.node(STRING, node.token(), this.literal(node.value()), NONE, NONE);
+                case BooleanLiteral node -> this.node(BOOLEAN, node.token(), node.value() ? 1 : 0, NONE, NONE);
+                case PrefixExpression node ->
+                        this.node(PREFIX, node.token(), this.literal(node.operator()), this.add(node.right()), NONE);
+                case InfixExpression node -> this.node(INFIX, node.token(), this.literal(node.operator()),
+                                                       this.add(node.left()), this.add(node.right()));
+                case IfExpression node -> this.node(IF, node.token(), this.add(node.condition()),
+                                                    this.add(node.consequence()), this.add(node.alternative()));
+                case FunctionLiteral node -> this.node(FUNCTION, node.token(), this.list(node.parameters()),
+                                                       node.parameters().size(), this.add(node.body()));
+                case CallExpression node -> this.node(CALL, node.token(), this.add(node.function()),
+                                                      this.list(node.arguments()), node.arguments().size());
+                case ArrayLiteral node ->
+                        this.node(ARRAY, node.token(), this.list(node.elements()), node.elements().size(), NONE);
+                case IndexExpression node ->
+                        this.node(INDEX, node.token(), this.add(node.left()), this.add(node.index()), NONE);
+                case HashLiteral node -> {
+                    var children = new int[2 * node.pairs().size()];
+                    var i = 0;
+                    for (Map.Entry<Expression, Expression> entry : node.pairs().entrySet()) {
+                        children[i++] = this.add(entry.getKey());
+                        children[i++] = this.add(entry.getValue());
+                    }
+                    yield this.node(HASH, node.token(), this.list(children), node.pairs().size(), NONE);
+                }
+                default -> throw new IllegalArgumentException("not a parsed node: " + n.getClass());
+            };
+        }
+
+        private int node(int kind, Token token, int a, int b, int c) {
+            if (this.size == this.kinds.length) {
+                var capacity = this.size * 2;
+                this.kinds = Arrays.copyOf(this.kinds, capacity);
+                this.tokens = Arrays.copyOf(this.tokens, capacity);
+                this.first = Arrays.copyOf(this.first, capacity);
+                this.second = Arrays.copyOf(this.second, capacity);
+                this.third = Arrays.copyOf(this.third, capacity);
+            }
+            this.kinds[this.size] = kind;
+            this.tokens[this.size] = this.tokenIndex.computeIfAbsent(token, k -> this.tokenIndex.size());
+            this.first[this.size] = a;
+            this.second[this.size] = b;
+            this.third[this.size] = c;
+            return this.size++;
+        }
+
+        // the children are stored before the slice is taken, since storing them may add slices of their own
+        private int list(List<? extends Node> nodes) {
+            var children = new int[nodes.size()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = this.add(nodes.get(i));
+            }
+            return this.list(children);
+        }
+
+        private int list(int[] children) {
+            if (this.listSize + children.length > this.lists.length) {
+                this.lists = Arrays.copyOf(this.lists, Math.max(this.lists.length * 2, this.listSize + children.length));
+            }
+            System.arraycopy(children, 0, this.lists, this.listSize, children.length);
+            var start = this.listSize;
+            this.listSize += children.length;
+            return start;
+        }
+
+        private int literal(String literal) {
+            return this.literalIndex.computeIfAbsent(literal, k -> this.literalIndex.size());
+        }
+    }
+}
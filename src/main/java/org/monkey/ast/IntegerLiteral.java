@@ -2,7 +2,7 @@ package org.monkey.ast;
 
 import org.monkey.token.Token;
 
-public record IntegerLiteral(Token token, Integer value) implements Expression {
+public record IntegerLiteral(Token token, long value) implements Expression {
     @Override
     public String tokenLiteral() {
         return this.token.literal();
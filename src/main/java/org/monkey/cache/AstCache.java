@@ -0,0 +1,73 @@
+package org.monkey.cache;
+
+import org.monkey.ast.Program;
+import org.monkey.parser.Parser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// parsed programs on disk, one file per SHA-256 of the source and of the parser and format versions. A changed
+// source or parser hashes to another key, so entries never go stale; they only go unused.
+public class AstCache {
+
+    private final Path directory;
+
+    public AstCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public static AstCache inUserCache() {
+        return new AstCache(Path.of(System.getProperty("user.home"), ".cache", "monkey", "ast"));
+    }
+
+    public String keyOf(Path script) throws IOException {
+        try (var channel = FileChannel.open(script, StandardOpenOption.READ)) {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(8).putInt(Parser.VERSION).putInt(AstFormat.VERSION).flip());
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is a required algorithm", e);
+        }
+    }
+
+    // null on a miss, and for an entry that is unreadable, damaged or in an older format
+    public Program get(String key) {
+        var file = this.fileOf(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return AstReader.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // writes a temporary file and moves it into place, so a concurrent reader never sees half an entry
+    public void put(String key, Program program) throws IOException {
+        Files.createDirectories(this.directory);
+        var temporary = Files.createTempFile(this.directory, key, ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                AstWriter.write(program, out);
+            }
+            Files.move(temporary, this.fileOf(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private Path fileOf(String key) {
+        return this.directory.resolve(key + ".ast");
+    }
+}
@@ -0,0 +1,36 @@
+package org.monkey.cache;
+
+// The binary form of a Program:
+//   magic, version           two ints
+//   length, checksum         two ints: the byte length of the rest, and its CRC32
+//   strings                  varint count, then per string a varint byte length and its UTF-8 bytes
+//   tokens                   varint count, then per token its TokenType ordinal and the index of its literal
+//   statements               varint count, then each statement as a pre-order stream of nodes
+// A node is a tag byte, the index of its token, and then its fields in record order: strings as indexes,
+// integers as 8 bytes, booleans as a byte, lists as a varint count followed by the elements.
+final class AstFormat {
+
+    static final int MAGIC = 0x4d4b4153; // "MKAS"
+    static final int VERSION = 2;
+
+    static final byte NULL = 0;
+    static final byte LET = 1;
+    static final byte RETURN = 2;
+    static final byte EXPRESSION_STATEMENT = 3;
+    static final byte BLOCK = 4;
+    static final byte IDENTIFIER = 5;
+    static final byte INTEGER = 6;
+    static final byte STRING = 7;
+    static final byte BOOLEAN = 8;
+    static final byte PREFIX = 9;
+    static final byte INFIX = 10;
+    static final byte IF = 11;
+    static final byte FUNCTION = 12;
+    static final byte CALL = 13;
+    static final byte ARRAY = 14;
+    static final byte INDEX = 15;
+    static final byte HASH = 16;
+
+    private AstFormat() {
+    }
+}
@@ -0,0 +1,137 @@
+package org.monkey.cache;
+
+import org.monkey.ast.*;
+import org.monkey.token.Token;
+import org.monkey.token.TokenType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// rebuilds a Program from the format described by AstFormat, straight from a (mapped) buffer
+public class AstReader {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private final ByteBuffer input;
+    private String[] strings;
+    private Token[] tokens;
+
+    private AstReader(ByteBuffer input) {
+        this.input = input;
+    }
+
+    // null when the buffer does not hold this version of the format; throws IllegalStateException when it is
+    // damaged, so a changed byte never decodes to a different program
+    public static Program read(ByteBuffer input) {
+        if (input.remaining() < 16 || input.getInt() != AstFormat.MAGIC || input.getInt() != AstFormat.VERSION) {
+            return null;
+        }
+        var length = input.getInt();
+        var expected = input.getInt();
+        if (length != input.remaining()) {
+            throw new IllegalStateException("entry is " + input.remaining() + " bytes, expected " + length);
+        }
+        var checksum = new CRC32();
+        checksum.update(input.duplicate());
+        if ((int) checksum.getValue() != expected) {
+            throw new IllegalStateException("entry does not match its checksum");
+        }
+
+        var reader = new AstReader(input);
+        reader.strings = new String[reader.count()];
+        for (int i = 0; i < reader.strings.length; i++) {
+            var utf8 = new byte[reader.count()];
+            input.get(utf8);
+            reader.strings[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+        reader.tokens = new Token[reader.count()];
+        for (int i = 0; i < reader.tokens.length; i++) {
+            var type = TOKEN_TYPES[input.get()];
+            reader.tokens[i] = new Token(type, reader.strings[reader.varint()]);
+        }
+        var program = new Program(reader.list());
+        if (input.hasRemaining()) {
+            throw new IllegalStateException(input.remaining() + " bytes left after the program");
+        }
+        return program;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Node> List<T> list() {
+        var size = this.count();
+        var nodes = new ArrayList<T>(size);
+        for (int i = 0; i < size; i++) {
+            nodes.add((T) this.node());
+        }
+        return nodes;
+    }
+
+    private Node node() {
+        var tag = this.input.get();
+        if (tag == AstFormat.NULL) {
+            return null;
+        }
+        var token = this.tokens[this.varint()];
+        return switch (tag) {
+            case AstFormat.LET -> new LetStatement(token, (Identifier) this.node(), (Expression) this.node());
+            case AstFormat.RETURN -> new ReturnStatement(token, (Expression) this.node());
+            case AstFormat.EXPRESSION_STATEMENT -> new ExpressionStatement(token, (Expression) this.node());
+            case AstFormat.BLOCK -> new BlockStatement(token, this.list());
+            case AstFormat.IDENTIFIER -> new Identifier(token, this.string());
+            case AstFormat.INTEGER -> new IntegerLiteral(token, this.input.getLong());
+            case AstFormat.STRING -> new StringLiteral(token, this.string());
+            case AstFormat.BOOLEAN -> new BooleanLiteral(token, this.input.get() != 0);
+            case AstFormat.PREFIX -> new PrefixExpression(token, this.string(), (Expression) this.node());
+            case AstFormat.INFIX -> new InfixExpression(token, this.string(), (Expression) this.node(),
+                                                        (Expression) this.node());
+            case AstFormat.IF -> new IfExpression(token, (Expression) this.node(), (BlockStatement) this.node(),
+                                                  (BlockStatement) this.node());
+            case AstFormat.FUNCTION -> new FunctionLiteral(token, this.list(), (BlockStatement) this.node());
+            case AstFormat.CALL -> new CallExpression(token, (Expression) this.node(), this.list());
+            case AstFormat.ARRAY -> new ArrayLiteral(token, this.list());
+            case AstFormat.INDEX -> new IndexExpression(token, (Expression) this.node(), (Expression) this.node());
+            case AstFormat.HASH -> {
+                var size = this.count();
+                var pairs = new HashMap<Expression, Expression>();
+                for (int i = 0; i < size; i++) {
+                    pairs.put((Expression) this.node(), (Expression) this.node());
+                }
+                yield new HashLiteral(token, pairs);
+            }
+            default -> throw new IllegalStateException("unknown node tag: " + tag);
+        };
+    }
+
+    private String string() {
+        return this.strings[this.varint()];
+    }
+
+    // a count of things that take at least a byte each, so a damaged one cannot ask for a huge allocation
+    private int count() {
+        var count = this.varint();
+        if (count > this.input.remaining()) {
+            throw new IllegalStateException("count " + count + " exceeds the " + this.input.remaining()
+                                                    + " bytes left");
+        }
+        return count;
+    }
+
+    private int varint() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            var b = this.input.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                if (value < 0) {
+                    throw new IllegalStateException("negative varint");
+                }
+                return value;
+            }
+        }
+        throw new IllegalStateException("varint longer than 5 bytes");
+    }
+}
@@ -0,0 +1,201 @@
+package org.monkey.cache;
+
+import org.monkey.ast.*;
+import org.monkey.token.Token;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// encodes a parsed Program in the format described by AstFormat
+public class AstWriter {
+
+    private final Map<String, java.lang.Integer> strings = new HashMap<>();
+    private final List<String> stringTable = new ArrayList<>();
+    private final Map<Token, java.lang.Integer> tokens = new HashMap<>();
+    private final List<Token> tokenTable = new ArrayList<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream nodes = new DataOutputStream(this.bytes);
+
+    private AstWriter() {
+    }
+
+    public static void write(Program program, OutputStream out) throws IOException {
+        var writer = new AstWriter();
+        writer.list(program.statements);
+
+        var payload = new ByteArrayOutputStream();
+        var data = new DataOutputStream(payload);
+        writeVarint(data, writer.stringTable.size());
+        for (String string : writer.stringTable) {
+            var utf8 = string.getBytes(StandardCharsets.UTF_8);
+            writeVarint(data, utf8.length);
+            data.write(utf8);
+        }
+        writeVarint(data, writer.tokenTable.size());
+        for (Token token : writer.tokenTable) {
+            data.writeByte(token.type().ordinal());
+            writeVarint(data, writer.strings.get(token.literal()));
+        }
+        writer.bytes.writeTo(data);
+
+        var checksum = new CRC32();
+        checksum.update(payload.toByteArray());
+        var header = new DataOutputStream(out);
+        header.writeInt(AstFormat.MAGIC);
+        header.writeInt(AstFormat.VERSION);
+        header.writeInt(payload.size());
+        header.writeInt((int) checksum.getValue());
+        payload.writeTo(header);
+        header.flush();
+    }
+
+    private void list(List<? extends Node> nodes) {
+        this.varint(nodes.size());
+        nodes.forEach(this::node);
+    }
+
+    private void node(Node n) {
+        switch (n) {
+            case null -> this.tag(AstFormat.NULL);
+            case LetStatement node -> {
+                this.header(AstFormat.LET, node.token());
+                this.node(node.name());
+                this.node(node.value());
+            }
+            case ReturnStatement node -> {
+                this.header(AstFormat.RETURN, node.token());
+                this.node(node.returnValue());
+            }
+            case ExpressionStatement node -> {
+                this.header(AstFormat.EXPRESSION_STATEMENT, node.token());
+                this.node(node.expression());
+            }
+            case BlockStatement node -> {
+                this.header(AstFormat.BLOCK, node.token());
+                this.list(node.statements());
+            }
+            case Identifier node -> {
+                this.header(AstFormat.IDENTIFIER, node.token());
+                this.string(node.value());
+            }
+            case IntegerLiteral node -> {
+                this.header(AstFormat.INTEGER, node.token());
+                this.write(() -> this.nodes.writeLong(node.value()));
+            }
+            case StringLiteral node -> {
+                this.header(AstFormat.STRING, node.token());
+                this.string(node.value());
+            }
+            case BooleanLiteral node -> {
+                this.header(AstFormat.BOOLEAN, node.token());
+                this.tag((byte) (node.value() ? 1 : 0));
+            }
+            case PrefixExpression node -> {
+                this.header(AstFormat.PREFIX, node.token());
+                this.string(node.operator());
+                this.node(node.right());
+            }
+            case InfixExpression node -> {
+                this.header(AstFormat.INFIX, node.token());
+                this.string(node.operator());
+                this.node(node.left());
+                this.node(node.right());
+            }
+            case IfExpression node -> {
+                this.header(AstFormat.IF, node.token());
+                this.node(node.condition());
+                this.node(node.consequence());
+                this.node(node.alternative());
+            }
+            case FunctionLiteral node -> {
+                this.header(AstFormat.FUNCTION, node.token());
+                this.list(node.parameters());
+                this.node(node.body());
+            }
+            case CallExpression node -> {
+                this.header(AstFormat.CALL, node.token());
+                this.node(node.function());
+                this.list(node.arguments());
+            }
+            case ArrayLiteral node -> {
+                this.header(AstFormat.ARRAY, node.token());
+                this.list(node.elements());
+            }
+            case IndexExpression node -> {
+                this.header(AstFormat.INDEX, node.token());
+                this.node(node.left());
+                this.node(node.index());
+            }
+            case HashLiteral node -> {
+                this.header(AstFormat.HASH, node.token());
+                this.varint(node.pairs().size());
+                node.pairs().forEach((key, value) -> {
+                    this.node(key);
+                    this.node(value);
+                });
+            }
+            default -> throw new IllegalArgumentException("cannot encode " + n.getClass().getSimpleName());
+        }
+    }
+
+    private void header(byte tag, Token token) {
+        this.tag(tag);
+        var index = this.tokens.get(token);
+        if (index == null) {
+            index = this.tokenTable.size();
+            this.tokens.put(token, index);
+            this.tokenTable.add(token);
+            this.index(token.literal());
+        }
+        this.varint(index);
+    }
+
+    private void tag(byte tag) {
+        this.bytes.write(tag);
+    }
+
+    private void string(String string) {
+        this.varint(this.index(string));
+    }
+
+    private int index(String string) {
+        return this.strings.computeIfAbsent(string, s -> {
+            this.stringTable.add(s);
+            return this.stringTable.size() - 1;
+        });
+    }
+
+    private void varint(int value) {
+        this.write(() -> writeVarint(this.nodes, value));
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private interface Write {
+        void run() throws IOException;
+    }
+
+    // the node stream goes to memory, so it cannot actually fail
+    private void write(Write write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
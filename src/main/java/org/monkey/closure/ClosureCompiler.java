@@ -0,0 +1,432 @@
+package org.monkey.closure;
+
+import org.monkey.ast.*;
+import org.monkey.object.Array;
+import org.monkey.object.Boolean;
+import org.monkey.object.BuiltIn;
+import org.monkey.object.Environment;
+import org.monkey.object.Error;
+import org.monkey.object.ErrorSignal;
+import org.monkey.object.Hash;
+import org.monkey.object.HashTable;
+import org.monkey.object.Hashable;
+import org.monkey.object.Integer;
+import org.monkey.object.Invoker;
+import org.monkey.object.Memoized;
+import org.monkey.object.Null;
+import org.monkey.object.Object;
+import org.monkey.object.ReturnSignal;
+import org.monkey.object.Sequence;
+import org.monkey.object.String;
+import org.monkey.resolver.BuiltInIdentifier;
+import org.monkey.resolver.SlotFunctionLiteral;
+import org.monkey.resolver.SlotIdentifier;
+import org.monkey.resolver.SlotLetStatement;
+import org.monkey.resolver.TailCallExpression;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// ClosureCompiler turns a resolved Program into a tree of Code lambdas. The switch over node types runs once,
+// here; each lambda already holds its children and knows its operator, so running the tree is a chain of
+// direct calls. Semantics and error messages are those of org.monkey.evaluator.Evaluator.
+public class ClosureCompiler {
+
+    private static final Object NULL = Null.NULL;
+    private static final Boolean TRUE = Boolean.TRUE;
+    private static final Boolean FALSE = Boolean.FALSE;
+    // how builtins call the functions they are given
+    private static final Invoker INVOKER = ClosureCompiler::call;
+
+    public Code compile(Program program) {
+        var body = this.block(program.statements);
+        return frame -> {
+            try {
+                return body.run(frame);
+            } catch (ReturnSignal signal) {
+                return signal.value;
+            } catch (ErrorSignal signal) {
+                return signal.error;
+            }
+        };
+    }
+
+    private Code block(List<Statement> statements) {
+        var codes = statements.stream().map(this::statement).toArray(Code[]::new);
+        return switch (codes.length) {
+            case 0 -> frame -> null;
+            case 1 -> codes[0];
+            case 2 -> {
+                var first = codes[0];
+                var second = codes[1];
+                yield frame -> {
+                    first.run(frame);
+                    return second.run(frame);
+                };
+            }
+            default -> frame -> {
+                Object result = null;
+                for (Code code : codes) {
+                    result = code.run(frame);
+                }
+                return result;
+            };
+        };
+    }
+
+    private Code statement(Statement statement) {
+        return switch (statement) {
+            case SlotLetStatement node -> {
+                var value = this.expression(node.value());
+                var slot = node.slot();
+                yield frame -> {
+                    frame.set(slot, value.run(frame));
+                    return null;
+                };
+            }
+            case ReturnStatement node -> {
+                var value = this.expression(node.returnValue());
+                yield frame -> {
+                    throw new ReturnSignal(value.run(frame));
+                };
+            }
+            case ExpressionStatement node -> this.expression(node.expression());
+            case BlockStatement node -> this.block(node.statements());
+            default -> throw new IllegalStateException("Unexpected value: " + statement.getClass());
+        };
+    }
+
+    private Code expression(Expression expression) {
+        return switch (expression) {
+            case IntegerLiteral node -> {
+                var value = Integer.valueOf(node.value());
+                yield frame -> value;
+            }
+            case StringLiteral node -> {
+                var value = new String(node.value());
+                yield frame -> value;
+            }
+            case BooleanLiteral node -> {
+                var value = bool(node.value());
+                yield frame -> value;
+            }
+            case PrefixExpression node -> this.prefix(node);
+            case InfixExpression node -> this.infix(node);
+            case IfExpression node -> this.ifExpression(node);
+            case SlotIdentifier node -> this.identifier(node);
+            case BuiltInIdentifier node -> {
+                var builtIn = node.builtIn();
+                yield frame -> builtIn;
+            }
+            case SlotFunctionLiteral node -> {
+                var body = this.functionBody(node.body());
+                yield frame -> new ClosureFunction(node, body, frame);
+            }
+            case CallExpression node -> this.call(node.function(), node.arguments());
+            case TailCallExpression node -> this.tailCall(node.function(), node.arguments());
+            case ArrayLiteral node -> {
+                var elements = this.expressions(node.elements());
+                yield frame -> new Array(Arrays.asList(runAll(elements, frame)));
+            }
+            case IndexExpression node -> {
+                var left = this.expression(node.left());
+                var index = this.expression(node.index());
+                yield frame -> index(left.run(frame), index.run(frame));
+            }
+            case HashLiteral node -> this.hash(node);
+            default -> throw new IllegalStateException("Unexpected value: " + expression.getClass());
+        };
+    }
+
+    // a return as the last statement of a body needs no unwinding
+    private Code functionBody(BlockStatement body) {
+        var statements = body.statements();
+        if (!statements.isEmpty() && statements.getLast() instanceof ReturnStatement last) {
+            var init = this.block(statements.subList(0, statements.size() - 1));
+            var value = this.expression(last.returnValue());
+            return frame -> {
+                init.run(frame);
+                return value.run(frame);
+            };
+        }
+        return this.block(statements);
+    }
+
+    private Code prefix(PrefixExpression node) {
+        var right = this.expression(node.right());
+        return switch (node.operator()) {
+            case "!" -> frame -> {
+                var value = right.run(frame);
+                return bool(value == FALSE || value == NULL);
+            };
+            case "-" -> frame -> {
+                var value = right.run(frame);
+                if (value instanceof Integer integer) {
+                    return Integer.valueOf(-integer.value());
+                }
+                throw ErrorSignal.of("unknown operator: -%s", value.type().value());
+            };
+            default -> throw new IllegalArgumentException("unknown operator: " + node.operator());
+        };
+    }
+
+    private Code infix(InfixExpression node) {
+        var left = this.expression(node.left());
+        var right = this.expression(node.right());
+        var operator = node.operator();
+        return switch (operator) {
+            case "+" -> frame -> {
+                var l = left.run(frame);
+                var r = right.run(frame);
+                if (l instanceof Integer a && r instanceof Integer b) {
+                    return Integer.valueOf(a.value() + b.value());
+                }
+                if (l instanceof String a && r instanceof String b) {
+                    return a.concat(b);
+                }
+                return mixed(operator, l, r);
+            };
+            case "-" -> frame -> {
+                var l = left.run(frame);
+                var r = right.run(frame);
+                if (l instanceof Integer a && r instanceof Integer b) {
+                    return Integer.valueOf(a.value() - b.value());
+                }
+                return mixed(operator, l, r);
+            };
+            case "*" -> frame -> {
+                var l = left.run(frame);
+                var r = right.run(frame);
+                if (l instanceof Integer a && r instanceof Integer b) {
+                    return Integer.valueOf(a.value() * b.value());
+                }
+                return mixed(operator, l, r);
+            };
+            case "/" -> frame -> {
+                var l = left.run(frame);
+                var r = right.run(frame);
+                if (l instanceof Integer a && r instanceof Integer b) {
+                    return Integer.valueOf(a.value() / b.value());
+                }
+                return mixed(operator, l, r);
+            };
+            case "<" -> frame -> {
+                var l = left.run(frame);
+                var r = right.run(frame);
+                if (l instanceof Integer a && r instanceof Integer b) {
+                    return bool(a.value() < b.value());
+                }
+                return mixed(operator, l, r);
+            };
+            case ">" -> frame -> {
+                var l = left.run(frame);
+                var r = right.run(frame);
+                if (l instanceof Integer a && r instanceof Integer b) {
+                    return bool(a.value() > b.value());
+                }
+                return mixed(operator, l, r);
+            };
+            case "==" -> frame -> {
+                var l = left.run(frame);
+                var r = right.run(frame);
+                if (l instanceof Integer a && r instanceof Integer b) {
+                    return bool(a.value() == b.value());
+                }
+                return mixed(operator, l, r);
+            };
+            case "!=" -> frame -> {
+                var l = left.run(frame);
+                var r = right.run(frame);
+                if (l instanceof Integer a && r instanceof Integer b) {
+                    return bool(a.value() != b.value());
+                }
+                return mixed(operator, l, r);
+            };
+            default -> throw new IllegalArgumentException("unknown operator: " + operator);
+        };
+    }
+
+    // every combination of operands that is not two integers
+    private static Object mixed(java.lang.String operator, Object left, Object right) {
+        if (left instanceof String && right instanceof String) {
+            throw ErrorSignal.of("unknown operator: %s %s %s", left.type().value(), operator, right.type().value());
+        }
+        if (operator.equals("==")) {
+            return bool(left.equals(right));
+        }
+        if (operator.equals("!=")) {
+            return bool(!left.equals(right));
+        }
+        if (left.type() != right.type()) {
+            throw ErrorSignal.of("type mismatch: %s %s %s", left.type().value(), operator, right.type().value());
+        }
+        throw ErrorSignal.of("unknown operator: %s %s %s", left.type().value(), operator, right.type().value());
+    }
+
+    private Code ifExpression(IfExpression node) {
+        var condition = this.expression(node.condition());
+        var consequence = this.block(node.consequence().statements());
+        if (node.alternative() == null) {
+            return frame -> isTruthy(condition.run(frame))
+                    ? consequence.run(frame)
+                    : NULL;
+        }
+        var alternative = this.block(node.alternative().statements());
+        return frame -> isTruthy(condition.run(frame))
+                ? consequence.run(frame)
+                : alternative.run(frame);
+    }
+
+    private Code identifier(SlotIdentifier node) {
+        var depth = node.depth();
+        var slot = node.slot();
+        var name = node.string();
+        var fallback = node.fallback() == null
+                ? null
+                : this.expression(node.fallback());
+        if (depth == 0) {
+            return frame -> {
+                var value = frame.get(0, slot);
+                if (value == null) {
+                    return unset(name, fallback, frame);
+                }
+                return value;
+            };
+        }
+        return frame -> {
+            var value = frame.get(depth, slot);
+            if (value == null) {
+                return unset(name, fallback, frame);
+            }
+            return value;
+        };
+    }
+
+    // the value of a name whose slot is unset: its next binding out, if it has one
+    private static Object unset(java.lang.String name, Code fallback, Environment frame) {
+        if (fallback == null) {
+            throw ErrorSignal.of("identifier not found: %s", name);
+        }
+        return fallback.run(frame);
+    }
+
+    private Code call(Expression function, List<Expression> arguments) {
+        var callee = this.expression(function);
+        var args = this.expressions(arguments);
+        return frame -> call(callee.run(frame), runAll(args, frame));
+    }
+
+    // the resolver only marks calls inside function bodies, so a TailCall always reaches the loop in call()
+    private Code tailCall(Expression function, List<Expression> arguments) {
+        var callee = this.expression(function);
+        var args = this.expressions(arguments);
+        return frame -> {
+            var fn = callee.run(frame);
+            var values = runAll(args, frame);
+            return fn instanceof ClosureFunction closure
+                    ? new TailCall(closure, values)
+                    : call(fn, values);
+        };
+    }
+
+    static Object call(Object callee, Object[] args) {
+        return switch (callee) {
+            case ClosureFunction fn -> {
+                var result = apply(fn, args);
+                while (result instanceof TailCall next) {
+                    result = apply(next.function(), next.args());
+                }
+                yield result;
+            }
+            case Memoized memoized -> memoized.call(Arrays.asList(args), () -> call(memoized.function(), args));
+            case BuiltIn builtIn -> {
+                var result = builtIn.fn().call(INVOKER, args);
+                if (result instanceof Error error) {
+                    throw new ErrorSignal(error);
+                }
+                yield result;
+            }
+            default -> throw ErrorSignal.of("not a function: %s", callee.type());
+        };
+    }
+
+    private static Object apply(ClosureFunction fn, Object[] args) {
+        var literal = fn.literal();
+        var calleeFrame = new Environment(fn.env(), literal.frameSize());
+        for (int i = 0; i < literal.parameters().size(); i++) {
+            calleeFrame.set(i, args[i]);
+        }
+        try {
+            return fn.body().run(calleeFrame);
+        } catch (ReturnSignal signal) {
+            return signal.value;
+        }
+    }
+
+    private static Object index(Object left, Object index) {
+        if (left instanceof Array array && index instanceof Integer integer) {
+            var element = array.at(integer.value());
+            return element == null ? NULL : element;
+        }
+        if (left instanceof Sequence sequence && index instanceof Integer integer) {
+            var element = sequence.at(INVOKER, integer.value());
+            return element == null ? NULL : element;
+        }
+        if (left instanceof Hash hash) {
+            if (!(index instanceof Hashable key)) {
+                throw ErrorSignal.of("unusable as hash key: %s", index.type().value());
+            }
+            var value = hash.get(key);
+            return value == null
+                    ? NULL
+                    : value;
+        }
+        throw ErrorSignal.of("index operator not supported: %s", left.type().value());
+    }
+
+    private Code hash(HashLiteral node) {
+        var keys = new Code[node.pairs().size()];
+        var values = new Code[keys.length];
+        var n = 0;
+        for (Map.Entry<Expression, Expression> pair : node.pairs().entrySet()) {
+            keys[n] = this.expression(pair.getKey());
+            values[n] = this.expression(pair.getValue());
+            n++;
+        }
+        return frame -> {
+            var hash = new HashTable(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                var key = keys[i].run(frame);
+                if (!(key instanceof Hashable hashKey)) {
+                    throw ErrorSignal.of("unusable as hash key: %s", key.type().value());
+                }
+                var value = values[i].run(frame);
+                hash.put(hashKey, value);
+            }
+            return hash;
+        };
+    }
+
+    private Code[] expressions(List<Expression> expressions) {
+        return expressions.stream().map(this::expression).toArray(Code[]::new);
+    }
+
+    private static Object[] runAll(Code[] codes, Environment frame) {
+        var values = new Object[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            values[i] = codes[i].run(frame);
+        }
+        return values;
+    }
+
+    private static Boolean bool(boolean value) {
+        return value
+                ? TRUE
+                : FALSE;
+    }
+
+    private static boolean isTruthy(Object obj) {
+        return !obj.equals(NULL) && !obj.equals(FALSE);
+    }
+}
@@ -0,0 +1,19 @@
+package org.monkey.closure;
+
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+import org.monkey.object.ObjectType;
+import org.monkey.resolver.SlotFunctionLiteral;
+
+// a function value of the closure backend: the body is compiled once per literal and shared by its closures
+public record ClosureFunction(SlotFunctionLiteral literal, Code body, Environment env) implements Object {
+    @Override
+    public ObjectType type() {
+        return ObjectType.FUNCTION_OBJ;
+    }
+
+    @Override
+    public java.lang.String inspect() {
+        return this.literal.string();
+    }
+}
@@ -0,0 +1,10 @@
+package org.monkey.closure;
+
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+
+// one compiled node: its children and operator are captured when it is made, so running it dispatches on nothing
+@FunctionalInterface
+public interface Code {
+    Object run(Environment frame);
+}
@@ -0,0 +1,18 @@
+package org.monkey.closure;
+
+import org.monkey.object.Object;
+import org.monkey.object.ObjectType;
+
+// what a call in tail position evaluates to: the callee and its arguments, handed back to the enclosing
+// call so it runs in a loop there instead of on top of the caller's Java frame
+record TailCall(ClosureFunction function, Object[] args) implements Object {
+    @Override
+    public ObjectType type() {
+        return ObjectType.RETURN_VALUE_OBJ;
+    }
+
+    @Override
+    public java.lang.String inspect() {
+        return "tail call";
+    }
+}
@@ -1,4 +0,0 @@
-package org.monkey.common;
-
-public record Tuple<V, B>(V value, B ok) {
-}
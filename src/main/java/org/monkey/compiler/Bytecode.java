@@ -0,0 +1,9 @@
+package org.monkey.compiler;
+
+import org.monkey.object.Object;
+
+import java.util.List;
+
+// globals carries the name of every global slot, so the VM can report reads of unset globals
+public record Bytecode(byte[] instructions, List<Object> constants, List<String> globals) {
+}
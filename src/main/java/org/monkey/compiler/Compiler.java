@@ -0,0 +1,347 @@
+package org.monkey.compiler;
+
+import org.monkey.ast.*;
+import org.monkey.object.BuiltIns;
+import org.monkey.object.CompiledFunction;
+import org.monkey.object.Integer;
+import org.monkey.object.Object;
+import org.monkey.object.String;
+import org.monkey.resolver.Resolver;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class Compiler {
+
+    private static class CompilationScope {
+        private final ByteArrayOutputStream instructions = new ByteArrayOutputStream();
+        private Opcode lastOpcode;
+        private int lastPosition = -1;
+        private Opcode previousOpcode;
+        private int previousPosition = -1;
+    }
+
+    private final List<Object> constants;
+    private SymbolTable symbolTable;
+    private final List<CompilationScope> scopes = new ArrayList<>();
+
+    public Compiler() {
+        this(newSymbolTable(), new ArrayList<>());
+    }
+
+    public Compiler(SymbolTable symbolTable, List<Object> constants) {
+        this.symbolTable = symbolTable;
+        this.constants = constants;
+        this.scopes.add(new CompilationScope());
+    }
+
+    public static SymbolTable newSymbolTable() {
+        var symbolTable = new SymbolTable();
+        for (int i = 0; i < BuiltIns.definitions.size(); i++) {
+            symbolTable.defineBuiltin(i, BuiltIns.definitions.get(i).name());
+        }
+        return symbolTable;
+    }
+
+    public Bytecode bytecode() {
+        return new Bytecode(this.currentScope().instructions.toByteArray(),
+                            this.constants,
+                            this.symbolTable.root().globals());
+    }
+
+    public void compile(Node n) {
+        switch (n) {
+            case Program node -> {
+                for (java.lang.String name : Resolver.letNames(node.statements)) {
+                    this.symbolTable.reserve(name);
+                }
+                for (Statement statement : node.statements) {
+                    this.compile(statement);
+                }
+            }
+            case BlockStatement node -> {
+                for (Statement statement : node.statements()) {
+                    this.compile(statement);
+                }
+            }
+            case ExpressionStatement node -> {
+                this.compile(node.expression());
+                this.emit(Opcode.POP);
+            }
+            case ReturnStatement node -> {
+                this.compile(node.returnValue());
+                this.emit(Opcode.RETURN_VALUE);
+            }
+            case LetStatement node -> {
+                this.compile(node.value());
+                var symbol = this.symbolTable.define(node.name().value());
+                if (symbol.scope() == SymbolScope.GLOBAL) {
+                    this.emit(Opcode.SET_GLOBAL, symbol.index());
+                } else {
+                    this.emit(Opcode.SET_LOCAL, symbol.index());
+                }
+            }
+            case IntegerLiteral node -> this.emit(Opcode.CONSTANT, this.addConstant(Integer.valueOf(node.value())));
+            case StringLiteral node -> this.emit(Opcode.CONSTANT, this.addConstant(new String(node.value())));
+            case BooleanLiteral node -> this.emit(node.value()
+                                                          ? Opcode.TRUE
+                                                          : Opcode.FALSE);
+            case PrefixExpression node -> {
+                this.compile(node.right());
+                switch (node.operator()) {
+                    case "!" -> this.emit(Opcode.BANG);
+                    case "-" -> this.emit(Opcode.MINUS);
+                    default -> throw new IllegalStateException("unknown operator: " + node.operator());
+                }
+            }
+            case InfixExpression node -> {
+                this.compile(node.left());
+                this.compile(node.right());
+                switch (node.operator()) {
+                    case "+" -> this.emit(Opcode.ADD);
+                    case "-" -> this.emit(Opcode.SUB);
+                    case "*" -> this.emit(Opcode.MUL);
+                    case "/" -> this.emit(Opcode.DIV);
+                    case ">" -> this.emit(Opcode.GREATER_THAN);
+                    case "<" -> this.emit(Opcode.LESS_THAN);
+                    case "==" -> this.emit(Opcode.EQUAL);
+                    case "!=" -> this.emit(Opcode.NOT_EQUAL);
+                    default -> throw new IllegalStateException("unknown operator: " + node.operator());
+                }
+            }
+            case IfExpression node -> this.compileIfExpression(node);
+            case Identifier node -> this.loadName(node.value());
+            case FunctionLiteral node -> this.compileFunctionLiteral(node);
+            case CallExpression node -> {
+                this.compile(node.function());
+                for (Expression argument : node.arguments()) {
+                    this.compile(argument);
+                }
+                this.emit(Opcode.CALL, node.arguments().size());
+            }
+            case ArrayLiteral node -> {
+                for (Expression element : node.elements()) {
+                    this.compile(element);
+                }
+                this.emit(Opcode.ARRAY, node.elements().size());
+            }
+            case HashLiteral node -> {
+                for (Map.Entry<Expression, Expression> entry : node.pairs().entrySet()) {
+                    this.compile(entry.getKey());
+                    this.compile(entry.getValue());
+                }
+                this.emit(Opcode.HASH, node.pairs().size() * 2);
+            }
+            case IndexExpression node -> {
+                this.compile(node.left());
+                this.compile(node.index());
+                this.emit(Opcode.INDEX);
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + n.getClass());
+        }
+    }
+
+    private void compileIfExpression(IfExpression node) {
+        this.compile(node.condition());
+
+        var jumpNotTruthyPosition = this.emit(Opcode.JUMP_NOT_TRUTHY, 9999);
+        this.compileBranch(node.consequence());
+
+        var jumpPosition = this.emit(Opcode.JUMP, 9999);
+        this.changeOperand(jumpNotTruthyPosition, this.currentScope().instructions.size());
+
+        if (node.alternative() == null) {
+            this.emit(Opcode.NULL);
+        } else {
+            this.compileBranch(node.alternative());
+        }
+        this.changeOperand(jumpPosition, this.currentScope().instructions.size());
+    }
+
+    // a branch leaves exactly one value on the stack: its last expression, or null when it ends in a let
+    private void compileBranch(BlockStatement block) {
+        if (block == null) {
+            this.emit(Opcode.NULL);
+            return;
+        }
+        this.compile(block);
+        if (this.lastInstructionIs(Opcode.POP)) {
+            this.removeLastInstruction();
+        } else if (!this.lastInstructionIs(Opcode.RETURN_VALUE)) {
+            this.emit(Opcode.NULL);
+        }
+    }
+
+    // a function refers to itself through the binding its let made, like any other name, so rebinding that
+    // name changes what its recursive calls reach
+    private void compileFunctionLiteral(FunctionLiteral node) {
+        this.enterScope();
+
+        for (Identifier parameter : node.parameters()) {
+            this.symbolTable.define(parameter.value());
+        }
+        if (node.body() != null) {
+            for (java.lang.String name : Resolver.letNames(node.body().statements())) {
+                this.symbolTable.reserve(name);
+            }
+            this.compile(node.body());
+        }
+        if (this.lastInstructionIs(Opcode.POP)) {
+            this.replaceLastPopWithReturn();
+        }
+        if (!this.lastInstructionIs(Opcode.RETURN_VALUE)) {
+            this.emit(Opcode.RETURN);
+        }
+
+        var freeSymbols = this.symbolTable.freeSymbols();
+        var numLocals = this.symbolTable.numDefinitions();
+        var localNames = this.symbolTable.locals();
+        var cells = this.symbolTable.captured();
+        var instructions = throughCells(this.leaveScope(), cells);
+
+        // where the closure finds each free cell: a local slot of the frame that creates it, or -1 - i for
+        // that frame's own free cell i
+        var captures = new int[freeSymbols.size()];
+        for (int i = 0; i < captures.length; i++) {
+            var symbol = freeSymbols.get(i);
+            captures[i] = symbol.scope() == SymbolScope.LOCAL
+                    ? symbol.index()
+                    : -1 - symbol.index();
+        }
+
+        var compiledFunction = new CompiledFunction(instructions, numLocals, node.parameters().size(),
+                                                     List.copyOf(localNames),
+                                                     cells.stream().mapToInt(java.lang.Integer::intValue).toArray(),
+                                                     captures);
+        this.emit(Opcode.CLOSURE, this.addConstant(compiledFunction));
+    }
+
+    // a local that a closure captures lives in a cell for the whole call, so every read and write of its slot
+    // goes through the cell; which slots those are is only known once the body is compiled
+    private static byte[] throughCells(byte[] instructions, Set<java.lang.Integer> cells) {
+        var i = 0;
+        while (i < instructions.length) {
+            var op = Opcode.lookup(instructions[i]);
+            var throughCell = switch (op) {
+                case GET_LOCAL -> Opcode.GET_CELL;
+                case SET_LOCAL -> Opcode.SET_CELL;
+                case GET_LOCAL_OR -> Opcode.GET_CELL_OR;
+                default -> null;
+            };
+            if (throughCell != null && cells.contains(Instructions.readUint16(instructions, i + 1))) {
+                instructions[i] = throughCell.code();
+            }
+            i++;
+            for (int width : op.operandWidths()) {
+                i += width;
+            }
+        }
+        return instructions;
+    }
+
+    // names that are not bound anywhere become global slots; reading one before it is set is a runtime error
+    private List<Symbol> resolve(java.lang.String name) {
+        var symbols = this.symbolTable.resolve(name);
+        if (symbols.isEmpty()) {
+            this.symbolTable.root().define(name);
+            symbols = this.symbolTable.resolve(name);
+        }
+        return symbols;
+    }
+
+    // each binding but the last is read with a GET_..._OR that jumps past the rest once it finds a value
+    private void loadName(java.lang.String name) {
+        var symbols = this.resolve(name);
+        var fallbacks = new ArrayList<Symbol>();
+        var positions = new ArrayList<java.lang.Integer>();
+        for (Symbol symbol : symbols.subList(0, symbols.size() - 1)) {
+            var op = switch (symbol.scope()) {
+                case GLOBAL -> Opcode.GET_GLOBAL_OR;
+                case LOCAL -> Opcode.GET_LOCAL_OR;
+                case FREE -> Opcode.GET_FREE_OR;
+                case BUILTIN -> throw new IllegalStateException("builtin before a fallback: " + name);
+            };
+            fallbacks.add(symbol);
+            positions.add(this.emit(op, symbol.index(), 9999));
+        }
+        this.loadSymbol(symbols.getLast());
+
+        var end = this.currentScope().instructions.size();
+        for (int i = 0; i < positions.size(); i++) {
+            this.changeOperand(positions.get(i), fallbacks.get(i).index(), end);
+        }
+    }
+
+    private void loadSymbol(Symbol symbol) {
+        switch (symbol.scope()) {
+            case GLOBAL -> this.emit(Opcode.GET_GLOBAL, symbol.index());
+            case LOCAL -> this.emit(Opcode.GET_LOCAL, symbol.index());
+            case BUILTIN -> this.emit(Opcode.GET_BUILTIN, symbol.index());
+            case FREE -> this.emit(Opcode.GET_FREE, symbol.index());
+        }
+    }
+
+    private int addConstant(Object obj) {
+        this.constants.add(obj);
+        return this.constants.size() - 1;
+    }
+
+    private int emit(Opcode op, int... operands) {
+        var scope = this.currentScope();
+        var position = scope.instructions.size();
+        scope.instructions.writeBytes(Instructions.make(op, operands));
+
+        scope.previousOpcode = scope.lastOpcode;
+        scope.previousPosition = scope.lastPosition;
+        scope.lastOpcode = op;
+        scope.lastPosition = position;
+        return position;
+    }
+
+    private boolean lastInstructionIs(Opcode op) {
+        return this.currentScope().lastOpcode == op;
+    }
+
+    private void removeLastInstruction() {
+        var scope = this.currentScope();
+        var instructions = scope.instructions.toByteArray();
+        scope.instructions.reset();
+        scope.instructions.write(instructions, 0, scope.lastPosition);
+
+        scope.lastOpcode = scope.previousOpcode;
+        scope.lastPosition = scope.previousPosition;
+    }
+
+    private void replaceLastPopWithReturn() {
+        this.removeLastInstruction();
+        this.emit(Opcode.RETURN_VALUE);
+    }
+
+    private void changeOperand(int position, int... operands) {
+        var scope = this.currentScope();
+        var instructions = scope.instructions.toByteArray();
+        var op = Opcode.lookup(instructions[position]);
+        var replacement = Instructions.make(op, operands);
+        System.arraycopy(replacement, 0, instructions, position, replacement.length);
+        scope.instructions.reset();
+        scope.instructions.writeBytes(instructions);
+    }
+
+    private CompilationScope currentScope() {
+        return this.scopes.getLast();
+    }
+
+    private void enterScope() {
+        this.scopes.add(new CompilationScope());
+        this.symbolTable = new SymbolTable(this.symbolTable);
+    }
+
+    private byte[] leaveScope() {
+        var instructions = this.scopes.removeLast().instructions.toByteArray();
+        this.symbolTable = this.symbolTable.outer();
+        return instructions;
+    }
+}
@@ -0,0 +1,74 @@
+package org.monkey.compiler;
+
+import java.io.ByteArrayOutputStream;
+
+public class Instructions {
+
+    public static byte[] make(Opcode op, int... operands) {
+        var widths = op.operandWidths();
+        var length = 1;
+        for (int width : widths) {
+            length += width;
+        }
+
+        var instruction = new byte[length];
+        instruction[0] = op.code();
+
+        var offset = 1;
+        for (int i = 0; i < operands.length; i++) {
+            var width = widths[i];
+            // a value that does not fit would be cut to its low bytes and silently address something else
+            if (operands[i] < 0 || width < 4 && operands[i] >= 1 << 8 * width) {
+                throw new IllegalArgumentException(String.format("operand %d of %s does not fit in %d bytes",
+                                                                 operands[i], op, width));
+            }
+            for (int shift = 8 * (width - 1), at = offset; shift >= 0; shift -= 8, at++) {
+                instruction[at] = (byte) (operands[i] >>> shift);
+            }
+            offset += width;
+        }
+        return instruction;
+    }
+
+    public static int readInt32(byte[] instructions, int offset) {
+        return (instructions[offset] & 0xff) << 24 | (instructions[offset + 1] & 0xff) << 16
+               | (instructions[offset + 2] & 0xff) << 8 | instructions[offset + 3] & 0xff;
+    }
+
+    public static int readUint16(byte[] instructions, int offset) {
+        return (instructions[offset] & 0xff) << 8 | instructions[offset + 1] & 0xff;
+    }
+
+    public static int readUint8(byte[] instructions, int offset) {
+        return instructions[offset] & 0xff;
+    }
+
+    public static byte[] concat(byte[]... instructions) {
+        var out = new ByteArrayOutputStream();
+        for (byte[] instruction : instructions) {
+            out.writeBytes(instruction);
+        }
+        return out.toByteArray();
+    }
+
+    public static String disassemble(byte[] instructions) {
+        var sb = new StringBuilder();
+        var i = 0;
+        while (i < instructions.length) {
+            var op = Opcode.lookup(instructions[i]);
+            sb.append(String.format("%04d %s", i, op));
+            i++;
+            for (int width : op.operandWidths()) {
+                var operand = switch (width) {
+                    case 4 -> readInt32(instructions, i);
+                    case 2 -> readUint16(instructions, i);
+                    default -> readUint8(instructions, i);
+                };
+                sb.append(" ").append(operand);
+                i += width;
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+}
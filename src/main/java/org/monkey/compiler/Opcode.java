@@ -0,0 +1,73 @@
+package org.monkey.compiler;
+
+// pool indexes, global slots, jump targets and element counts take 4 bytes, so no program outgrows them;
+// local slots, free variables and argument counts take 2, and GET_BUILTIN's index into the fixed builtins 1.
+// The GET_..._OR forms read a binding that may be unset and have a fallback: a set value is pushed and the
+// jump taken past the fallbacks, an unset one falls through to the load of the next binding out.
+public enum Opcode {
+    CONSTANT(4),
+    POP,
+
+    ADD,
+    SUB,
+    MUL,
+    DIV,
+
+    TRUE,
+    FALSE,
+    NULL,
+
+    EQUAL,
+    NOT_EQUAL,
+    GREATER_THAN,
+    LESS_THAN,
+
+    MINUS,
+    BANG,
+
+    JUMP_NOT_TRUTHY(4),
+    JUMP(4),
+
+    GET_GLOBAL(4),
+    SET_GLOBAL(4),
+    GET_LOCAL(2),
+    SET_LOCAL(2),
+    GET_BUILTIN(1),
+    GET_FREE(2),
+    GET_CELL(2),
+    SET_CELL(2),
+    GET_GLOBAL_OR(4, 4),
+    GET_LOCAL_OR(2, 4),
+    GET_FREE_OR(2, 4),
+    GET_CELL_OR(2, 4),
+
+    ARRAY(4),
+    HASH(4),
+    INDEX,
+
+    CALL(2),
+    RETURN_VALUE,
+    RETURN,
+
+    CLOSURE(4);
+
+    private static final Opcode[] opcodes = values();
+
+    private final int[] operandWidths;
+
+    Opcode(int... operandWidths) {
+        this.operandWidths = operandWidths;
+    }
+
+    public int[] operandWidths() {
+        return operandWidths;
+    }
+
+    public byte code() {
+        return (byte) this.ordinal();
+    }
+
+    public static Opcode lookup(byte code) {
+        return opcodes[code & 0xff];
+    }
+}
@@ -0,0 +1,4 @@
+package org.monkey.compiler;
+
+public record Symbol(String name, SymbolScope scope, int index) {
+}
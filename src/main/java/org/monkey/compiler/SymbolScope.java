@@ -0,0 +1,8 @@
+package org.monkey.compiler;
+
+public enum SymbolScope {
+    GLOBAL,
+    LOCAL,
+    BUILTIN,
+    FREE
+}
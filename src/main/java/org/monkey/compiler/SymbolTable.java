@@ -0,0 +1,156 @@
+package org.monkey.compiler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Scoping works as in org.monkey.resolver.Resolver: the code of a scope only sees a name of that scope once its
+// let has run, while an enclosed function sees every name of the scopes around it, because it reads them when
+// it is called. Names are reserved ahead of their let so that both views address the same slot. A slot may
+// still be unset when it is read, so a name resolves to every binding it can see, and the first that is set
+// is the one read.
+public class SymbolTable {
+
+    private final SymbolTable outer;
+    private final Map<String, Symbol> store = new HashMap<>();
+    private final Map<String, Symbol> builtins = new HashMap<>();
+    // keyed by the symbol of the enclosing table, since one name can be free through two of its bindings
+    private final Map<Symbol, Symbol> free = new HashMap<>();
+    private final Set<String> reserved = new HashSet<>();
+    private final Set<java.lang.Integer> captured = new TreeSet<>();
+    private final List<Symbol> freeSymbols = new ArrayList<>();
+    private final List<String> globals = new ArrayList<>();
+    private final List<String> locals = new ArrayList<>();
+    private int numDefinitions;
+
+    public SymbolTable() {
+        this.outer = null;
+    }
+
+    public SymbolTable(SymbolTable outer) {
+        this.outer = outer;
+    }
+
+    public SymbolTable outer() {
+        return outer;
+    }
+
+    public SymbolTable root() {
+        var table = this;
+        while (table.outer != null) {
+            table = table.outer;
+        }
+        return table;
+    }
+
+    public List<Symbol> freeSymbols() {
+        return freeSymbols;
+    }
+
+    public int numDefinitions() {
+        return numDefinitions;
+    }
+
+    public List<String> globals() {
+        return globals;
+    }
+
+    // the name of every local slot, so the VM can report reads of unset locals
+    public List<String> locals() {
+        return locals;
+    }
+
+    // the local slots an enclosed function reads, in order; they live in cells shared with its closures
+    public Set<java.lang.Integer> captured() {
+        return captured;
+    }
+
+    // redefining a name in the same scope reuses its slot, like a second `let` on the same Environment
+    public Symbol define(String name) {
+        this.reserved.remove(name);
+        return this.slot(name);
+    }
+
+    // gives a name its slot before its let runs; until then only enclosed functions see it
+    public Symbol reserve(String name) {
+        if (!this.store.containsKey(name)) {
+            this.reserved.add(name);
+        }
+        return this.slot(name);
+    }
+
+    private Symbol slot(String name) {
+        var scope = this.outer == null
+                ? SymbolScope.GLOBAL
+                : SymbolScope.LOCAL;
+        var existing = this.store.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        var symbol = new Symbol(name, scope, this.numDefinitions++);
+        if (scope == SymbolScope.GLOBAL) {
+            this.globals.add(name);
+        } else {
+            this.locals.add(name);
+        }
+        this.store.put(name, symbol);
+        return symbol;
+    }
+
+    public Symbol defineBuiltin(int index, String name) {
+        var symbol = new Symbol(name, SymbolScope.BUILTIN, index);
+        this.builtins.put(name, symbol);
+        return symbol;
+    }
+
+    // the bindings name refers to, innermost first; empty when it is bound nowhere
+    public List<Symbol> resolve(String name) {
+        return this.resolve(name, false);
+    }
+
+    // enclosed is set when the lookup comes from a function inside this scope
+    private List<Symbol> resolve(String name, boolean enclosed) {
+        var symbols = new ArrayList<Symbol>();
+        var symbol = this.store.get(name);
+        var visible = symbol != null && (enclosed || !this.reserved.contains(name));
+        if (visible) {
+            symbols.add(symbol);
+        }
+        if (this.outer == null) {
+            var builtin = this.builtins.get(name);
+            if (builtin != null) {
+                symbols.add(builtin);
+            } else if (symbol != null && !visible) {
+                // a global read before its let: the slot reports the name as not found
+                symbols.add(symbol);
+            }
+            return symbols;
+        }
+
+        for (Symbol outerSymbol : this.outer.resolve(name, true)) {
+            symbols.add(outerSymbol.scope() == SymbolScope.GLOBAL || outerSymbol.scope() == SymbolScope.BUILTIN
+                                ? outerSymbol
+                                : this.defineFree(outerSymbol));
+        }
+        return symbols;
+    }
+
+    private Symbol defineFree(Symbol original) {
+        var existing = this.free.get(original);
+        if (existing != null) {
+            return existing;
+        }
+        if (original.scope() == SymbolScope.LOCAL) {
+            this.outer.captured.add(original.index());
+        }
+        this.freeSymbols.add(original);
+        var symbol = new Symbol(original.name(), SymbolScope.FREE, this.freeSymbols.size() - 1);
+        this.free.put(original, symbol);
+        return symbol;
+    }
+}
@@ -0,0 +1,19 @@
+package org.monkey.engine;
+
+import org.monkey.ast.Program;
+import org.monkey.closure.ClosureCompiler;
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+import org.monkey.resolver.Resolver;
+
+public class ClosureEngine implements Engine {
+
+    private final ClosureCompiler compiler = new ClosureCompiler();
+    private final Environment env = new Environment();
+
+    @Override
+    public Object run(Program program) {
+        var resolved = new Resolver(this.env).resolve(program);
+        return this.compiler.compile(resolved).run(this.env);
+    }
+}
@@ -0,0 +1,32 @@
+package org.monkey.engine;
+
+import org.monkey.ast.Program;
+import org.monkey.evaluator.Evaluator;
+import org.monkey.jit.Jit;
+import org.monkey.memo.Memoizer;
+import org.monkey.object.Object;
+
+// an execution engine keeps its global state between runs, so a REPL can feed it one program per line
+public interface Engine {
+
+    Object run(Program program);
+
+    static Engine of(String name) {
+        return of(name, null);
+    }
+
+    // only the evaluator engines memoize pure functions on their own; the others honour explicit memo(fn)
+    static Engine of(String name, Memoizer memoizer) {
+        if (memoizer != null && !name.equals("eval") && !name.equals("jit")) {
+            throw new IllegalArgumentException("engine does not memoize: " + name);
+        }
+        return switch (name) {
+            case "eval" -> new EvaluatorEngine(new Evaluator(null, memoizer));
+            case "jit" -> new EvaluatorEngine(new Evaluator(new Jit(), memoizer));
+            case "vm" -> new VmEngine();
+            case "nodes" -> new InterpreterEngine();
+            case "closures" -> new ClosureEngine();
+            default -> throw new IllegalArgumentException("unknown engine: " + name);
+        };
+    }
+}
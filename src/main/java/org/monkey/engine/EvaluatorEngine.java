@@ -0,0 +1,25 @@
+package org.monkey.engine;
+
+import org.monkey.ast.Program;
+import org.monkey.evaluator.Evaluator;
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+
+public class EvaluatorEngine implements Engine {
+
+    private final Evaluator evaluator;
+    private final Environment env = new Environment();
+
+    public EvaluatorEngine() {
+        this(new Evaluator());
+    }
+
+    public EvaluatorEngine(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    @Override
+    public Object run(Program program) {
+        return this.evaluator.eval(program, this.env);
+    }
+}
@@ -0,0 +1,17 @@
+package org.monkey.engine;
+
+import org.monkey.ast.Program;
+import org.monkey.interpreter.Interpreter;
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+
+public class InterpreterEngine implements Engine {
+
+    private final Interpreter interpreter = new Interpreter();
+    private final Environment env = new Environment();
+
+    @Override
+    public Object run(Program program) {
+        return this.interpreter.eval(program, this.env);
+    }
+}
@@ -0,0 +1,22 @@
+package org.monkey.engine;
+
+import org.monkey.ast.Program;
+import org.monkey.object.Object;
+import org.monkey.optimizer.Optimizer;
+
+// runs the optimizer over every program before handing it to another engine
+public class OptimizingEngine implements Engine {
+
+    private final Engine engine;
+    private final Optimizer optimizer;
+
+    public OptimizingEngine(Engine engine, Optimizer optimizer) {
+        this.engine = engine;
+        this.optimizer = optimizer;
+    }
+
+    @Override
+    public Object run(Program program) {
+        return this.engine.run(this.optimizer.optimize(program));
+    }
+}
@@ -0,0 +1,30 @@
+package org.monkey.engine;
+
+import org.monkey.ast.Program;
+import org.monkey.compiler.Compiler;
+import org.monkey.compiler.SymbolTable;
+import org.monkey.object.Object;
+import org.monkey.vm.VM;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class VmEngine implements Engine {
+
+    private final SymbolTable symbolTable = Compiler.newSymbolTable();
+    private final List<Object> constants = new ArrayList<>();
+    private Object[] globals = new Object[VM.GLOBALS_SIZE];
+
+    @Override
+    public Object run(Program program) {
+        var compiler = new Compiler(this.symbolTable, this.constants);
+        compiler.compile(program);
+        var bytecode = compiler.bytecode();
+        // the slots of earlier runs move along, so the names they defined keep their values
+        if (bytecode.globals().size() > this.globals.length) {
+            this.globals = Arrays.copyOf(this.globals, Math.max(bytecode.globals().size(), this.globals.length * 2));
+        }
+        return new VM(bytecode, this.globals).run();
+    }
+}
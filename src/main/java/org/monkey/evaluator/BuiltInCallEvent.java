@@ -0,0 +1,24 @@
+package org.monkey.evaluator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// a call of a builtin, for JDK Flight Recorder
+@Name("org.monkey.BuiltInCall")
+@Label("Builtin Call")
+@Category({ "Monkey", "Evaluator" })
+@Description("A call of a builtin function")
+@StackTrace(false)
+@Threshold("1 ms")
+final class BuiltInCallEvent extends jdk.jfr.Event {
+
+    @Label("Builtin")
+    String builtIn;
+
+    @Label("Arguments")
+    int arguments;
+}
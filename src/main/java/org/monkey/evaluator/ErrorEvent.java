@@ -0,0 +1,19 @@
+package org.monkey.evaluator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// a Monkey runtime error as it is raised, for JDK Flight Recorder
+@Name("org.monkey.Error")
+@Label("Error")
+@Category({ "Monkey", "Evaluator" })
+@Description("A runtime error raised by a Monkey program")
+@StackTrace(false)
+final class ErrorEvent extends jdk.jfr.Event {
+
+    @Label("Message")
+    String message;
+}
@@ -1,6 +1,8 @@
 package org.monkey.evaluator;
 
 import org.monkey.ast.*;
+import org.monkey.jit.Jit;
+import org.monkey.memo.Memoizer;
 import org.monkey.object.Array;
 import org.monkey.object.Boolean;
 import org.monkey.object.BuiltIn;
@@ -8,206 +10,193 @@ import org.monkey.object.Environment;
 import org.monkey.object.Error;
 import org.monkey.object.Function;
 import org.monkey.object.Hash;
-import org.monkey.object.HashKey;
-import org.monkey.object.HashPair;
+import org.monkey.object.HashTable;
 import org.monkey.object.Hashable;
 import org.monkey.object.Integer;
+import org.monkey.object.Invoker;
+import org.monkey.object.Memoized;
 import org.monkey.object.Null;
 import org.monkey.object.Object;
 import org.monkey.object.ObjectType;
-import org.monkey.object.ReturnValue;
+import org.monkey.object.Sequence;
 import org.monkey.object.String;
+import org.monkey.resolver.BuiltInIdentifier;
+import org.monkey.resolver.Resolver;
+import org.monkey.resolver.SlotFunctionLiteral;
+import org.monkey.resolver.SlotIdentifier;
+import org.monkey.resolver.SlotLetStatement;
+import org.monkey.resolver.TailCallExpression;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 public class Evaluator {
 
-    private static final Object NULL = new Null();
-    private static final Boolean TRUE = new Boolean(true);
-    private static final Boolean FALSE = new Boolean(false);
+    private static final Object NULL = Null.NULL;
+    private static final Boolean TRUE = Boolean.TRUE;
+    private static final Boolean FALSE = Boolean.FALSE;
 
-    private static final Map<java.lang.String, BuiltIn> builtIns = Map.ofEntries(
-            Map.entry("len", new BuiltIn(args -> {
-                if (args.length != 1) {
-                    return newError("wrong number of arguments. got=%d, want=1", args.length);
-                }
-                var arg = args[0];
-                if (arg instanceof Array arr) {
-                    return new Integer(arr.elements().size());
-                } else if (arg instanceof String str) {
-                    return new Integer(str.value().length());
-                } else {
-                    return newError("argument to `len` not supported, got %s", arg.type().value());
-                }
-            })),
-            Map.entry("puts", new BuiltIn(args -> {
-                for (Object arg : args) {
-                    System.out.println(arg.inspect());
-                }
-                return NULL;
-            })),
-            Map.entry("first", new BuiltIn(args -> {
-                if (args.length != 1) {
-                    return newError("wrong number of arguments. got=%d, want=1", args.length);
-                }
-                var arg = args[0];
-                if (arg.type() != ObjectType.ARRAY_OBJ) {
-                    return newError("argument to `first` must be ARRAY, got %s", arg.type().value());
-                }
-                if (arg instanceof Array arr) {
-                    if (arr.elements().isEmpty()) { return NULL; }
-                    return arr.elements().getFirst();
-                }
+    // unwinds a Monkey runtime error to the program. Only thrown once an error has happened, so the evaluation
+    // itself never checks for errors; it carries no stack trace, so throwing it is cheap.
+    private static final class ErrorSignal extends RuntimeException {
+        private final Error error;
 
-                return NULL;
-            })),
-            Map.entry("last", new BuiltIn(args -> {
-                if (args.length != 1) {
-                    return newError("wrong number of arguments. got=%d, want=1", args.length);
-                }
-                var arg = args[0];
-                if (arg.type() != ObjectType.ARRAY_OBJ) {
-                    return newError("argument to `last` must be ARRAY, got %s", arg.type().value());
-                }
-                if (arg instanceof Array arr) {
-                    if (arr.elements().isEmpty()) { return NULL; }
-                    return arr.elements().getLast();
-                }
+        private ErrorSignal(Error error) {
+            super(null, null, false, false);
+            this.error = error;
 
-                return NULL;
-            })),
-            Map.entry("rest", new BuiltIn(args -> {
-                if (args.length != 1) {
-                    return newError("wrong number of arguments. got=%d, want=1", args.length);
-                }
-                var arg = args[0];
-                if (arg.type() != ObjectType.ARRAY_OBJ) {
-                    return newError("argument to `rest` must be ARRAY, got %s", arg.type().value());
-                }
-                if (arg instanceof Array arr) {
-                    if (arr.elements().isEmpty()) { return NULL; }
-                    return new Array(arr.elements().subList(1, arr.elements().size()));
-                }
+            var event = new ErrorEvent();
+            if (event.shouldCommit()) {
+                event.message = error.message().value();
+                event.commit();
+            }
+        }
+    }
 
-                return NULL;
-            })),
-            Map.entry("push", new BuiltIn(args -> {
-                if (args.length != 2) {
-                    return newError("wrong number of arguments. got=%d, want=2", args.length);
-                }
-                var arg = args[0];
-                if (arg.type() != ObjectType.ARRAY_OBJ) {
-                    return newError("argument to `push` must be ARRAY, got %s", arg.type().value());
-                }
-                if (arg instanceof Array arr) {
-                    var elements = new ArrayList<>(arr.elements());
-                    elements.add(args[1]);
-                    return new Array(elements);
-                }
+    // unwinds a return out of an if that sits inside an expression, e.g. `let x = if (c) { return 1; } else { 2 };`,
+    // to the enclosing call. A return anywhere else only sets `returning`.
+    private static final class ReturnSignal extends RuntimeException {
+        private Object value;
 
-                return arg;
-            }))
-    );
+        private ReturnSignal() {
+            super(null, null, false, false);
+        }
+    }
+
+    // what a tail call evaluates to: the callee and its arguments, handed back to applyFunction instead of
+    // being called on top of the caller's Java frame
+    private static final class TailCall implements Object {
+        private Function function;
+        private List<Object> args;
+
+        @Override
+        public ObjectType type() {
+            return ObjectType.RETURN_VALUE_OBJ;
+        }
+
+        @Override
+        public java.lang.String inspect() {
+            return "tail call";
+        }
+    }
+
+    private final TailCall tailCall = new TailCall();
+    private final Jit jit;
+    private final Memoizer memoizer;
+    private final ReturnSignal returnSignal = new ReturnSignal();
+    private final Invoker invoker = new BuiltInInvoker();
+    // set by a return statement; every block stops after the statement that set it, and the call or program
+    // that is left clears it
+    private boolean returning;
+
+    public Evaluator() {
+        this(null);
+    }
+
+    // with a Jit, hot functions leave this evaluator for compiled code
+    public Evaluator(Jit jit) {
+        this(jit, null);
+    }
+
+    // with a Memoizer, calls to pure functions are answered from a cache where possible
+    public Evaluator(Jit jit, Memoizer memoizer) {
+        this.jit = jit;
+        this.memoizer = memoizer;
+    }
 
     public Object eval(Node n, Environment env) {
         return switch (n) {
-            case Program node -> evalProgram(node, env);
+            case Program node -> evalProgram(new Resolver(env).resolveEach(node), env);
             case BlockStatement node -> evalBlockStatement(node, env);
-            case ExpressionStatement node -> this.eval(node.expression(), env);
+            case ExpressionStatement node -> evalStatementExpression(node.expression(), env);
             case ReturnStatement node -> {
-                var value = this.eval(node.returnValue(), env);
-                if (isError(value)) {
-                    yield value;
-                }
-                yield new ReturnValue(value);
+                var value = evalStatementExpression(node.returnValue(), env);
+                this.returning = true;
+                yield value;
             }
-            case LetStatement node -> {
+            case SlotLetStatement node -> {
                 var value = this.eval(node.value(), env);
-                if (isError(value)) {
-                    yield value;
+                // a function that closes over env may have read the old value, so its results no longer hold
+                if (this.memoizer != null && env.captured() && env.get(0, node.slot()) != null) {
+                    this.memoizer.forget();
                 }
-                env.set(node.name().value(), value);
+                env.set(node.slot(), value);
                 yield null;
             }
-            case IntegerLiteral node -> new Integer(node.value());
+            case IntegerLiteral node -> Integer.valueOf(node.value());
             case StringLiteral node -> new String(node.value());
             case BooleanLiteral node -> nativeBoolToBooleanObject(node.value());
-            case PrefixExpression node -> {
-                var right = this.eval(node.right(), env);
-                if (isError(right)) {
-                    yield right;
+            case PrefixExpression node -> evalPrefixExpression(node.operator(), this.eval(node.right(), env));
+            case InfixExpression node -> evalInfixExpression(node.operator(),
+                                                             this.eval(node.left(), env),
+                                                             this.eval(node.right(), env));
+            case IfExpression node -> {
+                var value = evalIfExpression(node, env);
+                if (this.returning) {
+                    this.returnSignal.value = value;
+                    throw this.returnSignal;
                 }
-                yield evalPrefixExpression(node.operator(), right);
+                yield value;
             }
-            case InfixExpression node -> {
-                var left = this.eval(node.left(), env);
-                if (isError(left)) {
-                    yield left;
-                }
-                var right = this.eval(node.right(), env);
-                if (isError(right)) {
-                    yield right;
-                }
-                yield evalInfixExpression(node.operator(), left, right);
+            case SlotIdentifier node -> evalIdentifier(node, env);
+            case BuiltInIdentifier node -> node.builtIn();
+            case SlotFunctionLiteral node -> {
+                env.capture();
+                yield new Function(node.parameters(), node.body(), env, node.frameSize(), node.profile());
             }
-            case IfExpression node -> evalIfExpression(node, env);
-            case Identifier node -> evalIdentifier(node, env);
-            case FunctionLiteral node -> new Function(node.parameters(), node.body(), env);
             case CallExpression node -> {
                 var function = this.eval(node.function(), env);
-                if (isError(function)) {
-                    yield function;
-                }
-
-                var args = this.evalExpressions(node.arguments(), env);
-                if (args.size() == 1 && isError(args.getFirst())) {
-                    yield args.getFirst();
-                }
-
-                yield applyFunction(function, args);
-            }
-            case ArrayLiteral node -> {
-                var elements = this.evalExpressions(node.elements(), env);
-                if (elements.size() == 1 && isError(elements.getFirst())) {
-                    yield elements.getFirst();
-                }
-                yield new Array(elements);
+                yield this.call(node.function(), function, this.evalExpressions(node.arguments(), env));
             }
-            case IndexExpression node -> {
-                var left = this.eval(node.left(), env);
-                if (isError(left)) {
-                    yield left;
-                }
-                var index = this.eval(node.index(), env);
-                if (isError(index)) {
-                    yield index;
+            case TailCallExpression node -> {
+                var function = this.eval(node.function(), env);
+                var args = this.evalExpressions(node.arguments(), env);
+                if (!(function instanceof Function fn)) {
+                    yield this.call(node.function(), function, args);
                 }
-                yield evalIndexExpression(left, index);
+                this.tailCall.function = fn;
+                this.tailCall.args = args;
+                yield this.tailCall;
             }
+            case ArrayLiteral node -> new Array(this.evalExpressions(node.elements(), env));
+            case IndexExpression node -> evalIndexExpression(this.eval(node.left(), env), this.eval(node.index(), env));
             case HashLiteral node -> this.evalHashLiteral(node, env);
             default -> throw new IllegalStateException("Unexpected value: " + n.getClass());
         };
     }
 
-    private static Error newError(java.lang.String format, java.lang.Object... args) {
-        return new Error(new String(java.lang.String.format(format, args)));
+    private static ErrorSignal newError(java.lang.String format, java.lang.Object... args) {
+        return new ErrorSignal(new Error(format, args));
     }
 
-    private Object evalProgram(Program program, Environment env) {
+    // an if that makes up a whole statement may leave `returning` set for the block around it to see
+    private Object evalStatementExpression(Expression expression, Environment env) {
+        if (expression instanceof IfExpression node) {
+            return evalIfExpression(node, env);
+        }
+        return this.eval(expression, env);
+    }
+
+    private Object evalProgram(Iterable<Statement> statements, Environment env) {
         Object result = null;
 
-        for (Statement statement : program.statements) {
-            result = this.eval(statement, env);
-            if (result instanceof ReturnValue returnValue) {
-                return returnValue.value();
-            } else if (result instanceof Error error) {
-                return error;
+        try {
+            for (Statement statement : statements) {
+                result = this.eval(statement, env);
+                if (this.returning) {
+                    break;
+                }
             }
+        } catch (ReturnSignal signal) {
+            result = signal.value;
+            signal.value = null;
+        } catch (ErrorSignal signal) {
+            result = signal.error;
         }
+        this.returning = false;
 
         return result;
     }
@@ -217,11 +206,8 @@ public class Evaluator {
 
         for (Statement statement : block.statements()) {
             result = this.eval(statement, env);
-
-            if (result != null) {
-                if (result.type() == ObjectType.RETURN_VALUE_OBJ || result.type() == ObjectType.ERROR_OBJ) {
-                    return result;
-                }
+            if (this.returning) {
+                return result;
             }
         }
 
@@ -238,7 +224,7 @@ public class Evaluator {
         return switch (operator) {
             case "!" -> this.evalBangOperatorExpression(right);
             case "-" -> this.evalMinusPrefixOperatorExpression(right);
-            default -> newError("unknown operator: %s%s", operator, right.type());
+            default -> throw newError("unknown operator: %s%s", operator, right.type());
         };
     }
 
@@ -256,9 +242,9 @@ public class Evaluator {
             return nativeBoolToBooleanObject(!left.equals(right));
         }
         if (left.type() != right.type()) {
-            return newError("type mismatch: %s %s %s", left.type().value(), operator, right.type().value());
+            throw newError("type mismatch: %s %s %s", left.type().value(), operator, right.type().value());
         }
-        return newError("unknown operator: %s %s %s", left.type().value(), operator, right.type().value());
+        throw newError("unknown operator: %s %s %s", left.type().value(), operator, right.type().value());
     }
 
     private Object evalBangOperatorExpression(Object right) {
@@ -276,9 +262,9 @@ public class Evaluator {
 
     private Object evalMinusPrefixOperatorExpression(Object right) {
         if (right.type() != ObjectType.INTEGER_OBJ) {
-            return newError("unknown operator: -%s", right.type().value());
+            throw newError("unknown operator: -%s", right.type().value());
         }
-        return new Integer(-((Integer) right).value());
+        return Integer.valueOf(-((Integer) right).value());
     }
 
     private Object evalIntegerInfixExpression(java.lang.String operator, Object left, Object right) {
@@ -286,34 +272,29 @@ public class Evaluator {
         var rightValue = ((Integer) right).value();
 
         return switch (operator) {
-            case "+" -> new Integer(leftValue + rightValue);
-            case "-" -> new Integer(leftValue - rightValue);
-            case "*" -> new Integer(leftValue * rightValue);
-            case "/" -> new Integer(leftValue / rightValue);
+            case "+" -> Integer.valueOf(leftValue + rightValue);
+            case "-" -> Integer.valueOf(leftValue - rightValue);
+            case "*" -> Integer.valueOf(leftValue * rightValue);
+            case "/" -> Integer.valueOf(leftValue / rightValue);
             case "<" -> nativeBoolToBooleanObject(leftValue < rightValue);
             case ">" -> nativeBoolToBooleanObject(leftValue > rightValue);
-            case "==" -> nativeBoolToBooleanObject(Objects.equals(leftValue, rightValue));
-            case "!=" -> nativeBoolToBooleanObject(!Objects.equals(leftValue, rightValue));
-            default -> newError("unknown operator: %s %s %s",
-                                left.type(), operator, right.type());
+            case "==" -> nativeBoolToBooleanObject(leftValue == rightValue);
+            case "!=" -> nativeBoolToBooleanObject(leftValue != rightValue);
+            default -> throw newError("unknown operator: %s %s %s",
+                                      left.type(), operator, right.type());
         };
     }
 
     private Object evalStringInfixExpression(java.lang.String operator, Object left, Object right) {
         if (!Objects.equals(operator, "+")) {
-            return newError("unknown operator: %s %s %s",
-                            left.type().value(), operator, right.type().value());
+            throw newError("unknown operator: %s %s %s",
+                           left.type().value(), operator, right.type().value());
         }
-        var leftValue = ((String) left).value();
-        var rightValue = ((String) right).value();
-        return new String(leftValue + rightValue);
+        return ((String) left).concat((String) right);
     }
 
     private Object evalIfExpression(IfExpression ie, Environment env) {
         var condition = this.eval(ie.condition(), env);
-        if (isError(condition)) {
-            return condition;
-        }
 
         if (isTruthy(condition)) {
             return this.eval(ie.consequence(), env);
@@ -324,18 +305,15 @@ public class Evaluator {
         }
     }
 
-    private Object evalIdentifier(Identifier node, Environment env) {
-        var tuple = env.get(node.value());
-        if (tuple.ok()) {
-            return tuple.value();
+    private Object evalIdentifier(SlotIdentifier node, Environment env) {
+        var value = env.get(node.depth(), node.slot());
+        if (value != null) {
+            return value;
         }
-
-        var builtIn = builtIns.get(node.value());
-        if (builtIn != null) {
-            return builtIn;
+        if (node.fallback() != null) {
+            return this.eval(node.fallback(), env);
         }
-
-        return newError("identifier not found: " + node.value());
+        throw newError("identifier not found: %s", node.string());
     }
 
     private boolean isTruthy(Object obj) {
@@ -351,54 +329,176 @@ public class Evaluator {
 
     }
 
-    private boolean isError(Object obj) {
-        if (obj != null) {
-            return obj.type() == ObjectType.ERROR_OBJ;
-        }
-        return false;
-    }
-
     private List<Object> evalExpressions(List<Expression> exps, Environment env) {
         var result = new ArrayList<Object>();
 
         for (Expression exp : exps) {
-            var evaluated = this.eval(exp, env);
-            if (isError(evaluated)) {
-                return List.of(evaluated);
-            }
-            result.add(evaluated);
+            result.add(this.eval(exp, env));
         }
 
         return result;
     }
 
+    // applyFunction inside a JFR event. While no recording enables the events, begin, end and shouldCommit do
+    // nothing and the JIT drops the allocation, so this costs next to nothing
+    private Object call(Expression callee, Object fn, List<Object> args) {
+        if (fn instanceof BuiltIn) {
+            var event = new BuiltInCallEvent();
+            event.begin();
+            try {
+                return this.applyFunction(fn, args);
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.builtIn = callee.string();
+                    event.arguments = args.size();
+                    event.commit();
+                }
+            }
+        }
+        var event = new FunctionCallEvent();
+        event.begin();
+        try {
+            return this.applyFunction(fn, args);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.function = callee.string();
+                event.arguments = args.size();
+                event.commit();
+            }
+        }
+    }
+
     private Object applyFunction(Object fn, List<Object> args) {
         return switch (fn) {
             case Function function -> {
-                var extendedEnv = extendFunctionEnv(function, args);
-                var evaluated = this.eval(function.body(), extendedEnv);
-                yield unwrapReturnValue(evaluated);
-
+                var cache = this.memoizer == null
+                        ? null
+                        : this.memoizer.cacheFor(function);
+                yield cache == null
+                        ? this.callFunction(function, args)
+                        : cache.call(args, () -> this.callFunction(function, args));
             }
-            case BuiltIn builtIn -> builtIn.fn().call(args.toArray(new Object[0]));
-            default -> newError("not a function: %s", fn.type());
+            case Memoized memoized -> memoized.call(args, () -> this.callUncached(memoized.function(), args));
+            case BuiltIn builtIn -> {
+                var result = builtIn.fn().call(this.invoker, args.toArray(new Object[0]));
+                if (result instanceof Error error) {
+                    throw new ErrorSignal(error);
+                }
+                yield result;
+            }
+            default -> throw newError("not a function: %s", fn.type());
         };
     }
 
-    private Environment extendFunctionEnv(Function fn, List<Object> args) {
-        var enclosedEnv = new Environment(fn.env());
-        var parameters = fn.parameters();
-        for (int i = 0; i < parameters.size(); i++) {
-            enclosedEnv.set(parameters.get(i).value(), args.get(i));
+    // applyFunction would look the cache of a function up again and come back here
+    private Object callUncached(Object fn, List<Object> args) {
+        return fn instanceof Function function
+                ? this.callFunction(function, args)
+                : this.applyFunction(fn, args);
+    }
+
+    private Object callFunction(Function first, List<Object> args) {
+        var function = first;
+        var arguments = args;
+        Function previous = null;
+        Environment frame = null;
+        while (true) {
+            if (this.jit != null) {
+                var compiled = this.jit.call(function, arguments);
+                if (compiled != null) {
+                    return compiled;
+                }
+            }
+
+            // no closure can see the frame we are leaving, so a call to the same function may reuse it
+            if (function == previous && !frame.captured()) {
+                frame.clear();
+                fillFunctionEnv(frame, function, arguments);
+            } else {
+                frame = extendFunctionEnv(function, arguments);
+            }
+
+            var evaluated = this.callInFrame(function, frame);
+            if (evaluated != this.tailCall) {
+                return evaluated;
+            }
+
+            previous = function;
+            function = this.tailCall.function;
+            arguments = this.tailCall.args;
+            this.tailCall.function = null;
+            this.tailCall.args = null;
+        }
+    }
+
+    // the value of function's body in frame, which holds the arguments; a tail call is left to the caller
+    private Object callInFrame(Function function, Environment frame) {
+        Object evaluated;
+        try {
+            evaluated = this.eval(function.body(), frame);
+        } catch (ReturnSignal signal) {
+            evaluated = signal.value;
+            signal.value = null;
         }
+        this.returning = false;
+        return evaluated;
+    }
+
+    // how builtins call the functions they are given. A bound function without a JIT or a cache in the way keeps
+    // its frame from one call to the next while no closure captured it, so a builtin looping over an array
+    // neither builds an environment nor wraps the arguments per element.
+    private final class BuiltInInvoker implements Invoker {
+        @Override
+        public Object invoke(Object function, Object... args) {
+            return applyFunction(function, Arrays.asList(args));
+        }
+
+        @Override
+        public Call bind(Object function) {
+            if (!(function instanceof Function fn) || jit != null
+                    || memoizer != null && memoizer.cacheFor(fn) != null) {
+                return Invoker.super.bind(function);
+            }
+            return new Call() {
+                private Environment frame;
+
+                @Override
+                public Object with(Object... args) {
+                    if (this.frame == null || this.frame.captured()) {
+                        this.frame = new Environment(fn.env(), fn.frameSize());
+                    } else {
+                        this.frame.clear();
+                    }
+                    for (int i = 0; i < fn.parameters().size(); i++) {
+                        this.frame.set(i, args[i]);
+                    }
+                    var evaluated = callInFrame(fn, this.frame);
+                    if (evaluated != tailCall) {
+                        return evaluated;
+                    }
+                    var next = tailCall.function;
+                    var arguments = tailCall.args;
+                    tailCall.function = null;
+                    tailCall.args = null;
+                    return callFunction(next, arguments);
+                }
+            };
+        }
+    }
+
+    private Environment extendFunctionEnv(Function fn, List<Object> args) {
+        var enclosedEnv = new Environment(fn.env(), fn.frameSize());
+        fillFunctionEnv(enclosedEnv, fn, args);
         return enclosedEnv;
     }
 
-    private Object unwrapReturnValue(Object obj) {
-        if (obj instanceof ReturnValue returnValue) {
-            return returnValue.value();
+    private void fillFunctionEnv(Environment env, Function fn, List<Object> args) {
+        var parameters = fn.parameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            env.set(i, args.get(i));
         }
-        return obj;
     }
 
     private Object evalIndexExpression(Object left, Object index) {
@@ -408,51 +508,44 @@ public class Evaluator {
         if (left.type() == ObjectType.HASH_OBJ) {
             return this.evalHashIndexExpression(left, index);
         }
-        return newError("index operator not supported: %s", left.type().value());
+        if (left instanceof Sequence sequence && index instanceof Integer integer) {
+            var element = sequence.at(this.invoker, integer.value());
+            return element == null ? NULL : element;
+        }
+        throw newError("index operator not supported: %s", left.type().value());
     }
 
     private Object evalArrayIndexExpression(Object array, Object index) {
-        var arr = (Array) array;
-        var idx = ((Integer) index).value();
-        if (idx < 0 || idx > arr.elements().size() - 1) {
-            return NULL;
-        }
-        return arr.elements().get(idx);
+        var element = ((Array) array).at(((Integer) index).value());
+        return element == null ? NULL : element;
     }
 
     private Object evalHashLiteral(HashLiteral node, Environment env) {
-        var pairs = new HashMap<HashKey, HashPair>();
+        var hash = new HashTable(node.pairs().size());
 
         for (Map.Entry<Expression, Expression> entry : node.pairs().entrySet()) {
             var key = this.eval(entry.getKey(), env);
-            if (isError(key)) {
-                return key;
-            }
 
             if (!(key instanceof Hashable hashKey)) {
-                return newError("unusable as hash key: %s", key.type().value());
+                throw newError("unusable as hash key: %s", key.type().value());
             }
 
             var value = this.eval(entry.getValue(), env);
-            if (isError(value)) {
-                return value;
-            }
-
-            pairs.put(hashKey.hashKey(), new HashPair(key, value));
 
+            hash.put(hashKey, value);
         }
 
-        return new Hash(pairs);
+        return hash;
     }
 
     private Object evalHashIndexExpression(Object hash, Object index) {
         var hashObject = (Hash) hash;
-        if (!(index instanceof Hashable key)) { return newError("unusable as hash key: %s", index.type().value()); }
-        var pair = hashObject.pairs().get(key.hashKey());
-        if (pair == null) {
+        if (!(index instanceof Hashable key)) { throw newError("unusable as hash key: %s", index.type().value()); }
+        var value = hashObject.get(key);
+        if (value == null) {
             return NULL;
         }
-        return pair.value();
+        return value;
 
     }
 }
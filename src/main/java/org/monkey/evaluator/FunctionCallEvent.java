@@ -0,0 +1,26 @@
+package org.monkey.evaluator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// a call of a Monkey function, from entering it to its return, for JDK Flight Recorder. Tail calls the
+// function makes run in its frame, so they are part of its event.
+@Name("org.monkey.FunctionCall")
+@Label("Function Call")
+@Category({ "Monkey", "Evaluator" })
+@Description("A call of a Monkey function")
+@StackTrace(false)
+@Threshold("1 ms")
+final class FunctionCallEvent extends jdk.jfr.Event {
+
+    @Label("Function")
+    @Description("The callee as written at the call site")
+    String function;
+
+    @Label("Arguments")
+    int arguments;
+}
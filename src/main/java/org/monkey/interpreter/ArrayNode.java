@@ -0,0 +1,38 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Array;
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+
+import java.util.Arrays;
+
+final class ArrayNode extends ExecNode {
+
+    private final ExecNode[] elements;
+
+    ArrayNode(ExecNode[] elements) {
+        this.elements = elements;
+        for (ExecNode element : elements) {
+            this.adopt(element);
+        }
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        var values = new Object[this.elements.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = this.elements[i].execute(frame);
+        }
+        return new Array(Arrays.asList(values));
+    }
+
+    @Override
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        for (int i = 0; i < this.elements.length; i++) {
+            if (this.elements[i] == oldChild) {
+                this.elements[i] = newChild;
+                return;
+            }
+        }
+    }
+}
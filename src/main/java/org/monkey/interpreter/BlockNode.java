@@ -0,0 +1,39 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+
+final class BlockNode extends ExecNode {
+
+    private final ExecNode[] statements;
+
+    BlockNode(ExecNode[] statements) {
+        this.statements = statements;
+        for (ExecNode statement : statements) {
+            this.adopt(statement);
+        }
+    }
+
+    ExecNode statement(int index) {
+        return statements[index];
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        Object result = null;
+        for (ExecNode statement : this.statements) {
+            result = statement.execute(frame);
+        }
+        return result;
+    }
+
+    @Override
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        for (int i = 0; i < this.statements.length; i++) {
+            if (this.statements[i] == oldChild) {
+                this.statements[i] = newChild;
+                return;
+            }
+        }
+    }
+}
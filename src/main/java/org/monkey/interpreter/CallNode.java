@@ -0,0 +1,88 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.BuiltIn;
+import org.monkey.object.Environment;
+import org.monkey.object.Error;
+import org.monkey.object.ErrorSignal;
+import org.monkey.object.Memoized;
+import org.monkey.object.Object;
+import org.monkey.object.ReturnSignal;
+
+import java.util.Arrays;
+
+final class CallNode extends ExecNode {
+
+    private ExecNode function;
+    private final ExecNode[] arguments;
+    // the resolver only marks calls inside function bodies, so a TailCall always reaches the loop in call()
+    private final boolean tail;
+
+    CallNode(ExecNode function, ExecNode[] arguments, boolean tail) {
+        this.function = this.adopt(function);
+        this.tail = tail;
+        this.arguments = arguments;
+        for (ExecNode argument : arguments) {
+            this.adopt(argument);
+        }
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        var callee = this.function.execute(frame);
+        var args = new Object[this.arguments.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = this.arguments[i].execute(frame);
+        }
+        return this.tail && callee instanceof NodeFunction fn
+                ? new TailCall(fn, args)
+                : call(callee, args);
+    }
+
+    static Object call(Object callee, Object[] args) {
+        return switch (callee) {
+            case NodeFunction fn -> {
+                var result = apply(fn, args);
+                while (result instanceof TailCall next) {
+                    result = apply(next.function(), next.args());
+                }
+                yield result;
+            }
+            case Memoized memoized -> memoized.call(Arrays.asList(args), () -> call(memoized.function(), args));
+            case BuiltIn builtIn -> {
+                var result = builtIn.fn().call(CallNode::call, args);
+                if (result instanceof Error error) {
+                    throw new ErrorSignal(error);
+                }
+                yield result;
+            }
+            default -> throw ErrorSignal.of("not a function: %s", callee.type());
+        };
+    }
+
+    private static Object apply(NodeFunction fn, Object[] args) {
+        var literal = fn.literal();
+        var calleeFrame = new Environment(fn.env(), literal.frameSize());
+        for (int i = 0; i < literal.parameters().size(); i++) {
+            calleeFrame.set(i, args[i]);
+        }
+        try {
+            return fn.body().execute(calleeFrame);
+        } catch (ReturnSignal signal) {
+            return signal.value;
+        }
+    }
+
+    @Override
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        if (this.function == oldChild) {
+            this.function = newChild;
+            return;
+        }
+        for (int i = 0; i < this.arguments.length; i++) {
+            if (this.arguments[i] == oldChild) {
+                this.arguments[i] = newChild;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+
+final class ConstantNode extends ExecNode {
+
+    private final Object value;
+
+    ConstantNode(Object value) {
+        this.value = value;
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        return this.value;
+    }
+}
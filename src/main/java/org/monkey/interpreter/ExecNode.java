@@ -0,0 +1,30 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+
+// an executable node. Nodes may replace themselves in their parent once they have seen what they are
+// executed with, so the next execution takes a path specialized for those types.
+abstract class ExecNode {
+
+    private ExecNode parent;
+
+    abstract Object execute(Environment frame);
+
+    protected final <T extends ExecNode> T adopt(T child) {
+        if (child != null) {
+            ((ExecNode) child).parent = this;
+        }
+        return child;
+    }
+
+    protected final <T extends ExecNode> T replace(T replacement) {
+        this.parent.replaceChild(this, replacement);
+        ((ExecNode) replacement).parent = this.parent;
+        return replacement;
+    }
+
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        throw new IllegalStateException(this.getClass().getSimpleName() + " has no replaceable children");
+    }
+}
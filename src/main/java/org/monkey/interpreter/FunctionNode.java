@@ -0,0 +1,21 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+import org.monkey.resolver.SlotFunctionLiteral;
+
+final class FunctionNode extends ExecNode {
+
+    private final SlotFunctionLiteral literal;
+    private final ExecNode body;
+
+    FunctionNode(SlotFunctionLiteral literal, ExecNode body) {
+        this.literal = literal;
+        this.body = this.adopt(body);
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        return new NodeFunction(this.literal, this.body, frame);
+    }
+}
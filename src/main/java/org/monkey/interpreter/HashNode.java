@@ -0,0 +1,50 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.ErrorSignal;
+import org.monkey.object.HashTable;
+import org.monkey.object.Hashable;
+import org.monkey.object.Object;
+
+final class HashNode extends ExecNode {
+
+    private final ExecNode[] keys;
+    private final ExecNode[] values;
+
+    HashNode(ExecNode[] keys, ExecNode[] values) {
+        this.keys = keys;
+        this.values = values;
+        for (int i = 0; i < keys.length; i++) {
+            this.adopt(keys[i]);
+            this.adopt(values[i]);
+        }
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        var hash = new HashTable(this.keys.length);
+        for (int i = 0; i < this.keys.length; i++) {
+            var key = this.keys[i].execute(frame);
+            if (!(key instanceof Hashable hashKey)) {
+                throw ErrorSignal.of("unusable as hash key: %s", key.type().value());
+            }
+            var value = this.values[i].execute(frame);
+            hash.put(hashKey, value);
+        }
+        return hash;
+    }
+
+    @Override
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] == oldChild) {
+                this.keys[i] = newChild;
+                return;
+            }
+            if (this.values[i] == oldChild) {
+                this.values[i] = newChild;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+
+final class IfNode extends ExecNode {
+
+    private ExecNode condition;
+    private ExecNode consequence;
+    private ExecNode alternative;
+
+    IfNode(ExecNode condition, ExecNode consequence, ExecNode alternative) {
+        this.condition = this.adopt(condition);
+        this.consequence = this.adopt(consequence);
+        this.alternative = this.adopt(alternative);
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        if (Values.isTruthy(this.condition.execute(frame))) {
+            return this.consequence.execute(frame);
+        } else if (this.alternative != null) {
+            return this.alternative.execute(frame);
+        } else {
+            return Values.NULL;
+        }
+    }
+
+    @Override
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        if (this.condition == oldChild) {
+            this.condition = newChild;
+        } else if (this.consequence == oldChild) {
+            this.consequence = newChild;
+        } else if (this.alternative == oldChild) {
+            this.alternative = newChild;
+        }
+    }
+}
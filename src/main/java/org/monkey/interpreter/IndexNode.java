@@ -0,0 +1,54 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Array;
+import org.monkey.object.Environment;
+import org.monkey.object.ErrorSignal;
+import org.monkey.object.Hash;
+import org.monkey.object.Hashable;
+import org.monkey.object.Integer;
+import org.monkey.object.Object;
+import org.monkey.object.Sequence;
+
+final class IndexNode extends ExecNode {
+
+    private ExecNode left;
+    private ExecNode index;
+
+    IndexNode(ExecNode left, ExecNode index) {
+        this.left = this.adopt(left);
+        this.index = this.adopt(index);
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        var leftValue = this.left.execute(frame);
+        var indexValue = this.index.execute(frame);
+        if (leftValue instanceof Array array && indexValue instanceof Integer integer) {
+            var element = array.at(integer.value());
+            return element == null ? Values.NULL : element;
+        }
+        if (leftValue instanceof Sequence sequence && indexValue instanceof Integer integer) {
+            var element = sequence.at(CallNode::call, integer.value());
+            return element == null ? Values.NULL : element;
+        }
+        if (leftValue instanceof Hash hash) {
+            if (!(indexValue instanceof Hashable key)) {
+                throw ErrorSignal.of("unusable as hash key: %s", indexValue.type().value());
+            }
+            var value = hash.get(key);
+            return value == null
+                    ? Values.NULL
+                    : value;
+        }
+        throw ErrorSignal.of("index operator not supported: %s", leftValue.type().value());
+    }
+
+    @Override
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        if (this.left == oldChild) {
+            this.left = newChild;
+        } else if (this.index == oldChild) {
+            this.index = newChild;
+        }
+    }
+}
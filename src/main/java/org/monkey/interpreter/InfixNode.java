@@ -0,0 +1,243 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.ErrorSignal;
+import org.monkey.object.Integer;
+import org.monkey.object.Object;
+import org.monkey.object.String;
+
+// An infix node starts out uninitialized. The first execution looks at the operand types and replaces the
+// node with one specialized for them, e.g. IntAdd for two integers under "+". A specialized node that later
+// sees other types rewrites itself to Generic, which handles every combination and never changes again.
+abstract class InfixNode extends ExecNode {
+
+    protected final Operator operator;
+    protected ExecNode left;
+    protected ExecNode right;
+
+    InfixNode(Operator operator, ExecNode left, ExecNode right) {
+        this.operator = operator;
+        this.left = this.adopt(left);
+        this.right = this.adopt(right);
+    }
+
+    static InfixNode of(java.lang.String operator, ExecNode left, ExecNode right) {
+        return new Uninitialized(Operator.of(operator), left, right);
+    }
+
+    @Override
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        if (this.left == oldChild) {
+            this.left = newChild;
+        } else if (this.right == oldChild) {
+            this.right = newChild;
+        }
+    }
+
+    protected Object generalize(Object leftValue, Object rightValue) {
+        this.replace(new Generic(this.operator, this.left, this.right));
+        return generic(this.operator, leftValue, rightValue);
+    }
+
+    InfixNode specialize(Object leftValue, Object rightValue) {
+        if (leftValue instanceof Integer && rightValue instanceof Integer) {
+            return switch (this.operator) {
+                case PLUS -> new IntAdd(this.left, this.right);
+                case MINUS -> new IntSub(this.left, this.right);
+                case ASTERISK -> new IntMul(this.left, this.right);
+                case SLASH -> new IntDiv(this.left, this.right);
+                case LT -> new IntLessThan(this.left, this.right);
+                case GT -> new IntGreaterThan(this.left, this.right);
+                case EQ -> new IntEqual(this.left, this.right);
+                case NOT_EQ -> new IntNotEqual(this.left, this.right);
+            };
+        }
+        if (leftValue instanceof String && rightValue instanceof String && this.operator == Operator.PLUS) {
+            return new StringConcat(this.left, this.right);
+        }
+        return new Generic(this.operator, this.left, this.right);
+    }
+
+    static Object generic(Operator operator, Object left, Object right) {
+        if (left instanceof Integer l && right instanceof Integer r) {
+            var leftValue = l.value();
+            var rightValue = r.value();
+            return switch (operator) {
+                case PLUS -> Integer.valueOf(leftValue + rightValue);
+                case MINUS -> Integer.valueOf(leftValue - rightValue);
+                case ASTERISK -> Integer.valueOf(leftValue * rightValue);
+                case SLASH -> Integer.valueOf(leftValue / rightValue);
+                case LT -> Values.bool(leftValue < rightValue);
+                case GT -> Values.bool(leftValue > rightValue);
+                case EQ -> Values.bool(leftValue == rightValue);
+                case NOT_EQ -> Values.bool(leftValue != rightValue);
+            };
+        }
+        if (left instanceof String l && right instanceof String r) {
+            if (operator != Operator.PLUS) {
+                throw ErrorSignal.of("unknown operator: %s %s %s",
+                                     left.type().value(), operator.literal(), right.type().value());
+            }
+            return l.concat(r);
+        }
+        if (operator == Operator.EQ) {
+            return Values.bool(left.equals(right));
+        }
+        if (operator == Operator.NOT_EQ) {
+            return Values.bool(!left.equals(right));
+        }
+        if (left.type() != right.type()) {
+            throw ErrorSignal.of("type mismatch: %s %s %s",
+                                 left.type().value(), operator.literal(), right.type().value());
+        }
+        throw ErrorSignal.of("unknown operator: %s %s %s",
+                             left.type().value(), operator.literal(), right.type().value());
+    }
+
+    static final class Uninitialized extends InfixNode {
+        Uninitialized(Operator operator, ExecNode left, ExecNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        Object execute(Environment frame) {
+            var leftValue = this.left.execute(frame);
+            var rightValue = this.right.execute(frame);
+            this.replace(this.specialize(leftValue, rightValue));
+            return generic(this.operator, leftValue, rightValue);
+        }
+    }
+
+    static final class Generic extends InfixNode {
+        Generic(Operator operator, ExecNode left, ExecNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        Object execute(Environment frame) {
+            return generic(this.operator, this.left.execute(frame), this.right.execute(frame));
+        }
+    }
+
+    abstract static class IntInfixNode extends InfixNode {
+        IntInfixNode(Operator operator, ExecNode left, ExecNode right) {
+            super(operator, left, right);
+        }
+
+        abstract Object compute(long leftValue, long rightValue);
+
+        @Override
+        final Object execute(Environment frame) {
+            var leftValue = this.left.execute(frame);
+            var rightValue = this.right.execute(frame);
+            if (leftValue instanceof Integer l && rightValue instanceof Integer r) {
+                return this.compute(l.value(), r.value());
+            }
+            return this.generalize(leftValue, rightValue);
+        }
+    }
+
+    static final class IntAdd extends IntInfixNode {
+        IntAdd(ExecNode left, ExecNode right) {
+            super(Operator.PLUS, left, right);
+        }
+
+        @Override
+        Object compute(long leftValue, long rightValue) {
+            return Integer.valueOf(leftValue + rightValue);
+        }
+    }
+
+    static final class IntSub extends IntInfixNode {
+        IntSub(ExecNode left, ExecNode right) {
+            super(Operator.MINUS, left, right);
+        }
+
+        @Override
+        Object compute(long leftValue, long rightValue) {
+            return Integer.valueOf(leftValue - rightValue);
+        }
+    }
+
+    static final class IntMul extends IntInfixNode {
+        IntMul(ExecNode left, ExecNode right) {
+            super(Operator.ASTERISK, left, right);
+        }
+
+        @Override
+        Object compute(long leftValue, long rightValue) {
+            return Integer.valueOf(leftValue * rightValue);
+        }
+    }
+
+    static final class IntDiv extends IntInfixNode {
+        IntDiv(ExecNode left, ExecNode right) {
+            super(Operator.SLASH, left, right);
+        }
+
+        @Override
+        Object compute(long leftValue, long rightValue) {
+            return Integer.valueOf(leftValue / rightValue);
+        }
+    }
+
+    static final class IntLessThan extends IntInfixNode {
+        IntLessThan(ExecNode left, ExecNode right) {
+            super(Operator.LT, left, right);
+        }
+
+        @Override
+        Object compute(long leftValue, long rightValue) {
+            return Values.bool(leftValue < rightValue);
+        }
+    }
+
+    static final class IntGreaterThan extends IntInfixNode {
+        IntGreaterThan(ExecNode left, ExecNode right) {
+            super(Operator.GT, left, right);
+        }
+
+        @Override
+        Object compute(long leftValue, long rightValue) {
+            return Values.bool(leftValue > rightValue);
+        }
+    }
+
+    static final class IntEqual extends IntInfixNode {
+        IntEqual(ExecNode left, ExecNode right) {
+            super(Operator.EQ, left, right);
+        }
+
+        @Override
+        Object compute(long leftValue, long rightValue) {
+            return Values.bool(leftValue == rightValue);
+        }
+    }
+
+    static final class IntNotEqual extends IntInfixNode {
+        IntNotEqual(ExecNode left, ExecNode right) {
+            super(Operator.NOT_EQ, left, right);
+        }
+
+        @Override
+        Object compute(long leftValue, long rightValue) {
+            return Values.bool(leftValue != rightValue);
+        }
+    }
+
+    static final class StringConcat extends InfixNode {
+        StringConcat(ExecNode left, ExecNode right) {
+            super(Operator.PLUS, left, right);
+        }
+
+        @Override
+        Object execute(Environment frame) {
+            var leftValue = this.left.execute(frame);
+            var rightValue = this.right.execute(frame);
+            if (leftValue instanceof String l && rightValue instanceof String r) {
+                return l.concat(r);
+            }
+            return this.generalize(leftValue, rightValue);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.monkey.interpreter;
+
+import org.monkey.ast.Program;
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+import org.monkey.resolver.Resolver;
+
+// Interpreter runs a Program on a tree of self-specializing nodes. Nodes record the operand types they see
+// and rewrite themselves into type-specialized variants, so hot code stops re-dispatching on types.
+public class Interpreter {
+
+    public Object eval(Program program, Environment env) {
+        var resolved = new Resolver(env).resolve(program);
+        return new NodeBuilder().build(resolved).execute(env);
+    }
+}
@@ -0,0 +1,26 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+
+final class LetNode extends ExecNode {
+
+    private final int slot;
+    private ExecNode value;
+
+    LetNode(int slot, ExecNode value) {
+        this.slot = slot;
+        this.value = this.adopt(value);
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        frame.set(this.slot, this.value.execute(frame));
+        return null;
+    }
+
+    @Override
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        this.value = newChild;
+    }
+}
@@ -0,0 +1,82 @@
+package org.monkey.interpreter;
+
+import org.monkey.ast.*;
+import org.monkey.object.Boolean;
+import org.monkey.object.Integer;
+import org.monkey.object.String;
+import org.monkey.resolver.BuiltInIdentifier;
+import org.monkey.resolver.SlotFunctionLiteral;
+import org.monkey.resolver.SlotIdentifier;
+import org.monkey.resolver.SlotLetStatement;
+import org.monkey.resolver.TailCallExpression;
+
+import java.util.List;
+import java.util.Map;
+
+// turns a resolved Program into a tree of executable nodes
+class NodeBuilder {
+
+    RootNode build(Program program) {
+        return new RootNode(this.block(program.statements));
+    }
+
+    private BlockNode block(List<Statement> statements) {
+        var nodes = new ExecNode[statements.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = this.build(statements.get(i));
+        }
+        return new BlockNode(nodes);
+    }
+
+    private ExecNode[] buildAll(List<Expression> expressions) {
+        var nodes = new ExecNode[expressions.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = this.build(expressions.get(i));
+        }
+        return nodes;
+    }
+
+    private ExecNode build(Node n) {
+        return switch (n) {
+            case BlockStatement node -> this.block(node.statements());
+            case ExpressionStatement node -> this.build(node.expression());
+            case ReturnStatement node -> new ReturnNode(this.build(node.returnValue()));
+            case SlotLetStatement node -> new LetNode(node.slot(), this.build(node.value()));
+            case IntegerLiteral node -> new ConstantNode(Integer.valueOf(node.value()));
+            case StringLiteral node -> new ConstantNode(new String(node.value()));
+            case BooleanLiteral node -> new ConstantNode(node.value()
+                                                                 ? Boolean.TRUE
+                                                                 : Boolean.FALSE);
+            case PrefixExpression node -> PrefixNode.of(node.operator(), this.build(node.right()));
+            case InfixExpression node -> InfixNode.of(node.operator(), this.build(node.left()), this.build(node.right()));
+            case IfExpression node -> new IfNode(this.build(node.condition()),
+                                                 this.build(node.consequence()),
+                                                 node.alternative() == null
+                                                         ? null
+                                                         : this.build(node.alternative()));
+            case SlotIdentifier node -> new ReadNode(node.string(), node.depth(), node.slot(),
+                                                     node.fallback() == null
+                                                             ? null
+                                                             : this.build(node.fallback()));
+            case BuiltInIdentifier node -> new ConstantNode(node.builtIn());
+            case SlotFunctionLiteral node -> new FunctionNode(node, this.build(node.body()));
+            case CallExpression node -> new CallNode(this.build(node.function()), this.buildAll(node.arguments()), false);
+            case TailCallExpression node -> new CallNode(this.build(node.function()), this.buildAll(node.arguments()),
+                                                         true);
+            case ArrayLiteral node -> new ArrayNode(this.buildAll(node.elements()));
+            case IndexExpression node -> new IndexNode(this.build(node.left()), this.build(node.index()));
+            case HashLiteral node -> {
+                var keys = new ExecNode[node.pairs().size()];
+                var values = new ExecNode[keys.length];
+                var i = 0;
+                for (Map.Entry<Expression, Expression> entry : node.pairs().entrySet()) {
+                    keys[i] = this.build(entry.getKey());
+                    values[i] = this.build(entry.getValue());
+                    i++;
+                }
+                yield new HashNode(keys, values);
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + n.getClass());
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+import org.monkey.object.ObjectType;
+import org.monkey.resolver.SlotFunctionLiteral;
+
+// a function value of the node interpreter: the specialized body is shared by every closure of one literal
+public record NodeFunction(SlotFunctionLiteral literal, ExecNode body, Environment env) implements Object {
+    @Override
+    public ObjectType type() {
+        return ObjectType.FUNCTION_OBJ;
+    }
+
+    @Override
+    public java.lang.String inspect() {
+        return this.literal.string();
+    }
+}
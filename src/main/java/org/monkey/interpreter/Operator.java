@@ -0,0 +1,31 @@
+package org.monkey.interpreter;
+
+enum Operator {
+    PLUS("+"),
+    MINUS("-"),
+    ASTERISK("*"),
+    SLASH("/"),
+    LT("<"),
+    GT(">"),
+    EQ("=="),
+    NOT_EQ("!=");
+
+    private final String literal;
+
+    Operator(String literal) {
+        this.literal = literal;
+    }
+
+    String literal() {
+        return literal;
+    }
+
+    static Operator of(String literal) {
+        for (Operator operator : values()) {
+            if (operator.literal.equals(literal)) {
+                return operator;
+            }
+        }
+        throw new IllegalArgumentException("unknown operator: " + literal);
+    }
+}
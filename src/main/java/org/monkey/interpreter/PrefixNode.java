@@ -0,0 +1,55 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.ErrorSignal;
+import org.monkey.object.Integer;
+import org.monkey.object.Object;
+
+abstract class PrefixNode extends ExecNode {
+
+    protected ExecNode right;
+
+    PrefixNode(ExecNode right) {
+        this.right = this.adopt(right);
+    }
+
+    @Override
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        this.right = newChild;
+    }
+
+    static PrefixNode of(String operator, ExecNode right) {
+        return switch (operator) {
+            case "!" -> new Bang(right);
+            case "-" -> new Negate(right);
+            default -> throw new IllegalArgumentException("unknown operator: " + operator);
+        };
+    }
+
+    static final class Bang extends PrefixNode {
+        Bang(ExecNode right) {
+            super(right);
+        }
+
+        @Override
+        Object execute(Environment frame) {
+            var value = this.right.execute(frame);
+            return Values.bool(value == Values.FALSE || value == Values.NULL);
+        }
+    }
+
+    static final class Negate extends PrefixNode {
+        Negate(ExecNode right) {
+            super(right);
+        }
+
+        @Override
+        Object execute(Environment frame) {
+            var value = this.right.execute(frame);
+            if (value instanceof Integer integer) {
+                return Integer.valueOf(-integer.value());
+            }
+            throw ErrorSignal.of("unknown operator: -%s", value.type().value());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.ErrorSignal;
+import org.monkey.object.Object;
+
+final class ReadNode extends ExecNode {
+
+    private final String name;
+    private final int depth;
+    private final int slot;
+    // read when the slot is unset, or null
+    private final ExecNode fallback;
+
+    ReadNode(String name, int depth, int slot, ExecNode fallback) {
+        this.name = name;
+        this.depth = depth;
+        this.slot = slot;
+        this.fallback = fallback;
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        var value = frame.get(this.depth, this.slot);
+        if (value == null) {
+            if (this.fallback != null) {
+                return this.fallback.execute(frame);
+            }
+            throw ErrorSignal.of("identifier not found: %s", this.name);
+        }
+        return value;
+    }
+}
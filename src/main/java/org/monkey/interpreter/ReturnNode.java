@@ -0,0 +1,24 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.Object;
+import org.monkey.object.ReturnSignal;
+
+final class ReturnNode extends ExecNode {
+
+    private ExecNode value;
+
+    ReturnNode(ExecNode value) {
+        this.value = this.adopt(value);
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        throw new ReturnSignal(this.value.execute(frame));
+    }
+
+    @Override
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        this.value = newChild;
+    }
+}
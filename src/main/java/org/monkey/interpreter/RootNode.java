@@ -0,0 +1,35 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Environment;
+import org.monkey.object.ErrorSignal;
+import org.monkey.object.Object;
+import org.monkey.object.ReturnSignal;
+
+final class RootNode extends ExecNode {
+
+    private ExecNode body;
+
+    RootNode(ExecNode body) {
+        this.body = this.adopt(body);
+    }
+
+    ExecNode body() {
+        return body;
+    }
+
+    @Override
+    Object execute(Environment frame) {
+        try {
+            return this.body.execute(frame);
+        } catch (ReturnSignal signal) {
+            return signal.value;
+        } catch (ErrorSignal signal) {
+            return signal.error;
+        }
+    }
+
+    @Override
+    protected void replaceChild(ExecNode oldChild, ExecNode newChild) {
+        this.body = newChild;
+    }
+}
@@ -0,0 +1,17 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Object;
+import org.monkey.object.ObjectType;
+
+// a CallNode marked tail returns this instead of calling a NodeFunction; CallNode.call runs it in its loop
+record TailCall(NodeFunction function, Object[] args) implements Object {
+    @Override
+    public ObjectType type() {
+        return ObjectType.RETURN_VALUE_OBJ;
+    }
+
+    @Override
+    public java.lang.String inspect() {
+        return "tail call";
+    }
+}
@@ -0,0 +1,25 @@
+package org.monkey.interpreter;
+
+import org.monkey.object.Boolean;
+import org.monkey.object.Null;
+import org.monkey.object.Object;
+
+final class Values {
+
+    static final Object NULL = Null.NULL;
+    static final Boolean TRUE = Boolean.TRUE;
+    static final Boolean FALSE = Boolean.FALSE;
+
+    private Values() {
+    }
+
+    static Boolean bool(boolean value) {
+        return value
+                ? TRUE
+                : FALSE;
+    }
+
+    static boolean isTruthy(Object obj) {
+        return !obj.equals(NULL) && !obj.equals(FALSE);
+    }
+}
@@ -0,0 +1,153 @@
+package org.monkey.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// writes a class file with static methods only. Version 49 is the newest format that is still verified by
+// type inference, so branches need no StackMapTable frames.
+final class ClassWriter {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int VERSION = 49;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(this.pool);
+    private final Map<String, Integer> entries = new HashMap<>();
+    private int poolSize = 1;
+
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    private final DataOutputStream methodsOut = new DataOutputStream(this.methods);
+    private int methodCount;
+
+    private final int thisClass;
+    private final int superClass;
+
+    ClassWriter(String name) {
+        this.thisClass = this.classRef(name);
+        this.superClass = this.classRef("java/lang/Object");
+    }
+
+    int thisClass() {
+        return this.thisClass;
+    }
+
+    int utf8(String value) {
+        return this.entry("U" + value, 1, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    int classRef(String name) {
+        var nameIndex = this.utf8(name);
+        return this.entry("C" + name, 1, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(nameIndex);
+        });
+    }
+
+    int longConstant(long value) {
+        // a long takes two pool slots
+        return this.entry("J" + value, 2, out -> {
+            out.writeByte(CONSTANT_LONG);
+            out.writeLong(value);
+        });
+    }
+
+    int methodRef(int owner, String name, String descriptor) {
+        var nameIndex = this.utf8(name);
+        var descriptorIndex = this.utf8(descriptor);
+        var nameAndType = this.entry("N" + name + descriptor, 1, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return this.entry("M" + owner + "." + name + descriptor, 1, out -> {
+            out.writeByte(CONSTANT_METHODREF);
+            out.writeShort(owner);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    void method(int access, String name, String descriptor, CodeBuffer code) {
+        var nameIndex = this.utf8(name);
+        var descriptorIndex = this.utf8(descriptor);
+        var codeIndex = this.utf8("Code");
+        try {
+            this.methodsOut.writeShort(access);
+            this.methodsOut.writeShort(nameIndex);
+            this.methodsOut.writeShort(descriptorIndex);
+            this.methodsOut.writeShort(1);
+
+            var bytes = code.toByteArray();
+            this.methodsOut.writeShort(codeIndex);
+            this.methodsOut.writeInt(12 + bytes.length);
+            this.methodsOut.writeShort(code.maxStack());
+            this.methodsOut.writeShort(code.maxLocals());
+            this.methodsOut.writeInt(bytes.length);
+            this.methodsOut.write(bytes);
+            this.methodsOut.writeShort(0);
+            this.methodsOut.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        this.methodCount++;
+    }
+
+    byte[] toByteArray() {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(this.poolSize);
+            this.pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(this.thisClass);
+            out.writeShort(this.superClass);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(this.methodCount);
+            this.methods.writeTo(out);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private interface EntryWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private int entry(String key, int slots, EntryWriter writer) {
+        var index = this.entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            writer.write(this.poolOut);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        index = this.poolSize;
+        this.poolSize += slots;
+        this.entries.put(key, index);
+        return index;
+    }
+}
@@ -0,0 +1,149 @@
+package org.monkey.jit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// the bytecode of one method. It follows the operand stack depth as instructions are added, which is exact
+// for the structured code FunctionCompiler emits, and patches forward jumps once their label is placed.
+final class CodeBuffer {
+
+    static final int ICONST_0 = 0x03;
+    static final int ICONST_1 = 0x04;
+    static final int LCONST_0 = 0x09;
+    static final int LCONST_1 = 0x0a;
+    static final int LDC2_W = 0x14;
+    static final int ILOAD = 0x15;
+    static final int LLOAD = 0x16;
+    static final int ISTORE = 0x36;
+    static final int LSTORE = 0x37;
+    static final int POP = 0x57;
+    static final int POP2 = 0x58;
+    static final int LADD = 0x61;
+    static final int LSUB = 0x65;
+    static final int LMUL = 0x69;
+    static final int LDIV = 0x6d;
+    static final int LNEG = 0x75;
+    static final int IXOR = 0x82;
+    static final int LCMP = 0x94;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9a;
+    static final int IFLT = 0x9b;
+    static final int IFGE = 0x9c;
+    static final int IFGT = 0x9d;
+    static final int IFLE = 0x9e;
+    static final int IF_ICMPEQ = 0x9f;
+    static final int IF_ICMPNE = 0xa0;
+    static final int GOTO = 0xa7;
+    static final int LRETURN = 0xad;
+    static final int INVOKESTATIC = 0xb8;
+
+    static final class Label {
+        private int offset = -1;
+        private int depth = -1;
+        private final List<Integer> jumps = new ArrayList<>();
+    }
+
+    private byte[] code = new byte[64];
+    private int size;
+    private int depth;
+    private int maxStack;
+    private int maxLocals;
+    private boolean reachable = true;
+
+    CodeBuffer(int maxLocals) {
+        this.maxLocals = maxLocals;
+    }
+
+    int maxStack() {
+        return this.maxStack;
+    }
+
+    int maxLocals() {
+        return this.maxLocals;
+    }
+
+    // false right after a return or goto, until a label that is jumped to is placed
+    boolean reachable() {
+        return this.reachable;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(this.code, this.size);
+    }
+
+    void op(int opcode, int stackChange) {
+        this.u1(opcode);
+        this.adjust(stackChange);
+        if (opcode == LRETURN || opcode == GOTO) {
+            this.reachable = false;
+        }
+    }
+
+    void local(int opcode, int index, int stackChange) {
+        if (index > 0xff) {
+            throw new FunctionCompiler.Unsupported("too many locals");
+        }
+        this.u1(opcode);
+        this.u1(index);
+        this.maxLocals = Math.max(this.maxLocals, index + 2);
+        this.adjust(stackChange);
+    }
+
+    void constant(int opcode, int index, int stackChange) {
+        this.u1(opcode);
+        this.u2(index);
+        this.adjust(stackChange);
+    }
+
+    void jump(int opcode, Label target, int stackChange) {
+        var at = this.size;
+        this.u1(opcode);
+        this.adjust(stackChange);
+        target.depth = this.depth;
+        if (target.offset >= 0) {
+            this.u2(target.offset - at);
+        } else {
+            target.jumps.add(at);
+            this.u2(0);
+        }
+        if (opcode == GOTO) {
+            this.reachable = false;
+        }
+    }
+
+    void place(Label label) {
+        label.offset = this.size;
+        if (label.jumps.isEmpty()) {
+            return;
+        }
+        for (int at : label.jumps) {
+            var distance = label.offset - at;
+            if (distance > Short.MAX_VALUE) {
+                throw new FunctionCompiler.Unsupported("method too large");
+            }
+            this.code[at + 1] = (byte) (distance >> 8);
+            this.code[at + 2] = (byte) distance;
+        }
+        label.jumps.clear();
+        this.depth = label.depth;
+        this.reachable = true;
+    }
+
+    private void u1(int value) {
+        if (this.size == this.code.length) {
+            this.code = Arrays.copyOf(this.code, this.size * 2);
+        }
+        this.code[this.size++] = (byte) value;
+    }
+
+    private void u2(int value) {
+        this.u1(value >> 8);
+        this.u1(value);
+    }
+
+    private void adjust(int stackChange) {
+        this.depth += stackChange;
+        this.maxStack = Math.max(this.maxStack, this.depth);
+    }
+}
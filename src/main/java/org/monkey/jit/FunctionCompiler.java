@@ -0,0 +1,343 @@
+package org.monkey.jit;
+
+import org.monkey.ast.BlockStatement;
+import org.monkey.ast.BooleanLiteral;
+import org.monkey.ast.CallExpression;
+import org.monkey.ast.Expression;
+import org.monkey.ast.ExpressionStatement;
+import org.monkey.ast.IfExpression;
+import org.monkey.ast.InfixExpression;
+import org.monkey.ast.IntegerLiteral;
+import org.monkey.ast.PrefixExpression;
+import org.monkey.ast.ReturnStatement;
+import org.monkey.ast.Statement;
+import org.monkey.object.Function;
+import org.monkey.resolver.SlotIdentifier;
+import org.monkey.resolver.SlotLetStatement;
+import org.monkey.resolver.TailCallExpression;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.monkey.jit.CodeBuffer.*;
+
+// compiles the body of a Function into `static long call(long...)`, one long per parameter.
+//
+// Only integer code is supported: integer and boolean literals, parameters and lets holding integers or
+// booleans, the integer operators, if/else, return, and calls of the function to itself. A call in tail
+// position jumps back to the start instead of growing the Java stack. Anything else throws Unsupported and
+// the function stays in the evaluator.
+final class FunctionCompiler {
+
+    static final String CLASS_NAME = "org/monkey/jit/MonkeyFunction";
+    static final String METHOD_NAME = "call";
+
+    static final class Unsupported extends RuntimeException {
+        Unsupported(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+
+    private enum Type { LONG, BOOLEAN }
+
+    // what happens to the value of a block: it is returned, left on the stack, or dropped
+    private enum Context { RETURN, VALUE, EFFECT }
+
+    private final Function function;
+    private final int arity;
+    private final String descriptor;
+    private final ClassWriter classWriter = new ClassWriter(CLASS_NAME);
+    private final CodeBuffer code;
+    private final Type[] slotTypes;
+    private final Label start = new Label();
+    private int selfDepth = -1;
+    private int selfSlot = -1;
+
+    FunctionCompiler(Function function) {
+        this.function = function;
+        this.arity = function.parameters().size();
+        this.descriptor = "(" + "J".repeat(this.arity) + ")J";
+        this.code = new CodeBuffer(2 * this.arity);
+        this.slotTypes = new Type[function.frameSize()];
+        for (int i = 0; i < this.arity; i++) {
+            this.slotTypes[i] = Type.LONG;
+        }
+    }
+
+    byte[] compile() {
+        this.code.place(this.start);
+        var assigned = new BitSet();
+        assigned.set(0, this.arity);
+        this.block(this.function.body(), assigned, Context.RETURN);
+
+        this.classWriter.method(ClassWriter.ACC_PUBLIC | ClassWriter.ACC_STATIC,
+                                METHOD_NAME,
+                                this.descriptor,
+                                this.code);
+        return this.classWriter.toByteArray();
+    }
+
+    int arity() {
+        return this.arity;
+    }
+
+    // where the function finds itself, relative to its own frame; -1 if it does not call itself
+    int selfDepth() {
+        return this.selfDepth;
+    }
+
+    int selfSlot() {
+        return this.selfSlot;
+    }
+
+    // `assigned` holds the slots that are set on every path to this point; a read of any other slot could
+    // find it unset, which the evaluator reports as an error
+    private void block(BlockStatement block, BitSet assigned, Context context) {
+        var statements = block == null
+                ? List.<Statement>of()
+                : block.statements();
+        if (statements.isEmpty() && context != Context.EFFECT) {
+            throw new Unsupported("block without a value");
+        }
+
+        for (int i = 0; i < statements.size() && this.code.reachable(); i++) {
+            var last = i == statements.size() - 1;
+            switch (statements.get(i)) {
+                case SlotLetStatement node -> {
+                    if (last && context != Context.EFFECT) {
+                        throw new Unsupported("block ending in let");
+                    }
+                    var type = this.expression(node.value(), assigned);
+                    var previous = this.slotTypes[node.slot()];
+                    if (previous != null && previous != type) {
+                        throw new Unsupported("slot changes type");
+                    }
+                    this.slotTypes[node.slot()] = type;
+                    this.code.local(type == Type.LONG
+                                            ? LSTORE
+                                            : ISTORE, 2 * node.slot(), -size(type));
+                    assigned.set(node.slot());
+                }
+                case ReturnStatement node -> {
+                    if (context == Context.VALUE) {
+                        throw new Unsupported("return inside an expression");
+                    }
+                    this.returnValue(node.returnValue(), assigned);
+                }
+                case ExpressionStatement node when last && context == Context.RETURN ->
+                        this.returnValue(node.expression(), assigned);
+                case ExpressionStatement node when last && context == Context.VALUE ->
+                        this.expect(Type.LONG, this.expression(node.expression(), assigned));
+                case ExpressionStatement node -> {
+                    if (node.expression() instanceof IfExpression ie) {
+                        this.ifExpression(ie, assigned, Context.EFFECT);
+                    } else {
+                        var type = this.expression(node.expression(), assigned);
+                        this.code.op(type == Type.LONG
+                                             ? POP2
+                                             : POP, -size(type));
+                    }
+                }
+                default -> throw new Unsupported(statements.get(i).getClass().getSimpleName());
+            }
+        }
+    }
+
+    private void returnValue(Expression expression, BitSet assigned) {
+        switch (expression) {
+            case IfExpression node -> this.ifExpression(node, assigned, Context.RETURN);
+            case TailCallExpression node when this.isSelf(node.function()) -> {
+                this.arguments(node.arguments(), assigned);
+                for (int i = this.arity - 1; i >= 0; i--) {
+                    this.code.local(LSTORE, 2 * i, -2);
+                }
+                this.code.jump(GOTO, this.start, 0);
+            }
+            default -> {
+                this.expect(Type.LONG, this.expression(expression, assigned));
+                this.code.op(LRETURN, -2);
+            }
+        }
+    }
+
+    private void ifExpression(IfExpression node, BitSet assigned, Context context) {
+        this.expect(Type.BOOLEAN, this.expression(node.condition(), assigned));
+        var otherwise = new Label();
+        var end = new Label();
+        this.code.jump(IFEQ, otherwise, -1);
+
+        this.block(node.consequence(), (BitSet) assigned.clone(), context);
+        if (this.code.reachable()) {
+            this.code.jump(GOTO, end, 0);
+        }
+
+        this.code.place(otherwise);
+        if (node.alternative() == null && context != Context.EFFECT) {
+            throw new Unsupported("if without else has no value");
+        }
+        this.block(node.alternative(), (BitSet) assigned.clone(), context);
+        this.code.place(end);
+    }
+
+    private Type expression(Expression expression, BitSet assigned) {
+        return switch (expression) {
+            case IntegerLiteral node -> {
+                this.pushLong(node.value());
+                yield Type.LONG;
+            }
+            case BooleanLiteral node -> {
+                this.code.op(node.value()
+                                     ? ICONST_1
+                                     : ICONST_0, 1);
+                yield Type.BOOLEAN;
+            }
+            case SlotIdentifier node -> {
+                if (node.depth() != 0 || !assigned.get(node.slot())) {
+                    throw new Unsupported("read of " + node.string());
+                }
+                var type = this.slotTypes[node.slot()];
+                this.code.local(type == Type.LONG
+                                        ? LLOAD
+                                        : ILOAD, 2 * node.slot(), size(type));
+                yield type;
+            }
+            case PrefixExpression node -> this.prefix(node, assigned);
+            case InfixExpression node -> this.infix(node, assigned);
+            case IfExpression node -> {
+                this.ifExpression(node, assigned, Context.VALUE);
+                yield Type.LONG;
+            }
+            case CallExpression node -> this.selfCall(node.function(), node.arguments(), assigned);
+            case TailCallExpression node -> this.selfCall(node.function(), node.arguments(), assigned);
+            default -> throw new Unsupported(expression.getClass().getSimpleName());
+        };
+    }
+
+    private Type prefix(PrefixExpression node, BitSet assigned) {
+        var type = this.expression(node.right(), assigned);
+        switch (node.operator()) {
+            case "-" -> {
+                this.expect(Type.LONG, type);
+                this.code.op(LNEG, 0);
+                return Type.LONG;
+            }
+            case "!" -> {
+                if (type == Type.LONG) {
+                    // every integer is truthy
+                    this.code.op(POP2, -2);
+                    this.code.op(ICONST_0, 1);
+                } else {
+                    this.code.op(ICONST_1, 1);
+                    this.code.op(IXOR, -1);
+                }
+                return Type.BOOLEAN;
+            }
+            default -> throw new Unsupported("operator " + node.operator());
+        }
+    }
+
+    private Type infix(InfixExpression node, BitSet assigned) {
+        var left = this.expression(node.left(), assigned);
+        var right = this.expression(node.right(), assigned);
+        if (left != right) {
+            throw new Unsupported("type mismatch");
+        }
+
+        if (left == Type.BOOLEAN) {
+            return switch (node.operator()) {
+                case "==" -> this.test(IF_ICMPNE, -2);
+                case "!=" -> this.test(IF_ICMPEQ, -2);
+                default -> throw new Unsupported("operator " + node.operator());
+            };
+        }
+
+        return switch (node.operator()) {
+            case "+" -> this.arithmetic(LADD);
+            case "-" -> this.arithmetic(LSUB);
+            case "*" -> this.arithmetic(LMUL);
+            case "/" -> this.arithmetic(LDIV);
+            case "<" -> this.compare(IFGE);
+            case ">" -> this.compare(IFLE);
+            case "==" -> this.compare(IFNE);
+            case "!=" -> this.compare(IFEQ);
+            default -> throw new Unsupported("operator " + node.operator());
+        };
+    }
+
+    private Type arithmetic(int opcode) {
+        this.code.op(opcode, -2);
+        return Type.LONG;
+    }
+
+    private Type compare(int jumpIfFalse) {
+        this.code.op(LCMP, -3);
+        return this.test(jumpIfFalse, -1);
+    }
+
+    // turns a conditional jump into a boolean on the stack
+    private Type test(int jumpIfFalse, int stackChange) {
+        var no = new Label();
+        var end = new Label();
+        this.code.jump(jumpIfFalse, no, stackChange);
+        this.code.op(ICONST_1, 1);
+        this.code.jump(GOTO, end, 0);
+        this.code.place(no);
+        this.code.op(ICONST_0, 1);
+        this.code.place(end);
+        return Type.BOOLEAN;
+    }
+
+    private Type selfCall(Expression callee, List<Expression> arguments, BitSet assigned) {
+        if (!this.isSelf(callee)) {
+            throw new Unsupported("call of " + callee.string());
+        }
+        this.arguments(arguments, assigned);
+        var method = this.classWriter.methodRef(this.classWriter.thisClass(), METHOD_NAME, this.descriptor);
+        this.code.constant(INVOKESTATIC, method, 2 - 2 * this.arity);
+        return Type.LONG;
+    }
+
+    private void arguments(List<Expression> arguments, BitSet assigned) {
+        if (arguments.size() != this.arity) {
+            throw new Unsupported("wrong number of arguments");
+        }
+        for (Expression argument : arguments) {
+            this.expect(Type.LONG, this.expression(argument, assigned));
+        }
+    }
+
+    private boolean isSelf(Expression callee) {
+        if (!(callee instanceof SlotIdentifier node) || node.depth() == 0
+                || this.function.env().get(node.depth() - 1, node.slot()) != this.function) {
+            return false;
+        }
+        if (this.selfDepth >= 0 && (this.selfDepth != node.depth() || this.selfSlot != node.slot())) {
+            throw new Unsupported("function is bound to two names");
+        }
+        this.selfDepth = node.depth();
+        this.selfSlot = node.slot();
+        return true;
+    }
+
+    private void pushLong(long value) {
+        if (value == 0) {
+            this.code.op(LCONST_0, 2);
+        } else if (value == 1) {
+            this.code.op(LCONST_1, 2);
+        } else {
+            this.code.constant(LDC2_W, this.classWriter.longConstant(value), 2);
+        }
+    }
+
+    private void expect(Type expected, Type actual) {
+        if (expected != actual) {
+            throw new Unsupported("expected " + expected + ", got " + actual);
+        }
+    }
+
+    private static int size(Type type) {
+        return type == Type.LONG
+                ? 2
+                : 1;
+    }
+}
@@ -0,0 +1,68 @@
+package org.monkey.jit;
+
+import org.monkey.object.Function;
+import org.monkey.object.Object;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.List;
+
+// the second tier of the evaluator: counts the calls of every function literal and, once one gets hot,
+// compiles its body into a hidden class that HotSpot can inline and optimize like any Java method
+public class Jit {
+
+    public static final int DEFAULT_THRESHOLD = 100;
+
+    private final int threshold;
+    private int compiled;
+
+    public Jit() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    public Jit(int threshold) {
+        this.threshold = threshold;
+    }
+
+    // the result of running the function compiled, or null when it has to run in the evaluator
+    public Object call(Function function, List<Object> args) {
+        // the profile lives on the literal, which all closures made from it share
+        var profile = function.profile();
+        if (profile.code == null) {
+            if (profile.unsupported || ++profile.calls < this.threshold) {
+                return null;
+            }
+            try {
+                profile.code = compile(function);
+                this.compiled++;
+            } catch (FunctionCompiler.Unsupported e) {
+                profile.unsupported = true;
+                return null;
+            }
+        }
+        return ((JitCode) profile.code).invoke(function, args);
+    }
+
+    // the number of function literals compiled so far
+    public int compiled() {
+        return this.compiled;
+    }
+
+    private static JitCode compile(Function function) {
+        var compiler = new FunctionCompiler(function);
+        var classFile = compiler.compile();
+        var arity = compiler.arity();
+        try {
+            var lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            var type = MethodType.methodType(long.class, Collections.nCopies(arity, long.class));
+            var handle = lookup.findStatic(lookup.lookupClass(), FunctionCompiler.METHOD_NAME, type);
+            return new JitCode(handle.asSpreader(long[].class, arity),
+                               arity,
+                               compiler.selfDepth(),
+                               compiler.selfSlot());
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.monkey.jit;
+
+import org.monkey.object.Function;
+import org.monkey.object.Integer;
+import org.monkey.object.Object;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+// a compiled function body; `entry` has the type (long[])long
+record JitCode(MethodHandle entry, int arity, int selfDepth, int selfSlot) {
+
+    // null when the guard fails: an argument is not an integer, or the name the body calls itself by now
+    // means something else
+    Object invoke(Function function, List<Object> args) {
+        if (args.size() != this.arity) {
+            return null;
+        }
+        if (this.selfDepth >= 0 && function.env().get(this.selfDepth - 1, this.selfSlot) != function) {
+            return null;
+        }
+
+        var values = new long[this.arity];
+        for (int i = 0; i < this.arity; i++) {
+            if (!(args.get(i) instanceof Integer integer)) {
+                return null;
+            }
+            values[i] = integer.value();
+        }
+
+        try {
+            return Integer.valueOf((long) this.entry.invokeExact(values));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
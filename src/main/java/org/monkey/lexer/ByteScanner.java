@@ -0,0 +1,38 @@
+package org.monkey.lexer;
+
+import java.nio.ByteBuffer;
+
+// finds the end of a run of bytes of one CharClass
+interface ByteScanner {
+
+    // the index of the first byte in [from, to) that is not of the class, or to
+    int scan(byte[] input, int from, int to, int charClass);
+
+    // the same for a buffer with no array behind it, such as a mapped file; from and to index the buffer
+    default int scan(ByteBuffer input, int from, int to, int charClass) {
+        var i = from;
+        while (i < to && CharClass.is(input.get(i), charClass)) {
+            i++;
+        }
+        return i;
+    }
+
+    // the scanner for a lexer reading input, which has no array behind it
+    default ByteScanner over(ByteBuffer input) {
+        return this;
+    }
+
+    // the Vector API version when the JVM has the incubator module, the table-driven loop otherwise
+    static ByteScanner load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (ByteScanner) Class.forName("org.monkey.lexer.VectorScanner")
+                                          .getDeclaredConstructor()
+                                          .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall through to the scalar scanner
+            }
+        }
+        return new ScalarScanner();
+    }
+}
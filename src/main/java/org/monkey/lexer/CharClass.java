@@ -0,0 +1,38 @@
+package org.monkey.lexer;
+
+// a 256-entry table of character classes, so the per-byte tests of the lexer are one load and a mask
+final class CharClass {
+
+    static final int WHITESPACE = 1;
+    static final int LETTER = 2;
+    static final int DIGIT = 4;
+    static final int STRING = 8; // may appear inside a string literal: anything but the quote and the end
+
+    private static final byte[] CLASSES = new byte[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            int classes = 0;
+            if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                classes |= WHITESPACE;
+            }
+            if ('a' <= b && b <= 'z' || 'A' <= b && b <= 'Z' || b == '_') {
+                classes |= LETTER;
+            }
+            if ('0' <= b && b <= '9') {
+                classes |= DIGIT;
+            }
+            if (b != '"' && b != 0) {
+                classes |= STRING;
+            }
+            CLASSES[b] = (byte) classes;
+        }
+    }
+
+    private CharClass() {
+    }
+
+    static boolean is(byte ch, int charClass) {
+        return (CLASSES[ch & 0xff] & charClass) != 0;
+    }
+}
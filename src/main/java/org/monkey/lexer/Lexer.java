@@ -4,192 +4,296 @@ import org.monkey.token.Token;
 import org.monkey.token.TokenType;
 import org.monkey.token.TokenUtil;
 
-public class Lexer {
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
 
-    private final byte[] input;
-    private int position; // current position in input (points to current char)
-    private int readPosition; // current reading position in input (after current char)
+// The input is a window of bytes: the whole input for a String or a mapped file, or a bounded buffer that is
+// refilled from a channel. Nothing looks behind the current char, so the text of a token is collected while
+// it is read rather than cut out of the input.
+public class Lexer implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // every token but strings is shared: punctuation and operators are constants, names and numbers are
+    // interned per lexer, so most calls to nextToken allocate nothing
+    private static final Token[] CHAR_TOKENS = new Token[256];
+    private static final Token EQ = new Token(TokenType.EQ, TokenType.EQ.literal());
+    private static final Token NOT_EQ = new Token(TokenType.NOT_EQ, TokenType.NOT_EQ.literal());
+    private static final Token EOF = new Token(TokenType.EOF, "");
+
+    static {
+        for (int b = 0; b < CHAR_TOKENS.length; b++) {
+            CHAR_TOKENS[b] = new Token(TokenType.ILLEGAL, new String(new byte[]{ (byte) b }));
+        }
+        for (TokenType type : List.of(TokenType.ASSIGN, TokenType.PLUS, TokenType.MINUS, TokenType.BANG,
+                                      TokenType.ASTERISK, TokenType.SLASH, TokenType.LT, TokenType.GT,
+                                      TokenType.COMMA, TokenType.SEMICOLON, TokenType.COLON,
+                                      TokenType.LPAREN, TokenType.RPAREN, TokenType.LBRACE, TokenType.RBRACE,
+                                      TokenType.LBRACKET, TokenType.RBRACKET)) {
+            CHAR_TOKENS[type.literal().charAt(0)] = new Token(type, type.literal());
+        }
+    }
+
+    private static final ByteScanner SCANNER = ByteScanner.load();
+
+    private final ByteBuffer input;
+    private final ByteScanner scanner;
+    private final ReadableByteChannel channel; // null when the input holds everything
+    private boolean ownsChannel; // whether Lexer.of opened the channel, so closing it is up to the lexer
+    private byte[] text = new byte[64]; // the token being read
+    private int textLength;
+    private long intValue;
+    private long base; // added to an index into the buffer, gives the offset of that byte in the input
+    private long offset; // of the current char
+    private long tokenStart;
+    private final Symbols identifiers = new Symbols(name -> new Token(TokenUtil.lookupIdent(name), name));
+    private final Symbols numbers = new Symbols(digits -> new Token(TokenType.INT, digits));
     byte ch; // current char under examination
 
     public Lexer(String input) {
-        this.input = input.getBytes();
+        this(input, SCANNER);
+    }
+
+    Lexer(String input, ByteScanner scanner) {
+        this(ByteBuffer.wrap(input.getBytes()), null, scanner);
+    }
+
+    // lexes the remaining bytes of the buffer, without copying them
+    public Lexer(ByteBuffer input) {
+        this(input, null, SCANNER);
+    }
+
+    Lexer(ByteBuffer input, ByteScanner scanner) {
+        this(input, null, scanner);
+    }
+
+    // reads the channel incrementally; closing it is up to the caller
+    public Lexer(ReadableByteChannel channel) {
+        this(ByteBuffer.allocate(BUFFER_SIZE).flip(), channel, SCANNER);
+    }
+
+    private Lexer(ByteBuffer input, ReadableByteChannel channel, ByteScanner scanner) {
+        this.input = input;
+        this.channel = channel;
+        this.scanner = input.hasArray() ? scanner : scanner.over(input);
+        this.base = -input.position();
         this.readChar();
     }
 
+    // maps the file instead of reading it onto the heap; files too large for one mapping are streamed from a
+    // channel that stays open until the lexer is closed
+    public static Lexer of(Path path) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                var lexer = new Lexer(channel);
+                lexer.ownsChannel = true;
+                return lexer;
+            }
+            // the mapping stays valid after the channel is closed
+            var mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            channel.close();
+            return new Lexer(mapped, null, SCANNER);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // closes the channel that Lexer.of opened; any other input belongs to the caller
+    @Override
+    public void close() throws IOException {
+        if (this.ownsChannel) {
+            this.channel.close();
+        }
+    }
+
     public Token nextToken() {
         Token token;
         this.skipWhitespace();
+        this.tokenStart = this.offset;
         switch (this.ch) {
             case '=': {
                 if (this.peekChar() == '=') {
-                    var b = this.ch;
                     this.readChar();
-                    token = new Token(TokenType.EQ, new String(new byte[]{ b, this.ch }));
+                    token = EQ;
                 } else {
-                    token = newToken(TokenType.ASSIGN, this.ch);
+                    token = CHAR_TOKENS['='];
                 }
                 break;
             }
-            case '+': {
-                token = newToken(TokenType.PLUS, this.ch);
-                break;
-            }
-            case '-': {
-                token = newToken(TokenType.MINUS, this.ch);
-                break;
-            }
             case '!': {
                 if (this.peekChar() == '=') {
-                    var b = this.ch;
                     this.readChar();
-                    token = new Token(TokenType.NOT_EQ, new String(new byte[]{ b, this.ch }));
+                    token = NOT_EQ;
                 } else {
-                    token = newToken(TokenType.BANG, this.ch);
+                    token = CHAR_TOKENS['!'];
                 }
                 break;
             }
-            case '/': {
-                token = newToken(TokenType.SLASH, this.ch);
-                break;
-            }
-            case '*': {
-                token = newToken(TokenType.ASTERISK, this.ch);
-                break;
-            }
-            case '<': {
-                token = newToken(TokenType.LT, this.ch);
-                break;
-            }
-            case '>': {
-                token = newToken(TokenType.GT, this.ch);
-                break;
-            }
-            case ';': {
-                token = newToken(TokenType.SEMICOLON, this.ch);
-                break;
-            }
-            case ':': {
-                token = newToken(TokenType.COLON, this.ch);
-                break;
-            }
-            case ',': {
-                token = newToken(TokenType.COMMA, this.ch);
-                break;
-            }
-            case '{': {
-                token = newToken(TokenType.LBRACE, this.ch);
-                break;
-            }
-            case '}': {
-                token = newToken(TokenType.RBRACE, this.ch);
-                break;
-            }
-            case '(': {
-                token = newToken(TokenType.LPAREN, this.ch);
-                break;
-            }
-            case ')': {
-                token = newToken(TokenType.RPAREN, this.ch);
-                break;
-            }
             case '"': {
                 token = new Token(TokenType.STRING, this.readString());
                 break;
             }
-            case '[': {
-                token = newToken(TokenType.LBRACKET, this.ch);
-                break;
-            }
-            case ']': {
-                token = newToken(TokenType.RBRACKET, this.ch);
-                break;
-            }
             case 0: {
-                token = new Token(TokenType.EOF, "");
+                token = EOF;
                 break;
             }
             default: {
                 if (isLetter(this.ch)) {
-                    var identifier = this.readIdentifier();
-                    token = new Token(TokenUtil.lookupIdent(identifier), identifier);
-                    return token;
+                    this.readIdentifier();
+                    return this.identifiers.intern(this.text, this.textLength);
                 } else if (isDigit(this.ch)) {
-                    token = new Token(TokenType.INT, this.readNumber());
-                    return token;
+                    this.readNumber();
+                    return this.numbers.intern(this.text, this.textLength);
                 } else {
-                    token = newToken(TokenType.ILLEGAL, this.ch);
+                    token = CHAR_TOKENS[this.ch & 0xff];
                 }
-
             }
         }
         this.readChar();
         return token;
     }
 
+    // where the token last returned starts, in bytes from the start of the input
+    public long tokenStart() {
+        return this.tokenStart;
+    }
+
+    // the value of the INT token last returned, or -1 when it does not fit in a long
+    public long intValue() {
+        return this.intValue;
+    }
+
     private void readChar() {
-        if (this.readPosition >= this.input.length) {
-            this.ch = 0;
-        } else {
-            this.ch = this.input[this.readPosition];
-        }
-        this.position = this.readPosition;
-        this.readPosition++;
+        var available = this.available();
+        this.offset = this.base + this.input.position();
+        this.ch = available
+                ? this.input.get()
+                : 0;
     }
 
     private void skipWhitespace() {
-        while (this.ch == ' ' || this.ch == '\t' || this.ch == '\n' || this.ch == '\r') {
-            this.readChar();
+        if (CharClass.is(this.ch, CharClass.WHITESPACE)) {
+            this.scanRun(CharClass.WHITESPACE, false);
         }
     }
 
+    // reads past the run of the class that the current char starts, keeping its text if asked, and makes the
+    // first char after the run current. Whole buffers are handed to the scanner, refilling as the run goes on.
+    private void scanRun(int charClass, boolean keep) {
+        while (this.available()) {
+            var position = this.input.position();
+            var limit = this.input.limit();
+            int end;
+            if (this.input.hasArray()) {
+                var offset = this.input.arrayOffset();
+                end = this.scanner.scan(this.input.array(), offset + position, offset + limit, charClass) - offset;
+            } else {
+                end = this.scanner.scan(this.input, position, limit, charClass);
+            }
+            if (keep) {
+                this.appendBytes(position, end);
+            }
+            this.input.position(end);
+            if (end < limit) {
+                break;
+            }
+        }
+        this.readChar();
+    }
+
     private byte peekChar() {
-        return this.readPosition >= this.input.length
-                ? 0
-                : this.input[this.readPosition];
+        return this.available()
+                ? this.input.get(this.input.position())
+                : 0;
     }
 
-    private String readIdentifier() {
-        var left = this.position;
-        while (this.isLetter(this.ch)) {
-            this.readChar();
+    // whether there is a byte after the current char, refilling the buffer from the channel if needed
+    private boolean available() {
+        if (this.input.hasRemaining()) {
+            return true;
+        }
+        if (this.channel == null) {
+            return false;
+        }
+        try {
+            this.base += this.input.limit();
+            this.input.clear();
+            var read = 0;
+            while (read == 0) {
+                read = this.channel.read(this.input);
+            }
+            this.input.flip();
+            return read > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        var bytes = new byte[this.position - left];
-        System.arraycopy(this.input, left, bytes, 0, bytes.length);
-        return new String(bytes);
     }
 
-    private String readNumber() {
-        var left = this.position;
+    private void readIdentifier() {
+        this.textLength = 0;
+        this.appendChar();
+        this.scanRun(CharClass.LETTER, true);
+    }
+
+    private void readNumber() {
+        this.textLength = 0;
+        long value = 0;
         while (this.isDigit(this.ch)) {
+            var digit = this.ch - '0';
+            value = value > (Long.MAX_VALUE - digit) / 10 || value < 0
+                    ? -1
+                    : value * 10 + digit;
+            this.appendChar();
             this.readChar();
         }
-        var bytes = new byte[this.position - left];
-        System.arraycopy(this.input, left, bytes, 0, bytes.length);
-        return new String(bytes);
+        this.intValue = value;
     }
 
     private String readString() {
-        var left = this.position + 1;
-        for (; ; ) {
-            this.readChar();
-            if (this.ch == '"' || this.ch == 0) {
-                break;
-            }
+        this.textLength = 0;
+        this.readChar();
+        if (CharClass.is(this.ch, CharClass.STRING)) {
+            this.appendChar();
+            this.scanRun(CharClass.STRING, true);
         }
-        var bytes = new byte[this.position - left];
-        System.arraycopy(this.input, left, bytes, 0, bytes.length);
-        return new String(bytes);
+        return this.text();
     }
 
-    private boolean isLetter(byte ch) {
-        return 'a' <= ch && ch <= 'z' || 'A' <= ch && ch <= 'Z' || ch == '_';
+    private void appendChar() {
+        if (this.textLength == this.text.length) {
+            this.text = Arrays.copyOf(this.text, this.text.length * 2);
+        }
+        this.text[this.textLength++] = this.ch;
     }
 
-    private boolean isDigit(byte ch) {
-        return '0' <= ch && ch <= '9';
+    // copies input[from, to) to the text without moving the buffer
+    private void appendBytes(int from, int to) {
+        var length = to - from;
+        if (this.textLength + length > this.text.length) {
+            this.text = Arrays.copyOf(this.text, Math.max(this.text.length * 2, this.textLength + length));
+        }
+        this.input.get(from, this.text, this.textLength, length);
+        this.textLength += length;
     }
 
-    private Token newToken(TokenType tokenType, byte ch) {
-        return new Token(tokenType, new String(new byte[]{ this.ch }));
+    private String text() {
+        return new String(this.text, 0, this.textLength);
+    }
+
+    private boolean isLetter(byte ch) {
+        return CharClass.is(ch, CharClass.LETTER);
+    }
+
+    private boolean isDigit(byte ch) {
+        return CharClass.is(ch, CharClass.DIGIT);
     }
 }
@@ -0,0 +1,13 @@
+package org.monkey.lexer;
+
+final class ScalarScanner implements ByteScanner {
+
+    @Override
+    public int scan(byte[] input, int from, int to, int charClass) {
+        var i = from;
+        while (i < to && CharClass.is(input[i], charClass)) {
+            i++;
+        }
+        return i;
+    }
+}
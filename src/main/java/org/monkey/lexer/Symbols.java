@@ -0,0 +1,71 @@
+package org.monkey.lexer;
+
+import org.monkey.token.Token;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+// interns tokens by their bytes: the first occurrence of a name or number makes its Token, every later one
+// gets the same instance without allocating. Open addressing over parallel arrays, kept at most half full.
+final class Symbols {
+
+    private final Function<String, Token> factory;
+    private byte[][] keys = new byte[256][];
+    private Token[] tokens = new Token[256];
+    private int size;
+
+    Symbols(Function<String, Token> factory) {
+        this.factory = factory;
+    }
+
+    Token intern(byte[] text, int length) {
+        var mask = this.keys.length - 1;
+        for (int i = hash(text, length) & mask; ; i = (i + 1) & mask) {
+            var key = this.keys[i];
+            if (key == null) {
+                var token = this.factory.apply(new String(text, 0, length));
+                this.keys[i] = Arrays.copyOf(text, length);
+                this.tokens[i] = token;
+                if (++this.size * 2 > this.keys.length) {
+                    this.grow();
+                }
+                return token;
+            }
+            if (Arrays.equals(key, 0, key.length, text, 0, length)) {
+                return this.tokens[i];
+            }
+        }
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    private void grow() {
+        var oldKeys = this.keys;
+        var oldTokens = this.tokens;
+        this.keys = new byte[oldKeys.length * 2][];
+        this.tokens = new Token[oldTokens.length * 2];
+        var mask = this.keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            var key = oldKeys[j];
+            if (key == null) {
+                continue;
+            }
+            var i = hash(key, key.length) & mask;
+            while (this.keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            this.keys[i] = key;
+            this.tokens[i] = oldTokens[j];
+        }
+    }
+
+    private static int hash(byte[] text, int length) {
+        var h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + text[i];
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,60 @@
+package org.monkey.lexer;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+
+// compares a whole vector of bytes at a time and stops at the first lane outside the class; the tail that
+// does not fill a vector goes through the table. Only loaded by ByteScanner.load() when the module is there.
+final class VectorScanner implements ByteScanner {
+
+    static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private final ScalarScanner tail = new ScalarScanner();
+
+    @Override
+    public int scan(byte[] input, int from, int to, int charClass) {
+        // most runs between tokens are a single byte; those are not worth a vector load
+        if (from == to || !CharClass.is(input[from], charClass)) {
+            return from;
+        }
+        var i = from;
+        var bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            var outside = matches(ByteVector.fromArray(SPECIES, input, i), charClass).not();
+            if (outside.anyTrue()) {
+                return i + outside.firstTrue();
+            }
+        }
+        return this.tail.scan(input, i, to, charClass);
+    }
+
+    // a mapped file has no array, so it is copied into one a window at a time
+    @Override
+    public ByteScanner over(ByteBuffer input) {
+        return new WindowScanner(this);
+    }
+
+    static VectorMask<Byte> matches(ByteVector v, int charClass) {
+        return switch (charClass) {
+            case CharClass.WHITESPACE -> v.eq((byte) ' ')
+                                          .or(v.eq((byte) '\t'))
+                                          .or(v.eq((byte) '\n'))
+                                          .or(v.eq((byte) '\r'));
+            case CharClass.LETTER -> {
+                // setting bit 5 folds upper case onto lower case; bytes above 127 are negative and stay out
+                var lower = v.or((byte) 0x20);
+                yield lower.compare(VectorOperators.GE, (byte) 'a')
+                           .and(lower.compare(VectorOperators.LE, (byte) 'z'))
+                           .or(v.eq((byte) '_'));
+            }
+            case CharClass.DIGIT -> v.compare(VectorOperators.GE, (byte) '0')
+                                     .and(v.compare(VectorOperators.LE, (byte) '9'));
+            case CharClass.STRING -> v.eq((byte) '"').or(v.eq((byte) 0)).not();
+            default -> throw new IllegalArgumentException("unknown character class: " + charClass);
+        };
+    }
+}
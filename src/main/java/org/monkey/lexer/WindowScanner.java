@@ -0,0 +1,42 @@
+package org.monkey.lexer;
+
+import java.nio.ByteBuffer;
+
+// the array loop of another scanner over a buffer without an array, such as a mapped file: the buffer is
+// copied a window at a time into a scratch array, which is then scanned. One per lexer, for the scratch.
+final class WindowScanner implements ByteScanner {
+
+    // long enough for nearly every run between tokens, short enough that copying it costs less than the scan
+    static final int WINDOW = 256;
+
+    private final ByteScanner arrays;
+    private final byte[] window = new byte[WINDOW];
+
+    WindowScanner(ByteScanner arrays) {
+        this.arrays = arrays;
+    }
+
+    @Override
+    public int scan(byte[] input, int from, int to, int charClass) {
+        return this.arrays.scan(input, from, to, charClass);
+    }
+
+    @Override
+    public int scan(ByteBuffer input, int from, int to, int charClass) {
+        // most runs between tokens are a single byte; those are not worth a copy
+        if (from == to || !CharClass.is(input.get(from), charClass)) {
+            return from;
+        }
+        var i = from;
+        while (i < to) {
+            var length = Math.min(WINDOW, to - i);
+            input.get(i, this.window, 0, length);
+            var end = this.arrays.scan(this.window, 0, length, charClass);
+            if (end < length) {
+                return i + end;
+            }
+            i += length;
+        }
+        return to;
+    }
+}
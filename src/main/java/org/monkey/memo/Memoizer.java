@@ -0,0 +1,66 @@
+package org.monkey.memo;
+
+import org.monkey.object.Function;
+import org.monkey.object.MemoCache;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// opt-in memoization of pure functions for org.monkey.evaluator.Evaluator. Purity is decided on the first
+// call of each function value, from the values its environment holds then, and both the verdicts and the
+// results hold only until a binding that some function closes over is re-bound. The verdicts and caches are
+// bounded, so a program that keeps making closures stops being memoized rather than growing without limit.
+public class Memoizer {
+
+    private static final int MAX_FUNCTIONS = 256;
+    private static final MemoCache IMPURE = new MemoCache(0);
+
+    private final int capacity;
+    private final Map<Function, MemoCache> caches = new IdentityHashMap<>();
+
+    public Memoizer() {
+        this(MemoCache.DEFAULT_CAPACITY);
+    }
+
+    public Memoizer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // the cache of a pure function, or null when the function is impure or there is no room left
+    public MemoCache cacheFor(Function fn) {
+        var cache = this.caches.get(fn);
+        if (cache == null) {
+            if (this.caches.size() >= MAX_FUNCTIONS) {
+                return null;
+            }
+            cache = Purity.isPure(fn)
+                    ? new MemoCache(this.capacity)
+                    : IMPURE;
+            this.caches.put(fn, cache);
+        }
+        return cache == IMPURE
+                ? null
+                : cache;
+    }
+
+    // a let re-bound a name that functions can see: a function it called may now be another one, and a value
+    // it read may have changed
+    public void forget() {
+        this.caches.clear();
+    }
+
+    public String report() {
+        long functions = 0;
+        long hits = 0;
+        long misses = 0;
+        for (MemoCache cache : this.caches.values()) {
+            if (cache != IMPURE) {
+                functions++;
+                hits += cache.hits();
+                misses += cache.misses();
+            }
+        }
+        return String.format("memo       %d of %d functions pure, %d hits, %d misses\n",
+                             functions, this.caches.size(), hits, misses);
+    }
+}
@@ -0,0 +1,141 @@
+package org.monkey.memo;
+
+import org.monkey.ast.*;
+import org.monkey.object.BuiltIn;
+import org.monkey.object.BuiltIns;
+import org.monkey.object.Function;
+import org.monkey.object.Memoized;
+import org.monkey.object.Object;
+import org.monkey.resolver.BuiltInIdentifier;
+import org.monkey.resolver.SlotFunctionLiteral;
+import org.monkey.resolver.SlotIdentifier;
+import org.monkey.resolver.SlotLetStatement;
+import org.monkey.resolver.TailCallExpression;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// decides whether calling a function can do anything but compute its result: it must not call an impure
+// builtin, and every function it calls must be known, through its environment, and pure itself. A call
+// through a parameter or local could go anywhere, so it makes the caller impure.
+final class Purity {
+
+    private static final Set<String> IMPURE_BUILTINS = Set.of("puts");
+    // builtins that call the function passed as this argument
+    private static final Map<String, java.lang.Integer> CALLING_BUILTINS =
+            Map.of("map", 1, "filter", 1, "reduce", 2, "each", 1);
+
+    // functions under analysis; a recursive call to one of them does not make it impure
+    private final Set<Function> visiting = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    static boolean isPure(Function fn) {
+        return new Purity().function(fn);
+    }
+
+    private Purity() {
+    }
+
+    private boolean function(Function fn) {
+        if (!this.visiting.add(fn)) {
+            return true;
+        }
+        try {
+            return this.pure(fn.body(), fn, 0);
+        } finally {
+            this.visiting.remove(fn);
+        }
+    }
+
+    // nesting counts the function literals between fn's body and the node
+    private boolean pure(Node n, Function fn, int nesting) {
+        return switch (n) {
+            case SlotLetStatement node -> this.pure(node.value(), fn, nesting);
+            case ReturnStatement node -> this.pure(node.returnValue(), fn, nesting);
+            case ExpressionStatement node -> this.pure(node.expression(), fn, nesting);
+            case BlockStatement node -> this.all(node.statements(), fn, nesting);
+            case PrefixExpression node -> this.pure(node.right(), fn, nesting);
+            case InfixExpression node -> this.pure(node.left(), fn, nesting) && this.pure(node.right(), fn, nesting);
+            case IfExpression node -> this.pure(node.condition(), fn, nesting)
+                    && this.pure(node.consequence(), fn, nesting)
+                    && this.pure(node.alternative(), fn, nesting);
+            case SlotFunctionLiteral node -> this.pure(node.body(), fn, nesting + 1);
+            case CallExpression node -> this.callee(node.function(), fn, nesting)
+                    && this.all(node.arguments(), fn, nesting)
+                    && this.passed(node.function(), node.arguments(), fn, nesting);
+            case TailCallExpression node -> this.callee(node.function(), fn, nesting)
+                    && this.all(node.arguments(), fn, nesting)
+                    && this.passed(node.function(), node.arguments(), fn, nesting);
+            case ArrayLiteral node -> this.all(node.elements(), fn, nesting);
+            case IndexExpression node -> this.pure(node.left(), fn, nesting) && this.pure(node.index(), fn, nesting);
+            case HashLiteral node -> node.pairs()
+                                         .entrySet()
+                                         .stream()
+                                         .allMatch(pair -> this.pure(pair.getKey(), fn, nesting)
+                                                 && this.pure(pair.getValue(), fn, nesting));
+            case null, default -> true;
+        };
+    }
+
+    private boolean all(List<? extends Node> nodes, Function fn, int nesting) {
+        for (Node node : nodes) {
+            if (!this.pure(node, fn, nesting)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // a function passed to a builtin that calls it is called too, whatever name the builtin is called by; the
+    // body of a literal is checked already, and anything else has to resolve to a pure function
+    private boolean passed(Expression callee, List<Expression> arguments, Function fn, int nesting) {
+        var index = CALLING_BUILTINS.get(this.builtInName(callee, fn, nesting));
+        return index == null
+                || index >= arguments.size()
+                || arguments.get(index) instanceof SlotFunctionLiteral
+                || this.callee(arguments.get(index), fn, nesting);
+    }
+
+    // the name of the builtin that callee resolves to, or "" when it is not one
+    private String builtInName(Expression callee, Function fn, int nesting) {
+        return switch (callee) {
+            case BuiltInIdentifier node -> node.string();
+            case SlotIdentifier node when node.depth() > nesting ->
+                    nameOf(fn.env().get(node.depth() - nesting - 1, node.slot()));
+            default -> "";
+        };
+    }
+
+    private static String nameOf(Object value) {
+        return switch (value) {
+            case BuiltIn builtIn -> BuiltIns.definitions.stream()
+                                                        .filter(definition -> definition.builtIn() == builtIn)
+                                                        .map(BuiltIns.Definition::name)
+                                                        .findFirst()
+                                                        .orElse("");
+            case Memoized memoized -> nameOf(memoized.function());
+            case null, default -> "";
+        };
+    }
+
+    private boolean callee(Expression callee, Function fn, int nesting) {
+        return switch (callee) {
+            case BuiltInIdentifier node -> !IMPURE_BUILTINS.contains(node.string());
+            // depth counts frames from the innermost literal; past fn's own frame it reaches fn's environment
+            case SlotIdentifier node when node.depth() > nesting ->
+                    this.value(fn.env().get(node.depth() - nesting - 1, node.slot()));
+            default -> false;
+        };
+    }
+
+    private boolean value(Object callee) {
+        return switch (callee) {
+            case Function fn -> this.function(fn);
+            case Memoized memoized -> this.value(memoized.function());
+            case BuiltIn builtIn -> IMPURE_BUILTINS.stream().noneMatch(name -> BuiltIns.lookup(name) == builtIn);
+            case null, default -> false;
+        };
+    }
+}
@@ -3,7 +3,27 @@ package org.monkey.object;
 import java.util.List;
 import java.util.stream.Collectors;
 
+// elements is always a PersistentVector, so push and rest share the elements of the array they start from
 public record Array(List<Object> elements) implements Object {
+
+    public Array {
+        elements = PersistentVector.of(elements);
+    }
+
+    // the element at index, or null when there is none
+    public Object at(long index) {
+        return index >= 0 && index < this.elements.size() ? this.elements.get((int) index) : null;
+    }
+
+    public Array push(Object element) {
+        return new Array(((PersistentVector) this.elements).push(element));
+    }
+
+    // every element but the first, which must exist
+    public Array rest() {
+        return new Array(this.elements.subList(1, this.elements.size()));
+    }
+
     @Override
     public ObjectType type() {
         return ObjectType.ARRAY_OBJ;
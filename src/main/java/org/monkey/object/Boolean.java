@@ -2,6 +2,9 @@ package org.monkey.object;
 
 public record Boolean(boolean value) implements Object, Hashable {
 
+    public static final Boolean TRUE = new Boolean(true);
+    public static final Boolean FALSE = new Boolean(false);
+
     @Override
     public HashKey hashKey() {
         return new HashKey(this.type(),
@@ -10,6 +13,13 @@ public record Boolean(boolean value) implements Object, Hashable {
                                    : 0L);
     }
 
+    @Override
+    public long keyHash() {
+        return this.value
+                ? 1L
+                : 0L;
+    }
+
     @Override
     public ObjectType type() {
         return ObjectType.BOOLEAN_OBJ;
@@ -1,5 +1,6 @@
 package org.monkey.object;
 
 public interface BuiltInFunction {
-    public Object call(Object... args);
+    // invoker calls the functions the builtin is given
+    public Object call(Invoker invoker, Object... args);
 }
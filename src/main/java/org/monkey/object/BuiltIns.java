@@ -0,0 +1,310 @@
+package org.monkey.object;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class BuiltIns {
+
+    public record Definition(java.lang.String name, BuiltIn builtIn) { }
+
+    private static final Object NULL = Null.NULL;
+
+    // the order of this list is part of the bytecode format: GET_BUILTIN refers to builtins by index
+    public static final List<Definition> definitions = List.of(
+            new Definition("len", new BuiltIn((invoker, args) -> {
+                if (args.length != 1) {
+                    return newError("wrong number of arguments. got=%d, want=1", args.length);
+                }
+                var arg = args[0];
+                if (arg instanceof Array arr) {
+                    return Integer.valueOf(arr.elements().size());
+                } else if (arg instanceof String str) {
+                    return Integer.valueOf(str.length());
+                } else if (arg instanceof Sequence sequence) {
+                    return Integer.valueOf(sequence.count(invoker));
+                } else {
+                    return newError("argument to `len` not supported, got %s", arg.type().value());
+                }
+            })),
+            new Definition("puts", new BuiltIn((invoker, args) -> {
+                for (Object arg : args) {
+                    System.out.println(arg.inspect());
+                }
+                return NULL;
+            })),
+            new Definition("first", new BuiltIn((invoker, args) -> {
+                if (args.length != 1) {
+                    return newError("wrong number of arguments. got=%d, want=1", args.length);
+                }
+                var arg = args[0];
+                if (arg.type() != ObjectType.ARRAY_OBJ) {
+                    return newError("argument to `first` must be ARRAY, got %s", arg.type().value());
+                }
+                if (arg instanceof Array arr) {
+                    if (arr.elements().isEmpty()) { return NULL; }
+                    return arr.elements().getFirst();
+                }
+
+                return NULL;
+            })),
+            new Definition("last", new BuiltIn((invoker, args) -> {
+                if (args.length != 1) {
+                    return newError("wrong number of arguments. got=%d, want=1", args.length);
+                }
+                var arg = args[0];
+                if (arg.type() != ObjectType.ARRAY_OBJ) {
+                    return newError("argument to `last` must be ARRAY, got %s", arg.type().value());
+                }
+                if (arg instanceof Array arr) {
+                    if (arr.elements().isEmpty()) { return NULL; }
+                    return arr.elements().getLast();
+                }
+
+                return NULL;
+            })),
+            new Definition("rest", new BuiltIn((invoker, args) -> {
+                if (args.length != 1) {
+                    return newError("wrong number of arguments. got=%d, want=1", args.length);
+                }
+                var arg = args[0];
+                if (arg.type() != ObjectType.ARRAY_OBJ) {
+                    return newError("argument to `rest` must be ARRAY, got %s", arg.type().value());
+                }
+                if (arg instanceof Array arr) {
+                    if (arr.elements().isEmpty()) { return NULL; }
+                    return arr.rest();
+                }
+
+                return NULL;
+            })),
+            new Definition("push", new BuiltIn((invoker, args) -> {
+                if (args.length != 2) {
+                    return newError("wrong number of arguments. got=%d, want=2", args.length);
+                }
+                var arg = args[0];
+                if (arg.type() != ObjectType.ARRAY_OBJ) {
+                    return newError("argument to `push` must be ARRAY, got %s", arg.type().value());
+                }
+                if (arg instanceof Array arr) {
+                    return arr.push(args[1]);
+                }
+
+                return arg;
+            })),
+            new Definition("memo", new BuiltIn((invoker, args) -> {
+                if (args.length != 1 && args.length != 2) {
+                    return newError("wrong number of arguments. got=%d, want=1 or 2", args.length);
+                }
+                var arg = args[0];
+                if (arg.type() != ObjectType.FUNCTION_OBJ && arg.type() != ObjectType.CLOSURE_OBJ) {
+                    return newError("argument to `memo` must be FUNCTION, got %s", arg.type().value());
+                }
+                var capacity = MemoCache.DEFAULT_CAPACITY;
+                if (args.length == 2) {
+                    if (!(args[1] instanceof Integer size) || size.value() < 1) {
+                        return newError("capacity of `memo` must be a positive INTEGER, got %s", args[1].inspect());
+                    }
+                    capacity = (int) Math.min(size.value(), java.lang.Integer.MAX_VALUE);
+                }
+                if (arg instanceof Memoized memoized) {
+                    arg = memoized.function();
+                }
+                return new Memoized(arg, new MemoCache(capacity));
+            })),
+            new Definition("set", new BuiltIn((invoker, args) -> {
+                if (args.length != 3) {
+                    return newError("wrong number of arguments. got=%d, want=3", args.length);
+                }
+                if (!(args[0] instanceof Hash hash)) {
+                    return newError("argument to `set` must be HASH, got %s", args[0].type().value());
+                }
+                if (!(args[1] instanceof Hashable key)) {
+                    return newError("unusable as hash key: %s", args[1].type().value());
+                }
+                return hash.set(key, args[2]);
+            })),
+            new Definition("delete", new BuiltIn((invoker, args) -> {
+                if (args.length != 2) {
+                    return newError("wrong number of arguments. got=%d, want=2", args.length);
+                }
+                if (!(args[0] instanceof Hash hash)) {
+                    return newError("argument to `delete` must be HASH, got %s", args[0].type().value());
+                }
+                if (!(args[1] instanceof Hashable key)) {
+                    return newError("unusable as hash key: %s", args[1].type().value());
+                }
+                return hash.delete(key);
+            })),
+            new Definition("merge", new BuiltIn((invoker, args) -> {
+                if (args.length != 2) {
+                    return newError("wrong number of arguments. got=%d, want=2", args.length);
+                }
+                if (!(args[0] instanceof Hash first) || !(args[1] instanceof Hash second)) {
+                    return newError("arguments to `merge` must be HASH, got %s and %s",
+                                    args[0].type().value(), args[1].type().value());
+                }
+                return first.merge(second);
+            })),
+            new Definition("range", new BuiltIn((invoker, args) -> {
+                if (args.length < 1 || args.length > 3) {
+                    return newError("wrong number of arguments. got=%d, want=1 to 3", args.length);
+                }
+                var bounds = new long[]{0, 0, 1};
+                for (int i = 0; i < args.length; i++) {
+                    if (!(args[i] instanceof Integer integer)) {
+                        return newError("arguments to `range` must be INTEGER, got %s", args[i].type().value());
+                    }
+                    bounds[args.length == 1 ? 1 : i] = integer.value();
+                }
+                if (bounds[2] == 0) {
+                    return newError("step of `range` must not be 0");
+                }
+                return new Sequence.Range(bounds[0], bounds[1], bounds[2]);
+            })),
+            new Definition("map", new BuiltIn((invoker, args) -> {
+                if (args.length != 2) {
+                    return newError("wrong number of arguments. got=%d, want=2", args.length);
+                }
+                var source = sequenceOf(args[0]);
+                if (source == null) {
+                    return newError("argument to `map` must be ARRAY or SEQUENCE, got %s", args[0].type().value());
+                }
+                if (!isFunction(args[1])) {
+                    return newError("second argument to `map` must be FUNCTION, got %s", args[1].type().value());
+                }
+                if (!(args[0] instanceof Array array)) {
+                    return new Sequence.Mapped(source, args[1]);
+                }
+                var call = invoker.bind(args[1]);
+                var argument = new Object[1];
+                var results = new ArrayList<Object>(array.elements().size());
+                for (Object element : array.elements()) {
+                    argument[0] = element;
+                    results.add(call.with(argument));
+                }
+                return new Array(results);
+            })),
+            new Definition("filter", new BuiltIn((invoker, args) -> {
+                if (args.length != 2) {
+                    return newError("wrong number of arguments. got=%d, want=2", args.length);
+                }
+                var source = sequenceOf(args[0]);
+                if (source == null) {
+                    return newError("argument to `filter` must be ARRAY or SEQUENCE, got %s",
+                                    args[0].type().value());
+                }
+                if (!isFunction(args[1])) {
+                    return newError("second argument to `filter` must be FUNCTION, got %s", args[1].type().value());
+                }
+                if (!(args[0] instanceof Array array)) {
+                    return new Sequence.Filtered(source, args[1]);
+                }
+                var call = invoker.bind(args[1]);
+                var argument = new Object[1];
+                var results = new ArrayList<Object>();
+                for (Object element : array.elements()) {
+                    argument[0] = element;
+                    if (isTruthy(call.with(argument))) {
+                        results.add(element);
+                    }
+                }
+                return new Array(results);
+            })),
+            new Definition("take", new BuiltIn((invoker, args) -> {
+                if (args.length != 2) {
+                    return newError("wrong number of arguments. got=%d, want=2", args.length);
+                }
+                var source = sequenceOf(args[0]);
+                if (source == null) {
+                    return newError("argument to `take` must be ARRAY or SEQUENCE, got %s", args[0].type().value());
+                }
+                if (!(args[1] instanceof Integer limit)) {
+                    return newError("second argument to `take` must be INTEGER, got %s", args[1].type().value());
+                }
+                return new Sequence.Taken(source, limit.value());
+            })),
+            new Definition("array", new BuiltIn((invoker, args) -> {
+                if (args.length != 1) {
+                    return newError("wrong number of arguments. got=%d, want=1", args.length);
+                }
+                return switch (args[0]) {
+                    case Array array -> array;
+                    case Sequence sequence -> sequence.toArray(invoker);
+                    default -> newError("argument to `array` must be ARRAY or SEQUENCE, got %s",
+                                        args[0].type().value());
+                };
+            })),
+            new Definition("reduce", new BuiltIn((invoker, args) -> {
+                if (args.length != 3) {
+                    return newError("wrong number of arguments. got=%d, want=3", args.length);
+                }
+                var source = sequenceOf(args[0]);
+                if (source == null) {
+                    return newError("argument to `reduce` must be ARRAY or SEQUENCE, got %s",
+                                    args[0].type().value());
+                }
+                if (!isFunction(args[2])) {
+                    return newError("third argument to `reduce` must be FUNCTION, got %s", args[2].type().value());
+                }
+                var call = invoker.bind(args[2]);
+                var arguments = new Object[]{args[1], null};
+                source.forEach(invoker, element -> {
+                    arguments[1] = element;
+                    arguments[0] = call.with(arguments);
+                    return true;
+                });
+                return arguments[0];
+            })),
+            new Definition("each", new BuiltIn((invoker, args) -> {
+                if (args.length != 2) {
+                    return newError("wrong number of arguments. got=%d, want=2", args.length);
+                }
+                var source = sequenceOf(args[0]);
+                if (source == null) {
+                    return newError("argument to `each` must be ARRAY or SEQUENCE, got %s", args[0].type().value());
+                }
+                if (!isFunction(args[1])) {
+                    return newError("second argument to `each` must be FUNCTION, got %s", args[1].type().value());
+                }
+                var call = invoker.bind(args[1]);
+                var argument = new Object[1];
+                source.forEach(invoker, element -> {
+                    argument[0] = element;
+                    call.with(argument);
+                    return true;
+                });
+                return NULL;
+            }))
+    );
+
+    private static final Map<java.lang.String, BuiltIn> byName =
+            definitions.stream().collect(Collectors.toUnmodifiableMap(Definition::name, Definition::builtIn));
+
+    public static BuiltIn lookup(java.lang.String name) {
+        return byName.get(name);
+    }
+
+    static boolean isTruthy(Object value) {
+        return !(value instanceof Null) && !Boolean.FALSE.equals(value);
+    }
+
+    private static Sequence sequenceOf(Object value) {
+        return switch (value) {
+            case Sequence sequence -> sequence;
+            case Array array -> Sequence.of(array);
+            default -> null;
+        };
+    }
+
+    private static boolean isFunction(Object value) {
+        return value.type() == ObjectType.FUNCTION_OBJ
+                || value.type() == ObjectType.CLOSURE_OBJ
+                || value.type() == ObjectType.BUILTIN_OBJ;
+    }
+
+    private static Error newError(java.lang.String format, java.lang.Object... args) {
+        return new Error(format, args);
+    }
+}
@@ -0,0 +1,12 @@
+package org.monkey.object;
+
+// what the JIT has learned about one function literal, made once per literal by the resolver and shared by
+// every Function made from it, so a call reaches its compiled code through a field load; it is collected
+// with the program it belongs to
+public final class CallProfile {
+
+    public int calls;
+    public boolean unsupported;
+    // the tier's compiled code, or null until the literal gets hot
+    public java.lang.Object code;
+}
@@ -0,0 +1,18 @@
+package org.monkey.object;
+
+// a local slot shared between the frame that owns it and the closures that capture it, so they all see its
+// latest binding; value is null until the slot's let has run
+public final class Cell {
+
+    private final java.lang.String name;
+    public Object value;
+
+    public Cell(java.lang.String name, Object value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    public java.lang.String name() {
+        return name;
+    }
+}
@@ -0,0 +1,13 @@
+package org.monkey.object;
+
+public record Closure(CompiledFunction fn, Cell[] free) implements Object {
+    @Override
+    public ObjectType type() {
+        return ObjectType.CLOSURE_OBJ;
+    }
+
+    @Override
+    public java.lang.String inspect() {
+        return java.lang.String.format("Closure[%d]", System.identityHashCode(this));
+    }
+}
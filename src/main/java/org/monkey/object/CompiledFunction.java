@@ -0,0 +1,20 @@
+package org.monkey.object;
+
+import java.util.List;
+
+// localNames holds the name of every local slot, so the VM can report reads of unset locals. cells lists the
+// local slots that closures capture, which the VM keeps in cells for the whole call; captures says where a
+// closure of this function finds each free cell in the frame that creates it: local slot i, or -1 - i for that
+// frame's own free cell i
+public record CompiledFunction(byte[] instructions, int numLocals, int numParameters,
+                               List<java.lang.String> localNames, int[] cells, int[] captures) implements Object {
+    @Override
+    public ObjectType type() {
+        return ObjectType.COMPILED_FUNCTION_OBJ;
+    }
+
+    @Override
+    public java.lang.String inspect() {
+        return java.lang.String.format("CompiledFunction[%d]", System.identityHashCode(this));
+    }
+}
@@ -1,40 +1,74 @@
 package org.monkey.object;
 
-import org.monkey.common.Tuple;
-
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 
+// a frame of slots; the slot of every name is fixed ahead of time by org.monkey.resolver.Resolver.
+// The outermost environment also remembers which global name owns which slot, so that later programs
+// (e.g. the next REPL line) resolve against the same globals.
 public class Environment {
-    private final Map<java.lang.String, Object> store;
+    private Object[] slots;
     private final Environment outer;
+    private final Map<java.lang.String, java.lang.Integer> names;
+    private boolean captured;
 
     public Environment() {
-        this.store = new HashMap<>();
+        this.slots = new Object[16];
         this.outer = null;
+        this.names = new HashMap<>();
     }
 
-    public Environment(Environment outer) {
-        this.store = new HashMap<>();
+    public Environment(Environment outer, int size) {
+        this.slots = new Object[size];
         this.outer = outer;
+        this.names = null;
+    }
+
+    public Environment outer() {
+        return outer;
+    }
+
+    // marks that a function value closes over this frame, so it has to outlive the call that made it
+    public void capture() {
+        this.captured = true;
+    }
+
+    public boolean captured() {
+        return this.captured;
     }
 
-    public Tuple<Object, java.lang.Boolean> get(java.lang.String name) {
-        var object = this.store.get(name);
-        if (object == null && outer != null) {
-            var tuple = this.outer.get(name);
-            if (tuple.value() != null) {
-                return new Tuple<>(tuple.value(), true);
-            }
-            return new Tuple<>(null, false);
+    public void clear() {
+        Arrays.fill(this.slots, null);
+    }
+
+    public Object get(int depth, int slot) {
+        var env = this;
+        for (int i = 0; i < depth; i++) {
+            env = env.outer;
         }
-        return new Tuple<>(object, !Objects.isNull(object));
+        return env.slots[slot];
+    }
+
+    public void set(int slot, Object value) {
+        this.slots[slot] = value;
     }
 
+    public java.lang.Integer slotOf(java.lang.String name) {
+        return this.names.get(name);
+    }
 
-    public Object set(java.lang.String name, Object value) {
-        this.store.put(name, value);
-        return value;
+    public int define(java.lang.String name) {
+        var slot = this.names.get(name);
+        if (slot != null) {
+            return slot;
+        }
+
+        slot = this.names.size();
+        if (slot == this.slots.length) {
+            this.slots = Arrays.copyOf(this.slots, this.slots.length * 2);
+        }
+        this.names.put(name, slot);
+        return slot;
     }
 }
@@ -1,6 +1,11 @@
 package org.monkey.object;
 
-public record Error(String message) implements Object {
+// keeps the format and its arguments, so that an error which is caught and dropped is never formatted
+public record Error(java.lang.String format, java.lang.Object... args) implements Object {
+    public String message() {
+        return new String(java.lang.String.format(this.format, this.args));
+    }
+
     @Override
     public ObjectType type() {
         return ObjectType.ERROR_OBJ;
@@ -8,6 +13,6 @@ public record Error(String message) implements Object {
 
     @Override
     public java.lang.String inspect() {
-        return "ERROR: " + this.message;
+        return "ERROR: " + this.message().value();
     }
 }
@@ -0,0 +1,17 @@
+package org.monkey.object;
+
+// unwinds a Monkey runtime error to whatever ran the program, or to the call or index of the vm that called a
+// function back; carries no stack trace, so throwing it is cheap
+public final class ErrorSignal extends RuntimeException {
+
+    public final Error error;
+
+    public ErrorSignal(Error error) {
+        super(null, null, false, false);
+        this.error = error;
+    }
+
+    public static ErrorSignal of(java.lang.String format, java.lang.Object... args) {
+        return new ErrorSignal(new Error(format, args));
+    }
+}
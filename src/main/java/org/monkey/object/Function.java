@@ -6,7 +6,9 @@ import org.monkey.ast.Identifier;
 import java.util.List;
 import java.util.stream.Collectors;
 
-public record Function(List<Identifier> parameters, BlockStatement body, Environment env) implements Object {
+public record Function(List<Identifier> parameters, BlockStatement body, Environment env, int frameSize,
+                       CallProfile profile)
+        implements Object {
     @Override
     public ObjectType type() {
         return ObjectType.FUNCTION_OBJ;
@@ -1,26 +1,44 @@
 package org.monkey.object;
 
-import java.text.MessageFormat;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+
+// A Monkey hash. Hashes are values: set, delete and merge return a new hash and leave this one as it was.
+public sealed interface Hash extends Object permits HashTable, PersistentHash {
+
+    int size();
+
+    // null when the key is not in the hash
+    Object get(Hashable key);
+
+    Hash set(Hashable key, Object value);
+
+    Hash delete(Hashable key);
+
+    // the pairs of both, with the value from `other` where both have a key
+    default Hash merge(Hash other) {
+        if (other.size() == 0) {
+            return this;
+        }
+        return PersistentHash.of(this).merge(other);
+    }
+
+    void forEach(BiConsumer<Object, Object> action);
 
-public record Hash(Map<HashKey, HashPair> pairs) implements Object {
     @Override
-    public ObjectType type() {
+    default ObjectType type() {
         return ObjectType.HASH_OBJ;
     }
 
     @Override
-    public java.lang.String inspect() {
+    default java.lang.String inspect() {
         var sb = new StringBuilder();
         sb.append("{");
-        sb.append(this.pairs.values()
-                            .stream()
-                            .map(pair -> java.lang.String.format("%s: %s",
-                                                                 pair.key().inspect(),
-                                                                 pair.value().inspect()))
-                            .collect(
-                                    Collectors.joining(", ")));
+        this.forEach((key, value) -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(key.inspect()).append(": ").append(value.inspect());
+        });
         sb.append("}");
         return sb.toString();
     }
@@ -1,4 +1,4 @@
 package org.monkey.object;
 
-public record HashKey(ObjectType type, Long value) {
+public record HashKey(ObjectType type, long value) {
 }
@@ -1,4 +0,0 @@
-package org.monkey.object;
-
-public record HashPair(Object key, Object value) {
-}
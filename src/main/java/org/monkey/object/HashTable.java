@@ -0,0 +1,122 @@
+package org.monkey.object;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+// The Hash of a literal: an open-addressing hash table, filled once and then only read. The entries sit in
+// insertion order in parallel arrays holding the 64-bit hash of the key, the key and the value; a table of
+// ints, at most half full, finds them by hash with linear probing and holds the index of an entry plus one, so
+// that zero is a free slot. A key is compared with equals once its hash matches, so distinct keys whose hashes
+// collide stay distinct.
+public final class HashTable implements Hash {
+
+    private long[] hashes;
+    private java.lang.Object[] keys; // Hashable
+    private Object[] values;
+    private int size;
+    private int[] slots;
+    private int shift; // 64 - log2(slots.length): Fibonacci hashing takes the top bits of hash * 2^64/phi
+
+    public HashTable() {
+        this(2);
+    }
+
+    public HashTable(int expectedSize) {
+        var capacity = Math.max(expectedSize, 1);
+        this.hashes = new long[capacity];
+        this.keys = new java.lang.Object[capacity];
+        this.values = new Object[capacity];
+        this.resize(capacity);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Object get(Hashable key) {
+        var entry = this.find(key, key.keyHash());
+        return entry < 0
+                ? null
+                : this.values[entry];
+    }
+
+    // while the hash is being built: a key that is already there keeps its place and takes the new value
+    public void put(Hashable key, Object value) {
+        var hash = key.keyHash();
+        var entry = this.find(key, hash);
+        if (entry >= 0) {
+            this.values[entry] = value;
+            return;
+        }
+        if (this.size == this.keys.length) {
+            var capacity = this.size * 2;
+            this.hashes = Arrays.copyOf(this.hashes, capacity);
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+        if (2 * (this.size + 1) > this.slots.length) {
+            this.resize(this.size + 1);
+        }
+        this.hashes[this.size] = hash;
+        this.keys[this.size] = key;
+        this.values[this.size] = value;
+        this.size++;
+        this.insert(this.size, hash);
+    }
+
+    // the first update turns the table into a PersistentHash, which later updates share
+    @Override
+    public Hash set(Hashable key, Object value) {
+        return PersistentHash.of(this).set(key, value);
+    }
+
+    @Override
+    public Hash delete(Hashable key) {
+        return this.get(key) == null
+                ? this
+                : PersistentHash.of(this).delete(key);
+    }
+
+    // in insertion order
+    @Override
+    public void forEach(BiConsumer<Object, Object> action) {
+        for (int i = 0; i < this.size; i++) {
+            action.accept((Object) this.keys[i], this.values[i]);
+        }
+    }
+
+    private int find(Hashable key, long hash) {
+        var mask = this.slots.length - 1;
+        for (int slot = this.slotOf(hash); ; slot = (slot + 1) & mask) {
+            var entry = this.slots[slot] - 1;
+            if (entry < 0 || this.hashes[entry] == hash && key.equals(this.keys[entry])) {
+                return entry;
+            }
+        }
+    }
+
+    private void insert(int entryPlusOne, long hash) {
+        var mask = this.slots.length - 1;
+        var slot = this.slotOf(hash);
+        while (this.slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.slots[slot] = entryPlusOne;
+    }
+
+    private int slotOf(long hash) {
+        return (int) ((hash * 0x9E3779B97F4A7C15L) >>> this.shift);
+    }
+
+    // a table for at least `entries` entries, at most half full
+    private void resize(int entries) {
+        var bits = Math.max(1, 64 - Long.numberOfLeadingZeros(2L * entries - 1));
+        this.slots = new int[1 << bits];
+        this.shift = 64 - bits;
+        for (int i = 0; i < this.size; i++) {
+            this.insert(i + 1, this.hashes[i]);
+        }
+    }
+}
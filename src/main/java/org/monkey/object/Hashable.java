@@ -2,4 +2,7 @@ package org.monkey.object;
 
 public interface Hashable {
     HashKey hashKey();
+
+    // the hash a Hash stores for this key; equal keys have equal hashes, but different keys may share one
+    long keyHash();
 }
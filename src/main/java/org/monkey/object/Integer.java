@@ -1,10 +1,33 @@
 package org.monkey.object;
 
-public record Integer(java.lang.Integer value) implements Object, Hashable {
+public record Integer(long value) implements Object, Hashable {
+
+    private static final long CACHE_LOW = -128;
+    private static final long CACHE_HIGH = 1024;
+    private static final Integer[] CACHE = new Integer[(int) (CACHE_HIGH - CACHE_LOW) + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new Integer(CACHE_LOW + i);
+        }
+    }
+
+    // small values are shared, so loop counters and indices do not allocate
+    public static Integer valueOf(long value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return CACHE[(int) (value - CACHE_LOW)];
+        }
+        return new Integer(value);
+    }
 
     @Override
     public HashKey hashKey() {
-        return new HashKey(this.type(), (long)this.value);
+        return new HashKey(this.type(), this.value);
+    }
+
+    @Override
+    public long keyHash() {
+        return this.value;
     }
 
     @Override
@@ -14,6 +37,6 @@ public record Integer(java.lang.Integer value) implements Object, Hashable {
 
     @Override
     public java.lang.String inspect() {
-        return java.lang.String.format("%d", this.value);
+        return Long.toString(this.value);
     }
 }
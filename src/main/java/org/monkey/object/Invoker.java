@@ -0,0 +1,18 @@
+package org.monkey.object;
+
+// calls a Monkey function from a builtin, the way the engine running the builtin calls functions. A function
+// that fails does not return: its error unwinds through the builtin like an error of the builtin itself.
+public interface Invoker {
+    Object invoke(Object function, Object... args);
+
+    // for a builtin that calls one function over and over: the engine may prepare the call once and reuse what
+    // it can from one call to the next
+    default Call bind(Object function) {
+        return args -> this.invoke(function, args);
+    }
+
+    // a prepared call; the caller may pass the same argument array every time
+    interface Call {
+        Object with(Object... args);
+    }
+}
@@ -0,0 +1,78 @@
+package org.monkey.object;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// a bounded memo table for one function: results keyed by the argument values, compared with equals so that
+// arguments whose hash keys collide never share a result; least recently used entry evicted first
+public final class MemoCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Map<List<Object>, Object> entries;
+    private long hits;
+    private long misses;
+
+    public MemoCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Object> eldest) {
+                return this.size() > capacity;
+            }
+        };
+    }
+
+    // null when an argument is not hashable; such calls are not cached
+    public static List<Object> keyOf(List<Object> args) {
+        for (Object arg : args) {
+            if (!(arg instanceof Hashable)) {
+                return null;
+            }
+        }
+        return List.copyOf(args);
+    }
+
+    // the result of a call with these arguments: the cached one, or inner's, which is cached unless it throws.
+    // inner runs on every call whose arguments are not all hashable
+    public Object call(List<Object> args, Supplier<Object> inner) {
+        var key = keyOf(args);
+        if (key == null) {
+            return inner.get();
+        }
+        var cached = this.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        var result = inner.get();
+        this.put(key, result);
+        return result;
+    }
+
+    public Object get(List<Object> key) {
+        var value = this.entries.get(key);
+        if (value == null) {
+            this.misses++;
+        } else {
+            this.hits++;
+        }
+        return value;
+    }
+
+    public void put(List<Object> key, Object value) {
+        this.entries.put(key, value);
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public long hits() {
+        return this.hits;
+    }
+
+    public long misses() {
+        return this.misses;
+    }
+}
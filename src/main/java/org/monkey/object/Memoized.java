@@ -0,0 +1,23 @@
+package org.monkey.object;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+// what memo(fn) returns: calls go through the cache to the wrapped function
+public record Memoized(Object function, MemoCache cache) implements Object {
+
+    // each engine passes how it calls the wrapped function with these arguments
+    public Object call(List<Object> args, Supplier<Object> inner) {
+        return this.cache.call(args, inner);
+    }
+
+    @Override
+    public ObjectType type() {
+        return ObjectType.FUNCTION_OBJ;
+    }
+
+    @Override
+    public java.lang.String inspect() {
+        return "memo(" + this.function.inspect() + ")";
+    }
+}
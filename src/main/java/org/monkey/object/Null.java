@@ -1,6 +1,9 @@
 package org.monkey.object;
 
 public record Null() implements Object {
+
+    public static final Null NULL = new Null();
+
     @Override
     public ObjectType type() {
         return ObjectType.NULL_OBJ;
@@ -12,7 +12,10 @@ public enum ObjectType {
     FUNCTION_OBJ("FUNCTION"),
     BUILTIN_OBJ("BUILTIN"),
     ARRAY_OBJ("ARRAY"),
-    HASH_OBJ("HASH");
+    HASH_OBJ("HASH"),
+    COMPILED_FUNCTION_OBJ("COMPILED_FUNCTION"),
+    CLOSURE_OBJ("CLOSURE"),
+    SEQUENCE_OBJ("SEQUENCE");
 
     private final java.lang.String value;
 
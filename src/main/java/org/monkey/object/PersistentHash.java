@@ -0,0 +1,396 @@
+package org.monkey.object;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+// A hash array mapped trie, for hashes that are updated. Each level takes 5 bits of the 64-bit key hash; a
+// node keeps a bitmap of the slots that hold a key and value and one of the slots that hold a child node, and
+// packs both into one array, pairs from the front and children from the back. An update copies the nodes on
+// the path to its key, at most 13 of up to 32 slots each, and shares all the others with the old hash. Keys
+// whose hashes are equal in all 64 bits end up together in a collision node.
+//
+// A node below the root always holds at least two pairs, so a delete that leaves one pair moves it up into
+// the parent, and equal contents have equal shapes.
+public final class PersistentHash implements Hash {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentHash EMPTY = new PersistentHash(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHash(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static PersistentHash of(Hash hash) {
+        if (hash instanceof PersistentHash persistent) {
+            return persistent;
+        }
+        var edit = new Edit(EMPTY);
+        hash.forEach((key, value) -> edit.set((Hashable) key, value));
+        return edit.result();
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Object get(Hashable key) {
+        return this.root.get(key, key.keyHash(), 0);
+    }
+
+    @Override
+    public PersistentHash set(Hashable key, Object value) {
+        var edit = new Edit(this);
+        edit.set(key, value);
+        return edit.result();
+    }
+
+    @Override
+    public PersistentHash delete(Hashable key) {
+        var edit = new Edit(this);
+        edit.root = edit.root.delete(key, key.keyHash(), 0, edit);
+        return edit.result();
+    }
+
+    @Override
+    public PersistentHash merge(Hash other) {
+        if (other.size() > this.size && other instanceof PersistentHash larger) {
+            // keep the larger trie and only add the keys it lacks
+            var edit = new Edit(larger);
+            this.forEach((key, value) -> {
+                if (larger.get((Hashable) key) == null) {
+                    edit.set((Hashable) key, value);
+                }
+            });
+            return edit.result();
+        }
+        var edit = new Edit(this);
+        other.forEach((key, value) -> edit.set((Hashable) key, value));
+        return edit.result();
+    }
+
+    // in the order of the key hashes
+    @Override
+    public void forEach(BiConsumer<Object, Object> action) {
+        this.root.forEach(action);
+    }
+
+    // a run of updates, threading the root and size through them
+    private static final class Edit {
+        private final PersistentHash original;
+        private Node root;
+        private int size;
+
+        private Edit(PersistentHash original) {
+            this.original = original;
+            this.root = original.root;
+            this.size = original.size;
+        }
+
+        private void set(Hashable key, Object value) {
+            this.root = this.root.set(key, value, key.keyHash(), 0, this);
+        }
+
+        private PersistentHash result() {
+            return this.root == this.original.root
+                    ? this.original
+                    : new PersistentHash(this.root, this.size);
+        }
+    }
+
+    private sealed interface Node permits BitmapNode, CollisionNode {
+        Object get(Hashable key, long hash, int shift);
+
+        // the node itself when nothing changed; an added or removed pair is counted in edit.size
+        Node set(Hashable key, Object value, long hash, int shift, Edit edit);
+
+        Node delete(Hashable key, long hash, int shift, Edit edit);
+
+        // the only pair of a node that should move up into its parent, or -1
+        int singlePair();
+
+        java.lang.Object keyAt(int pair);
+
+        java.lang.Object valueAt(int pair);
+
+        void forEach(BiConsumer<Object, Object> action);
+    }
+
+    private static final class BitmapNode implements Node {
+        private static final BitmapNode EMPTY = new BitmapNode(0, 0, new java.lang.Object[0]);
+
+        private final int dataMap;
+        private final int nodeMap;
+        private final java.lang.Object[] content;
+
+        private BitmapNode(int dataMap, int nodeMap, java.lang.Object[] content) {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        private static int bit(long hash, int shift) {
+            return 1 << ((int) (hash >>> shift) & MASK);
+        }
+
+        private int dataIndex(int bit) {
+            return java.lang.Integer.bitCount(this.dataMap & (bit - 1));
+        }
+
+        private int nodeIndex(int bit) {
+            return this.content.length - 1 - java.lang.Integer.bitCount(this.nodeMap & (bit - 1));
+        }
+
+        @Override
+        public Object get(Hashable key, long hash, int shift) {
+            var bit = bit(hash, shift);
+            if ((this.dataMap & bit) != 0) {
+                var i = 2 * this.dataIndex(bit);
+                return key.equals(this.content[i])
+                        ? (Object) this.content[i + 1]
+                        : null;
+            }
+            if ((this.nodeMap & bit) != 0) {
+                return ((Node) this.content[this.nodeIndex(bit)]).get(key, hash, shift + BITS);
+            }
+            return null;
+        }
+
+        @Override
+        public Node set(Hashable key, Object value, long hash, int shift, Edit edit) {
+            var bit = bit(hash, shift);
+            if ((this.dataMap & bit) != 0) {
+                var i = 2 * this.dataIndex(bit);
+                var existing = this.content[i];
+                if (key.equals(existing)) {
+                    if (this.content[i + 1] == value) {
+                        return this;
+                    }
+                    var content = this.content.clone();
+                    content[i + 1] = value;
+                    return new BitmapNode(this.dataMap, this.nodeMap, content);
+                }
+                // two keys in one slot: both move down into a new node
+                var existingHash = ((Hashable) existing).keyHash();
+                var child = pair(existing, this.content[i + 1], existingHash, key, value, hash, shift + BITS);
+                edit.size++;
+                return this.dataToNode(bit, child);
+            }
+            if ((this.nodeMap & bit) != 0) {
+                var n = this.nodeIndex(bit);
+                var child = (Node) this.content[n];
+                var updated = child.set(key, value, hash, shift + BITS, edit);
+                return updated == child
+                        ? this
+                        : this.withNode(n, updated);
+            }
+            edit.size++;
+            var i = 2 * this.dataIndex(bit);
+            var content = new java.lang.Object[this.content.length + 2];
+            System.arraycopy(this.content, 0, content, 0, i);
+            content[i] = key;
+            content[i + 1] = value;
+            System.arraycopy(this.content, i, content, i + 2, this.content.length - i);
+            return new BitmapNode(this.dataMap | bit, this.nodeMap, content);
+        }
+
+        @Override
+        public Node delete(Hashable key, long hash, int shift, Edit edit) {
+            var bit = bit(hash, shift);
+            if ((this.dataMap & bit) != 0) {
+                var i = 2 * this.dataIndex(bit);
+                if (!key.equals(this.content[i])) {
+                    return this;
+                }
+                edit.size--;
+                var content = new java.lang.Object[this.content.length - 2];
+                System.arraycopy(this.content, 0, content, 0, i);
+                System.arraycopy(this.content, i + 2, content, i, content.length - i);
+                return new BitmapNode(this.dataMap & ~bit, this.nodeMap, content);
+            }
+            if ((this.nodeMap & bit) != 0) {
+                var n = this.nodeIndex(bit);
+                var child = (Node) this.content[n];
+                var updated = child.delete(key, hash, shift + BITS, edit);
+                if (updated == child) {
+                    return this;
+                }
+                var single = updated.singlePair();
+                return single < 0
+                        ? this.withNode(n, updated)
+                        : this.nodeToData(bit, updated.keyAt(single), updated.valueAt(single));
+            }
+            return this;
+        }
+
+        @Override
+        public int singlePair() {
+            return this.nodeMap == 0 && java.lang.Integer.bitCount(this.dataMap) == 1
+                    ? 0
+                    : -1;
+        }
+
+        @Override
+        public java.lang.Object keyAt(int pair) {
+            return this.content[2 * pair];
+        }
+
+        @Override
+        public java.lang.Object valueAt(int pair) {
+            return this.content[2 * pair + 1];
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            var pairs = java.lang.Integer.bitCount(this.dataMap);
+            for (int i = 0; i < pairs; i++) {
+                action.accept((Object) this.content[2 * i], (Object) this.content[2 * i + 1]);
+            }
+            for (int n = this.content.length - 1; n >= 2 * pairs; n--) {
+                ((Node) this.content[n]).forEach(action);
+            }
+        }
+
+        private BitmapNode withNode(int n, Node node) {
+            var content = this.content.clone();
+            content[n] = node;
+            return new BitmapNode(this.dataMap, this.nodeMap, content);
+        }
+
+        // replaces the pair at `bit` with a child node
+        private BitmapNode dataToNode(int bit, Node node) {
+            var i = 2 * this.dataIndex(bit);
+            var n = this.content.length - 2 - java.lang.Integer.bitCount(this.nodeMap & (bit - 1)); // in the new content
+            var content = new java.lang.Object[this.content.length - 1];
+            System.arraycopy(this.content, 0, content, 0, i);
+            System.arraycopy(this.content, i + 2, content, i, n - i);
+            content[n] = node;
+            System.arraycopy(this.content, n + 2, content, n + 1, this.content.length - n - 2);
+            return new BitmapNode(this.dataMap & ~bit, this.nodeMap | bit, content);
+        }
+
+        // replaces the child node at `bit` with a pair
+        private BitmapNode nodeToData(int bit, java.lang.Object key, java.lang.Object value) {
+            var i = 2 * this.dataIndex(bit);
+            var n = this.nodeIndex(bit);
+            var content = new java.lang.Object[this.content.length + 1];
+            System.arraycopy(this.content, 0, content, 0, i);
+            content[i] = key;
+            content[i + 1] = value;
+            System.arraycopy(this.content, i, content, i + 2, n - i);
+            System.arraycopy(this.content, n + 1, content, n + 2, this.content.length - n - 1);
+            return new BitmapNode(this.dataMap | bit, this.nodeMap & ~bit, content);
+        }
+    }
+
+    private static Node pair(java.lang.Object key1, java.lang.Object value1, long hash1,
+                             java.lang.Object key2, java.lang.Object value2, long hash2, int shift) {
+        if (shift >= Long.SIZE) {
+            return new CollisionNode(new java.lang.Object[]{ key1, key2 }, new java.lang.Object[]{ value1, value2 });
+        }
+        var index1 = (int) (hash1 >>> shift) & MASK;
+        var index2 = (int) (hash2 >>> shift) & MASK;
+        if (index1 == index2) {
+            var child = pair(key1, value1, hash1, key2, value2, hash2, shift + BITS);
+            return new BitmapNode(0, 1 << index1, new java.lang.Object[]{ child });
+        }
+        var content = index1 < index2
+                ? new java.lang.Object[]{ key1, value1, key2, value2 }
+                : new java.lang.Object[]{ key2, value2, key1, value1 };
+        return new BitmapNode((1 << index1) | (1 << index2), 0, content);
+    }
+
+    // keys whose hashes are equal in all 64 bits, compared one by one
+    private static final class CollisionNode implements Node {
+        private final java.lang.Object[] keys;
+        private final java.lang.Object[] values;
+
+        private CollisionNode(java.lang.Object[] keys, java.lang.Object[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        private int indexOf(Hashable key) {
+            for (int i = 0; i < this.keys.length; i++) {
+                if (key.equals(this.keys[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Object get(Hashable key, long hash, int shift) {
+            var i = this.indexOf(key);
+            return i < 0
+                    ? null
+                    : (Object) this.values[i];
+        }
+
+        @Override
+        public Node set(Hashable key, Object value, long hash, int shift, Edit edit) {
+            var i = this.indexOf(key);
+            if (i >= 0) {
+                if (this.values[i] == value) {
+                    return this;
+                }
+                var values = this.values.clone();
+                values[i] = value;
+                return new CollisionNode(this.keys, values);
+            }
+            edit.size++;
+            var keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+            var values = Arrays.copyOf(this.values, this.values.length + 1);
+            keys[this.keys.length] = key;
+            values[this.values.length] = value;
+            return new CollisionNode(keys, values);
+        }
+
+        @Override
+        public Node delete(Hashable key, long hash, int shift, Edit edit) {
+            var i = this.indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            edit.size--;
+            var keys = new java.lang.Object[this.keys.length - 1];
+            var values = new java.lang.Object[keys.length];
+            System.arraycopy(this.keys, 0, keys, 0, i);
+            System.arraycopy(this.keys, i + 1, keys, i, keys.length - i);
+            System.arraycopy(this.values, 0, values, 0, i);
+            System.arraycopy(this.values, i + 1, values, i, values.length - i);
+            return new CollisionNode(keys, values);
+        }
+
+        @Override
+        public int singlePair() {
+            return this.keys.length == 1
+                    ? 0
+                    : -1;
+        }
+
+        @Override
+        public java.lang.Object keyAt(int pair) {
+            return this.keys[pair];
+        }
+
+        @Override
+        public java.lang.Object valueAt(int pair) {
+            return this.values[pair];
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < this.keys.length; i++) {
+                action.accept((Object) this.keys[i], (Object) this.values[i]);
+            }
+        }
+    }
+}
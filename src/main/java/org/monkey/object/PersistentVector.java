@@ -0,0 +1,232 @@
+package org.monkey.object;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+// The elements of an Array: a trie of up to 32-way nodes, indexed by 5 bits of the position per level, with the
+// elements in the leaves. A push copies the path to the new last element, at most one node per level, and
+// shares everything else with the old vector, so it and get are O(log32 n).
+//
+// A slice is the same trie with another offset and size. Nothing is copied while the slice stays within the
+// leaves of the vector it was taken from; once it drops a whole leaf at either end, the paths to its first and
+// last element are copied without the nodes outside it, and the root moves down while the slice lies under
+// one child. A chain of rest() so copies a path once per 32 calls, and never keeps more than a leaf of the
+// elements it dropped alive.
+//
+// When every element is an Integer the leaves are long[], 8 bytes an element instead of a reference and an
+// Integer, and get boxes on the way out. Pushing anything else copies the vector into Object[] leaves once.
+public final class PersistentVector extends AbstractList<Object> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    public static final PersistentVector EMPTY = new PersistentVector(new java.lang.Object[0], 0, 0, 0, false);
+
+    private final java.lang.Object root; // a java.lang.Object[] of nodes, or a leaf when shift is 0
+    private final int shift; // of the root's children; 0 when the root is a leaf
+    private final int offset; // the position of the first element in the trie
+    private final int size;
+    private final boolean longs; // whether the leaves are long[]
+
+    private PersistentVector(java.lang.Object root, int shift, int offset, int size, boolean longs) {
+        this.root = root;
+        this.shift = shift;
+        this.offset = offset;
+        this.size = size;
+        this.longs = longs;
+    }
+
+    public static PersistentVector of(List<? extends Object> elements) {
+        if (elements instanceof PersistentVector vector) {
+            return vector;
+        }
+        var longs = true;
+        for (Object element : elements) {
+            if (!(element instanceof Integer)) {
+                longs = false;
+                break;
+            }
+        }
+        return build(elements, longs);
+    }
+
+    // full leaves, then full nodes over them, level by level
+    private static PersistentVector build(List<? extends Object> elements, boolean longs) {
+        var size = elements.size();
+        if (size == 0) {
+            return EMPTY;
+        }
+        var level = new java.lang.Object[(size + MASK) >>> BITS];
+        var iterator = elements.iterator();
+        for (int i = 0; i < level.length; i++) {
+            var length = Math.min(WIDTH, size - (i << BITS));
+            if (longs) {
+                var leaf = new long[length];
+                for (int j = 0; j < length; j++) {
+                    leaf[j] = ((Integer) iterator.next()).value();
+                }
+                level[i] = leaf;
+            } else {
+                var leaf = new java.lang.Object[length];
+                for (int j = 0; j < length; j++) {
+                    leaf[j] = iterator.next();
+                }
+                level[i] = leaf;
+            }
+        }
+        var shift = 0;
+        while (level.length > 1) {
+            var nodes = new java.lang.Object[(level.length + MASK) >>> BITS];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = Arrays.copyOfRange(level, i << BITS, Math.min(level.length, (i + 1) << BITS));
+            }
+            level = nodes;
+            shift += BITS;
+        }
+        return new PersistentVector(level[0], shift, 0, size, longs);
+    }
+
+    @Override
+    public Object get(int index) {
+        Objects.checkIndex(index, this.size);
+        var position = this.offset + index;
+        var leaf = this.leafAt(position);
+        return this.longs
+                ? Integer.valueOf(((long[]) leaf)[position & MASK])
+                : (Object) ((java.lang.Object[]) leaf)[position & MASK];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    boolean holdsLongs() {
+        return this.longs;
+    }
+
+    public PersistentVector push(Object element) {
+        if (this.size == 0) {
+            return of(List.of(element));
+        }
+        if (this.longs && !(element instanceof Integer)) {
+            return build(this, false).push(element);
+        }
+        var position = this.offset + this.size;
+        var root = this.root;
+        var shift = this.shift;
+        if (position == 1L << (shift + BITS)) {
+            root = new java.lang.Object[]{root};
+            shift += BITS;
+        }
+        return new PersistentVector(this.append(root, shift, position, element), shift, this.offset, this.size + 1,
+                                    this.longs);
+    }
+
+    @Override
+    public PersistentVector subList(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, this.size);
+        if (fromIndex == 0 && toIndex == this.size) {
+            return this;
+        }
+        if (fromIndex == toIndex) {
+            return EMPTY;
+        }
+        var first = this.offset + fromIndex;
+        var last = this.offset + toIndex - 1;
+        if (first >>> BITS == this.offset >>> BITS && last >>> BITS == (this.offset + this.size - 1) >>> BITS) {
+            return new PersistentVector(this.root, this.shift, first, toIndex - fromIndex, this.longs);
+        }
+
+        var root = this.root;
+        var shift = this.shift;
+        while (shift > 0 && first >>> shift == last >>> shift) {
+            var base = (first >>> shift) << shift;
+            root = ((java.lang.Object[]) root)[first >>> shift];
+            first -= base;
+            last -= base;
+            shift -= BITS;
+        }
+        return new PersistentVector(this.trim(root, shift, first, last), shift, first, toIndex - fromIndex,
+                                    this.longs);
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<>() {
+            private int index;
+            private java.lang.Object leaf;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < size;
+            }
+
+            @Override
+            public Object next() {
+                if (this.index >= size) {
+                    throw new NoSuchElementException();
+                }
+                var position = offset + this.index++;
+                if (this.leaf == null || (position & MASK) == 0) {
+                    this.leaf = leafAt(position);
+                }
+                return longs
+                        ? Integer.valueOf(((long[]) this.leaf)[position & MASK])
+                        : (Object) ((java.lang.Object[]) this.leaf)[position & MASK];
+            }
+        };
+    }
+
+    private java.lang.Object leafAt(int position) {
+        var node = this.root;
+        for (int level = this.shift; level > 0; level -= BITS) {
+            node = ((java.lang.Object[]) node)[(position >>> level) & MASK];
+        }
+        return node;
+    }
+
+    // a copy of the path to position, with the element there; the nodes are only as long as they are used
+    private java.lang.Object append(java.lang.Object node, int shift, int position, Object element) {
+        var slot = (position >>> shift) & MASK;
+        if (shift == 0 && this.longs) {
+            var leaf = node == null
+                    ? new long[slot + 1]
+                    : Arrays.copyOf((long[]) node, Math.max(((long[]) node).length, slot + 1));
+            leaf[slot] = ((Integer) element).value();
+            return leaf;
+        }
+        var copy = node == null
+                ? new java.lang.Object[slot + 1]
+                : Arrays.copyOf((java.lang.Object[]) node, Math.max(((java.lang.Object[]) node).length, slot + 1));
+        copy[slot] = shift == 0
+                ? element
+                : this.append(copy[slot], shift - BITS, position, element);
+        return copy;
+    }
+
+    // a copy of the paths to first and last without anything outside them; the nodes in between are shared
+    private java.lang.Object trim(java.lang.Object node, int shift, int first, int last) {
+        var from = (first >>> shift) & MASK;
+        var to = (last >>> shift) & MASK;
+        if (shift == 0) {
+            var leaf = this.longs ? new long[to + 1] : new java.lang.Object[to + 1];
+            System.arraycopy(node, from, leaf, from, to + 1 - from);
+            return leaf;
+        }
+        var copy = new java.lang.Object[to + 1];
+        System.arraycopy(node, from, copy, from, to + 1 - from);
+        var below = (1 << shift) - 1;
+        copy[from] = this.trim(copy[from], shift - BITS, first, from == to ? last : first | below);
+        if (from != to) {
+            copy[to] = this.trim(copy[to], shift - BITS, last & ~below, last);
+        }
+        return copy;
+    }
+}
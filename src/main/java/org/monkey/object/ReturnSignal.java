@@ -0,0 +1,12 @@
+package org.monkey.object;
+
+// unwinds a return statement to the enclosing function call in the tree engines
+public final class ReturnSignal extends RuntimeException {
+
+    public final Object value;
+
+    public ReturnSignal(Object value) {
+        super(null, null, false, false);
+        this.value = value;
+    }
+}
@@ -0,0 +1,180 @@
+package org.monkey.object;
+
+import java.util.ArrayList;
+import java.util.function.Predicate;
+
+// A lazy sequence: a range or an array, and the maps, filters and takes applied to it. Nothing runs until the
+// sequence is consumed by len, an index or array(); then the source produces one element at a time and pushes
+// it through all the stages, so a pipeline is a single pass that holds no intermediate arrays. A sequence is a
+// recipe, not a cache: every consumer runs it again, and calls the functions of its stages on every element it
+// passes on the way, so len and an index have the same effects as array() up to where they stop.
+public sealed interface Sequence extends Object {
+
+    // pushes the elements to sink until it returns false
+    void forEach(Invoker invoker, Predicate<Object> sink);
+
+    default long count(Invoker invoker) {
+        var count = new long[1];
+        this.forEach(invoker, element -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    // the element at index, or null when there is none
+    default Object at(Invoker invoker, long index) {
+        if (index < 0) {
+            return null;
+        }
+        var found = new Object[1];
+        var position = new long[1];
+        this.forEach(invoker, element -> {
+            if (position[0]++ < index) {
+                return true;
+            }
+            found[0] = element;
+            return false;
+        });
+        return found[0];
+    }
+
+    default Array toArray(Invoker invoker) {
+        var elements = new ArrayList<Object>();
+        this.forEach(invoker, elements::add);
+        return new Array(elements);
+    }
+
+    @Override
+    default ObjectType type() {
+        return ObjectType.SEQUENCE_OBJ;
+    }
+
+    static Sequence of(Array array) {
+        return new OfArray(array);
+    }
+
+    // start, start + step, ... up to end, exclusive
+    record Range(long start, long end, long step) implements Sequence {
+        @Override
+        public void forEach(Invoker invoker, Predicate<Object> sink) {
+            for (long i = this.start; this.step > 0 ? i < this.end : i > this.end; ) {
+                if (!sink.test(Integer.valueOf(i))) {
+                    return;
+                }
+                var next = i + this.step;
+                if (next > i != this.step > 0) {
+                    return; // past the largest long
+                }
+                i = next;
+            }
+        }
+
+        // end - start and the magnitude of step fit in an unsigned long
+        @Override
+        public long count(Invoker invoker) {
+            if (this.step > 0 ? this.start >= this.end : this.start <= this.end) {
+                return 0;
+            }
+            var span = this.step > 0 ? this.end - this.start : this.start - this.end;
+            var magnitude = this.step > 0 ? this.step : -this.step;
+            return Long.divideUnsigned(span - 1, magnitude) + 1;
+        }
+
+        @Override
+        public Object at(Invoker invoker, long index) {
+            return index >= 0 && index < this.count(invoker) ? Integer.valueOf(this.start + index * this.step) : null;
+        }
+
+        @Override
+        public java.lang.String inspect() {
+            return "range(" + this.start + ", " + this.end + ", " + this.step + ")";
+        }
+    }
+
+    record OfArray(Array array) implements Sequence {
+        @Override
+        public void forEach(Invoker invoker, Predicate<Object> sink) {
+            for (Object element : this.array.elements()) {
+                if (!sink.test(element)) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public long count(Invoker invoker) {
+            return this.array.elements().size();
+        }
+
+        @Override
+        public Object at(Invoker invoker, long index) {
+            return this.array.at(index);
+        }
+
+        @Override
+        public Array toArray(Invoker invoker) {
+            return this.array;
+        }
+
+        @Override
+        public java.lang.String inspect() {
+            return this.array.inspect();
+        }
+    }
+
+    record Mapped(Sequence source, Object function) implements Sequence {
+        @Override
+        public void forEach(Invoker invoker, Predicate<Object> sink) {
+            var call = invoker.bind(this.function);
+            var argument = new Object[1];
+            this.source.forEach(invoker, element -> {
+                argument[0] = element;
+                return sink.test(call.with(argument));
+            });
+        }
+
+        @Override
+        public java.lang.String inspect() {
+            return "map(" + this.source.inspect() + ", " + this.function.inspect() + ")";
+        }
+    }
+
+    record Filtered(Sequence source, Object function) implements Sequence {
+        @Override
+        public void forEach(Invoker invoker, Predicate<Object> sink) {
+            var call = invoker.bind(this.function);
+            var argument = new Object[1];
+            this.source.forEach(invoker, element -> {
+                argument[0] = element;
+                return !BuiltIns.isTruthy(call.with(argument)) || sink.test(element);
+            });
+        }
+
+        @Override
+        public java.lang.String inspect() {
+            return "filter(" + this.source.inspect() + ", " + this.function.inspect() + ")";
+        }
+    }
+
+    record Taken(Sequence source, long limit) implements Sequence {
+        @Override
+        public void forEach(Invoker invoker, Predicate<Object> sink) {
+            if (this.limit <= 0) {
+                return;
+            }
+            var taken = new long[1];
+            this.source.forEach(invoker, element -> sink.test(element) && ++taken[0] < this.limit);
+        }
+
+        @Override
+        public Object at(Invoker invoker, long index) {
+            return index < this.limit ? this.source.at(invoker, index) : null;
+        }
+
+        @Override
+        public java.lang.String inspect() {
+            return "take(" + this.source.inspect() + ", " + this.limit + ")";
+        }
+    }
+}
@@ -1,8 +1,98 @@
 package org.monkey.object;
 
-import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+// A string is either flat or a rope: the concatenation of two strings, made in O(1) and flattened when its
+// contents are first needed. The flat value is then kept and the two halves are let go, so a string is
+// flattened at most once. Its length is known without flattening.
+//
+// Short pieces are joined into one flat string instead, so that appending a little at a time does not grow a
+// node per append. A rope deeper than MAX_DEPTH is rebalanced as in Boehm, Atkinson and Plass, "Ropes: an
+// Alternative to Strings": subtrees that are balanced already are kept whole, so appending to a long string
+// rebuilds only the chain of appends since the last rebalance, plus a node per level of the result.
+public final class String implements Object, Hashable {
+
+    private static final int SHORT = 128;
+    private static final int MAX_DEPTH = 64;
+
+    // FIBONACCI[d] is the least length of a balanced rope of depth d, up to past the longest string
+    private static final long[] FIBONACCI;
+
+    static {
+        var fibonacci = new long[64];
+        fibonacci[0] = 1;
+        fibonacci[1] = 2;
+        var n = 2;
+        while (fibonacci[n - 1] <= java.lang.Integer.MAX_VALUE) {
+            fibonacci[n] = fibonacci[n - 1] + fibonacci[n - 2];
+            n++;
+        }
+        FIBONACCI = Arrays.copyOf(fibonacci, n);
+    }
+
+    private java.lang.String value; // null until a rope is flattened
+    private String left;
+    private String right;
+    private final int length;
+    private int depth;
+
+    public String(java.lang.String value) {
+        this.value = value;
+        this.length = value.length();
+    }
+
+    private String(String left, String right) {
+        this.left = left;
+        this.right = right;
+        this.length = Math.addExact(left.length, right.length);
+        this.depth = Math.max(left.depth, right.depth) + 1;
+    }
+
+    public java.lang.String value() {
+        if (this.value == null) {
+            var sb = new StringBuilder(this.length);
+            var pending = new ArrayDeque<String>();
+            pending.push(this);
+            while (!pending.isEmpty()) {
+                var node = pending.pop();
+                if (node.value != null) {
+                    sb.append(node.value);
+                } else {
+                    pending.push(node.right);
+                    pending.push(node.left);
+                }
+            }
+            this.value = sb.toString();
+            this.left = null;
+            this.right = null;
+            this.depth = 0;
+        }
+        return this.value;
+    }
+
+    // in UTF-16 units, as java.lang.String.length()
+    public int length() {
+        return this.length;
+    }
+
+    public String concat(String other) {
+        if (this.length == 0) {
+            return other;
+        }
+        if (other.length == 0) {
+            return this;
+        }
+        if (this.length + other.length <= SHORT) {
+            return new String(this.value().concat(other.value()));
+        }
+        if (this.value == null && this.right.length + other.length <= SHORT) {
+            return new String(this.left, new String(this.right.value().concat(other.value())));
+        }
+        var rope = new String(this, other);
+        return rope.depth > MAX_DEPTH ? rope.rebalance() : rope;
+    }
 
-public record String(java.lang.String value) implements Object, Hashable {
     @Override
     public ObjectType type() {
         return ObjectType.STRING_OBJ;
@@ -10,20 +100,94 @@ public record String(java.lang.String value) implements Object, Hashable {
 
     @Override
     public java.lang.String inspect() {
-        return this.value;
+        return this.value();
     }
 
     @Override
     public HashKey hashKey() {
-        BigInteger FNV_OFFSET_BASIS = new BigInteger("14695981039346656037");
-        BigInteger FNV_PRIME = new BigInteger("1099511628211");
+        return new HashKey(type(), this.keyHash());
+    }
 
-        BigInteger hash = FNV_OFFSET_BASIS;
-        for (byte b : value.getBytes()) {
-            hash = hash.xor(BigInteger.valueOf(b & 0xff));
-            hash = hash.multiply(FNV_PRIME);
+    // 64-bit FNV-1a of the bytes; long arithmetic wraps exactly like the low 64 bits of the full product
+    @Override
+    public long keyHash() {
+        var hash = 0xcbf29ce484222325L;
+        for (byte b : this.value().getBytes()) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(java.lang.Object o) {
+        return o instanceof String other && this.length == other.length && this.value().equals(other.value());
+    }
+
+    @Override
+    public int hashCode() {
+        return this.value().hashCode();
+    }
+
+    @Override
+    public java.lang.String toString() {
+        return "String[value=" + this.value() + "]";
+    }
+
+    int depth() {
+        return this.depth;
+    }
+
+    private boolean isBalanced() {
+        return this.value != null || this.depth < FIBONACCI.length && this.length >= FIBONACCI[this.depth];
+    }
+
+    // the forest holds balanced ropes in order of decreasing slot from the left; slot i holds a length in
+    // [FIBONACCI[i], FIBONACCI[i + 1])
+    private String rebalance() {
+        var forest = new String[FIBONACCI.length];
+        this.addTo(forest);
+        String result = null;
+        for (String rope : forest) {
+            if (rope != null) {
+                result = result == null ? rope : new String(rope, result);
+            }
+        }
+        return result;
+    }
+
+    private void addTo(String[] forest) {
+        if (this.isBalanced()) {
+            insert(forest, this);
+        } else {
+            this.left.addTo(forest);
+            this.right.addTo(forest);
         }
+    }
 
-        return new HashKey(type(), hash.longValue());
+    private static void insert(String[] forest, String piece) {
+        var slot = 0;
+        while (FIBONACCI[slot + 1] <= piece.length) {
+            slot++;
+        }
+        String rope = null;
+        for (int i = 0; i < slot; i++) {
+            if (forest[i] != null) {
+                rope = rope == null ? forest[i] : new String(forest[i], rope);
+                forest[i] = null;
+            }
+        }
+        rope = rope == null ? piece : new String(rope, piece);
+        while (true) {
+            if (forest[slot] != null) {
+                rope = new String(forest[slot], rope);
+                forest[slot] = null;
+            }
+            if (rope.length < FIBONACCI[slot + 1]) {
+                break;
+            }
+            slot++;
+        }
+        forest[slot] = rope;
     }
 }
@@ -0,0 +1,75 @@
+package org.monkey.optimizer;
+
+import org.monkey.ast.BooleanLiteral;
+import org.monkey.ast.Expression;
+import org.monkey.ast.InfixExpression;
+import org.monkey.ast.IntegerLiteral;
+import org.monkey.ast.PrefixExpression;
+import org.monkey.ast.Program;
+import org.monkey.ast.StringLiteral;
+
+// computes operators whose operands are literals. Anything that would be a runtime error (e.g. `-true`,
+// `1 / 0` or `"a" - "b"`) is left for the engine to report.
+class ConstantFolding extends Rewriter implements Pass {
+
+    @Override
+    public Program run(Program program) {
+        return this.rewrite(program);
+    }
+
+    @Override
+    Expression rewrite(Expression expression) {
+        return switch (super.rewrite(expression)) {
+            case PrefixExpression node -> this.fold(node);
+            case InfixExpression node -> this.fold(node);
+            case null -> null;
+            case Expression node -> node;
+        };
+    }
+
+    private Expression fold(PrefixExpression node) {
+        var right = node.right();
+        if (!Literals.isLiteral(right)) {
+            return node;
+        }
+        return switch (node.operator()) {
+            case "!" -> Literals.bool(!Literals.isTruthy(right));
+            case "-" -> right instanceof IntegerLiteral integer
+                    ? Literals.integer(-integer.value())
+                    : node;
+            default -> node;
+        };
+    }
+
+    private Expression fold(InfixExpression node) {
+        if (node.left() instanceof IntegerLiteral l && node.right() instanceof IntegerLiteral r) {
+            var left = l.value();
+            var right = r.value();
+            return switch (node.operator()) {
+                case "+" -> Literals.integer(left + right);
+                case "-" -> Literals.integer(left - right);
+                case "*" -> Literals.integer(left * right);
+                case "/" -> right == 0
+                        ? node
+                        : Literals.integer(left / right);
+                case "<" -> Literals.bool(left < right);
+                case ">" -> Literals.bool(left > right);
+                case "==" -> Literals.bool(left == right);
+                case "!=" -> Literals.bool(left != right);
+                default -> node;
+            };
+        }
+        if (node.left() instanceof StringLiteral l && node.right() instanceof StringLiteral r
+                && node.operator().equals("+")) {
+            return Literals.string(l.value() + r.value());
+        }
+        if (node.left() instanceof BooleanLiteral l && node.right() instanceof BooleanLiteral r) {
+            return switch (node.operator()) {
+                case "==" -> Literals.bool(l.value().equals(r.value()));
+                case "!=" -> Literals.bool(!l.value().equals(r.value()));
+                default -> node;
+            };
+        }
+        return node;
+    }
+}
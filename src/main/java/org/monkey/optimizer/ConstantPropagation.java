@@ -0,0 +1,81 @@
+package org.monkey.optimizer;
+
+import org.monkey.ast.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// replaces a name by its value where the name is bound exactly once in its scope, by a let that is a statement of
+// the scope itself (not of an if-block), and the value is a literal. Only reads after the let are replaced.
+//
+// Globals are not carried into function bodies: a later program (e.g. the next REPL line) may bind them again
+// before the function runs. A local let whose name is no longer read at all is removed.
+class ConstantPropagation extends Rewriter implements Pass {
+
+    private Map<String, Expression> constants = new HashMap<>();
+    private boolean topLevel;
+
+    @Override
+    public Program run(Program program) {
+        this.constants = new HashMap<>();
+        this.topLevel = true;
+        return new Program(this.propagate(program.statements, List.of()));
+    }
+
+    @Override
+    Expression rewrite(Expression expression) {
+        return switch (expression) {
+            case Identifier node -> this.constants.getOrDefault(node.value(), node);
+            case FunctionLiteral node -> {
+                var enclosing = this.constants;
+                var enclosingTopLevel = this.topLevel;
+                this.constants = enclosingTopLevel
+                        ? new HashMap<>()
+                        : new HashMap<>(enclosing);
+                this.topLevel = false;
+
+                var body = this.propagate(node.body().statements(), node.parameters());
+
+                this.constants = enclosing;
+                this.topLevel = enclosingTopLevel;
+                yield new FunctionLiteral(node.token(),
+                                          node.parameters(),
+                                          new BlockStatement(node.body().token(), body));
+            }
+            case null, default -> super.rewrite(expression);
+        };
+    }
+
+    // the statements of one scope: a program or a function body
+    private List<Statement> propagate(List<Statement> statements, List<Identifier> parameters) {
+        var counts = Scopes.letCounts(statements);
+        parameters.forEach(parameter -> counts.merge(parameter.value(), 1, java.lang.Integer::sum));
+        // the names of this scope hide those of the enclosing scopes
+        counts.keySet().forEach(this.constants::remove);
+
+        var result = new ArrayList<Statement>(statements.size());
+        var bound = new ArrayList<LetStatement>();
+        for (Statement statement : statements) {
+            var rewritten = this.rewrite(statement);
+            if (rewritten instanceof LetStatement let
+                    && counts.get(let.name().value()) == 1
+                    && Literals.isLiteral(let.value())) {
+                this.constants.put(let.name().value(), let.value());
+                bound.add(let);
+            }
+            result.add(rewritten);
+        }
+
+        if (!this.topLevel) {
+            for (LetStatement let : bound) {
+                var name = let.name().value();
+                if (let != result.getLast() && result.stream().noneMatch(statement -> Scopes.mentions(statement, name))) {
+                    result.remove(let);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package org.monkey.optimizer;
+
+import org.monkey.ast.BlockStatement;
+import org.monkey.ast.Expression;
+import org.monkey.ast.ExpressionStatement;
+import org.monkey.ast.IfExpression;
+import org.monkey.ast.Program;
+import org.monkey.ast.Statement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// drops the branch of an if whose condition is a literal. An if that makes up a whole statement is replaced
+// by the statements of the branch that runs; blocks do not open a scope, so their lets stay where they were.
+// A branch that never runs is still kept if it has a let, because the let decides which slot its name means.
+class DeadBranchElimination extends Rewriter implements Pass {
+
+    @Override
+    public Program run(Program program) {
+        return this.rewrite(program);
+    }
+
+    @Override
+    List<Statement> rewriteStatements(List<Statement> statements) {
+        var result = new ArrayList<Statement>(statements.size());
+        for (int i = 0; i < statements.size(); i++) {
+            var statement = this.rewrite(statements.get(i));
+            var last = i == statements.size() - 1;
+            if (!(statement instanceof ExpressionStatement stmt)
+                    || !(stmt.expression() instanceof IfExpression node)
+                    || !Literals.isLiteral(node.condition())) {
+                result.add(statement);
+                continue;
+            }
+
+            var truthy = Literals.isTruthy(node.condition());
+            var taken = truthy
+                    ? node.consequence()
+                    : node.alternative();
+            if (binds(truthy
+                              ? node.alternative()
+                              : node.consequence())) {
+                result.add(statement);
+                continue;
+            }
+            if (taken != null && !taken.statements().isEmpty()) {
+                result.addAll(taken.statements());
+            } else if (!last) {
+                continue;
+            } else {
+                // the value of the block is the NULL of the if, which no statement can stand for
+                result.add(statement);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    Expression rewrite(Expression expression) {
+        var rewritten = super.rewrite(expression);
+        if (!(rewritten instanceof IfExpression node) || !Literals.isLiteral(node.condition())) {
+            return rewritten;
+        }
+
+        if (Literals.isTruthy(node.condition())) {
+            if (binds(node.alternative())) {
+                return node;
+            }
+            if (node.consequence().statements().size() == 1
+                    && node.consequence().statements().getFirst() instanceof ExpressionStatement stmt) {
+                return stmt.expression();
+            }
+            return new IfExpression(node.token(), node.condition(), node.consequence(), null);
+        }
+
+        if (binds(node.consequence())) {
+            return node;
+        }
+        if (node.alternative() != null
+                && node.alternative().statements().size() == 1
+                && node.alternative().statements().getFirst() instanceof ExpressionStatement stmt) {
+            return stmt.expression();
+        }
+        var empty = new BlockStatement(node.consequence().token(), List.of());
+        return new IfExpression(node.token(), node.condition(), empty, node.alternative());
+    }
+
+    private static boolean binds(BlockStatement block) {
+        return block != null && !Scopes.letCounts(block.statements()).isEmpty();
+    }
+}
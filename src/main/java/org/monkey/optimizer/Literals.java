@@ -0,0 +1,39 @@
+package org.monkey.optimizer;
+
+import org.monkey.ast.BooleanLiteral;
+import org.monkey.ast.Expression;
+import org.monkey.ast.IntegerLiteral;
+import org.monkey.ast.StringLiteral;
+import org.monkey.token.Token;
+import org.monkey.token.TokenType;
+
+final class Literals {
+
+    private Literals() {
+    }
+
+    static boolean isLiteral(Expression expression) {
+        return expression instanceof IntegerLiteral
+                || expression instanceof StringLiteral
+                || expression instanceof BooleanLiteral;
+    }
+
+    // only false and null are falsy, and there is no null literal
+    static boolean isTruthy(Expression literal) {
+        return !(literal instanceof BooleanLiteral bool) || bool.value();
+    }
+
+    static IntegerLiteral integer(long value) {
+        return new IntegerLiteral(new Token(TokenType.INT, Long.toString(value)), value);
+    }
+
+    static StringLiteral string(String value) {
+        return new StringLiteral(new Token(TokenType.STRING, value), value);
+    }
+
+    static BooleanLiteral bool(boolean value) {
+        return value
+                ? new BooleanLiteral(new Token(TokenType.TRUE, "true"), true)
+                : new BooleanLiteral(new Token(TokenType.FALSE, "false"), false);
+    }
+}
@@ -0,0 +1,34 @@
+package org.monkey.optimizer;
+
+import org.monkey.ast.*;
+
+final class NodeCounter {
+
+    private NodeCounter() {
+    }
+
+    static long count(Node n) {
+        return switch (n) {
+            case Program node -> 1 + node.statements.stream().mapToLong(NodeCounter::count).sum();
+            case LetStatement node -> 1 + count(node.name()) + count(node.value());
+            case ReturnStatement node -> 1 + count(node.returnValue());
+            case ExpressionStatement node -> 1 + count(node.expression());
+            case BlockStatement node -> 1 + node.statements().stream().mapToLong(NodeCounter::count).sum();
+            case PrefixExpression node -> 1 + count(node.right());
+            case InfixExpression node -> 1 + count(node.left()) + count(node.right());
+            case IfExpression node -> 1 + count(node.condition()) + count(node.consequence()) + count(node.alternative());
+            case FunctionLiteral node -> 1 + node.parameters().size() + count(node.body());
+            case CallExpression node -> 1 + count(node.function())
+                    + node.arguments().stream().mapToLong(NodeCounter::count).sum();
+            case ArrayLiteral node -> 1 + node.elements().stream().mapToLong(NodeCounter::count).sum();
+            case IndexExpression node -> 1 + count(node.left()) + count(node.index());
+            case HashLiteral node -> 1 + node.pairs()
+                                             .entrySet()
+                                             .stream()
+                                             .mapToLong(pair -> count(pair.getKey()) + count(pair.getValue()))
+                                             .sum();
+            case null -> 0;
+            default -> 1;
+        };
+    }
+}
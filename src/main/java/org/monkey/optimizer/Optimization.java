@@ -0,0 +1,34 @@
+package org.monkey.optimizer;
+
+public enum Optimization {
+    FOLD("fold"),
+    PROPAGATE("propagate"),
+    PRUNE("prune");
+
+    private final String flag;
+
+    Optimization(String flag) {
+        this.flag = flag;
+    }
+
+    public String flag() {
+        return this.flag;
+    }
+
+    public static Optimization of(String flag) {
+        for (Optimization optimization : values()) {
+            if (optimization.flag.equals(flag)) {
+                return optimization;
+            }
+        }
+        throw new IllegalArgumentException("unknown optimization: " + flag);
+    }
+
+    Pass newPass() {
+        return switch (this) {
+            case FOLD -> new ConstantFolding();
+            case PROPAGATE -> new ConstantPropagation();
+            case PRUNE -> new DeadBranchElimination();
+        };
+    }
+}
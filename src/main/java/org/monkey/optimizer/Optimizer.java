@@ -0,0 +1,60 @@
+package org.monkey.optimizer;
+
+import org.monkey.ast.Program;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+// runs the enabled passes over a Program before it is evaluated, compiled or built into nodes.
+// One pass may open up work for another (a propagated constant can be folded, a folded condition pruned),
+// so the passes are repeated until a round changes nothing.
+public class Optimizer {
+
+    private static final int MAX_ROUNDS = 8;
+
+    private final Set<Optimization> enabled;
+    private final Map<Optimization, Long> removed = new EnumMap<>(Optimization.class);
+
+    public Optimizer() {
+        this(EnumSet.allOf(Optimization.class));
+    }
+
+    public Optimizer(Set<Optimization> enabled) {
+        this.enabled = enabled.isEmpty()
+                ? EnumSet.noneOf(Optimization.class)
+                : EnumSet.copyOf(enabled);
+        for (Optimization optimization : this.enabled) {
+            this.removed.put(optimization, 0L);
+        }
+    }
+
+    public Program optimize(Program program) {
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            var before = program.string();
+            for (Optimization optimization : this.enabled) {
+                var count = NodeCounter.count(program);
+                program = optimization.newPass().run(program);
+                this.removed.merge(optimization, count - NodeCounter.count(program), Long::sum);
+            }
+            if (program.string().equals(before)) {
+                break;
+            }
+        }
+        return program;
+    }
+
+    // the number of AST nodes each enabled pass has removed so far
+    public Map<Optimization, Long> removed() {
+        return Map.copyOf(this.removed);
+    }
+
+    public String report() {
+        var sb = new StringBuilder();
+        for (Map.Entry<Optimization, Long> entry : this.removed.entrySet()) {
+            sb.append(String.format("%-10s %d nodes removed\n", entry.getKey().flag(), entry.getValue()));
+        }
+        return sb.toString();
+    }
+}
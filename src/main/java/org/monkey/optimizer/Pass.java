@@ -0,0 +1,7 @@
+package org.monkey.optimizer;
+
+import org.monkey.ast.Program;
+
+interface Pass {
+    Program run(Program program);
+}
@@ -0,0 +1,91 @@
+package org.monkey.optimizer;
+
+import org.monkey.ast.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// rebuilds a Program bottom-up; a pass overrides the hooks for the nodes it changes
+abstract class Rewriter {
+
+    Program rewrite(Program program) {
+        return new Program(this.rewriteStatements(program.statements));
+    }
+
+    // may return more or fewer statements than it was given
+    List<Statement> rewriteStatements(List<Statement> statements) {
+        var result = new ArrayList<Statement>(statements.size());
+        for (Statement statement : statements) {
+            result.add(this.rewrite(statement));
+        }
+        return result;
+    }
+
+    BlockStatement rewrite(BlockStatement block) {
+        if (block == null) {
+            return null;
+        }
+        return new BlockStatement(block.token(), this.rewriteStatements(block.statements()));
+    }
+
+    Statement rewrite(Statement statement) {
+        return switch (statement) {
+            case LetStatement node -> new LetStatement(node.token(), node.name(), this.rewrite(node.value()));
+            case ReturnStatement node -> new ReturnStatement(node.token(), this.rewrite(node.returnValue()));
+            case ExpressionStatement node -> new ExpressionStatement(node.token(), this.rewrite(node.expression()));
+            case BlockStatement node -> this.rewrite(node);
+            case null, default -> statement;
+        };
+    }
+
+    Expression rewrite(Expression expression) {
+        return switch (expression) {
+            case PrefixExpression node -> new PrefixExpression(node.token(), node.operator(), this.rewrite(node.right()));
+            case InfixExpression node -> new InfixExpression(node.token(),
+                                                             node.operator(),
+                                                             this.rewrite(node.left()),
+                                                             this.rewrite(node.right()));
+            case IfExpression node -> new IfExpression(node.token(),
+                                                       this.rewrite(node.condition()),
+                                                       this.rewrite(node.consequence()),
+                                                       this.rewrite(node.alternative()));
+            case FunctionLiteral node -> new FunctionLiteral(node.token(), node.parameters(), this.rewrite(node.body()));
+            case CallExpression node -> new CallExpression(node.token(),
+                                                           this.rewrite(node.function()),
+                                                           this.rewriteAll(node.arguments()));
+            case ArrayLiteral node -> new ArrayLiteral(node.token(), this.rewriteAll(node.elements()));
+            case IndexExpression node -> new IndexExpression(node.token(),
+                                                             this.rewrite(node.left()),
+                                                             this.rewrite(node.index()));
+            case HashLiteral node -> this.rewrite(node);
+            case null, default -> expression;
+        };
+    }
+
+    final List<Expression> rewriteAll(List<Expression> expressions) {
+        var result = new ArrayList<Expression>(expressions.size());
+        for (Expression expression : expressions) {
+            result.add(this.rewrite(expression));
+        }
+        return result;
+    }
+
+    private HashLiteral rewrite(HashLiteral node) {
+        var pairs = new HashMap<Expression, Expression>();
+        for (Map.Entry<Expression, Expression> entry : node.pairs().entrySet()) {
+            pairs.put(this.rewrite(entry.getKey()), this.rewrite(entry.getValue()));
+        }
+        if (pairs.size() == node.pairs().size()) {
+            return new HashLiteral(node.token(), pairs);
+        }
+
+        // two keys became the same literal; the map would lose one of them, so keep the keys as written
+        pairs.clear();
+        for (Map.Entry<Expression, Expression> entry : node.pairs().entrySet()) {
+            pairs.put(entry.getKey(), this.rewrite(entry.getValue()));
+        }
+        return new HashLiteral(node.token(), pairs);
+    }
+}
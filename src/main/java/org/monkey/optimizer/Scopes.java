@@ -0,0 +1,84 @@
+package org.monkey.optimizer;
+
+import org.monkey.ast.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// what a pass needs to know about names; scoping works as in org.monkey.resolver.Resolver
+final class Scopes {
+
+    private Scopes() {
+    }
+
+    // how often each name is bound by a let in this code, including inside if-blocks but not inside functions
+    static Map<String, java.lang.Integer> letCounts(List<Statement> statements) {
+        var counts = new HashMap<String, java.lang.Integer>();
+        statements.forEach(statement -> countLets(statement, counts));
+        return counts;
+    }
+
+    // whether an identifier with this name appears anywhere below the node, including inside functions
+    static boolean mentions(Node n, String name) {
+        return switch (n) {
+            case Identifier node -> node.value().equals(name);
+            case LetStatement node -> mentions(node.value(), name);
+            case ReturnStatement node -> mentions(node.returnValue(), name);
+            case ExpressionStatement node -> mentions(node.expression(), name);
+            case BlockStatement node -> node.statements().stream().anyMatch(statement -> mentions(statement, name));
+            case PrefixExpression node -> mentions(node.right(), name);
+            case InfixExpression node -> mentions(node.left(), name) || mentions(node.right(), name);
+            case IfExpression node -> mentions(node.condition(), name)
+                    || mentions(node.consequence(), name)
+                    || mentions(node.alternative(), name);
+            case FunctionLiteral node -> mentions(node.body(), name);
+            case CallExpression node -> mentions(node.function(), name)
+                    || node.arguments().stream().anyMatch(argument -> mentions(argument, name));
+            case ArrayLiteral node -> node.elements().stream().anyMatch(element -> mentions(element, name));
+            case IndexExpression node -> mentions(node.left(), name) || mentions(node.index(), name);
+            case HashLiteral node -> node.pairs()
+                                         .entrySet()
+                                         .stream()
+                                         .anyMatch(pair -> mentions(pair.getKey(), name)
+                                                 || mentions(pair.getValue(), name));
+            case null, default -> false;
+        };
+    }
+
+    private static void countLets(Node n, Map<String, java.lang.Integer> counts) {
+        switch (n) {
+            case LetStatement node -> {
+                counts.merge(node.name().value(), 1, java.lang.Integer::sum);
+                countLets(node.value(), counts);
+            }
+            case ReturnStatement node -> countLets(node.returnValue(), counts);
+            case ExpressionStatement node -> countLets(node.expression(), counts);
+            case BlockStatement node -> node.statements().forEach(statement -> countLets(statement, counts));
+            case PrefixExpression node -> countLets(node.right(), counts);
+            case InfixExpression node -> {
+                countLets(node.left(), counts);
+                countLets(node.right(), counts);
+            }
+            case IfExpression node -> {
+                countLets(node.condition(), counts);
+                countLets(node.consequence(), counts);
+                countLets(node.alternative(), counts);
+            }
+            case CallExpression node -> {
+                countLets(node.function(), counts);
+                node.arguments().forEach(argument -> countLets(argument, counts));
+            }
+            case ArrayLiteral node -> node.elements().forEach(element -> countLets(element, counts));
+            case IndexExpression node -> {
+                countLets(node.left(), counts);
+                countLets(node.index(), counts);
+            }
+            case HashLiteral node -> node.pairs().forEach((key, value) -> {
+                countLets(key, counts);
+                countLets(value, counts);
+            });
+            case null, default -> { }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.monkey.parser;
+
+import org.monkey.ast.Program;
+import org.monkey.ast.Statement;
+import org.monkey.lexer.Lexer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Keeps a document together with its parse, and after an edit parses again only the top-level statements
+// around it. The document is held as UTF-8, so offsets are byte offsets, as the Lexer counts them.
+//
+// The statements tile the document: an entry covers its statement and the whitespace up to the next one,
+// and stores only its length, so an edit does not move the entries after it. A statement only depends on
+// the token after it, and the token that ends just before the edit may grow into it ("=" and "=" make "=="),
+// so parsing starts at the statement before the one holding the byte before the edit; it stops as soon as a
+// statement starts where an old one after the edit started, because from there on the text is what it was.
+//
+// The entry holding an offset is found in O(log n) through a Fenwick tree of the entry lengths, and an edit
+// that keeps the number of statements updates the tree in O(log n) per statement parsed. An edit that adds or
+// removes statements shifts the entry list and rebuilds the tree, and every edit moves the text after it;
+// those are linear copies, not parses, and a gap buffer and a balanced tree of entries can replace them.
+public class IncrementalParser {
+
+    private record Entry(Statement statement, List<String> errors, int length) { }
+
+    private byte[] text;
+    private int size;
+    private int prefix; // the whitespace before the first statement
+    private final List<Entry> entries = new ArrayList<>();
+    // Fenwick tree over the entry lengths: tree[i] sums the lengths of entries (i - (i & -i), i]
+    private int[] tree = new int[1];
+    private int reparsed;
+
+    public IncrementalParser(String source) {
+        this.text = source.getBytes(StandardCharsets.UTF_8);
+        this.size = this.text.length;
+        this.parse(0, 0, 0, 0, 0);
+    }
+
+    // replaces the bytes [start, end) of the document
+    public void edit(int start, int end, String replacement) {
+        Objects.checkFromToIndex(start, end, this.size);
+        var bytes = replacement.getBytes(StandardCharsets.UTF_8);
+        var delta = bytes.length - (end - start);
+
+        // parsing starts one entry before the one holding the byte before the edit
+        var containing = start > this.prefix
+                ? Math.min(this.countBelow(start - this.prefix), this.entries.size() - 1)
+                : -1;
+        var previousStart = containing < 1
+                ? 0
+                : this.prefix + this.lengthOf(containing - 1);
+
+        var oldPrefix = this.prefix;
+        this.replace(start, end, bytes);
+        if (containing < 1) {
+            this.parse(0, 0, oldPrefix, end, delta);
+        } else {
+            this.parse(containing - 1, previousStart, previousStart, end, delta);
+        }
+    }
+
+    public Program program() {
+        var statements = new ArrayList<Statement>(this.entries.size());
+        for (Entry entry : this.entries) {
+            if (entry.statement() != null) {
+                statements.add(entry.statement());
+            }
+        }
+        return new Program(statements);
+    }
+
+    public List<String> errors() {
+        var errors = new ArrayList<String>();
+        this.entries.forEach(entry -> errors.addAll(entry.errors()));
+        return errors;
+    }
+
+    public String text() {
+        return new String(this.text, 0, this.size, StandardCharsets.UTF_8);
+    }
+
+    // how many statements the last edit parsed
+    public int reparsed() {
+        return this.reparsed;
+    }
+
+    private void replace(int start, int end, byte[] bytes) {
+        var newSize = this.size - (end - start) + bytes.length;
+        if (newSize > this.text.length) {
+            var grown = new byte[Math.max(newSize, this.text.length * 2)];
+            System.arraycopy(this.text, 0, grown, 0, start);
+            System.arraycopy(this.text, end, grown, start + bytes.length, this.size - end);
+            this.text = grown;
+        } else {
+            System.arraycopy(this.text, end, this.text, start + bytes.length, this.size - end);
+        }
+        System.arraycopy(bytes, 0, this.text, start, bytes.length);
+        this.size = newSize;
+    }
+
+    // parses from entry `first`, which starts at regionStart in the new text and at firstStart in the old one,
+    // until a statement starts where an old one after the edit did, moved by delta
+    private void parse(int first, int regionStart, int firstStart, int editEnd, int delta) {
+        var parser = new Parser(new Lexer(ByteBuffer.wrap(this.text, regionStart, this.size - regionStart)));
+        if (regionStart == 0) {
+            this.prefix = (int) parser.position();
+        }
+
+        // the old entry that may be reused next, and where it started
+        var next = first;
+        var oldStart = firstStart;
+
+        var parsed = new ArrayList<Entry>();
+        var reuse = this.entries.size();
+        while (!parser.atEnd()) {
+            var start = regionStart + (int) parser.position();
+            while (next < this.entries.size() && (oldStart < editEnd || oldStart + delta < start)) {
+                oldStart += this.entries.get(next).length();
+                next++;
+            }
+            if (next < this.entries.size() && oldStart + delta == start) {
+                reuse = next;
+                break;
+            }
+
+            var errors = parser.errors().size();
+            var statement = parser.parseTopLevelStatement();
+            var end = regionStart + (int) parser.position();
+            parsed.add(new Entry(statement,
+                                 List.copyOf(parser.errors().subList(errors, parser.errors().size())),
+                                 end - start));
+        }
+
+        var from = Math.min(first, this.entries.size());
+        if (parsed.size() == reuse - from) {
+            for (int i = 0; i < parsed.size(); i++) {
+                var old = this.entries.set(from + i, parsed.get(i));
+                this.addLength(from + i, parsed.get(i).length() - old.length());
+            }
+        } else {
+            var replaced = this.entries.subList(from, reuse);
+            replaced.clear();
+            replaced.addAll(parsed);
+            this.rebuildLengths();
+        }
+        this.reparsed = parsed.size();
+    }
+
+    // the number of leading entries whose lengths sum to less than offset
+    private int countBelow(int offset) {
+        var count = 0;
+        var sum = 0;
+        for (int step = Integer.highestOneBit(this.entries.size()); step > 0; step >>= 1) {
+            var next = count + step;
+            if (next < this.tree.length && sum + this.tree[next] < offset) {
+                count = next;
+                sum += this.tree[next];
+            }
+        }
+        return count;
+    }
+
+    // the summed length of entries [0, index)
+    private int lengthOf(int index) {
+        var sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += this.tree[i];
+        }
+        return sum;
+    }
+
+    private void addLength(int index, int delta) {
+        for (int i = index + 1; i < this.tree.length; i += i & -i) {
+            this.tree[i] += delta;
+        }
+    }
+
+    private void rebuildLengths() {
+        this.tree = new int[this.entries.size() + 1];
+        for (int i = 1; i < this.tree.length; i++) {
+            this.tree[i] += this.entries.get(i - 1).length();
+            var parent = i + (i & -i);
+            if (parent < this.tree.length) {
+                this.tree[parent] += this.tree[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.monkey.parser;
+
+import org.monkey.ast.Program;
+import org.monkey.ast.Statement;
+import org.monkey.lexer.Lexer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Parses a program in chunks on a ForkJoin pool. A pre-scan of the bytes cuts the input where a top-level
+// statement probably starts: after a `;` or before a `let`, outside brackets and strings. Every chunk gets its
+// own Parser, whose lexer runs on past the end of the chunk, so the look-ahead at a cut sees what it would in
+// a sequential parse.
+//
+// A chunk is taken as parsed when it begins where the chunk before it stopped. Otherwise the cut was not a
+// statement start, e.g. a `;` that a malformed statement did not end at, and the chunk is parsed again from
+// where the one before really stopped. The statements and the order of the errors are then exactly those of
+// Parser.parseProgram.
+public class ParallelParser {
+
+    private static final int MIN_CHUNK = 64 * 1024;
+
+    private record Chunk(List<Statement> statements, List<String> errors, int first, int stop) { }
+
+    private final ByteBuffer input;
+    private final ForkJoinPool pool;
+    private final int minChunk;
+    private final List<String> errors = new ArrayList<>();
+
+    public ParallelParser(String input) {
+        this(ByteBuffer.wrap(input.getBytes()), ForkJoinPool.commonPool());
+    }
+
+    public ParallelParser(ByteBuffer input, ForkJoinPool pool) {
+        this(input, pool, MIN_CHUNK);
+    }
+
+    ParallelParser(ByteBuffer input, ForkJoinPool pool, int minChunk) {
+        this.input = input.slice();
+        this.pool = pool;
+        this.minChunk = minChunk;
+    }
+
+    public static ParallelParser of(Path path, ForkJoinPool pool) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ParallelParser(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), pool);
+        }
+    }
+
+    public List<String> errors() {
+        return this.errors;
+    }
+
+    public Program parseProgram() {
+        var cuts = this.cuts();
+        var tasks = new ArrayList<ForkJoinTask<Chunk>>(cuts.size());
+        for (int i = 1; i + 1 < cuts.size(); i++) {
+            int start = cuts.get(i);
+            int end = cuts.get(i + 1);
+            tasks.add(this.pool.submit(() -> this.parse(start, end)));
+        }
+
+        var previous = this.parse(0, cuts.get(1));
+        var statements = new ArrayList<>(previous.statements());
+        this.errors.addAll(previous.errors());
+        for (int i = 0; i < tasks.size(); i++) {
+            var chunk = tasks.get(i).join();
+            if (chunk.first() != previous.stop()) {
+                chunk = this.parse(previous.stop(), cuts.get(i + 2));
+            }
+            statements.addAll(chunk.statements());
+            this.errors.addAll(chunk.errors());
+            previous = chunk;
+        }
+        return new Program(statements);
+    }
+
+    // parses the statements that start in [start, end)
+    private Chunk parse(int start, int end) {
+        var parser = new Parser(new Lexer(this.input.duplicate().position(start)));
+        var first = start + (int) parser.position();
+        var statements = new ArrayList<Statement>();
+        while (!parser.atEnd() && start + parser.position() < end) {
+            var statement = parser.parseTopLevelStatement();
+            if (statement != null) {
+                statements.add(statement);
+            }
+        }
+        return new Chunk(statements, parser.errors(), first, start + (int) parser.position());
+    }
+
+    // offsets where chunks of about an equal share of the input begin, and the end of the input
+    private List<Integer> cuts() {
+        var limit = this.input.limit();
+        var target = Math.max(this.minChunk, limit / (this.pool.getParallelism() * 4));
+        var cuts = new ArrayList<Integer>();
+        cuts.add(0);
+
+        var depth = 0;
+        var last = 0;
+        for (int i = 0; i < limit; i++) {
+            var cut = -1;
+            switch (this.input.get(i)) {
+                case '"' -> i = this.skipString(i + 1, limit);
+                case '(', '[', '{' -> depth++;
+                case ')', ']', '}' -> depth = Math.max(0, depth - 1);
+                case ';' -> cut = depth == 0 ? i + 1 : -1;
+                case 'l' -> cut = depth == 0 && this.isLet(i, limit) ? i : -1;
+                default -> { }
+            }
+            if (cut - last >= target && cut < limit) {
+                cuts.add(cut);
+                last = cut;
+            }
+        }
+        cuts.add(limit);
+        return cuts;
+    }
+
+    // the index of the closing quote
+    private int skipString(int from, int limit) {
+        var i = from;
+        while (i < limit && this.input.get(i) != '"' && this.input.get(i) != 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean isLet(int i, int limit) {
+        return i + 3 <= limit
+                && this.input.get(i + 1) == 'e' && this.input.get(i + 2) == 't'
+                && (i == 0 || !isLetter(this.input.get(i - 1)))
+                && (i + 3 == limit || !isLetter(this.input.get(i + 3)));
+    }
+
+    private static boolean isLetter(byte ch) {
+        return 'a' <= ch && ch <= 'z' || 'A' <= ch && ch <= 'Z' || ch == '_';
+    }
+}
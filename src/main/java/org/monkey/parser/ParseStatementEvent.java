@@ -0,0 +1,34 @@
+package org.monkey.parser;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// the parse of one top-level statement, for JDK Flight Recorder
+@Name("org.monkey.ParseStatement")
+@Label("Parse Statement")
+@Category({ "Monkey", "Parser" })
+@Description("Parsing of a top-level statement")
+@StackTrace(false)
+@Threshold("1 ms")
+final class ParseStatementEvent extends jdk.jfr.Event {
+
+    @Label("Statement")
+    @Description("The kind of statement, or the token it starts with when it did not parse")
+    String statement;
+
+    @Label("Offset")
+    @Description("Byte offset of the statement in the input")
+    long offset;
+
+    @Label("Length")
+    @DataAmount
+    long length;
+
+    @Label("Errors")
+    int errors;
+}
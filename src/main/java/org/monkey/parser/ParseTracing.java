@@ -4,7 +4,7 @@ public class ParseTracing {
 
     private final Parser parser;
 
-    private static int traceLevel = 0;
+    private int traceLevel = 0;
     private static final String traceIdentPlaceHolder = "\t";
 
     public ParseTracing(Parser parser) {
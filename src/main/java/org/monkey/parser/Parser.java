@@ -27,12 +27,16 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 
 public class Parser {
 
+    // changes whenever the same source parses to a different tree, so trees cached by an older parser go unused
+    public static final int VERSION = 2;
+
     enum Precedence {
         DEFAULT,
         LOWEST,
@@ -62,12 +66,11 @@ public class Parser {
     Supplier<Expression> parseIdentifier = () -> new Identifier(this.curToken, this.curToken.literal());
 
     Supplier<Expression> parseIntegerLiteral = () -> {
-        try {
-            return new IntegerLiteral(this.curToken, Integer.parseInt(this.curToken.literal(), 10));
-        } catch (NumberFormatException e) {
+        if (this.curInt < 0) {
             this.errors.add(String.format("could not parse %s as integer", this.curToken.literal()));
             return null;
         }
+        return new IntegerLiteral(this.curToken, this.curInt);
     };
 
     Supplier<Expression> parseStringLiteral = () -> new StringLiteral(this.curToken, this.curToken.literal());
@@ -110,14 +113,14 @@ public class Parser {
 
         var consequence = this.parseBlockStatement();
 
+        BlockStatement alternative = null;
         if (this.peekTokenIs(TokenType.ELSE)) {
             this.nextToken();
             if (!this.expectPeek(TokenType.LBRACE)) {
                 return null;
             }
+            alternative = this.parseBlockStatement();
         }
-        var alternative = this.parseBlockStatement();
-
 
         return new IfExpression(token, condition, consequence, alternative);
     };
@@ -206,6 +209,12 @@ public class Parser {
     private final List<String> errors = new ArrayList<>();
     private Token curToken;
     private Token peekToken;
+    // the lexer decodes integer literals; these are the values of curToken and peekToken when they are INT
+    private long curInt;
+    private long peekInt;
+    // where curToken and peekToken start in the input
+    private long curStart;
+    private long peekStart;
     private final Map<TokenType, Supplier<Expression>> prefixParseFns;
     private final Map<TokenType, Function<Expression, Expression>> infixParseFns;
 
@@ -245,14 +254,51 @@ public class Parser {
 
     public Program parseProgram() {
         var statements = new ArrayList<Statement>();
-        while (!this.curTokenIs(TokenType.EOF)) {
-            var stmt = this.parseStatement();
+        this.parseProgram(statements::add);
+        return new Program(statements);
+    }
+
+    // hands over each statement as soon as it is parsed, for callers that do not keep the tree
+    public void parseProgram(Consumer<Statement> statements) {
+        while (!this.atEnd()) {
+            var stmt = this.parseTopLevelStatement();
             if (stmt != null) {
-                statements.add(stmt);
+                statements.accept(stmt);
             }
-            this.nextToken();
         }
-        return new Program(statements);
+    }
+
+    // one step of parseProgram, for IncrementalParser and ParallelParser: null when the statement has errors
+    Statement parseTopLevelStatement() {
+        var event = new ParseStatementEvent();
+        event.begin();
+        var first = this.curToken;
+        var start = this.curStart;
+        var errors = this.errors.size();
+
+        var statement = this.parseStatement();
+        this.nextToken();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.statement = statement == null
+                    ? first.literal()
+                    : statement.getClass().getSimpleName();
+            event.offset = start;
+            event.length = this.curStart - start;
+            event.errors = this.errors.size() - errors;
+            event.commit();
+        }
+        return statement;
+    }
+
+    boolean atEnd() {
+        return this.curTokenIs(TokenType.EOF);
+    }
+
+    // where the next top-level statement starts
+    long position() {
+        return this.curStart;
     }
 
     private Statement parseStatement() {
@@ -425,7 +471,11 @@ public class Parser {
 
     private void nextToken() {
         this.curToken = this.peekToken;
+        this.curInt = this.peekInt;
+        this.curStart = this.peekStart;
         this.peekToken = this.lexer.nextToken();
+        this.peekInt = this.lexer.intValue();
+        this.peekStart = this.lexer.tokenStart();
     }
 
     private Precedence peekPrecedence() {
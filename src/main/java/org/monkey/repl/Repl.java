@@ -1,14 +1,19 @@
 package org.monkey.repl;
 
 import org.monkey.ast.Program;
-import org.monkey.evaluator.Evaluator;
+import org.monkey.cache.AstCache;
+import org.monkey.engine.Engine;
+import org.monkey.engine.EvaluatorEngine;
 import org.monkey.lexer.Lexer;
-import org.monkey.object.Environment;
-import org.monkey.object.Object;
+import org.monkey.parser.ParallelParser;
 import org.monkey.parser.Parser;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 public class Repl {
 
@@ -28,9 +33,32 @@ public class Repl {
                                                          '-----'
                                               """;
 
+    private final Engine engine;
+    private final AstCache cache;
+    private final ForkJoinPool pool;
+
+    public Repl() {
+        this(new EvaluatorEngine());
+    }
+
+    public Repl(Engine engine) {
+        this(engine, null);
+    }
+
+    // with a cache, scripts whose source has not changed since their last run are not parsed again
+    public Repl(Engine engine, AstCache cache) {
+        this(engine, cache, null);
+    }
+
+    // with a pool, scripts are parsed in chunks on it
+    public Repl(Engine engine, AstCache cache, ForkJoinPool pool) {
+        this.engine = engine;
+        this.cache = cache;
+        this.pool = pool;
+    }
+
     public void start() {
         var scanner = new Scanner(System.in);
-        var env = new Environment();
 
         while (true) {
             System.out.printf(PROMPT);
@@ -40,21 +68,77 @@ public class Repl {
             } catch (Exception e) {
                 return;
             }
-            var lexer = new Lexer(line);
-            var parser = new Parser(lexer);
+            this.execute(new Lexer(line));
+        }
+    }
 
-            var program = parser.parseProgram();
-            if (!parser.errors().isEmpty()) {
-                printParseErrors(parser.errors());
-                continue;
+    // runs a whole script, lexing it straight from the file
+    public void run(Path script) throws IOException {
+        if (this.cache == null) {
+            var program = this.parse(script);
+            if (program != null) {
+                this.evaluate(program);
+            }
+            return;
+        }
+        var key = this.cache.keyOf(script);
+        var program = this.cache.get(key);
+        if (program == null) {
+            program = this.parse(script);
+            if (program == null) {
+                return;
+            }
+            // the cache only saves parsing next time, so a failure to write it does not stop the run
+            try {
+                this.cache.put(key, program);
+            } catch (IOException e) {
+                System.err.printf("could not write the AST cache: %s\n", e);
             }
+        }
+        this.evaluate(program);
+    }
+
+    private void execute(Lexer lexer) {
+        var program = this.parse(lexer);
+        if (program != null) {
+            this.evaluate(program);
+        }
+    }
+
+    // null after printing the parser errors
+    private Program parse(Lexer lexer) {
+        var parser = new Parser(lexer);
+
+        var program = parser.parseProgram();
+        return this.checked(program, parser.errors());
+    }
 
-            var evaluator = new Evaluator();
-            var evaluated = evaluator.eval(program, env);
-            if (evaluated != null) {
-                System.out.println(evaluated.inspect());
+    private Program parse(Path script) throws IOException {
+        // a file too large for one mapping is streamed through a single parser
+        if (this.pool == null || Files.size(script) > Integer.MAX_VALUE) {
+            try (var lexer = Lexer.of(script)) {
+                return this.parse(lexer);
             }
         }
+        var parser = ParallelParser.of(script, this.pool);
+
+        var program = parser.parseProgram();
+        return this.checked(program, parser.errors());
+    }
+
+    private Program checked(Program program, List<String> errors) {
+        if (!errors.isEmpty()) {
+            printParseErrors(errors);
+            return null;
+        }
+        return program;
+    }
+
+    private void evaluate(Program program) {
+        var evaluated = this.engine.run(program);
+        if (evaluated != null) {
+            System.out.println(evaluated.inspect());
+        }
     }
 
     private void printParseErrors(List<String> errors) {
@@ -0,0 +1,17 @@
+package org.monkey.resolver;
+
+import org.monkey.ast.Expression;
+import org.monkey.ast.Identifier;
+import org.monkey.object.BuiltIn;
+
+public record BuiltInIdentifier(Identifier identifier, BuiltIn builtIn) implements Expression {
+    @Override
+    public String tokenLiteral() {
+        return this.identifier.tokenLiteral();
+    }
+
+    @Override
+    public String string() {
+        return this.identifier.string();
+    }
+}
@@ -0,0 +1,291 @@
+package org.monkey.resolver;
+
+import org.monkey.ast.*;
+import org.monkey.object.BuiltIns;
+import org.monkey.object.CallProfile;
+import org.monkey.object.Environment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Resolver rewrites a Program so that every name is addressed by (depth, slot) instead of by string.
+//
+// It mirrors the lookup order of the old HashMap environments, which read the innermost binding that was set at
+// the time of the read. Inside the code that is currently running a name is only visible after its let, while
+// enclosing scopes are seen as a whole, because a function body reads them when it is called rather than when
+// it is defined. A slot found that way may still be unset when it is read (a let that has not run yet, or one
+// in a branch not taken), so each SlotIdentifier carries the next binding out as its fallback, ending with the
+// global and then the builtin of that name.
+//
+// A name bound nowhere gets a global slot, so that a later program in the same session can still bind it; the
+// slot reports "identifier not found" while it is unset. Such slots are never freed, so every misspelled or
+// undefined name a session reads keeps one.
+public class Resolver {
+
+    private static class Scope {
+        private final Scope outer;
+        private final Map<String, java.lang.Integer> slots = new HashMap<>();
+        private final Set<String> declared = new HashSet<>();
+        private int size;
+
+        private Scope(Scope outer) {
+            this.outer = outer;
+        }
+
+        private int slot(String name) {
+            return this.slots.computeIfAbsent(name, k -> this.size++);
+        }
+    }
+
+    private final Environment globals;
+    private final Set<String> pendingGlobals = new HashSet<>();
+    private Scope scope;
+    private int depth;
+
+    public Resolver(Environment globals) {
+        this.globals = globals;
+    }
+
+    public Program resolve(Program program) {
+        this.defineGlobals(program);
+
+        var statements = new ArrayList<Statement>(program.statements.size());
+        for (Statement statement : program.statements) {
+            statements.add(this.resolve(statement));
+        }
+        return new Program(statements);
+    }
+
+    // resolves each statement only when the iteration reaches it, so a program whose statements are built on
+    // demand (an AstArena view) is never held resolved as a whole
+    public Iterable<Statement> resolveEach(Program program) {
+        this.defineGlobals(program);
+        return () -> program.statements.stream().map(this::resolve).iterator();
+    }
+
+    private void defineGlobals(Program program) {
+        for (String name : letNames(program.statements)) {
+            if (this.globals.slotOf(name) == null) {
+                this.pendingGlobals.add(name);
+                this.globals.define(name);
+            }
+        }
+    }
+
+    private Statement resolve(Statement statement) {
+        return switch (statement) {
+            case LetStatement node -> {
+                var value = this.resolve(node.value());
+                yield new SlotLetStatement(node.token(), node.name(), value, this.declare(node.name().value()));
+            }
+            case ReturnStatement node -> {
+                var value = this.resolve(node.returnValue());
+                yield new ReturnStatement(node.token(), this.scope == null
+                        ? value
+                        : tail(value));
+            }
+            case ExpressionStatement node -> new ExpressionStatement(node.token(), this.resolve(node.expression()));
+            case BlockStatement node -> this.resolve(node);
+            case null -> null;
+            default -> throw new IllegalStateException("Unexpected value: " + statement.getClass());
+        };
+    }
+
+    private BlockStatement resolve(BlockStatement block) {
+        if (block == null) {
+            return null;
+        }
+        var statements = new ArrayList<Statement>(block.statements().size());
+        for (Statement statement : block.statements()) {
+            statements.add(this.resolve(statement));
+        }
+        return new BlockStatement(block.token(), statements);
+    }
+
+    private Expression resolve(Expression expression) {
+        return switch (expression) {
+            case Identifier node -> this.resolveName(node);
+            case IntegerLiteral node -> node;
+            case StringLiteral node -> node;
+            case BooleanLiteral node -> node;
+            case PrefixExpression node -> new PrefixExpression(node.token(), node.operator(), this.resolve(node.right()));
+            case InfixExpression node -> {
+                var left = this.resolve(node.left());
+                var right = this.resolve(node.right());
+                yield new InfixExpression(node.token(), node.operator(), left, right);
+            }
+            case IfExpression node -> {
+                var condition = this.resolve(node.condition());
+                var consequence = this.resolve(node.consequence());
+                var alternative = this.resolve(node.alternative());
+                yield new IfExpression(node.token(), condition, consequence, alternative);
+            }
+            case FunctionLiteral node -> this.resolveFunction(node);
+            case CallExpression node -> {
+                var function = this.resolve(node.function());
+                yield new CallExpression(node.token(), function, this.resolveAll(node.arguments()));
+            }
+            case ArrayLiteral node -> new ArrayLiteral(node.token(), this.resolveAll(node.elements()));
+            case IndexExpression node -> {
+                var left = this.resolve(node.left());
+                var index = this.resolve(node.index());
+                yield new IndexExpression(node.token(), left, index);
+            }
+            case HashLiteral node -> {
+                var pairs = new HashMap<Expression, Expression>();
+                for (Map.Entry<Expression, Expression> entry : node.pairs().entrySet()) {
+                    var key = this.resolve(entry.getKey());
+                    pairs.put(key, this.resolve(entry.getValue()));
+                }
+                yield new HashLiteral(node.token(), pairs);
+            }
+            case null -> null;
+            default -> throw new IllegalStateException("Unexpected value: " + expression.getClass());
+        };
+    }
+
+    private List<Expression> resolveAll(List<Expression> expressions) {
+        var resolved = new ArrayList<Expression>(expressions.size());
+        for (Expression expression : expressions) {
+            resolved.add(this.resolve(expression));
+        }
+        return resolved;
+    }
+
+    private Expression resolveFunction(FunctionLiteral node) {
+        var enclosing = this.scope;
+        this.scope = new Scope(enclosing);
+        this.depth++;
+
+        // parameters always take the first slots, in order; a repeated name is bound to its last position
+        for (Identifier parameter : node.parameters()) {
+            this.scope.slots.put(parameter.value(), this.scope.size++);
+            this.scope.declared.add(parameter.value());
+        }
+        if (node.body() != null) {
+            for (String name : letNames(node.body().statements())) {
+                this.scope.slot(name);
+            }
+        }
+        var body = tail(this.resolve(node.body()));
+        var frameSize = this.scope.size;
+
+        this.depth--;
+        this.scope = enclosing;
+        return new SlotFunctionLiteral(node.token(), node.parameters(), body, frameSize, new CallProfile());
+    }
+
+    private int declare(String name) {
+        if (this.scope == null) {
+            this.pendingGlobals.remove(name);
+            return this.globals.define(name);
+        }
+        this.scope.declared.add(name);
+        return this.scope.slot(name);
+    }
+
+    private Expression resolveName(Identifier node) {
+        var name = node.value();
+
+        var builtIn = BuiltIns.lookup(name);
+        Expression resolved = builtIn == null
+                ? null
+                : new BuiltInIdentifier(node, builtIn);
+
+        var global = this.globals.slotOf(name);
+        if (global != null && (this.scope != null || !this.pendingGlobals.contains(name))) {
+            resolved = new SlotIdentifier(node, this.depth, global, resolved);
+        }
+
+        // the scopes are chained from the outermost in, so that each binding falls back to the one around it
+        var scopes = new ArrayList<Scope>();
+        for (var s = this.scope; s != null; s = s.outer) {
+            scopes.add(s);
+        }
+        for (int hops = scopes.size() - 1; hops >= 0; hops--) {
+            var s = scopes.get(hops);
+            var visible = s == this.scope
+                    ? s.declared.contains(name)
+                    : s.slots.containsKey(name);
+            if (visible) {
+                resolved = new SlotIdentifier(node, hops, s.slots.get(name), resolved);
+            }
+        }
+
+        return resolved != null
+                ? resolved
+                : new SlotIdentifier(node, this.depth, this.globals.define(name), null);
+    }
+
+    // marks the calls whose value becomes the value of the block
+    private static BlockStatement tail(BlockStatement block) {
+        if (block == null || block.statements().isEmpty()
+                || !(block.statements().getLast() instanceof ExpressionStatement last)) {
+            return block;
+        }
+        var statements = new ArrayList<>(block.statements());
+        statements.set(statements.size() - 1, new ExpressionStatement(last.token(), tail(last.expression())));
+        return new BlockStatement(block.token(), statements);
+    }
+
+    private static Expression tail(Expression expression) {
+        return switch (expression) {
+            case CallExpression node -> new TailCallExpression(node.token(), node.function(), node.arguments());
+            case IfExpression node -> new IfExpression(node.token(),
+                                                       node.condition(),
+                                                       tail(node.consequence()),
+                                                       tail(node.alternative()));
+            case null, default -> expression;
+        };
+    }
+
+    // the names bound by let directly in these statements, including inside if-blocks but not inside functions
+    public static Set<String> letNames(List<Statement> statements) {
+        var names = new LinkedHashSet<String>();
+        for (Statement statement : statements) {
+            collectLetNames(statement, names);
+        }
+        return names;
+    }
+
+    private static void collectLetNames(Node n, Set<String> names) {
+        switch (n) {
+            case LetStatement node -> {
+                names.add(node.name().value());
+                collectLetNames(node.value(), names);
+            }
+            case ReturnStatement node -> collectLetNames(node.returnValue(), names);
+            case ExpressionStatement node -> collectLetNames(node.expression(), names);
+            case BlockStatement node -> node.statements().forEach(statement -> collectLetNames(statement, names));
+            case PrefixExpression node -> collectLetNames(node.right(), names);
+            case InfixExpression node -> {
+                collectLetNames(node.left(), names);
+                collectLetNames(node.right(), names);
+            }
+            case IfExpression node -> {
+                collectLetNames(node.condition(), names);
+                collectLetNames(node.consequence(), names);
+                collectLetNames(node.alternative(), names);
+            }
+            case CallExpression node -> {
+                collectLetNames(node.function(), names);
+                node.arguments().forEach(argument -> collectLetNames(argument, names));
+            }
+            case ArrayLiteral node -> node.elements().forEach(element -> collectLetNames(element, names));
+            case IndexExpression node -> {
+                collectLetNames(node.left(), names);
+                collectLetNames(node.index(), names);
+            }
+            case HashLiteral node -> node.pairs().forEach((key, value) -> {
+                collectLetNames(key, names);
+                collectLetNames(value, names);
+            });
+            case null, default -> { }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.monkey.resolver;
+
+import org.monkey.ast.BlockStatement;
+import org.monkey.ast.Expression;
+import org.monkey.ast.Identifier;
+import org.monkey.object.CallProfile;
+import org.monkey.token.Token;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// parameters occupy the first slots of the frame, followed by every name the body binds with let; profile is
+// shared by the functions made from this literal
+public record SlotFunctionLiteral(Token token,
+                                  List<Identifier> parameters,
+                                  BlockStatement body,
+                                  int frameSize,
+                                  CallProfile profile) implements Expression {
+    @Override
+    public String tokenLiteral() {
+        return this.token.literal();
+    }
+
+    @Override
+    public String string() {
+        var sb = new StringBuilder();
+        sb.append(this.tokenLiteral());
+        sb.append("(");
+        sb.append(this.parameters.stream().map(Identifier::string).collect(Collectors.joining(", ")));
+        sb.append(")");
+        sb.append(this.body.string());
+        return sb.toString();
+    }
+}
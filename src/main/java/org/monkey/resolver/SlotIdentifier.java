@@ -0,0 +1,18 @@
+package org.monkey.resolver;
+
+import org.monkey.ast.Expression;
+import org.monkey.ast.Identifier;
+
+// an identifier bound to slot `slot` of the frame `depth` hops up the Environment chain. When that slot is
+// unset, the name is read through fallback instead: the next binding of it further out, or null for none.
+public record SlotIdentifier(Identifier identifier, int depth, int slot, Expression fallback) implements Expression {
+    @Override
+    public String tokenLiteral() {
+        return this.identifier.tokenLiteral();
+    }
+
+    @Override
+    public String string() {
+        return this.identifier.string();
+    }
+}
@@ -0,0 +1,27 @@
+package org.monkey.resolver;
+
+import org.monkey.ast.Expression;
+import org.monkey.ast.Identifier;
+import org.monkey.ast.Statement;
+import org.monkey.token.Token;
+
+// a let always binds in the innermost frame, so only the slot is needed
+public record SlotLetStatement(Token token, Identifier name, Expression value, int slot) implements Statement {
+    @Override
+    public String tokenLiteral() {
+        return this.token.literal();
+    }
+
+    @Override
+    public String string() {
+        var sb = new StringBuilder();
+        sb.append(this.tokenLiteral()).append(" ");
+        sb.append(this.name.string());
+        sb.append(" = ");
+        if (this.value != null) {
+            sb.append(this.value.string());
+        }
+        sb.append(";");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package org.monkey.resolver;
+
+import org.monkey.ast.Expression;
+import org.monkey.ast.Node;
+import org.monkey.token.Token;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// a call whose value is returned as-is by the enclosing function, so the caller's frame is no longer needed
+public record TailCallExpression(Token token, Expression function, List<Expression> arguments) implements Expression {
+    @Override
+    public String tokenLiteral() {
+        return this.token.literal();
+    }
+
+    @Override
+    public String string() {
+        var sb = new StringBuilder();
+        sb.append(this.function.string());
+        sb.append("(");
+        sb.append(this.arguments.stream().map(Node::string).collect(Collectors.joining(", ")));
+        sb.append(")");
+        return sb.toString();
+    }
+}
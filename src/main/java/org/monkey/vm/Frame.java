@@ -0,0 +1,24 @@
+package org.monkey.vm;
+
+import org.monkey.object.Cell;
+import org.monkey.object.Closure;
+
+public class Frame {
+
+    final Closure closure;
+    final byte[] instructions;
+    final int basePointer;
+    // by local slot; only the slots the function's closures capture have one
+    final Cell[] cells;
+    int ip;
+
+    public Frame(Closure closure, int basePointer) {
+        this.closure = closure;
+        this.instructions = closure.fn().instructions();
+        this.basePointer = basePointer;
+        this.cells = closure.fn().cells().length == 0
+                ? null
+                : new Cell[closure.fn().numLocals()];
+        this.ip = 0;
+    }
+}
@@ -0,0 +1,504 @@
+package org.monkey.vm;
+
+import org.monkey.compiler.Bytecode;
+import org.monkey.compiler.Instructions;
+import org.monkey.compiler.Opcode;
+import org.monkey.object.Array;
+import org.monkey.object.Boolean;
+import org.monkey.object.BuiltIn;
+import org.monkey.object.BuiltIns;
+import org.monkey.object.Cell;
+import org.monkey.object.Closure;
+import org.monkey.object.CompiledFunction;
+import org.monkey.object.Error;
+import org.monkey.object.ErrorSignal;
+import org.monkey.object.Hash;
+import org.monkey.object.HashTable;
+import org.monkey.object.Hashable;
+import org.monkey.object.Integer;
+import org.monkey.object.Invoker;
+import org.monkey.object.Memoized;
+import org.monkey.object.Null;
+import org.monkey.object.Object;
+import org.monkey.object.ObjectType;
+import org.monkey.object.Sequence;
+import org.monkey.object.String;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class VM {
+
+    public static final int GLOBALS_SIZE = 65536;
+
+    private static final int INITIAL_STACK_SIZE = 2048;
+    private static final int INITIAL_FRAMES = 128;
+
+    private static final Object NULL = Null.NULL;
+    private static final Boolean TRUE = Boolean.TRUE;
+    private static final Boolean FALSE = Boolean.FALSE;
+
+    private final Object[] constants;
+    private final List<java.lang.String> globalNames;
+    private final Object[] globals;
+
+    private Object[] stack = new Object[INITIAL_STACK_SIZE];
+    private int sp; // always points to the next free slot; top of stack is stack[sp - 1]
+
+    private Frame[] frames = new Frame[INITIAL_FRAMES];
+    private int framesIndex;
+
+    private Object lastPopped;
+
+    // how builtins call the functions they are given
+    private final Invoker invoker = this::invoke;
+
+    public VM(Bytecode bytecode) {
+        this(bytecode, new Object[Math.max(GLOBALS_SIZE, bytecode.globals().size())]);
+    }
+
+    // globals must have a slot for every name in bytecode.globals()
+    public VM(Bytecode bytecode, Object[] globals) {
+        this.constants = bytecode.constants().toArray(new Object[0]);
+        this.globalNames = bytecode.globals();
+        this.globals = globals;
+
+        var mainFn = new CompiledFunction(bytecode.instructions(), 0, 0, List.of(), new int[0], new int[0]);
+        this.pushFrame(new Frame(new Closure(mainFn, new Cell[0]), 0));
+    }
+
+    // runs the program and returns the value of its last expression statement, or the first error raised
+    public Object run() {
+        return this.execute(0);
+    }
+
+    // runs until the frame above floor returns, and returns its value; the program has no frame below it
+    private Object execute(int floor) {
+        while (true) {
+            var frame = this.frames[this.framesIndex - 1];
+            var ins = frame.instructions;
+            if (frame.ip >= ins.length) {
+                return this.lastPopped;
+            }
+
+            var op = Opcode.lookup(ins[frame.ip]);
+            frame.ip++;
+
+            Object error = null;
+            switch (op) {
+                case CONSTANT -> {
+                    var index = Instructions.readInt32(ins, frame.ip);
+                    frame.ip += 4;
+                    this.push(this.constants[index]);
+                }
+                case POP -> this.lastPopped = this.pop();
+                case ADD, SUB, MUL, DIV, EQUAL, NOT_EQUAL, GREATER_THAN, LESS_THAN -> {
+                    var right = this.pop();
+                    var left = this.pop();
+                    var result = this.executeBinaryOperation(op, left, right);
+                    if (result instanceof Error) {
+                        error = result;
+                    } else {
+                        this.push(result);
+                    }
+                }
+                case TRUE -> this.push(TRUE);
+                case FALSE -> this.push(FALSE);
+                case NULL -> this.push(NULL);
+                case BANG -> this.push(this.executeBangOperator(this.pop()));
+                case MINUS -> {
+                    var operand = this.pop();
+                    if (operand instanceof Integer integer) {
+                        this.push(Integer.valueOf(-integer.value()));
+                    } else {
+                        error = newError("unknown operator: -%s", operand.type().value());
+                    }
+                }
+                case JUMP -> frame.ip = Instructions.readInt32(ins, frame.ip);
+                case JUMP_NOT_TRUTHY -> {
+                    var position = Instructions.readInt32(ins, frame.ip);
+                    frame.ip += 4;
+                    if (!isTruthy(this.pop())) {
+                        frame.ip = position;
+                    }
+                }
+                case SET_GLOBAL -> {
+                    var index = Instructions.readInt32(ins, frame.ip);
+                    frame.ip += 4;
+                    this.globals[index] = this.pop();
+                    this.lastPopped = null;
+                }
+                case GET_GLOBAL -> {
+                    var index = Instructions.readInt32(ins, frame.ip);
+                    frame.ip += 4;
+                    var value = this.globals[index];
+                    if (value == null) {
+                        error = newError("identifier not found: %s", this.globalNames.get(index));
+                    } else {
+                        this.push(value);
+                    }
+                }
+                case SET_LOCAL -> {
+                    var index = Instructions.readUint16(ins, frame.ip);
+                    frame.ip += 2;
+                    this.stack[frame.basePointer + index] = this.pop();
+                }
+                case GET_LOCAL -> {
+                    var index = Instructions.readUint16(ins, frame.ip);
+                    frame.ip += 2;
+                    var value = this.stack[frame.basePointer + index];
+                    if (value == null) {
+                        error = newError("identifier not found: %s", frame.closure.fn().localNames().get(index));
+                    } else {
+                        this.push(value);
+                    }
+                }
+                case GET_BUILTIN -> {
+                    var index = Instructions.readUint8(ins, frame.ip);
+                    frame.ip += 1;
+                    this.push(BuiltIns.definitions.get(index).builtIn());
+                }
+                case GET_FREE -> {
+                    var index = Instructions.readUint16(ins, frame.ip);
+                    frame.ip += 2;
+                    error = this.pushCell(frame.closure.free()[index]);
+                }
+                case GET_CELL -> {
+                    var index = Instructions.readUint16(ins, frame.ip);
+                    frame.ip += 2;
+                    error = this.pushCell(frame.cells[index]);
+                }
+                case SET_CELL -> {
+                    var index = Instructions.readUint16(ins, frame.ip);
+                    frame.ip += 2;
+                    frame.cells[index].value = this.pop();
+                }
+                case GET_GLOBAL_OR -> {
+                    var value = this.globals[Instructions.readInt32(ins, frame.ip)];
+                    frame.ip = this.pushOrFallThrough(value, ins, frame.ip + 4);
+                }
+                case GET_LOCAL_OR -> {
+                    var value = this.stack[frame.basePointer + Instructions.readUint16(ins, frame.ip)];
+                    frame.ip = this.pushOrFallThrough(value, ins, frame.ip + 2);
+                }
+                case GET_FREE_OR -> {
+                    var value = frame.closure.free()[Instructions.readUint16(ins, frame.ip)].value;
+                    frame.ip = this.pushOrFallThrough(value, ins, frame.ip + 2);
+                }
+                case GET_CELL_OR -> {
+                    var value = frame.cells[Instructions.readUint16(ins, frame.ip)].value;
+                    frame.ip = this.pushOrFallThrough(value, ins, frame.ip + 2);
+                }
+                case ARRAY -> {
+                    var count = Instructions.readInt32(ins, frame.ip);
+                    frame.ip += 4;
+                    var elements = Arrays.asList(Arrays.copyOfRange(this.stack, this.sp - count, this.sp));
+                    this.sp -= count;
+                    this.push(new Array(elements));
+                }
+                case HASH -> {
+                    var count = Instructions.readInt32(ins, frame.ip);
+                    frame.ip += 4;
+                    var result = this.buildHash(this.sp - count, this.sp);
+                    this.sp -= count;
+                    if (result instanceof Error) {
+                        error = result;
+                    } else {
+                        this.push(result);
+                    }
+                }
+                case INDEX -> {
+                    var index = this.pop();
+                    var left = this.pop();
+                    var result = this.executeIndexExpression(left, index);
+                    if (result instanceof Error) {
+                        error = result;
+                    } else {
+                        this.push(result);
+                    }
+                }
+                case CALL -> {
+                    var numArgs = Instructions.readUint16(ins, frame.ip);
+                    frame.ip += 2;
+                    error = this.executeCall(numArgs);
+                }
+                case RETURN_VALUE, RETURN -> {
+                    var returnValue = op == Opcode.RETURN_VALUE
+                            ? this.pop()
+                            : NULL;
+                    if (this.framesIndex == 1) {
+                        return returnValue;
+                    }
+                    var returning = this.popFrame();
+                    var top = this.sp;
+                    this.sp = returning.basePointer - 1;
+                    Arrays.fill(this.stack, this.sp, top, null);
+                    if (this.framesIndex == floor) {
+                        return returnValue;
+                    }
+                    this.push(returnValue);
+                }
+                case CLOSURE -> {
+                    var constIndex = Instructions.readInt32(ins, frame.ip);
+                    frame.ip += 4;
+                    var fn = (CompiledFunction) this.constants[constIndex];
+                    var captures = fn.captures();
+                    var free = new Cell[captures.length];
+                    for (int i = 0; i < captures.length; i++) {
+                        free[i] = captures[i] >= 0
+                                ? frame.cells[captures[i]]
+                                : frame.closure.free()[-1 - captures[i]];
+                    }
+                    this.push(new Closure(fn, free));
+                }
+            }
+
+            if (error != null) {
+                return error;
+            }
+        }
+    }
+
+    // null after pushing the cell's value, or the error for a cell whose let has not run yet
+    private Object pushCell(Cell cell) {
+        if (cell.value == null) {
+            return newError("identifier not found: %s", cell.name());
+        }
+        this.push(cell.value);
+        return null;
+    }
+
+    // for the GET_..._OR forms, with ip at the jump operand: where execution goes on
+    private int pushOrFallThrough(Object value, byte[] ins, int ip) {
+        if (value == null) {
+            return ip + 4;
+        }
+        this.push(value);
+        return Instructions.readInt32(ins, ip);
+    }
+
+    private Object executeCall(int numArgs) {
+        var callee = this.stack[this.sp - 1 - numArgs];
+        return switch (callee) {
+            case Closure closure -> {
+                if (numArgs != closure.fn().numParameters()) {
+                    yield newError("wrong number of arguments: want=%d, got=%d",
+                                   closure.fn().numParameters(), numArgs);
+                }
+                var frame = new Frame(closure, this.sp - numArgs);
+                // a captured parameter moves into its cell; a captured let starts out unset
+                for (int slot : closure.fn().cells()) {
+                    var value = this.stack[frame.basePointer + slot];
+                    frame.cells[slot] = new Cell(closure.fn().localNames().get(slot), value);
+                    this.stack[frame.basePointer + slot] = null;
+                }
+                this.pushFrame(frame);
+                this.sp = frame.basePointer + closure.fn().numLocals();
+                this.ensureStack(this.sp);
+                yield null;
+            }
+            // the wrapped function runs to completion in a loop of its own, like a call from a builtin, so its
+            // result can be cached; errors unwind without being cached
+            case Memoized memoized -> {
+                var args = Arrays.copyOfRange(this.stack, this.sp - numArgs, this.sp);
+                Object result;
+                try {
+                    result = memoized.call(Arrays.asList(args), () -> this.invoke(memoized.function(), args));
+                } catch (ErrorSignal signal) {
+                    yield signal.error;
+                }
+                this.sp = this.sp - numArgs - 1;
+                this.push(result);
+                yield null;
+            }
+            case BuiltIn builtIn -> {
+                var args = Arrays.copyOfRange(this.stack, this.sp - numArgs, this.sp);
+                Object result;
+                try {
+                    result = builtIn.fn().call(this.invoker, args);
+                } catch (ErrorSignal signal) {
+                    result = signal.error;
+                }
+                this.sp = this.sp - numArgs - 1;
+                if (result instanceof Error) {
+                    yield result;
+                }
+                this.push(result == null
+                                  ? NULL
+                                  : result);
+                yield null;
+            }
+            default -> newError("not a function: %s", callee.type());
+        };
+    }
+
+    // a call from a builtin: pushes the callee and the arguments as CALL finds them, and runs the callee's frame
+    // in a loop of its own
+    private Object invoke(Object function, Object... args) {
+        var floor = this.framesIndex;
+        this.push(function);
+        for (Object arg : args) {
+            this.push(arg);
+        }
+        var result = this.executeCall(args.length);
+        if (result == null) {
+            result = this.framesIndex == floor
+                    ? this.pop()
+                    : this.execute(floor);
+        }
+        if (result instanceof Error error) {
+            throw new ErrorSignal(error);
+        }
+        return result;
+    }
+
+    private Object executeBinaryOperation(Opcode op, Object left, Object right) {
+        if (left instanceof Integer l && right instanceof Integer r) {
+            var leftValue = l.value();
+            var rightValue = r.value();
+            return switch (op) {
+                case ADD -> Integer.valueOf(leftValue + rightValue);
+                case SUB -> Integer.valueOf(leftValue - rightValue);
+                case MUL -> Integer.valueOf(leftValue * rightValue);
+                case DIV -> Integer.valueOf(leftValue / rightValue);
+                case LESS_THAN -> nativeBoolToBooleanObject(leftValue < rightValue);
+                case GREATER_THAN -> nativeBoolToBooleanObject(leftValue > rightValue);
+                case EQUAL -> nativeBoolToBooleanObject(leftValue == rightValue);
+                case NOT_EQUAL -> nativeBoolToBooleanObject(leftValue != rightValue);
+                default -> newError("unknown operator: %s %s %s", left.type(), operator(op), right.type());
+            };
+        }
+        if (left instanceof String l && right instanceof String r) {
+            if (op != Opcode.ADD) {
+                return newError("unknown operator: %s %s %s",
+                                left.type().value(), operator(op), right.type().value());
+            }
+            return l.concat(r);
+        }
+        if (op == Opcode.EQUAL) {
+            return nativeBoolToBooleanObject(left.equals(right));
+        }
+        if (op == Opcode.NOT_EQUAL) {
+            return nativeBoolToBooleanObject(!left.equals(right));
+        }
+        if (left.type() != right.type()) {
+            return newError("type mismatch: %s %s %s", left.type().value(), operator(op), right.type().value());
+        }
+        return newError("unknown operator: %s %s %s", left.type().value(), operator(op), right.type().value());
+    }
+
+    private Object executeBangOperator(Object operand) {
+        if (operand == TRUE) {
+            return FALSE;
+        }
+        if (operand == FALSE) {
+            return TRUE;
+        }
+        if (operand == NULL) {
+            return TRUE;
+        }
+        return FALSE;
+    }
+
+    private Object executeIndexExpression(Object left, Object index) {
+        if (left instanceof Array array && index instanceof Integer integer) {
+            var element = array.at(integer.value());
+            return element == null ? NULL : element;
+        }
+        if (left instanceof Sequence sequence && index instanceof Integer integer) {
+            try {
+                var element = sequence.at(this.invoker, integer.value());
+                return element == null ? NULL : element;
+            } catch (ErrorSignal signal) {
+                return signal.error;
+            }
+        }
+        if (left instanceof Hash hash) {
+            if (!(index instanceof Hashable key)) {
+                return newError("unusable as hash key: %s", index.type().value());
+            }
+            var value = hash.get(key);
+            if (value == null) {
+                return NULL;
+            }
+            return value;
+        }
+        return newError("index operator not supported: %s", left.type().value());
+    }
+
+    private Object buildHash(int startIndex, int endIndex) {
+        var hash = new HashTable((endIndex - startIndex) / 2);
+        for (int i = startIndex; i < endIndex; i += 2) {
+            var key = this.stack[i];
+            var value = this.stack[i + 1];
+            if (!(key instanceof Hashable hashKey)) {
+                return newError("unusable as hash key: %s", key.type().value());
+            }
+            hash.put(hashKey, value);
+        }
+        return hash;
+    }
+
+    private static boolean isTruthy(Object obj) {
+        if (obj == NULL || obj == FALSE) {
+            return false;
+        }
+        return !obj.equals(NULL) && !obj.equals(FALSE);
+    }
+
+    private static Boolean nativeBoolToBooleanObject(boolean input) {
+        return input
+                ? TRUE
+                : FALSE;
+    }
+
+    private static java.lang.String operator(Opcode op) {
+        return switch (op) {
+            case ADD -> "+";
+            case SUB -> "-";
+            case MUL -> "*";
+            case DIV -> "/";
+            case LESS_THAN -> "<";
+            case GREATER_THAN -> ">";
+            case EQUAL -> "==";
+            case NOT_EQUAL -> "!=";
+            default -> op.toString();
+        };
+    }
+
+    private static Error newError(java.lang.String format, java.lang.Object... args) {
+        return new Error(format, args);
+    }
+
+    private void push(Object obj) {
+        if (this.sp == this.stack.length) {
+            this.ensureStack(this.sp + 1);
+        }
+        this.stack[this.sp++] = obj;
+    }
+
+    private Object pop() {
+        var obj = this.stack[--this.sp];
+        this.stack[this.sp] = null;
+        return obj;
+    }
+
+    private void ensureStack(int size) {
+        if (size > this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, Math.max(size, this.stack.length * 2));
+        }
+    }
+
+    private void pushFrame(Frame frame) {
+        if (this.framesIndex == this.frames.length) {
+            this.frames = Arrays.copyOf(this.frames, this.frames.length * 2);
+        }
+        this.frames[this.framesIndex++] = frame;
+    }
+
+    private Frame popFrame() {
+        var frame = this.frames[--this.framesIndex];
+        this.frames[this.framesIndex] = null;
+        return frame;
+    }
+}
@@ -0,0 +1,47 @@
+package org.monkey.arena;
+
+import org.monkey.ast.Program;
+import org.monkey.lexer.Lexer;
+import org.monkey.parser.Parser;
+
+// heap taken by the parse of a large generated program, as records and as an arena. Not a test; after
+// mvn test-compile run
+//   java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes org.monkey.arena.ArenaBenchmark [MB]
+public class ArenaBenchmark {
+
+    public static void main(String[] args) {
+        var megabytes = args.length > 0 ? java.lang.Integer.parseInt(args[0]) : 20;
+        var source = generate(megabytes * 1_000_000);
+        System.out.printf("source: %,d bytes%n", source.length());
+
+        var before = usedHeap();
+        Program program = new Parser(new Lexer(source)).parseProgram();
+        var records = usedHeap() - before;
+        System.out.printf("records: %,d bytes (%.1fx the source), %,d statements%n",
+                          records, (double) records / source.length(), program.statements.size());
+        program = null;
+
+        before = usedHeap();
+        var arena = AstArena.parse(new Parser(new Lexer(source)));
+        var columns = usedHeap() - before;
+        System.out.printf("arena: %,d bytes (%.1fx the source), %,d nodes, %,d bytes in columns%n",
+                          columns, (double) columns / source.length(), arena.size(), arena.bytes());
+    }
+
+    private static String generate(int length) {
+        var sb = new StringBuilder();
+        for (int i = 0; sb.length() < length; i++) {
+            sb.append("let f").append(" = fn(x, y) { let z = x * ").append(i)
+              .append("; if (z > y) { [z, y, len(\"abc\")] } else { {\"k\": z, \"v\": y + 1} } };\n");
+        }
+        return sb.toString();
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
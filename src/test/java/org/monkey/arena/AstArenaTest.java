@@ -0,0 +1,73 @@
+package org.monkey.arena;
+
+import org.junit.jupiter.api.Test;
+import org.monkey.engine.Engine;
+import org.monkey.evaluator.Evaluator;
+import org.monkey.lexer.Lexer;
+import org.monkey.object.Environment;
+import org.monkey.parser.Parser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AstArenaTest {
+
+    private static final List<String> PROGRAMS = List.of(
+            "let x = 5; let y = -x; x + y * 2 / 1 - 3;",
+            "let big = 9223372036854775807; let small = 4294967296; big - small;",
+            "if (1 < 2) { 10 } else { 20 }; if (!false) { 1 } if (false) { 2 }",
+            "let add = fn(a, b) { return a + b; }; add(1, add(2, 3));",
+            "let f = fn() { fn(x) { x } }; f()(7);",
+            "[1, \"two\", [3]][2][0]; {\"a\": 1, 2: \"b\", true: [fn(x) { x }]}[\"a\"];",
+            "let s = \"héllo\"; len(s) == 6 != false;",
+            "let fib = fn(n) { if (n < 2) { n } else { fib(n - 1) + fib(n - 2) } }; fib(15);"
+    );
+
+    @Test
+    void testViewRebuildsTheParsedStatements() {
+        for (String input : PROGRAMS) {
+            var program = new Parser(new Lexer(input)).parseProgram();
+            var parser = new Parser(new Lexer(input));
+            var arena = AstArena.parse(parser);
+            assertTrue(parser.errors().isEmpty(), "parser errors: " + parser.errors());
+
+            assertEquals(program.statements, arena.program().statements, "wrong statements for " + input);
+            assertEquals(program.string(), arena.program().string(), "wrong string for " + input);
+            assertEquals(program.statements, AstArena.of(program).program().statements,
+                         "wrong statements from a program for " + input);
+        }
+    }
+
+    @Test
+    void testEnginesRunTheView() {
+        for (String input : PROGRAMS) {
+            for (String name : List.of("eval", "jit", "vm", "nodes", "closures")) {
+                var expected = Engine.of(name).run(new Parser(new Lexer(input)).parseProgram());
+                var arena = AstArena.parse(new Parser(new Lexer(input)));
+                var evaluated = Engine.of(name).run(arena.program());
+                assertEquals(expected == null ? null : expected.inspect(),
+                             evaluated == null ? null : evaluated.inspect(),
+                             "wrong result with " + name + " for " + input);
+            }
+        }
+    }
+
+    @Test
+    void testEvaluatorStopsAtTopLevelReturnAndErrors() {
+        record TestCase(String input, String expected) { }
+
+        var tests = List.of(
+                new TestCase("let a = 1; return a + 1; a + 10;", "2"),
+                new TestCase("let a = 1; a + true; let b = 2; b", "ERROR: type mismatch: INTEGER + BOOLEAN"),
+                new TestCase("let f = fn() { g() }; let g = fn() { 3 }; f()", "3"),
+                new TestCase("let x = y; let y = 1;", "ERROR: identifier not found: y")
+        );
+
+        for (TestCase tt : tests) {
+            var arena = AstArena.parse(new Parser(new Lexer(tt.input)));
+            var evaluated = new Evaluator().eval(arena.program(), new Environment());
+            assertEquals(tt.expected, evaluated.inspect(), "wrong result for " + tt.input);
+        }
+    }
+}
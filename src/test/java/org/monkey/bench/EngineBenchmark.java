@@ -0,0 +1,70 @@
+package org.monkey.bench;
+
+import org.monkey.engine.Engine;
+import org.monkey.lexer.Lexer;
+import org.monkey.parser.Parser;
+
+import java.util.List;
+
+// runs the same programs on every engine, side by side. Not a test; after mvn test-compile run
+//   java -cp target/classes:target/test-classes org.monkey.bench.EngineBenchmark [engine...]
+public class EngineBenchmark {
+
+    private static final List<String> ENGINES = List.of("eval", "closures", "nodes", "vm", "jit");
+    private static final int WARMUP = 3;
+    private static final int RUNS = 5;
+
+    record Program(String name, String setup, String run) { }
+
+    private static final List<Program> PROGRAMS = List.of(
+            new Program("fib(25)",
+                        "let fib = fn(n) { if (n < 2) { n } else { fib(n - 1) + fib(n - 2) } };",
+                        "fib(25)"),
+            new Program("count(100000)",
+                        "let count = fn(n, acc) { if (n == 0) { acc } else { count(n - 1, acc + 1) } };",
+                        "count(100000, 0)"),
+            new Program("closures(50000)",
+                        "let adder = fn(x) { fn(y) { x + y } }; "
+                                + "let loop = fn(n, acc) { if (n == 0) { acc } else { loop(n - 1, adder(n)(acc)) } };",
+                        "loop(50000, 0)")
+    );
+
+    // only eval, closures and jit run tail calls in constant stack; the others recurse on a big thread stack
+    public static void main(String[] args) throws InterruptedException {
+        var engines = args.length > 0 ? List.of(args) : ENGINES;
+        var thread = new Thread(null, () -> run(engines), "benchmark", 1L << 30);
+        thread.start();
+        thread.join();
+    }
+
+    private static void run(List<String> engines) {
+        for (Program program : PROGRAMS) {
+            System.out.println(program.name());
+            for (String name : engines) {
+                var engine = Engine.of(name);
+                engine.run(parse(program.setup()));
+                var run = program.run();
+                for (int i = 0; i < WARMUP; i++) {
+                    engine.run(parse(run));
+                }
+                long best = Long.MAX_VALUE;
+                String result = null;
+                for (int i = 0; i < RUNS; i++) {
+                    var start = System.nanoTime();
+                    result = engine.run(parse(run)).inspect();
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                System.out.printf("  %-9s %8.2f ms  %s%n", name, best / 1e6, result);
+            }
+        }
+    }
+
+    private static org.monkey.ast.Program parse(String input) {
+        var parser = new Parser(new Lexer(input));
+        var program = parser.parseProgram();
+        if (!parser.errors().isEmpty()) {
+            throw new IllegalArgumentException("parser errors: " + parser.errors());
+        }
+        return program;
+    }
+}
@@ -0,0 +1,142 @@
+package org.monkey.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monkey.ast.Program;
+import org.monkey.lexer.Lexer;
+import org.monkey.parser.Parser;
+import org.monkey.repl.Repl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AstCacheTest {
+
+    @Test
+    void testRoundTrip() throws IOException {
+        var tests = List.of(
+                "let x = 5; let y = -x * (3 + 4) / 2;",
+                "return 9223372036854775807;",
+                "if (x < y) { true } else { !false }",
+                "let add = fn(a, b) { return a + b; }; add(1, add(2, 3));",
+                "let a = [1, \"two\", [3]]; a[0] != a[2][0];",
+                "{\"k\": 1, 2: \"v\", true: fn() { \"ünïcode\" }}",
+                ""
+        );
+
+        for (String input : tests) {
+            var program = parse(input);
+            var out = new ByteArrayOutputStream();
+            AstWriter.write(program, out);
+            var read = AstReader.read(ByteBuffer.wrap(out.toByteArray()));
+
+            assertNotNull(read, "nothing read for " + input);
+            assertEquals(program.statements, read.statements, "wrong program for " + input);
+            assertEquals(program.string(), read.string(), "wrong string for " + input);
+        }
+    }
+
+    @Test
+    void testCacheFollowsSource(@TempDir Path directory) throws IOException {
+        var cache = new AstCache(directory.resolve("cache"));
+        var script = directory.resolve("script.mk");
+
+        Files.writeString(script, "let x = 1;");
+        var key = cache.keyOf(script);
+        assertNull(cache.get(key), "empty cache hit");
+
+        cache.put(key, parse("let x = 1;"));
+        assertEquals(parse("let x = 1;").statements, cache.get(cache.keyOf(script)).statements, "cache miss");
+
+        Files.writeString(script, "let x = 2;");
+        assertNotEquals(key, cache.keyOf(script), "changed source has the same key");
+        assertNull(cache.get(cache.keyOf(script)), "changed source hits the cache");
+    }
+
+    @Test
+    void testDamagedEntryIsAMiss(@TempDir Path directory) throws IOException {
+        var cache = new AstCache(directory);
+        cache.put("key", parse("let x = fn(a) { a };"));
+
+        var file = directory.resolve("key.ast");
+        var bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        assertNull(cache.get("key"), "truncated entry was read");
+
+        bytes[7] = 99; // the version
+        Files.write(file, bytes);
+        assertNull(cache.get("key"), "entry of another version was read");
+    }
+
+    @Test
+    void testCorruptedEntryIsAMiss(@TempDir Path directory) throws IOException {
+        var cache = new AstCache(directory);
+        cache.put("key", parse("puts(1); let x = fn(a) { a + 2 }; puts(x(3));"));
+        var file = directory.resolve("key.ast");
+        var bytes = Files.readAllBytes(file);
+
+        for (int i = 8; i < bytes.length; i++) {
+            var flipped = bytes.clone();
+            flipped[i] ^= 0x21;
+            Files.write(file, flipped);
+            assertNull(cache.get("key"), "entry with byte " + i + " flipped was read");
+        }
+
+        var appended = Arrays.copyOf(bytes, bytes.length + 1);
+        Files.write(file, appended);
+        assertNull(cache.get("key"), "entry with a trailing byte was read");
+    }
+
+    @Test
+    void testUnwritableCacheStillRuns(@TempDir Path directory) throws IOException {
+        // a regular file where the directory should be, which permissions cannot undo for root
+        var file = directory.resolve("notadir");
+        Files.writeString(file, "");
+        var cache = new AstCache(file.resolve("ast"));
+        var script = directory.resolve("script.mk");
+        Files.writeString(script, "let x = 1; x + 1");
+
+        assertThrows(IOException.class, () -> cache.put(cache.keyOf(script), parse("1")));
+
+        var runs = new ArrayList<Program>();
+        new Repl(program -> {
+            runs.add(program);
+            return null;
+        }, cache).run(script);
+        assertEquals(List.of(parse("let x = 1; x + 1").statements), runs.stream().map(run -> run.statements).toList(),
+                     "script did not run");
+    }
+
+    @Test
+    void testHugeCountIsRejected() {
+        // a string table of 2^31 - 1 strings, with a valid header and checksum
+        var payload = new byte[]{ (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07 };
+        var checksum = new CRC32();
+        checksum.update(payload);
+        var entry = ByteBuffer.allocate(16 + payload.length)
+                              .putInt(AstFormat.MAGIC)
+                              .putInt(AstFormat.VERSION)
+                              .putInt(payload.length)
+                              .putInt((int) checksum.getValue())
+                              .put(payload)
+                              .flip();
+
+        assertThrows(IllegalStateException.class, () -> AstReader.read(entry));
+    }
+
+    private Program parse(String input) {
+        var parser = new Parser(new Lexer(input));
+        var program = parser.parseProgram();
+        assertTrue(parser.errors().isEmpty(), "parser errors: " + parser.errors());
+        return program;
+    }
+}
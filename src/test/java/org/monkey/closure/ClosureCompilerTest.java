@@ -0,0 +1,97 @@
+package org.monkey.closure;
+
+import org.junit.jupiter.api.Test;
+import org.monkey.lexer.Lexer;
+import org.monkey.object.Environment;
+import org.monkey.object.Error;
+import org.monkey.object.Integer;
+import org.monkey.object.String;
+import org.monkey.parser.Parser;
+import org.monkey.resolver.Resolver;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClosureCompilerTest {
+
+    @Test
+    void testEvalIntegerExpression() {
+        record TestCase(java.lang.String input, long expected) { }
+
+        var tests = List.of(
+                new TestCase("-50 + 100 + -50", 0),
+                new TestCase("(5 + 10 * 2 + 15 / 3) * 2 + -10", 50),
+                new TestCase("if (1 < 2) { 10 } else { 20 }", 10),
+                new TestCase("if (1 > 2) { 10 } else { 20 }", 20),
+                new TestCase("if (10 > 1) { if (10 > 1) { return 10; } else { 0 } return 1; } else { 2 }", 10),
+                new TestCase("let f = fn(x) { return x; x + 10; }; f(10);", 10),
+                new TestCase("let newAdder = fn(x) { fn(y) { x + y } }; newAdder(2)(2);", 4),
+                new TestCase("let a = [1, 2, 3]; a[1] + {\"k\": 5}[\"k\"];", 7),
+                new TestCase("len(\"four\") + first([1, 2])", 5),
+                new TestCase("let fib = fn(n) { if (n < 2) { n } else { fib(n - 1) + fib(n - 2) } }; fib(15);", 610)
+        );
+
+        for (TestCase tt : tests) {
+            testIntegerObject(testEval(tt.input, new Environment()), tt.expected);
+        }
+    }
+
+    @Test
+    void testDeepTailRecursion() {
+        var input = "let count = fn(n, acc) { if (n == 0) { acc } else { count(n - 1, acc + 1) } };"
+                + " count(100000, 0);";
+        testIntegerObject(testEval(input, new Environment()), 100000);
+    }
+
+    @Test
+    void testStringsAndBooleans() {
+        var env = new Environment();
+        assertEquals("ab", ((String) testEval("\"a\" + \"b\"", env)).value(), "wrong concatenation");
+        assertEquals(org.monkey.object.Boolean.TRUE, testEval("!(1 == 2)", env), "wrong negation");
+        assertEquals(org.monkey.object.Boolean.TRUE, testEval("(1 < 2) == true", env), "wrong boolean comparison");
+    }
+
+    @Test
+    void testGlobalsPersistAcrossPrograms() {
+        var env = new Environment();
+        testEval("let x = 5; let double = fn(n) { n * 2 };", env);
+        testIntegerObject(testEval("double(x) + 1", env), 11);
+    }
+
+    @Test
+    void testErrorHandling() {
+        record TestCase(java.lang.String input, java.lang.String expectedMessage) { }
+
+        var tests = List.of(
+                new TestCase("5 + true; 5;", "type mismatch: INTEGER + BOOLEAN"),
+                new TestCase("-true", "unknown operator: -BOOLEAN"),
+                new TestCase("if (10 > 1) { true + false; } else { 1 }", "unknown operator: BOOLEAN + BOOLEAN"),
+                new TestCase("\"a\" - \"b\"", "unknown operator: STRING - STRING"),
+                new TestCase("foobar", "identifier not found: foobar"),
+                new TestCase("len(1)", "argument to `len` not supported, got INTEGER"),
+                new TestCase("{\"name\": \"Monkey\"}[fn(x) { x }];", "unusable as hash key: FUNCTION")
+        );
+
+        for (TestCase tt : tests) {
+            var evaluated = testEval(tt.input, new Environment());
+            assertInstanceOf(Error.class, evaluated,
+                             "no error object returned for " + tt.input + ". got=" + evaluated);
+            assertEquals(tt.expectedMessage, ((Error) evaluated).message().value(),
+                         "wrong error message");
+        }
+    }
+
+    private org.monkey.object.Object testEval(java.lang.String input, Environment env) {
+        var parser = new Parser(new Lexer(input));
+        var program = parser.parseProgram();
+        assertTrue(parser.errors().isEmpty(), "parser errors: " + parser.errors());
+        var resolved = new Resolver(env).resolve(program);
+        return new ClosureCompiler().compile(resolved).run(env);
+    }
+
+    private void testIntegerObject(org.monkey.object.Object obj, long expected) {
+        assertInstanceOf(Integer.class, obj, "object is not Integer. got=" + obj);
+        assertEquals(expected, ((Integer) obj).value(), "object has wrong value");
+    }
+}
@@ -0,0 +1,214 @@
+package org.monkey.compiler;
+
+import org.junit.jupiter.api.Test;
+import org.monkey.lexer.Lexer;
+import org.monkey.object.CompiledFunction;
+import org.monkey.object.Integer;
+import org.monkey.parser.Parser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.monkey.compiler.Instructions.concat;
+import static org.monkey.compiler.Instructions.make;
+
+class CompilerTest {
+
+    record TestCase(String input, List<java.lang.Object> expectedConstants, byte[] expectedInstructions) { }
+
+    @Test
+    void testMake() {
+        assertArrayEquals(new byte[]{ Opcode.CONSTANT.code(), 0, 1, (byte) 255, (byte) 254 },
+                          make(Opcode.CONSTANT, 131070));
+        assertArrayEquals(new byte[]{ Opcode.ADD.code() }, make(Opcode.ADD));
+        assertArrayEquals(new byte[]{ Opcode.GET_LOCAL.code(), (byte) 255, (byte) 254 },
+                          make(Opcode.GET_LOCAL, 65534));
+        assertArrayEquals(new byte[]{ Opcode.CLOSURE.code(), 0, 0, (byte) 255, (byte) 254 },
+                          make(Opcode.CLOSURE, 65534));
+    }
+
+    @Test
+    void testMakeRejectsOperandsThatDoNotFit() {
+        var error = assertThrows(IllegalArgumentException.class, () -> make(Opcode.GET_LOCAL, 65536));
+        assertEquals("operand 65536 of GET_LOCAL does not fit in 2 bytes", error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> make(Opcode.GET_BUILTIN, 256));
+        assertThrows(IllegalArgumentException.class, () -> make(Opcode.CONSTANT, -1));
+    }
+
+    @Test
+    void testDisassemble() {
+        var instructions = concat(make(Opcode.ADD),
+                                  make(Opcode.GET_LOCAL, 1),
+                                  make(Opcode.CONSTANT, 2),
+                                  make(Opcode.CONSTANT, 65536),
+                                  make(Opcode.CLOSURE, 65535));
+        var expected = """
+                       0000 ADD
+                       0001 GET_LOCAL 1
+                       0004 CONSTANT 2
+                       0009 CONSTANT 65536
+                       0014 CLOSURE 65535
+                       """;
+
+        assertEquals(expected, Instructions.disassemble(instructions));
+    }
+
+    @Test
+    void testIntegerArithmetic() {
+        runCompilerTests(List.of(
+                new TestCase("1 + 2", List.of(1, 2), concat(make(Opcode.CONSTANT, 0),
+                                                             make(Opcode.CONSTANT, 1),
+                                                             make(Opcode.ADD),
+                                                             make(Opcode.POP))),
+                new TestCase("1 < 2", List.of(1, 2), concat(make(Opcode.CONSTANT, 0),
+                                                             make(Opcode.CONSTANT, 1),
+                                                             make(Opcode.LESS_THAN),
+                                                             make(Opcode.POP))),
+                new TestCase("-1", List.of(1), concat(make(Opcode.CONSTANT, 0),
+                                                       make(Opcode.MINUS),
+                                                       make(Opcode.POP)))
+        ));
+    }
+
+    @Test
+    void testConditionals() {
+        runCompilerTests(List.of(
+                new TestCase("if (true) { 10 }", List.of(10),
+                             concat(make(Opcode.TRUE),
+                                    make(Opcode.JUMP_NOT_TRUTHY, 16),
+                                    make(Opcode.CONSTANT, 0),
+                                    make(Opcode.JUMP, 17),
+                                    make(Opcode.NULL),
+                                    make(Opcode.POP))),
+                new TestCase("if (true) { 10 } else { 20 }", List.of(10, 20),
+                             concat(make(Opcode.TRUE),
+                                    make(Opcode.JUMP_NOT_TRUTHY, 16),
+                                    make(Opcode.CONSTANT, 0),
+                                    make(Opcode.JUMP, 21),
+                                    make(Opcode.CONSTANT, 1),
+                                    make(Opcode.POP)))
+        ));
+    }
+
+    @Test
+    void testGlobalLetStatements() {
+        runCompilerTests(List.of(
+                new TestCase("let one = 1; let two = one; two;", List.of(1),
+                             concat(make(Opcode.CONSTANT, 0),
+                                    make(Opcode.SET_GLOBAL, 0),
+                                    make(Opcode.GET_GLOBAL, 0),
+                                    make(Opcode.SET_GLOBAL, 1),
+                                    make(Opcode.GET_GLOBAL, 1),
+                                    make(Opcode.POP))),
+                new TestCase("len([]);", List.of(),
+                             concat(make(Opcode.GET_BUILTIN, 0),
+                                    make(Opcode.ARRAY, 0),
+                                    make(Opcode.CALL, 1),
+                                    make(Opcode.POP)))
+        ));
+    }
+
+    @Test
+    void testClosures() {
+        var input = "fn(a) { fn(b) { a + b } }";
+
+        var compiler = compile(input);
+        var constants = compiler.bytecode().constants();
+        assertEquals(2, constants.size(), "wrong number of constants");
+
+        var inner = (CompiledFunction) constants.get(0);
+        assertArrayEquals(concat(make(Opcode.GET_FREE, 0),
+                                 make(Opcode.GET_LOCAL, 0),
+                                 make(Opcode.ADD),
+                                 make(Opcode.RETURN_VALUE)),
+                          inner.instructions(),
+                          "wrong inner instructions");
+
+        assertArrayEquals(new int[]{ 0 }, inner.captures(), "inner does not capture a");
+
+        var outer = (CompiledFunction) constants.get(1);
+        assertArrayEquals(concat(make(Opcode.CLOSURE, 0),
+                                 make(Opcode.RETURN_VALUE)),
+                          outer.instructions(),
+                          "wrong outer instructions");
+        assertArrayEquals(new int[]{ 0 }, outer.cells(), "a is not kept in a cell");
+    }
+
+    @Test
+    void testLocalsReadThroughCellsOnceCaptured() {
+        var compiler = compile("fn(a) { let b = a; let f = fn() { b }; b }");
+        var outer = (CompiledFunction) compiler.bytecode().constants().get(1);
+
+        assertArrayEquals(concat(make(Opcode.GET_LOCAL, 0),
+                                 make(Opcode.SET_CELL, 1),
+                                 make(Opcode.CLOSURE, 0),
+                                 make(Opcode.SET_LOCAL, 2),
+                                 make(Opcode.GET_CELL, 1),
+                                 make(Opcode.RETURN_VALUE)),
+                          outer.instructions(),
+                          "wrong outer instructions");
+    }
+
+    @Test
+    void testUnsetBindingsFallBackOutward() {
+        var compiler = compile("let y = 1; let f = fn() { let g = fn() { y }; let y = 5; g() };");
+        var g = (CompiledFunction) compiler.bytecode().constants().get(1);
+
+        assertArrayEquals(concat(make(Opcode.GET_FREE_OR, 0, 12),
+                                 make(Opcode.GET_GLOBAL, 0),
+                                 make(Opcode.RETURN_VALUE)),
+                          g.instructions(),
+                          "wrong instructions for g");
+
+        compiler = compile("let f = fn() { len }; let len = 1;");
+        var f = (CompiledFunction) compiler.bytecode().constants().get(0);
+
+        assertArrayEquals(concat(make(Opcode.GET_GLOBAL_OR, 1, 11),
+                                 make(Opcode.GET_BUILTIN, 0),
+                                 make(Opcode.RETURN_VALUE)),
+                          f.instructions(),
+                          "wrong instructions for f");
+    }
+
+    @Test
+    void testRecursiveFunctionName() {
+        var compiler = compile("let countDown = fn(x) { countDown(x - 1); };");
+        var fn = (CompiledFunction) compiler.bytecode().constants().get(1);
+
+        assertArrayEquals(concat(make(Opcode.GET_GLOBAL, 0),
+                                 make(Opcode.GET_LOCAL, 0),
+                                 make(Opcode.CONSTANT, 0),
+                                 make(Opcode.SUB),
+                                 make(Opcode.CALL, 1),
+                                 make(Opcode.RETURN_VALUE)),
+                          fn.instructions(),
+                          "wrong function instructions");
+    }
+
+    private void runCompilerTests(List<TestCase> tests) {
+        for (TestCase tt : tests) {
+            var bytecode = compile(tt.input).bytecode();
+
+            assertEquals(Instructions.disassemble(tt.expectedInstructions),
+                         Instructions.disassemble(bytecode.instructions()),
+                         "wrong instructions for " + tt.input);
+
+            assertEquals(tt.expectedConstants.size(), bytecode.constants().size(), "wrong number of constants");
+            for (int i = 0; i < tt.expectedConstants.size(); i++) {
+                var expected = (java.lang.Integer) tt.expectedConstants.get(i);
+                assertInstanceOf(Integer.class, bytecode.constants().get(i));
+                assertEquals((long) expected, ((Integer) bytecode.constants().get(i)).value(), "wrong constant");
+            }
+        }
+    }
+
+    private Compiler compile(String input) {
+        var parser = new Parser(new Lexer(input));
+        var program = parser.parseProgram();
+        assertTrue(parser.errors().isEmpty(), "parser errors: " + parser.errors());
+
+        var compiler = new Compiler();
+        compiler.compile(program);
+        return compiler;
+    }
+}
@@ -1,6 +1,9 @@
 package org.monkey.evaluator;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
+import org.monkey.engine.Engine;
 import org.monkey.lexer.Lexer;
 import org.monkey.object.*;
 import org.monkey.object.Boolean;
@@ -9,6 +12,8 @@ import org.monkey.object.Integer;
 import org.monkey.object.String;
 import org.monkey.parser.Parser;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -153,7 +158,24 @@ class EvaluatorTest {
                                  return 10;
                              };
                              f(10);
-                             """, 20)
+                             """, 20),
+                new TestCase("""
+                             let f = fn(x) {
+                                 let y = if (x > 1) { return x; } else { 1 };
+                                 y + 100;
+                             };
+                             f(10) + f(0);
+                             """, 111),
+                new TestCase("""
+                             let f = fn(x) {
+                                 1 + if (x > 1) { return x; } else { 1 };
+                             };
+                             f(10);
+                             """, 10),
+                new TestCase("""
+                             let f = fn() { return 1; };
+                             f() + f();
+                             """, 2)
         );
 
         for (TestCase tt : tests) {
@@ -181,7 +203,14 @@ class EvaluatorTest {
                                  return 1;
                              }
                              """, "unknown operator: BOOLEAN + BOOLEAN"),
-                new TestCase("foobar", "identifier not found: foobar")
+                new TestCase("foobar", "identifier not found: foobar"),
+                new TestCase("""
+                             let f = fn(x) { len(x) };
+                             let g = fn(x) { f(x) + 1 };
+                             g(1);
+                             """, "argument to `len` not supported, got INTEGER"),
+                new TestCase("[1, 2 + true, 3]", "type mismatch: INTEGER + BOOLEAN"),
+                new TestCase("let x = if (true) { -false } else { 1 }; x", "unknown operator: -BOOLEAN")
         );
 
         for (TestCase tt : tests) {
@@ -405,21 +434,21 @@ class EvaluatorTest {
                          "Eval didn't return Hash. got=" + evaluated.getClass());
         var result = (Hash) evaluated;
 
-        var expected = new java.util.HashMap<HashKey, java.lang.Integer>();
-        expected.put(new String("one").hashKey(), 1);
-        expected.put(new String("two").hashKey(), 2);
-        expected.put(new String("three").hashKey(), 3);
-        expected.put(new Integer(4).hashKey(), 4);
-        expected.put(TRUE.hashKey(), 5);
-        expected.put(FALSE.hashKey(), 6);
+        var expected = new java.util.HashMap<Hashable, java.lang.Integer>();
+        expected.put(new String("one"), 1);
+        expected.put(new String("two"), 2);
+        expected.put(new String("three"), 3);
+        expected.put(new Integer(4), 4);
+        expected.put(TRUE, 5);
+        expected.put(FALSE, 6);
 
-        assertEquals(expected.size(), result.pairs().size(),
+        assertEquals(expected.size(), result.size(),
                      "Hash has wrong num of pairs");
 
         for (var entry : expected.entrySet()) {
-            var pair = result.pairs().get(entry.getKey());
-            assertNotNull(pair, "no pair for given key in Pairs");
-            testIntegerObject(pair.value(), entry.getValue());
+            var value = result.get(entry.getKey());
+            assertNotNull(value, "no pair for given key in Pairs");
+            testIntegerObject(value, entry.getValue());
         }
     }
 
@@ -440,6 +469,112 @@ class EvaluatorTest {
         testIntegerObject(testEval(input), 70);
     }
 
+    @Test
+    void testScopeResolution() {
+        record TestCase(java.lang.String input, int expected) { }
+
+        var tests = List.of(
+                new TestCase("let f = fn() { g() + 1 }; let g = fn() { 41 }; f();", 42),
+                new TestCase("let x = 1; let f = fn() { let y = x; let x = 10; x + y }; f();", 11),
+                new TestCase("let x = 5; let f = fn(x) { x }; f(2) + x;", 7),
+                new TestCase("let len = fn(a) { 99 }; len([1]);", 99),
+                new TestCase("let x = 1; let x = x + 1; x;", 2),
+                new TestCase("""
+                             let counter = fn(n) {
+                                 if (n == 0) { 0 } else { 1 + counter(n - 1) }
+                             };
+                             counter(50);
+                             """, 50)
+        );
+
+        for (TestCase tt : tests) {
+            testIntegerObject(testEval(tt.input), tt.expected);
+        }
+    }
+
+    @Test
+    void testGlobalsPersistAcrossPrograms() {
+        var env = new Environment();
+        var evaluator = new Evaluator();
+        evaluator.eval(new Parser(new Lexer("let add = fn(a, b) { a + b }; let one = 1;")).parseProgram(), env);
+
+        testIntegerObject(evaluator.eval(new Parser(new Lexer("add(one, 2)")).parseProgram(), env), 3);
+    }
+
+    @Test
+    void testSixtyFourBitIntegers() {
+        record TestCase(java.lang.String input, long expected) { }
+
+        var tests = List.of(
+                new TestCase("2147483647 + 1", 2147483648L),
+                new TestCase("65536 * 65536", 4294967296L),
+                new TestCase("-9223372036854775807 - 1", Long.MIN_VALUE),
+                new TestCase("9223372036854775807 / 3", 3074457345618258602L),
+                new TestCase("let a = [1, 2, 3]; a[4294967296 - 4294967295]", 2)
+        );
+
+        for (TestCase tt : tests) {
+            testIntegerObject(testEval(tt.input), tt.expected);
+        }
+        testBooleanObject(testEval("4294967296 == 4294967296"), true);
+        testBooleanObject(testEval("4294967296 != 0"), true);
+    }
+
+    @Test
+    void testTailCalls() {
+        record TestCase(java.lang.String input, int expected) { }
+
+        var tests = List.of(
+                new TestCase("""
+                             let count = fn(n, acc) { if (n == 0) { acc } else { count(n - 1, acc + 1) } };
+                             count(100000, 0)
+                             """, 100000),
+                new TestCase("""
+                             let count = fn(n, acc) { if (n == 0) { return acc; } else { return count(n - 1, acc + 1); } };
+                             count(100000, 0)
+                             """, 100000),
+                new TestCase("""
+                             let even = fn(n) { if (n == 0) { 1 } else { odd(n - 1) } };
+                             let odd = fn(n) { if (n == 0) { 0 } else { even(n - 1) } };
+                             even(100001)
+                             """, 0),
+                new TestCase("""
+                             let collect = fn(n, acc) { let f = fn() { n }; if (n == 0) { acc } else { collect(n - 1, push(acc, f)) } };
+                             let fs = collect(3, []);
+                             fs[0]() * 100 + fs[1]() * 10 + fs[2]()
+                             """, 321),
+                new TestCase("""
+                             let build = fn(n, acc) { if (n == 0) { acc } else { build(n - 1, push(acc, n)) } };
+                             let count = fn(a, acc) { if (len(a) == 0) { acc } else { count(rest(a), acc + first(a)) } };
+                             let a = build(100000, []);
+                             count(a, 0) - 5000000000 + a[0] - len(a)
+                             """, 50000),
+                new TestCase("""
+                             let build = fn(n, s) { if (n == 0) { s } else { build(n - 1, s + "ab") } };
+                             len(build(100000, ""))
+                             """, 200000)
+        );
+
+        // every engine runs these in constant Java stack
+        for (java.lang.String name : List.of("eval", "jit", "vm", "nodes", "closures")) {
+            for (TestCase tt : tests) {
+                var evaluated = Engine.of(name).run(new Parser(new Lexer(tt.input)).parseProgram());
+                assertInstanceOf(Integer.class, evaluated, "wrong result with " + name + " for " + tt.input
+                        + ": " + evaluated.inspect());
+                assertEquals(tt.expected, ((Integer) evaluated).value(), "wrong result with " + name);
+            }
+
+            var evaluated = Engine.of(name).run(new Parser(new Lexer("""
+                                 let f = fn(n) { if (n == 0) { x } else { let x = n; f(n - 1) } };
+                                 f(1)
+                                 """)).parseProgram());
+            assertInstanceOf(Error.class, evaluated, "object is not Error with " + name + ". got=" + evaluated);
+            var error = (Error) evaluated;
+            assertEquals("identifier not found: x", error.message().value(),
+                         "a reused frame kept a stale binding with " + name);
+        }
+    }
+
     @Test
     void testHashIndexExpressions() {
         record TestCase(java.lang.String input, java.lang.Object expected) { }
@@ -479,6 +614,170 @@ class EvaluatorTest {
         }
     }
 
+    @Test
+    void testHashUpdateBuiltins() {
+        record TestCase(java.lang.String input, java.lang.String expected) { }
+
+        var tests = List.of(
+                new TestCase("let h = {\"a\": 1}; let g = set(h, \"b\", 2); [h[\"b\"], g[\"b\"], g[\"a\"]]",
+                             "[null, 2, 1]"),
+                new TestCase("let h = {1: 1, 2: 2}; let g = delete(h, 1); [len([h[1], g[1]]), g[1], h[1], g[2]]",
+                             "[2, null, 1, 2]"),
+                new TestCase("merge({\"a\": 1, \"b\": 2}, {\"b\": 3})[\"b\"]", "3"),
+                new TestCase("let build = fn(h, n) { if (n == 0) { h } else { build(set(h, n, n * n), n - 1) } };"
+                                     + " let h = build({}, 500); h[250] + h[1]", "62501"),
+                new TestCase("delete({}, 1)", "{}"),
+                new TestCase("set([], 1, 2)", "argument to `set` must be HASH, got ARRAY"),
+                new TestCase("delete({}, [1])", "unusable as hash key: ARRAY"),
+                new TestCase("merge({}, 1)", "arguments to `merge` must be HASH, got HASH and INTEGER")
+        );
+
+        for (TestCase tt : tests) {
+            for (java.lang.String name : List.of("eval", "jit", "vm", "nodes", "closures")) {
+                var evaluated = Engine.of(name).run(new Parser(new Lexer(tt.input)).parseProgram());
+                var actual = evaluated instanceof Error error
+                        ? error.message().value()
+                        : evaluated.inspect();
+                assertEquals(tt.expected, actual, "wrong result with " + name + " for " + tt.input);
+            }
+        }
+    }
+
+    @Test
+    void testSequences() {
+        record TestCase(java.lang.String input, java.lang.String expected) { }
+
+        var tests = List.of(
+                new TestCase("array(take(map(filter(range(0, 100), fn(x) { x / 2 * 2 == x }), fn(x) { x * x }), 4))",
+                             "[0, 4, 16, 36]"),
+                new TestCase("array(take(map(range(0, 1000000000), fn(x) { x * 2 }), 3))", "[0, 2, 4]"),
+                new TestCase("len(filter(range(0, 300000), fn(x) { x / 3 * 3 == x }))", "100000"),
+                new TestCase("[len(range(10, 0, -3)), range(10, 0, -3)[3], range(5)[5]]", "[4, 1, null]"),
+                new TestCase("let s = map([1, 2, 3], fn(x) { x + 1 }); s[1] + len(s)", "6"),
+                new TestCase("let k = 10; array(map(range(3), fn(x) { x + k }))", "[10, 11, 12]"),
+                new TestCase("array(map([[1], [2, 3]], len))", "[1, 2]"),
+                new TestCase("array(map(range(3), fn(i) { len(filter(range(i), fn(j) { true })) }))", "[0, 1, 2]"),
+                new TestCase("take(range(3), 2)", "take(range(0, 3, 1), 2)"),
+                new TestCase("array(map([1, 2], fn(x) { x + true }))", "type mismatch: INTEGER + BOOLEAN"),
+                new TestCase("len(map(range(0, 3), fn(x) { x + true }))", "type mismatch: INTEGER + BOOLEAN"),
+                new TestCase("map(range(0, 3), fn(x) { if (x == 0) { x + true } else { x } })[2]",
+                             "type mismatch: INTEGER + BOOLEAN"),
+                new TestCase("range(1, 2, 0)", "step of `range` must not be 0"),
+                new TestCase("map(1, len)", "argument to `map` must be ARRAY or SEQUENCE, got INTEGER"),
+                new TestCase("filter([], 1)", "second argument to `filter` must be FUNCTION, got INTEGER"),
+                new TestCase("take(range(3), \"a\")", "second argument to `take` must be INTEGER, got STRING")
+        );
+
+        for (TestCase tt : tests) {
+            for (java.lang.String name : List.of("eval", "jit", "vm", "nodes", "closures")) {
+                var evaluated = Engine.of(name).run(new Parser(new Lexer(tt.input)).parseProgram());
+                var actual = evaluated instanceof Error error
+                        ? error.message().value()
+                        : evaluated.inspect();
+                assertEquals(tt.expected, actual, "wrong result with " + name + " for " + tt.input);
+            }
+        }
+    }
+
+    @Test
+    void testHigherOrderBuiltins() {
+        record TestCase(java.lang.String input, java.lang.String expected) { }
+
+        var tests = List.of(
+                new TestCase("map([1, 2, 3], fn(x) { x * 2 })", "[2, 4, 6]"),
+                new TestCase("filter([1, 2, 3, 4], fn(x) { x > 2 })", "[3, 4]"),
+                new TestCase("reduce([1, 2, 3, 4], 0, fn(acc, x) { acc + x })", "10"),
+                new TestCase("reduce(range(0, 100001), 0, fn(acc, x) { acc + x })", "5000050000"),
+                new TestCase("reduce(map(range(4), fn(x) { x * x }), \"\", fn(acc, x) { acc + \",\" })", ",,,,"),
+                new TestCase("let fs = map([1, 2, 3], fn(x) { fn() { x } }); fs[0]() * 100 + fs[1]() * 10 + fs[2]()",
+                             "123"),
+                new TestCase("let sum = fn(n, acc) { if (n == 0) { return acc; } sum(n - 1, acc + n) };"
+                                     + " map([10, 1000], fn(n) { sum(n, 0) })", "[55, 500500]"),
+                new TestCase("each([1, 2], fn(x) { x })", "null"),
+                new TestCase("len(filter(array(range(0, 200000)), fn(x) { x / 2 * 2 == x }))", "100000"),
+                new TestCase("map([\"a\", \"bc\"], len)", "[1, 2]"),
+                new TestCase("let map = fn(a, f) { 42 }; map([1], len)", "42"),
+                new TestCase("reduce([1], 0, fn(acc, x) { acc + true })", "type mismatch: INTEGER + BOOLEAN"),
+                new TestCase("reduce(1, 0, len)", "argument to `reduce` must be ARRAY or SEQUENCE, got INTEGER"),
+                new TestCase("reduce([], 0, 1)", "third argument to `reduce` must be FUNCTION, got INTEGER"),
+                new TestCase("each([1], \"f\")", "second argument to `each` must be FUNCTION, got STRING")
+        );
+
+        for (TestCase tt : tests) {
+            for (java.lang.String name : List.of("eval", "jit", "vm", "nodes", "closures")) {
+                var evaluated = Engine.of(name).run(new Parser(new Lexer(tt.input)).parseProgram());
+                var actual = evaluated instanceof Error error
+                        ? error.message().value()
+                        : evaluated.inspect();
+                assertEquals(tt.expected, actual, "wrong result with " + name + " for " + tt.input);
+            }
+        }
+    }
+
+    @Test
+    void testScopingAcrossEngines() {
+        record TestCase(java.lang.String input, java.lang.String expected) { }
+
+        var tests = List.of(
+                new TestCase("let m = fn() { let a = fn(n) { if (n < 1) { 0 } else { b(n) } };"
+                                     + " let b = fn(n) { a(n - 1) }; a(4) }; m()", "0"),
+                new TestCase("let f = fn(x) { let g = fn() { x }; let x = 9; g() }; f(1)", "9"),
+                new TestCase("let f = fn(x) { let g = fn() { fn() { x } }; let x = x + 1; g()() }; f(1)", "2"),
+                new TestCase("let f = fn(n) { if (n < 1) { 0 } else { f(n - 1) } }; let h = f; let f = 5; h(3)",
+                             "not a function: INTEGER_OBJ"),
+                new TestCase("let w = fn() { let f = fn(n) { if (n < 1) { 0 } else { f(n - 1) } }; let h = f;"
+                                     + " let f = 5; h(3) }; w()", "not a function: INTEGER_OBJ"),
+                new TestCase("let f = fn() { let g = fn() { y }; g() }; f()", "identifier not found: y"),
+                new TestCase("let f = fn() { let g = fn() { x }; let r = g(); let x = 1; r }; f()",
+                             "identifier not found: x"),
+                // a binding that is still unset when read falls back to the next one out
+                new TestCase("let y = 1; let f = fn() { let g = fn() { y }; let r = g(); let y = 5; r }; f()", "1"),
+                new TestCase("let y = 1; let f = fn(c) { if (c) { let y = 2; }; y }; [f(false), f(true)]",
+                             "[1, 2]"),
+                new TestCase("let y = 1; let f = fn() { let y = y + 1; fn() { y } }; f()()", "2"),
+                new TestCase("let f = fn() { len(\"ab\") }; let r = f(); let len = 5; [r, len]", "[2, 5]")
+        );
+
+        for (TestCase tt : tests) {
+            for (java.lang.String name : List.of("eval", "jit", "vm", "nodes", "closures")) {
+                var evaluated = Engine.of(name).run(new Parser(new Lexer(tt.input)).parseProgram());
+                var actual = evaluated instanceof Error error
+                        ? error.message().value()
+                        : evaluated.inspect();
+                assertEquals(tt.expected, actual, "wrong result with " + name + " for " + tt.input);
+            }
+        }
+    }
+
+    @Test
+    void testFlightRecorderEvents() throws IOException {
+        var file = Files.createTempFile("monkey", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable("org.monkey.FunctionCall").withoutThreshold();
+            recording.enable("org.monkey.BuiltInCall").withoutThreshold();
+            recording.enable("org.monkey.Error");
+            recording.start();
+            testEval("let add = fn(a, b) { a + b }; add(1, 2); len(\"abc\"); add(1, true);");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        var events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        var calls = events.stream().filter(event -> event.getEventType().getName().equals("org.monkey.FunctionCall"))
+                          .map(event -> event.getString("function") + "/" + event.getInt("arguments"))
+                          .toList();
+        assertEquals(List.of("add/2", "add/2"), calls, "wrong function call events");
+        var builtIns = events.stream().filter(event -> event.getEventType().getName().equals("org.monkey.BuiltInCall"))
+                             .map(event -> event.getString("builtIn"))
+                             .toList();
+        assertEquals(List.of("len"), builtIns, "wrong builtin call events");
+        var errors = events.stream().filter(event -> event.getEventType().getName().equals("org.monkey.Error"))
+                           .map(event -> event.getString("message"))
+                           .toList();
+        assertEquals(List.of("type mismatch: INTEGER + BOOLEAN"), errors, "wrong error events");
+    }
+
     private org.monkey.object.Object testEval(java.lang.String input) {
         var l = new Lexer(input);
         var p = new Parser(l);
@@ -488,7 +787,7 @@ class EvaluatorTest {
         return new Evaluator().eval(program, env);
     }
 
-    private void testIntegerObject(org.monkey.object.Object obj, int expected) {
+    private void testIntegerObject(org.monkey.object.Object obj, long expected) {
         assertInstanceOf(Integer.class, obj, "object is not Integer. got=" + obj.getClass());
         var result = (Integer) obj;
         assertEquals(expected, result.value(), "object has wrong value");
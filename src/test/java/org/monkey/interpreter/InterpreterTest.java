@@ -0,0 +1,108 @@
+package org.monkey.interpreter;
+
+import org.junit.jupiter.api.Test;
+import org.monkey.lexer.Lexer;
+import org.monkey.object.Environment;
+import org.monkey.object.Error;
+import org.monkey.object.Integer;
+import org.monkey.object.String;
+import org.monkey.parser.Parser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterpreterTest {
+
+    @Test
+    void testEvalIntegerExpression() {
+        record TestCase(java.lang.String input, int expected) { }
+
+        var tests = List.of(
+                new TestCase("-50 + 100 + -50", 0),
+                new TestCase("(5 + 10 * 2 + 15 / 3) * 2 + -10", 50),
+                new TestCase("if (1 < 2) { 10 } else { 20 }", 10),
+                new TestCase("let f = fn(x) { return x; x + 10; }; f(10);", 10),
+                new TestCase("let newAdder = fn(x) { fn(y) { x + y } }; newAdder(2)(2);", 4),
+                new TestCase("let a = [1, 2, 3]; a[1] + {\"k\": 5}[\"k\"];", 7),
+                new TestCase("len(\"four\") + first([1, 2])", 5)
+        );
+
+        for (TestCase tt : tests) {
+            testIntegerObject(testEval(tt.input, new Environment()), tt.expected);
+        }
+    }
+
+    @Test
+    void testErrorHandling() {
+        record TestCase(java.lang.String input, java.lang.String expectedMessage) { }
+
+        var tests = List.of(
+                new TestCase("5 + true; 5;", "type mismatch: INTEGER + BOOLEAN"),
+                new TestCase("-true", "unknown operator: -BOOLEAN"),
+                new TestCase("if (10 > 1) { true + false; }", "unknown operator: BOOLEAN + BOOLEAN"),
+                new TestCase("foobar", "identifier not found: foobar"),
+                new TestCase("len(1)", "argument to `len` not supported, got INTEGER")
+        );
+
+        for (TestCase tt : tests) {
+            var evaluated = testEval(tt.input, new Environment());
+            assertInstanceOf(Error.class, evaluated,
+                             "no error object returned. got=" + evaluated.getClass());
+            assertEquals(tt.expectedMessage, ((Error) evaluated).message().value(),
+                         "wrong error message");
+        }
+    }
+
+    @Test
+    void testInfixNodeSpecializesOnIntegers() {
+        var env = new Environment();
+        testEval("let add = fn(a, b) { a + b };", env);
+
+        assertInstanceOf(InfixNode.Uninitialized.class, addNode(env));
+
+        testIntegerObject(testEval("add(1, 2)", env), 3);
+        assertInstanceOf(InfixNode.IntAdd.class, addNode(env));
+
+        testIntegerObject(testEval("add(3, 4)", env), 7);
+        assertInstanceOf(InfixNode.IntAdd.class, addNode(env));
+    }
+
+    @Test
+    void testInfixNodeFallsBackToGeneric() {
+        var env = new Environment();
+        testEval("let add = fn(a, b) { a + b }; add(1, 2);", env);
+        assertInstanceOf(InfixNode.IntAdd.class, addNode(env));
+
+        var evaluated = testEval("add(\"a\", \"b\")", env);
+        assertEquals("ab", ((String) evaluated).value());
+        assertInstanceOf(InfixNode.Generic.class, addNode(env));
+
+        testIntegerObject(testEval("add(5, 6)", env), 11);
+        assertInstanceOf(InfixNode.Generic.class, addNode(env));
+    }
+
+    @Test
+    void testInfixNodeSpecializesOnStrings() {
+        var env = new Environment();
+        testEval("let add = fn(a, b) { a + b }; add(\"a\", \"b\");", env);
+        assertInstanceOf(InfixNode.StringConcat.class, addNode(env));
+    }
+
+    private ExecNode addNode(Environment env) {
+        var fn = (NodeFunction) env.get(0, env.slotOf("add"));
+        return ((BlockNode) fn.body()).statement(0);
+    }
+
+    private org.monkey.object.Object testEval(java.lang.String input, Environment env) {
+        var parser = new Parser(new Lexer(input));
+        var program = parser.parseProgram();
+        assertTrue(parser.errors().isEmpty(), "parser errors: " + parser.errors());
+        return new Interpreter().eval(program, env);
+    }
+
+    private void testIntegerObject(org.monkey.object.Object obj, long expected) {
+        assertInstanceOf(Integer.class, obj, "object is not Integer. got=" + obj);
+        assertEquals(expected, ((Integer) obj).value(), "object has wrong value");
+    }
+}
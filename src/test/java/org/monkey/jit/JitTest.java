@@ -0,0 +1,133 @@
+package org.monkey.jit;
+
+import org.junit.jupiter.api.Test;
+import org.monkey.evaluator.Evaluator;
+import org.monkey.lexer.Lexer;
+import org.monkey.object.CallProfile;
+import org.monkey.object.Environment;
+import org.monkey.object.Error;
+import org.monkey.object.Function;
+import org.monkey.object.Integer;
+import org.monkey.parser.Parser;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JitTest {
+
+    @Test
+    void testCompiledFunctions() {
+        record TestCase(String input, long expected) { }
+
+        var tests = List.of(
+                new TestCase("""
+                             let fib = fn(n) { if (n < 2) { n } else { fib(n - 1) + fib(n - 2) } };
+                             fib(20)
+                             """, 6765),
+                new TestCase("""
+                             let count = fn(n, acc) { if (n == 0) { return acc; } else { return count(n - 1, acc + 1); } };
+                             count(200000, 0)
+                             """, 200000),
+                new TestCase("""
+                             let f = fn(a, b) { let c = a * b; let big = c > 100; if (!big) { c - -a / 2 } else { 0 } };
+                             f(3, 4) + f(50, 50)
+                             """, 13),
+                new TestCase("""
+                             let g = fn(n) { if (n > 3 == true) { 1 + if (n > 10) { 10 } else { 5 } } else { return n; } };
+                             g(2) + g(4) + g(11)
+                             """, 19),
+                new TestCase("""
+                             let h = fn(n) { if (n == 0) { return 100; } else { 0 }; n * 2 };
+                             h(0) + h(8)
+                             """, 116)
+        );
+
+        for (TestCase tt : tests) {
+            var jit = new Jit(1);
+            var evaluated = eval(tt.input, jit);
+            assertInstanceOf(Integer.class, evaluated, "object is not Integer. got=" + evaluated.getClass());
+            assertEquals(tt.expected, ((Integer) evaluated).value(), "wrong result for " + tt.input);
+            assertEquals(1, jit.compiled(), "function was not compiled: " + tt.input);
+        }
+    }
+
+    @Test
+    void testUnsupportedFunctionsStayInTheEvaluator() {
+        record TestCase(String input, String expected) { }
+
+        var tests = List.of(
+                new TestCase("let greet = fn(name) { \"hi \" + name }; greet(\"bob\")", "hi bob"),
+                new TestCase("let f = fn(a) { len(a) }; f([1, 2])", "2"),
+                new TestCase("let y = 5; let f = fn(a) { a + y }; f(1)", "6"),
+                new TestCase("let f = fn(a) { if (a > 1) { 1 } }; f(0)", "null"),
+                new TestCase("let f = fn(a) { fn() { a } }; f(1)()", "1"),
+                new TestCase("let f = fn(a) { a > 1 }; f(2)", "true")
+        );
+
+        for (TestCase tt : tests) {
+            var jit = new Jit(1);
+            var evaluated = eval(tt.input, jit);
+            assertEquals(tt.expected, evaluated == null ? "null" : evaluated.inspect(), "wrong result for " + tt.input);
+            assertEquals(0, jit.compiled(), "unsupported function was compiled: " + tt.input);
+        }
+    }
+
+    @Test
+    void testGuardFallsBackToTheEvaluator() {
+        var jit = new Jit(1);
+        var evaluator = new Evaluator(jit);
+        var env = new Environment();
+
+        run(evaluator, env, "let inc = fn(x) { x + 1 }; inc(1)");
+        assertEquals(1, jit.compiled(), "function was not compiled");
+
+        var evaluated = run(evaluator, env, "inc(\"a\")");
+        assertInstanceOf(Error.class, evaluated, "object is not Error. got=" + evaluated.getClass());
+        assertEquals("type mismatch: STRING + INTEGER", ((Error) evaluated).message().value(), "wrong error message");
+
+        run(evaluator, env, "let down = fn(n) { if (n < 1) { 0 } else { down(n - 1) } }; down(3)");
+        var rebound = run(evaluator, env, "let old = down; let down = fn(n) { 42 }; old(5)");
+        assertEquals(42, ((Integer) rebound).value(), "compiled code ignored that the name was bound again");
+    }
+
+    @Test
+    void testClosuresOfOneLiteralShareAProfile() {
+        var jit = new Jit(3);
+        var evaluated = eval("let make = fn() { fn(x) { x + 1 } }; make()(1) + make()(2) + make()(3)", jit);
+        assertEquals(9, ((Integer) evaluated).value(), "wrong result");
+        assertEquals(1, jit.compiled(), "calls through separate closures were not counted together");
+    }
+
+    @Test
+    void testProfilesGoWithTheirProgram() throws InterruptedException {
+        var jit = new Jit(1);
+        var profiles = new ArrayList<WeakReference<CallProfile>>();
+        for (int i = 0; i < 100; i++) {
+            var env = new Environment();
+            run(new Evaluator(jit), env, "let inc = fn(x) { x + " + i + " }; inc(1)");
+            profiles.add(new WeakReference<>(((Function) env.get(0, env.slotOf("inc"))).profile()));
+        }
+        assertEquals(100, jit.compiled(), "functions were not compiled");
+
+        // nothing holds the programs any more; give the collector a few chances to clear them
+        for (int i = 0; i < 50 && profiles.stream().anyMatch(profile -> profile.get() != null); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertTrue(profiles.stream().allMatch(profile -> profile.get() == null), "profiles outlived their programs");
+    }
+
+    private static org.monkey.object.Object eval(String input, Jit jit) {
+        return run(new Evaluator(jit), new Environment(), input);
+    }
+
+    private static org.monkey.object.Object run(Evaluator evaluator, Environment env, String input) {
+        var parser = new Parser(new Lexer(input));
+        var program = parser.parseProgram();
+        assertTrue(parser.errors().isEmpty(), "parser errors: " + parser.errors());
+        return evaluator.eval(program, env);
+    }
+}
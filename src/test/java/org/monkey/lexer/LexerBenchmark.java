@@ -0,0 +1,98 @@
+package org.monkey.lexer;
+
+import org.monkey.token.TokenType;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// lexing throughput in MB/s with each scanner, from a String and from a mapped file. Not a test; after
+// mvn test-compile run
+//   java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes org.monkey.lexer.LexerBenchmark [scanner]
+// Give one scanner name per JVM for clean numbers: with all three, the lexer's call to the scanner is megamorphic.
+public class LexerBenchmark {
+
+    private static final int RUNS = 10;
+
+    // the comparison chains the lexer used before the table, as a baseline
+    static final class ComparisonScanner implements ByteScanner {
+        @Override
+        public int scan(byte[] input, int from, int to, int charClass) {
+            var i = from;
+            while (i < to && matches(input[i], charClass)) {
+                i++;
+            }
+            return i;
+        }
+
+        private static boolean matches(byte ch, int charClass) {
+            return switch (charClass) {
+                case CharClass.WHITESPACE -> ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r';
+                case CharClass.LETTER -> 'a' <= ch && ch <= 'z' || 'A' <= ch && ch <= 'Z' || ch == '_';
+                case CharClass.DIGIT -> '0' <= ch && ch <= '9';
+                default -> ch != '"' && ch != 0;
+            };
+        }
+    }
+
+    record Input(String name, String text) { }
+
+    record Scanner(String name, ByteScanner scanner) { }
+
+    public static void main(String[] args) throws IOException {
+        var inputs = List.of(
+                new Input("whitespace-heavy", repeat("let value = fn(left, right) {\n" + " ".repeat(60) + "left + right;\n"
+                        + "\t".repeat(12) + "};\n" + "\n".repeat(20))),
+                new Input("string-heavy", repeat("let message = \"" + "the quick brown fox jumps over the lazy dog ".repeat(8)
+                        + "\";\n")),
+                new Input("identifier-heavy", repeat("let a_rather_long_identifier_name = another_long_identifier_name;\n"))
+        );
+        var scanners = List.of(new Scanner("comparisons", new ComparisonScanner()),
+                               new Scanner("table", new ScalarScanner()),
+                               new Scanner("vector", ByteScanner.load()))
+                              .stream()
+                              .filter(scanner -> args.length == 0 || List.of(args).contains(scanner.name()))
+                              .toList();
+
+        for (Input input : inputs) {
+            var megabytes = input.text().length() / 1e6;
+            System.out.printf("%s (%.0f MB)%n", input.name(), megabytes);
+            var file = Files.createTempFile("lexer", ".mk");
+            try (var channel = FileChannel.open(Files.writeString(file, input.text()), StandardOpenOption.READ)) {
+                var mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (Scanner scanner : scanners) {
+                    var fromString = best(() -> lex(new Lexer(input.text(), scanner.scanner())));
+                    var fromFile = best(() -> lex(new Lexer(mapped.duplicate(), scanner.scanner())));
+                    System.out.printf("  %-12s %8.0f MB/s string  %8.0f MB/s mapped  (%s)%n", scanner.name(),
+                                      megabytes / (fromString / 1e9), megabytes / (fromFile / 1e9),
+                                      scanner.scanner().getClass().getSimpleName());
+                }
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // the fastest of RUNS runs, in nanoseconds
+    private static long best(Runnable run) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            var start = System.nanoTime();
+            run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static String repeat(String chunk) {
+        return chunk.repeat(32_000_000 / chunk.length());
+    }
+
+    private static void lex(Lexer lexer) {
+        while (lexer.nextToken().type() != TokenType.EOF) {
+            // drain
+        }
+    }
+}
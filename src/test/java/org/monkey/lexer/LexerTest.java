@@ -6,9 +6,19 @@ import org.monkey.token.Token;
 import org.monkey.token.TokenType;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class LexerTest {
 
@@ -147,4 +157,133 @@ class LexerTest {
                     i, test.expectedLiteral(), token.literal()));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void test_channelInputMatchesString() throws IOException {
+        var input = """
+                    let longIdentifier_with_underscores = 1234567890;
+                    let s = "a string that is longer than one read";
+                    if (s != "x") { [1, 2][0] } else { {"k": s}["k"] }
+                    "unterminated""";
+
+        // a channel that hands out one byte per read refills the buffer at every char
+        var bytes = new ByteArrayInputStream(input.getBytes());
+        ReadableByteChannel trickle = new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) {
+                var b = bytes.read();
+                if (b < 0) {
+                    return -1;
+                }
+                dst.put((byte) b);
+                return 1;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        var file = Files.createTempFile("lexer", ".mk");
+        try {
+            Files.writeString(file, input);
+            var expected = tokens(new Lexer(input));
+            assertEquals(expected, tokens(new Lexer(trickle)), "channel input lexed differently");
+            try (var mapped = Lexer.of(file)) {
+                assertEquals(expected, tokens(mapped), "mapped file lexed differently");
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private List<Token> tokens(Lexer lexer) {
+        var tokens = new ArrayList<Token>();
+        Token token;
+        do {
+            token = lexer.nextToken();
+            tokens.add(token);
+        } while (token.type() != TokenType.EOF);
+        return tokens;
+    }
+
+    @Test
+    void test_tokensAreShared() {
+        var lexer = new Lexer("let x = 42; let y = x + 42;");
+        var tokens = tokens(lexer);
+
+        assertSame(tokens.get(0), tokens.get(5), "keywords are interned");
+        assertSame(tokens.get(1), tokens.get(8), "identifiers are interned");
+        assertSame(tokens.get(3), tokens.get(10), "numbers are interned");
+        assertSame(tokens.get(4), tokens.get(11), "punctuation is shared");
+        assertSame(tokens.get(2), new Lexer("=").nextToken(), "punctuation is shared across lexers");
+    }
+
+    @Test
+    void test_intValue() {
+        record TestCase(String input, long expected) { }
+
+        var tests = List.of(
+                new TestCase("0", 0),
+                new TestCase("1234567890", 1234567890),
+                new TestCase("9223372036854775807", Long.MAX_VALUE),
+                new TestCase("9223372036854775808", -1),
+                new TestCase("123456789012345678901234567890", -1)
+        );
+
+        for (TestCase tt : tests) {
+            var lexer = new Lexer(tt.input);
+            var token = lexer.nextToken();
+            assertEquals(TokenType.INT, token.type(), "not an INT: " + tt.input);
+            assertEquals(tt.input, token.literal(), "wrong literal");
+            assertEquals(tt.expected, lexer.intValue(), "wrong value for " + tt.input);
+        }
+    }
+
+    @Test
+    void test_scannersAgree() {
+        var random = new Random(42);
+        var alphabet = "  \t\n\rabcXYZ_09\"\0{}-+é".getBytes();
+        var input = new byte[4096];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = random.nextInt(4) == 0
+                    ? alphabet[random.nextInt(alphabet.length)]
+                    : alphabet[random.nextInt(8)];
+        }
+
+        // a direct buffer, like a mapped file, has no array
+        var direct = ByteBuffer.allocateDirect(input.length).put(input).flip();
+
+        var scalar = new ScalarScanner();
+        var vector = ByteScanner.load();
+        assertInstanceOf(VectorScanner.class, vector, "tests run with the vector module");
+        assertInstanceOf(WindowScanner.class, vector.over(direct), "a direct buffer is scanned through windows");
+        for (int charClass : new int[]{ CharClass.WHITESPACE, CharClass.LETTER, CharClass.DIGIT, CharClass.STRING }) {
+            for (int from = 0; from < input.length; from += 7) {
+                var expected = scalar.scan(input, from, input.length, charClass);
+                assertEquals(expected, vector.scan(input, from, input.length, charClass),
+                             String.format("class %d from %d", charClass, from));
+                assertEquals(expected, vector.over(direct).scan(direct, from, input.length, charClass),
+                             String.format("class %d from %d in a direct buffer", charClass, from));
+            }
+        }
+    }
+
+    @Test
+    void test_longRunsMatchScalar() {
+        var input = "let " + "a".repeat(1000) + " =" + " \n".repeat(500) + "\"" + "x y ".repeat(300) + "\";";
+        assertEquals(tokens(new Lexer(input, new ScalarScanner())), tokens(new Lexer(input)),
+                     "vector scanner lexed differently");
+
+        // runs longer than a window, from a buffer without an array
+        var bytes = input.getBytes(StandardCharsets.UTF_8);
+        var direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        assertEquals(tokens(new Lexer(input, new ScalarScanner())), tokens(new Lexer(direct)),
+                     "windowed scanner lexed differently");
+    }
+}
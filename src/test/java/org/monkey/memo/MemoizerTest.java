@@ -0,0 +1,186 @@
+package org.monkey.memo;
+
+import org.junit.jupiter.api.Test;
+import org.monkey.engine.Engine;
+import org.monkey.evaluator.Evaluator;
+import org.monkey.jit.Jit;
+import org.monkey.lexer.Lexer;
+import org.monkey.object.Environment;
+import org.monkey.object.Function;
+import org.monkey.object.Integer;
+import org.monkey.object.MemoCache;
+import org.monkey.object.Memoized;
+import org.monkey.object.ObjectType;
+import org.monkey.parser.Parser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoizerTest {
+
+    @Test
+    void testPurity() {
+        record TestCase(String input, boolean expected) { }
+
+        var tests = List.of(
+                new TestCase("let f = fn(x) { x * 2 };", true),
+                new TestCase("let f = fn(n) { if (n < 2) { n } else { f(n - 1) + f(n - 2) } };", true),
+                new TestCase("let f = fn(a) { len(a) + first(a) };", true),
+                new TestCase("let f = fn(x) { puts(x); x };", false),
+                new TestCase("let g = fn(x) { puts(x) }; let f = fn(x) { g(x) };", false),
+                new TestCase("let g = fn(x) { x + 1 }; let f = fn(x) { g(g(x)) };", true),
+                new TestCase("let f = fn(x) { let h = fn(y) { puts(y) }; 1 };", false),
+                new TestCase("let f = fn(x) { let h = fn(y) { f(y) }; h(x) };", false),
+                new TestCase("let f = fn(g) { g(1) };", false),
+                new TestCase("let f = fn(x) { fn(y) { x + y } };", true),
+                new TestCase("let g = memo(fn(x) { x }); let f = fn(x) { g(x) };", true),
+                new TestCase("let f = fn(a) { map(a, fn(x) { puts(x) }) };", false),
+                new TestCase("let g = fn(x) { puts(x) }; let f = fn(a) { map(a, g) };", false),
+                new TestCase("let f = fn(a, g) { filter(a, g) };", false),
+                new TestCase("let g = fn(x) { x }; let f = fn(a) { len(filter(a, g)) };", true),
+                new TestCase("let g = fn(x) { puts(x); x }; let m = map; let f = fn(n) { len(m([n], g)) };", false),
+                new TestCase("let g = fn(x) { x }; let m = filter; let f = fn(a) { len(m(a, g)) };", true),
+                new TestCase("let r = reduce; let f = fn(a) { r(a, 0, fn(x, y) { puts(y) }) };", false),
+                new TestCase("let f = fn(a) { each(a, first([puts])) };", false)
+        );
+
+        for (TestCase tt : tests) {
+            var env = new Environment();
+            testEval(tt.input, new Evaluator(), env);
+            var fn = (Function) env.get(0, env.slotOf("f"));
+            assertEquals(tt.expected, Purity.isPure(fn), "wrong purity for " + tt.input);
+        }
+    }
+
+    @Test
+    void testPureFunctionsAreMemoized() {
+        var memoizer = new Memoizer();
+        var evaluator = new Evaluator(null, memoizer);
+        var env = new Environment();
+
+        var result = testEval("let fib = fn(n) { if (n < 2) { n } else { fib(n - 1) + fib(n - 2) } }; fib(60);",
+                              evaluator, env);
+        testIntegerObject(result, 1548008755920L);
+
+        var fib = memoizer.cacheFor((Function) env.get(0, env.slotOf("fib")));
+        assertNotNull(fib, "fib is pure");
+        assertEquals(61, fib.misses(), "every argument computed once");
+        assertEquals(58, fib.hits(), "fib(n - 2) answered from the cache for n > 2");
+
+        testEval("let noisy = fn(x) { puts(x); x }; noisy(1); noisy(1);", evaluator, env);
+        assertNull(memoizer.cacheFor((Function) env.get(0, env.slotOf("noisy"))), "noisy is not pure");
+    }
+
+    @Test
+    void testUnhashableArgumentsAreNotCached() {
+        record TestCase(String input, long expected) { }
+
+        var tests = List.of(
+                new TestCase("let f = fn(a) { len(a) }; f([1, 2]) + f([1, 2])", 4),
+                new TestCase("let f = fn(h) { h[\"a\"] }; f({\"a\": 3}) + f({\"a\": 3})", 6),
+                new TestCase("let f = memo(fn(a) { len(a) }); f([1, 2, 3])", 3)
+        );
+
+        for (TestCase tt : tests) {
+            for (Evaluator evaluator : List.of(new Evaluator(null, new Memoizer()),
+                                               new Evaluator(new Jit(), new Memoizer()))) {
+                testIntegerObject(testEval(tt.input, evaluator, new Environment()), tt.expected);
+            }
+        }
+    }
+
+    @Test
+    void testRebindingForgetsResults() {
+        record TestCase(String input, String expected) { }
+
+        var tests = List.of(
+                new TestCase("let g = fn(x) { x }; let f = fn(x) { g(x) }; let a = f(1); let g = fn(x) { x * 2 };"
+                                     + " [a, f(1)]", "[1, 2]"),
+                new TestCase("let k = 1; let f = fn(x) { x + k }; f(1); let k = 10; f(1)", "11"),
+                new TestCase("let h = fn(x) { let k = 1; let f = fn(y) { y + k }; let a = f(x); let k = 5;"
+                                     + " [a, f(x)] }; h(1)", "[2, 6]")
+        );
+
+        for (TestCase tt : tests) {
+            for (Evaluator evaluator : List.of(new Evaluator(null, new Memoizer()),
+                                               new Evaluator(new Jit(), new Memoizer()))) {
+                var evaluated = testEval(tt.input, evaluator, new Environment());
+                assertEquals(tt.expected, evaluated.inspect(), "wrong result for " + tt.input);
+            }
+        }
+    }
+
+    @Test
+    void testMemoBuiltin() {
+        var input = "let fib = memo(fn(n) { if (n < 2) { n } else { fib(n - 1) + fib(n - 2) } }); fib(60);";
+        for (String name : List.of("eval", "jit", "closures", "nodes", "vm")) {
+            var engine = Engine.of(name);
+            var parser = new Parser(new Lexer(input));
+            testIntegerObject(engine.run(parser.parseProgram()), 1548008755920L);
+        }
+
+        var env = new Environment();
+        var fib = testEval(input.replace("fib(60);", "fib"), new Evaluator(), env);
+        assertInstanceOf(Memoized.class, fib, "memo returns a wrapper");
+        assertEquals(ObjectType.FUNCTION_OBJ, fib.type(), "a wrapper is a function");
+    }
+
+    @Test
+    void testMemoCacheEvictsLeastRecentlyUsed() {
+        var cache = new MemoCache(2);
+        var one = List.<org.monkey.object.Object>of(Integer.valueOf(1));
+        var two = List.<org.monkey.object.Object>of(Integer.valueOf(2));
+        var three = List.<org.monkey.object.Object>of(Integer.valueOf(3));
+
+        cache.put(one, Integer.valueOf(1));
+        cache.put(two, Integer.valueOf(2));
+        assertNotNull(cache.get(one), "one is cached");
+        cache.put(three, Integer.valueOf(3));
+
+        assertEquals(2, cache.size(), "cache is bounded");
+        assertNull(cache.get(two), "two was least recently used");
+        assertNotNull(cache.get(one), "one was used after two");
+        assertEquals(2, cache.hits(), "wrong hits");
+        assertEquals(1, cache.misses(), "wrong misses");
+    }
+
+    @Test
+    void testCollidingArgumentsDoNotShareResults() {
+        var cache = new MemoCache(8);
+        var string = new org.monkey.object.String("monkey");
+        var sameKeyHash = new Integer(string.keyHash());
+        // equal String.hashCode, different values
+        var aa = new org.monkey.object.String("Aa");
+        var bb = new org.monkey.object.String("BB");
+
+        cache.put(MemoCache.keyOf(List.of(string)), Integer.valueOf(1));
+        cache.put(MemoCache.keyOf(List.of(sameKeyHash)), Integer.valueOf(2));
+        cache.put(MemoCache.keyOf(List.of(aa, string)), Integer.valueOf(3));
+        cache.put(MemoCache.keyOf(List.of(bb, string)), Integer.valueOf(4));
+
+        assertEquals(4, cache.size(), "a colliding key overwrote another");
+        assertEquals(Integer.valueOf(1), cache.get(MemoCache.keyOf(List.of(new org.monkey.object.String("monkey")))));
+        assertEquals(Integer.valueOf(2), cache.get(MemoCache.keyOf(List.of(sameKeyHash))));
+        assertEquals(Integer.valueOf(3), cache.get(MemoCache.keyOf(List.of(aa, string))));
+        assertEquals(Integer.valueOf(4), cache.get(MemoCache.keyOf(List.of(bb, string))));
+
+        var input = "let f = memo(fn(s) { s + \"!\" }); f(\"Aa\") + f(\"BB\") + f(\"Aa\")";
+        for (String name : List.of("eval", "vm", "nodes", "closures")) {
+            var evaluated = Engine.of(name).run(new Parser(new Lexer(input)).parseProgram());
+            assertEquals("Aa!BB!Aa!", evaluated.inspect(), "wrong result with " + name);
+        }
+    }
+
+    private org.monkey.object.Object testEval(String input, Evaluator evaluator, Environment env) {
+        var parser = new Parser(new Lexer(input));
+        var program = parser.parseProgram();
+        assertTrue(parser.errors().isEmpty(), "parser errors: " + parser.errors());
+        return evaluator.eval(program, env);
+    }
+
+    private void testIntegerObject(org.monkey.object.Object obj, long expected) {
+        assertInstanceOf(Integer.class, obj, "object is not Integer. got=" + obj);
+        assertEquals(expected, ((Integer) obj).value(), "object has wrong value");
+    }
+}
@@ -0,0 +1,99 @@
+package org.monkey.object;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// the heap held by an array of 1M integers: as the boxed List<Object> arrays used to be, as a vector with
+// Object[] leaves, and with the long[] leaves it gets now. Then the time and the bytes allocated per push() as
+// an array grows, against the copy per push it replaced, and per rest() while an array is consumed from the
+// front. Not a test; after mvn test-compile run
+//   java -cp target/classes:target/test-classes org.monkey.object.ArrayBenchmark
+public class ArrayBenchmark {
+
+    private static final int SIZE = 1_000_000;
+
+    public static void main(java.lang.String[] args) {
+        var boxed = measure(() -> {
+            var elements = new ArrayList<Object>(SIZE);
+            for (int i = 0; i < SIZE; i++) {
+                elements.add(new Integer(i * 7919L));
+            }
+            return elements;
+        });
+        var references = measure(() -> {
+            var vector = PersistentVector.EMPTY.push(Boolean.TRUE);
+            for (int i = 1; i < SIZE; i++) {
+                vector = vector.push(new Integer(i * 7919L));
+            }
+            return vector;
+        });
+        var longs = measure(() -> {
+            var vector = PersistentVector.EMPTY;
+            for (int i = 0; i < SIZE; i++) {
+                vector = vector.push(new Integer(i * 7919L));
+            }
+            return vector;
+        });
+        System.out.printf("%,d integers: List<Object> %.1f, Object[] leaves %.1f, long[] leaves %.1f bytes/element%n",
+                          SIZE, boxed, references, longs);
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var element = new Integer(42);
+        for (int round = 0; round < 3; round++) {
+            for (int size : List.of(1_000, 10_000, 100_000)) {
+                var allocated = threads.getCurrentThreadAllocatedBytes();
+                var start = System.nanoTime();
+                var array = new Array(List.of());
+                for (int i = 0; i < size; i++) {
+                    array = array.push(element);
+                }
+                report("push", size, System.nanoTime() - start,
+                       threads.getCurrentThreadAllocatedBytes() - allocated);
+
+                allocated = threads.getCurrentThreadAllocatedBytes();
+                start = System.nanoTime();
+                List<Object> copied = List.of();
+                for (int i = 0; i < size; i++) {
+                    var elements = new ArrayList<>(copied);
+                    elements.add(element);
+                    copied = elements;
+                }
+                report("copy", size, System.nanoTime() - start,
+                       threads.getCurrentThreadAllocatedBytes() - allocated);
+
+                allocated = threads.getCurrentThreadAllocatedBytes();
+                start = System.nanoTime();
+                while (!array.elements().isEmpty()) {
+                    array = array.rest();
+                }
+                report("rest", size, System.nanoTime() - start,
+                       threads.getCurrentThreadAllocatedBytes() - allocated);
+            }
+        }
+    }
+
+    private static double measure(Supplier<java.lang.Object> build) {
+        var before = usedHeap();
+        var array = build.get();
+        var bytes = usedHeap() - before;
+        if (array == null) {
+            throw new IllegalStateException();
+        }
+        return (double) bytes / SIZE;
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(java.lang.String operation, int size, long nanos, long allocated) {
+        System.out.printf("%s to %,d: %.0f ns, %.0f bytes per call%n",
+                          operation, size, (double) nanos / size, (double) allocated / size);
+    }
+}
@@ -0,0 +1,87 @@
+package org.monkey.object;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+
+// heap per entry of a HashTable against the HashMap<HashKey, HashPair> it replaced, for one large hash and for
+// many small ones. The keys and values exist before either is built, so only the table itself is measured.
+// Then the time and the bytes allocated per set(), as a hash grows. Not a test; after mvn test-compile run
+//   java -cp target/classes:target/test-classes org.monkey.object.HashBenchmark
+public class HashBenchmark {
+
+    // the pair the old table kept per entry
+    record HashPair(Object key, Object value) { }
+
+    public static void main(java.lang.String[] args) {
+        var keys = new ArrayList<Hashable>();
+        for (int i = 0; i < 1_000_000; i++) {
+            keys.add(i % 2 == 0
+                             ? new Integer(i * 7919L)
+                             : new String("key" + i));
+        }
+        var value = new Integer(42);
+
+        for (int size : List.of(1_000_000, 100, 4)) {
+            var count = keys.size() / size;
+            var old = measure(count, size, i -> {
+                var pairs = new HashMap<HashKey, HashPair>();
+                for (int j = 0; j < size; j++) {
+                    var key = keys.get(i * size + j);
+                    pairs.put(key.hashKey(), new HashPair((Object) key, value));
+                }
+                return pairs;
+            });
+            var open = measure(count, size, i -> {
+                var hash = new HashTable(size);
+                for (int j = 0; j < size; j++) {
+                    hash.put(keys.get(i * size + j), value);
+                }
+                return hash;
+            });
+            System.out.printf("%,d hashes of %,d: HashMap %.1f bytes/entry, HashTable %.1f bytes/entry%n",
+                              count, size, old, open);
+        }
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int round = 0; round < 3; round++) {
+            Hash hash = new HashTable();
+            var n = 0;
+            for (int size : List.of(1_000, 100_000, 1_000_000)) {
+                var allocated = threads.getCurrentThreadAllocatedBytes();
+                var start = System.nanoTime();
+                var updates = size - n;
+                for (; n < size; n++) {
+                    hash = hash.set(keys.get(n), value);
+                }
+                var nanos = System.nanoTime() - start;
+                allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+                System.out.printf("set up to %,d: %.0f ns, %.0f bytes per update%n",
+                                  size, (double) nanos / updates, (double) allocated / updates);
+            }
+        }
+    }
+
+    private static double measure(int count, int size, Function<java.lang.Integer, java.lang.Object> build) {
+        var before = usedHeap();
+        var tables = new java.lang.Object[count];
+        for (int i = 0; i < count; i++) {
+            tables[i] = build.apply(i);
+        }
+        var bytes = usedHeap() - before;
+        if (tables.length == 0) {
+            throw new IllegalStateException();
+        }
+        return (double) (bytes - 16L - 4L * count) / ((long) count * size);
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
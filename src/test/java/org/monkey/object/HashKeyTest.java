@@ -41,4 +41,13 @@ class HashKeyTest {
         assertEquals(two1.hashKey(), two2.hashKey(), "integers with same content have twoerent hash keys");
         assertNotEquals(one1.hashKey(), two1.hashKey(), "integers with twoerent content have same hash keys");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test_small_integers_are_cached() {
+        assertSame(Integer.valueOf(7), Integer.valueOf(7), "small integers are not shared");
+        assertSame(Integer.valueOf(-128), Integer.valueOf(-128), "small integers are not shared");
+        assertEquals(Integer.valueOf(1L << 40), Integer.valueOf(1L << 40), "large integers with same value are not equal");
+        assertEquals(new Integer(1L << 40).hashKey(), Integer.valueOf(1L << 40).hashKey(), "integers with same content have different hash keys");
+        assertNotEquals(new Integer(1L << 40).hashKey(), new Integer(0).hashKey(), "integers with different content have same hash keys");
+    }
+}
@@ -0,0 +1,131 @@
+package org.monkey.object;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashTest {
+
+    @Test
+    void testCollidingKeysStayDistinct() {
+        var string = new String("monkey");
+        var sameHash = new Integer(string.keyHash());
+        assertEquals(string.keyHash(), sameHash.keyHash(), "keys should collide");
+
+        var hash = new HashTable();
+        hash.put(string, new Integer(1));
+        hash.put(sameHash, new Integer(2));
+        hash.put(Boolean.TRUE, new Integer(3));
+        hash.put(new Integer(1), new Integer(4));
+
+        assertEquals(4, hash.size(), "a colliding key overwrote another");
+        assertEquals(new Integer(1), hash.get(new String("monkey")), "wrong value for the string");
+        assertEquals(new Integer(2), hash.get(sameHash), "wrong value for the integer");
+        assertEquals(new Integer(3), hash.get(Boolean.TRUE), "true and 1 share a hash");
+        assertEquals(new Integer(4), hash.get(new Integer(1)), "1 and true share a hash");
+        assertNull(hash.get(Boolean.FALSE), "false is not in the hash");
+    }
+
+    @Test
+    void testGrowsAndKeepsInsertionOrder() {
+        var hash = new HashTable();
+        for (int i = 0; i < 10_000; i++) {
+            hash.put(new Integer(i * 31L), new String("v" + i));
+        }
+        hash.put(new Integer(0), new String("replaced"));
+
+        assertEquals(10_000, hash.size(), "wrong size");
+        for (int i = 1; i < 10_000; i++) {
+            assertEquals("v" + i, ((String) hash.get(new Integer(i * 31L))).value(), "wrong value for " + i);
+        }
+
+        var small = new HashTable(1);
+        for (Hashable key : List.of(new String("b"), new Integer(2), new String("a"), Boolean.FALSE)) {
+            small.put(key, new Integer(0));
+        }
+        small.put(new String("b"), new Integer(1));
+        assertEquals("{b: 1, 2: 0, a: 0, false: 0}", small.inspect(), "wrong order");
+        assertEquals("replaced", ((String) hash.get(new Integer(0))).value(), "wrong replaced value");
+    }
+
+    @Test
+    void testPersistentHashMatchesAMap() {
+        // keys that collide in all 64 bits, share long hash prefixes, or are unrelated
+        var keys = new ArrayList<Hashable>();
+        for (int i = 0; i < 200; i++) {
+            var string = new String("k" + i);
+            keys.add(string);
+            keys.add(new Integer(string.keyHash()));
+            keys.add(new Integer((long) i << 55));
+            keys.add(new Integer(i));
+        }
+        keys.add(Boolean.TRUE);
+        keys.add(Boolean.FALSE);
+
+        var random = new Random(5);
+        Hash hash = new HashTable();
+        var model = new HashMap<Hashable, Object>();
+        var versions = new ArrayList<Hash>();
+        var models = new ArrayList<Map<Hashable, Object>>();
+        for (int step = 0; step < 20_000; step++) {
+            var key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                hash = hash.delete(key);
+                model.remove(key);
+            } else {
+                var value = new Integer(step);
+                hash = hash.set(key, value);
+                model.put(key, value);
+            }
+            if (step % 1000 == 0) {
+                versions.add(hash);
+                models.add(new HashMap<>(model));
+            }
+        }
+        versions.add(hash);
+        models.add(model);
+
+        for (int v = 0; v < versions.size(); v++) {
+            assertContains(models.get(v), versions.get(v));
+        }
+    }
+
+    @Test
+    void testMerge() {
+        var small = new HashTable();
+        small.put(new String("a"), new Integer(1));
+        small.put(new String("b"), new Integer(2));
+        Hash large = new HashTable();
+        for (int i = 0; i < 100; i++) {
+            large = large.set(new Integer(i), new Integer(i));
+        }
+        large = large.set(new String("b"), new Integer(20));
+
+        var expected = new HashMap<Hashable, Object>();
+        large.forEach((key, value) -> expected.put((Hashable) key, value));
+        expected.put(new String("a"), new Integer(1));
+        expected.put(new String("b"), new Integer(2));
+        assertContains(expected, large.merge(small));
+
+        expected.put(new String("b"), new Integer(20));
+        assertContains(expected, small.merge(large));
+        assertSame(large, large.merge(new HashTable()), "merging nothing made a new hash");
+    }
+
+    private void assertContains(Map<Hashable, Object> expected, Hash hash) {
+        assertEquals(expected.size(), hash.size(), "wrong size");
+        expected.forEach((key, value) -> assertEquals(value, hash.get(key), "wrong value for " + ((Object) key).inspect()));
+        var count = new int[1];
+        hash.forEach((key, value) -> {
+            assertEquals(expected.get((Hashable) key), value, "unexpected pair for " + key.inspect());
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0], "forEach saw the wrong number of pairs");
+    }
+}
@@ -0,0 +1,111 @@
+package org.monkey.object;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentVectorTest {
+
+    @Test
+    void testMatchesAList() {
+        var random = new Random(21);
+        var vectors = new ArrayList<PersistentVector>();
+        var models = new ArrayList<List<Object>>();
+        vectors.add(PersistentVector.EMPTY);
+        models.add(List.of());
+
+        for (int op = 0; op < 5_000; op++) {
+            var which = random.nextInt(vectors.size());
+            var vector = vectors.get(which);
+            var model = new ArrayList<>(models.get(which));
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    var count = random.nextInt(random.nextBoolean() ? 40 : 2_000);
+                    var strings = random.nextInt(10) == 0;
+                    for (int i = 0; i < count; i++) {
+                        var element = strings && i == count / 2
+                                ? new String("s" + op)
+                                : (Object) new Integer(op * 10_000L + i);
+                        vector = vector.push(element);
+                        model.add(element);
+                    }
+                }
+                case 1 -> {
+                    var elements = new ArrayList<Object>();
+                    for (int i = random.nextInt(3_000); i > 0; i--) {
+                        elements.add(new Integer(i));
+                    }
+                    vector = PersistentVector.of(elements);
+                    model = elements;
+                }
+                default -> {
+                    var from = random.nextInt(model.size() + 1);
+                    var to = from + random.nextInt(model.size() - from + 1);
+                    vector = vector.subList(from, to);
+                    model = new ArrayList<>(model.subList(from, to));
+                }
+            }
+            vectors.add(vector);
+            models.add(model);
+        }
+
+        // every version, including the ones later versions were made from, still holds its elements
+        for (int i = 0; i < vectors.size(); i++) {
+            var vector = vectors.get(i);
+            var model = models.get(i);
+            assertEquals(model.size(), vector.size(), "wrong size of version " + i);
+            for (int j = 0; j < model.size(); j++) {
+                assertEquals(model.get(j), vector.get(j), "wrong element " + j + " of version " + i);
+            }
+            assertEquals(model, vector, "iteration differs for version " + i);
+        }
+    }
+
+    @Test
+    void testIntegersAreStoredAsLongs() {
+        var elements = new ArrayList<Object>();
+        for (int i = 0; i < 1_000; i++) {
+            elements.add(new Integer(i * 1_000_003L));
+        }
+        var vector = PersistentVector.of(elements);
+        assertTrue(vector.holdsLongs(), "all integers");
+        assertTrue(vector.push(new Integer(-1)).subList(3, 1_000).holdsLongs(), "push and slice keep longs");
+        assertTrue(PersistentVector.EMPTY.push(new Integer(1)).holdsLongs(), "an empty vector starts as longs");
+
+        var mixed = vector.push(Boolean.TRUE);
+        assertFalse(mixed.holdsLongs(), "a boolean was pushed");
+        assertTrue(vector.holdsLongs(), "the vector pushed to is unchanged");
+        assertEquals(new Integer(999 * 1_000_003L), mixed.get(999), "wrong element after the switch");
+        assertEquals(Boolean.TRUE, mixed.getLast(), "wrong pushed element");
+
+        var array = new Array(elements);
+        assertEquals(new Integer(5_000_015L), array.at(5), "wrong element");
+        assertNull(array.at(1_000), "past the end");
+        assertNull(array.at(-1), "before the start");
+    }
+
+    @Test
+    void testRestAndPushShareElements() {
+        var array = new Array(List.of());
+        for (int i = 0; i < 100_000; i++) {
+            array = array.push(new Integer(i));
+        }
+        var pushed = array.push(new Integer(-1));
+        assertEquals(100_000, array.elements().size(), "push changed the array it started from");
+        assertEquals(new Integer(-1), pushed.elements().getLast(), "wrong pushed element");
+
+        var rest = array;
+        for (int i = 0; i < 99_990; i++) {
+            rest = rest.rest();
+        }
+        assertEquals("[99990, 99991, 99992, 99993, 99994, 99995, 99996, 99997, 99998, 99999]", rest.inspect(),
+                     "wrong elements after rest");
+        assertEquals("[99991, 99992, 99993, 99994, 99995, 99996, 99997, 99998, 99999, 7]",
+                     rest.rest().push(new Integer(7)).inspect(), "wrong push after rest");
+        assertEquals(new Integer(0), array.elements().getFirst(), "rest changed the array it started from");
+    }
+}
@@ -0,0 +1,63 @@
+package org.monkey.object;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringTest {
+
+    @Test
+    void testConcatenationMatchesFlatStrings() {
+        var random = new Random(22);
+        var ropes = new ArrayList<String>();
+        var flats = new ArrayList<java.lang.String>();
+        for (java.lang.String piece : new java.lang.String[]{"", "a", "héllo", "🐒", "x".repeat(100), "y".repeat(300)}) {
+            ropes.add(new String(piece));
+            flats.add(piece);
+        }
+
+        for (int i = 0; i < 3_000; i++) {
+            var a = random.nextInt(ropes.size());
+            var b = random.nextInt(ropes.size());
+            var rope = ropes.get(a).concat(ropes.get(b));
+            var flat = flats.get(a) + flats.get(b);
+            assertEquals(flat.length(), rope.length(), "wrong length");
+            if (flat.length() > 1_000_000) {
+                continue;
+            }
+            ropes.add(rope);
+            flats.add(flat);
+        }
+
+        // every rope, including those flattened as parts of later ones, still reads as the concatenation
+        for (int i = ropes.size() - 1; i >= 0; i--) {
+            assertEquals(flats.get(i), ropes.get(i).value(), "wrong contents of rope " + i);
+            assertEquals(new String(flats.get(i)).keyHash(), ropes.get(i).keyHash(), "wrong hash of rope " + i);
+            assertEquals(new String(flats.get(i)), ropes.get(i), "rope is not equal to its contents");
+        }
+    }
+
+    @Test
+    void testLongChainsStayShallow() {
+        var appended = new String("");
+        var prepended = new String("");
+        var piece = new String("z".repeat(200));
+        for (int i = 0; i < 100_000; i++) {
+            appended = appended.concat(piece);
+            prepended = piece.concat(prepended);
+        }
+        assertTrue(appended.depth() <= 64, "appending built a chain of depth " + appended.depth());
+        assertTrue(prepended.depth() <= 64, "prepending built a chain of depth " + prepended.depth());
+        assertEquals(20_000_000, appended.length(), "wrong length");
+        assertEquals(appended, prepended, "the same pieces in the same order");
+
+        var small = new String("");
+        for (int i = 0; i < 1_000; i++) {
+            small = small.concat(new String("ab"));
+        }
+        assertEquals("ab".repeat(1_000), small.inspect(), "wrong contents from short pieces");
+    }
+}
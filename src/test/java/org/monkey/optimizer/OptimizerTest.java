@@ -0,0 +1,147 @@
+package org.monkey.optimizer;
+
+import org.junit.jupiter.api.Test;
+import org.monkey.ast.Program;
+import org.monkey.evaluator.Evaluator;
+import org.monkey.lexer.Lexer;
+import org.monkey.object.Environment;
+import org.monkey.parser.Parser;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizerTest {
+
+    @Test
+    void testConstantFolding() {
+        record TestCase(String input, String expected) { }
+
+        var tests = List.of(
+                new TestCase("10 * (20 / 2)", "100"),
+                new TestCase("1 + 2 * 3 - 4", "3"),
+                new TestCase("-(5 + 5)", "-10"),
+                new TestCase("\"foo\" + \"bar\"", "foobar"),
+                new TestCase("1 < 2 == true", "true"),
+                new TestCase("!5", "false"),
+                new TestCase("!!false", "false"),
+                new TestCase("a + 1 * 2", "(a + 2)"),
+                new TestCase("1 / 0", "(1 / 0)"),
+                new TestCase("-true", "(-true)"),
+                new TestCase("\"a\" - \"b\"", "(a - b)")
+        );
+
+        for (TestCase tt : tests) {
+            assertEquals(tt.expected, optimize(tt.input, EnumSet.of(Optimization.FOLD)).string(),
+                         "wrong folding of " + tt.input);
+        }
+    }
+
+    @Test
+    void testConstantPropagation() {
+        record TestCase(String input, String expected) { }
+
+        var tests = List.of(
+                new TestCase("let x = 5; x * 2", "let x = 5;10"),
+                new TestCase("let x = 5; let x = 6; x", "let x = 5;let x = 6;x"),
+                new TestCase("let x = 5; let f = fn() { x }; f()", "let x = 5;let f = fn()x;f()"),
+                new TestCase("let f = fn() { let x = 5; x * 2 }", "let f = fn()10;"),
+                new TestCase("let f = fn(x) { let x = 5; x }", "let f = fn(x)let x = 5;x;"),
+                new TestCase("let f = fn() { let x = 5; fn(x) { x } }", "let f = fn()let x = 5;fn(x)x;"),
+                new TestCase("let f = fn() { let x = 5; fn() { x } }", "let f = fn()fn()5;"),
+                new TestCase("let f = fn() { x; let x = 5; x }", "let f = fn()xlet x = 5;5;"),
+                new TestCase("let f = fn(c) { if (c) { let x = 5; } else { 0 }; x }", "let f = fn(c)ifc let x = 5;else 0x;")
+        );
+
+        for (TestCase tt : tests) {
+            assertEquals(tt.expected, optimize(tt.input, EnumSet.of(Optimization.FOLD, Optimization.PROPAGATE)).string(),
+                         "wrong propagation in " + tt.input);
+        }
+    }
+
+    @Test
+    void testDeadBranchElimination() {
+        record TestCase(String input, String expected) { }
+
+        var tests = List.of(
+                new TestCase("if (true) { 1 } else { 2 }", "1"),
+                new TestCase("if (1 > 2) { 1 } else { 2 }", "2"),
+                new TestCase("if (false) { 1 } else { }; 3", "3"),
+                new TestCase("if (false) { 1 } else { }", "iffalse "),
+                new TestCase("if (\"x\") { puts(1); 2 }", "puts(1)2"),
+                new TestCase("let y = if (true) { puts(1); 2 } else { 3 };", "let y = iftrue puts(1)2;"),
+                new TestCase("if (true) { 1 } else { let x = 2; }", "iftrue 1else let x = 2;"),
+                new TestCase("if (c) { 1 } else { 2 }", "ifc 1else 2")
+        );
+
+        for (TestCase tt : tests) {
+            assertEquals(tt.expected, optimize(tt.input, EnumSet.allOf(Optimization.class)).string(),
+                         "wrong pruning of " + tt.input);
+        }
+    }
+
+    @Test
+    void testPassesCanBeDisabled() {
+        var input = "let x = 2; if (x > 1) { x * 3 } else { 0 }";
+
+        assertEquals(parse(input).string(), optimize(input, EnumSet.noneOf(Optimization.class)).string(),
+                     "program changed with no passes enabled");
+        assertEquals("let x = 2;if(x > 1) (x * 3)else 0",
+                     optimize(input, EnumSet.of(Optimization.FOLD, Optimization.PRUNE)).string(),
+                     "constants were propagated while propagation was disabled");
+        assertEquals("let x = 2;6", optimize(input, EnumSet.allOf(Optimization.class)).string(),
+                     "wrong result with all passes enabled");
+    }
+
+    @Test
+    void testStats() {
+        var optimizer = new Optimizer();
+        optimizer.optimize(parse("let f = fn() { let x = 4; if (x > 3) { x * (1 + 1) } else { 0 } }"));
+
+        var removed = optimizer.removed();
+        assertEquals(EnumSet.allOf(Optimization.class), removed.keySet(), "wrong passes in stats");
+        assertTrue(removed.get(Optimization.FOLD) > 0, "folding removed no nodes");
+        assertTrue(removed.get(Optimization.PROPAGATE) > 0, "propagation removed no nodes");
+        assertTrue(removed.get(Optimization.PRUNE) > 0, "pruning removed no nodes");
+        assertTrue(optimizer.report().contains("prune"), "report does not mention the passes");
+    }
+
+    @Test
+    void testOptimizedProgramsEvaluateTheSame() {
+        var inputs = List.of(
+                "let x = 10; let double = fn(n) { n * 2 }; double(x * (2 + 3))",
+                "let f = fn(n) { let limit = 3; if (n < limit) { n } else { f(n - 1) } }; f(10)",
+                "let g = fn() { let a = 1; let h = fn() { a + 1 }; h() }; g()",
+                "let f = fn(n) { if (true) { return n * 2; } else { }; 0 }; f(21)",
+                "let s = \"mon\" + \"key\"; len(s + \"!\")",
+                "{1 + 1: \"two\", 2: \"also two\"}[2]",
+                "if (false) { 1 } else { }",
+                "let a = [1, 2 * 2, 3]; a[1 + 0]",
+                "-true"
+        );
+
+        for (String input : inputs) {
+            var expected = new Evaluator().eval(parse(input), new Environment());
+            var actual = new Evaluator().eval(optimize(input, EnumSet.allOf(Optimization.class)), new Environment());
+            assertEquals(inspect(expected), inspect(actual), "optimization changed the result of " + input);
+        }
+    }
+
+    private static String inspect(org.monkey.object.Object obj) {
+        return obj == null
+                ? "null"
+                : obj.inspect();
+    }
+
+    private static Program optimize(String input, EnumSet<Optimization> passes) {
+        return new Optimizer(passes).optimize(parse(input));
+    }
+
+    private static Program parse(String input) {
+        var parser = new Parser(new Lexer(input));
+        var program = parser.parseProgram();
+        assertTrue(parser.errors().isEmpty(), "parser errors: " + parser.errors());
+        return program;
+    }
+}
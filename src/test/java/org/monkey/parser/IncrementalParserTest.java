@@ -0,0 +1,117 @@
+package org.monkey.parser;
+
+import org.junit.jupiter.api.Test;
+import org.monkey.lexer.Lexer;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalParserTest {
+
+    private static final List<String> FRAGMENTS = List.of(
+            "let x = 5;", "let add = fn(a, b) { a + b };", "add(1, 2)", "x * 3", "if (x < 2) { 1 } else { 2 }",
+            "if (true) { return 1; }", "[1, 2, 3][0];", "{\"k\": \"v\"}[\"k\"]", "return x;", "\"héllo\"",
+            ";", "}", "{", "(", ")", "+", "-", "else", "let", " ", "\n", "\"", "fn", "y", "7", "=="
+    );
+
+    @Test
+    void testEditsMatchFullParse() {
+        var random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            var document = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                document.append(FRAGMENTS.get(random.nextInt(10))).append(random.nextBoolean() ? "\n" : " ");
+            }
+            var parser = new IncrementalParser(document.toString());
+            assertMatchesFullParse(parser);
+
+            for (int edit = 0; edit < 40; edit++) {
+                var bytes = parser.text().getBytes().length;
+                var start = random.nextInt(bytes + 1);
+                var end = Math.min(bytes, start + random.nextInt(6));
+                var replacement = random.nextInt(3) == 0
+                        ? ""
+                        : FRAGMENTS.get(random.nextInt(FRAGMENTS.size()));
+                // keep edits on character boundaries
+                var text = parser.text().getBytes();
+                while (start > 0 && start < bytes && (text[start] & 0xc0) == 0x80) {
+                    start--;
+                }
+                while (end < bytes && (text[end] & 0xc0) == 0x80) {
+                    end++;
+                }
+                end = Math.max(start, end);
+
+                parser.edit(start, end, replacement);
+                assertMatchesFullParse(parser);
+            }
+        }
+    }
+
+    @Test
+    void testEditsSplittingTokensMatchFullParse() {
+        var parser = new IncrementalParser("x==1");
+        parser.edit(2, 2, "1");
+        parser.edit(2, 3, "");
+        assertMatchesFullParse(parser);
+
+        // short documents of one- and two-character tokens, edited a character at a time
+        var pieces = List.of("x", "1", "=", "!", "==", "!=", "<", "+", "(", ")", ";", " ", "\n");
+        var random = new Random(15);
+        for (int round = 0; round < 500; round++) {
+            var document = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                document.append(pieces.get(random.nextInt(pieces.size())));
+            }
+            parser = new IncrementalParser(document.toString());
+            for (int edit = 0; edit < 20; edit++) {
+                var bytes = parser.text().length();
+                var start = random.nextInt(bytes + 1);
+                var end = Math.min(bytes, start + random.nextInt(3));
+                var replacement = random.nextBoolean()
+                        ? ""
+                        : pieces.get(random.nextInt(pieces.size()));
+                parser.edit(start, end, replacement);
+                assertMatchesFullParse(parser);
+            }
+        }
+    }
+
+    @Test
+    void testEditReparsesOnlyNearbyStatements() {
+        var document = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            document.append("let f = fn(x) { x + ").append(i).append(" };\n");
+        }
+        var parser = new IncrementalParser(document.toString());
+        assertMatchesFullParse(parser);
+        var middle = document.indexOf("x + 5000 ") + "x + ".length();
+
+        parser.edit(middle, middle + "5000".length(), "42");
+        assertEquals(2, parser.reparsed(), "reparsed more than the statement and the one before");
+        assertEquals("let f = fn(x)(x + 42);", parser.program().statements.get(5000).string());
+
+        parser.edit(0, 0, "let first = 1;\n");
+        assertEquals(1, parser.reparsed(), "an insertion at the start reparses only itself");
+        assertEquals(10_001, parser.program().statements.size());
+        assertMatchesFullParse(parser);
+    }
+
+    @Test
+    void testIfWithoutElseEndsTheStatement() {
+        var parser = new Parser(new Lexer("if (x) { 1 } let y = 2; y"));
+        var program = parser.parseProgram();
+        assertTrue(parser.errors().isEmpty(), "parser errors: " + parser.errors());
+        assertEquals(3, program.statements.size(), "the if swallowed the statements after it");
+    }
+
+    private void assertMatchesFullParse(IncrementalParser incremental) {
+        var parser = new Parser(new Lexer(incremental.text()));
+        var program = parser.parseProgram();
+        assertEquals(program.statements, incremental.program().statements,
+                     "statements differ for:\n" + incremental.text());
+        assertEquals(parser.errors(), incremental.errors(), "errors differ for:\n" + incremental.text());
+    }
+}
@@ -0,0 +1,56 @@
+package org.monkey.parser;
+
+import org.junit.jupiter.api.Test;
+import org.monkey.lexer.Lexer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelParserTest {
+
+    private static final List<String> FRAGMENTS = List.of(
+            "let x = 5;", "let add = fn(a, b) { a + b; };", "add(1, 2)", "x * 3;", "if (x < 2) { 1 } else { 2 }",
+            "if (true) { return 1; }", "[1, 2, 3][0];", "{\"k;\": \"let\"}[\"k;\"]", "return x;", "letter;",
+            ";", "}", "{", "(", ")", "+", "-", "else", "let", "\"", "fn", "if", "7", "=="
+    );
+
+    @Test
+    void testMatchesSequentialParse() {
+        var random = new Random(11);
+        for (int round = 0; round < 500; round++) {
+            var input = new StringBuilder();
+            var wellFormed = round % 2 == 0;
+            for (int i = 0; i < 30; i++) {
+                input.append(FRAGMENTS.get(random.nextInt(wellFormed ? 10 : FRAGMENTS.size())))
+                     .append(random.nextBoolean() ? "\n" : " ");
+            }
+            assertMatchesSequentialParse(input.toString(), 1 + random.nextInt(40));
+        }
+    }
+
+    @Test
+    void testLargeProgram() {
+        var input = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            input.append("let f = fn(x) { let y = x * ").append(i).append("; if (y > 3) { y } else { \"a;b\" } };\n");
+        }
+        var parser = new ParallelParser(input.toString());
+        var program = parser.parseProgram();
+        assertTrue(parser.errors().isEmpty(), "parser errors: " + parser.errors());
+        assertEquals(20_000, program.statements.size(), "wrong number of statements");
+        assertMatchesSequentialParse(input.toString(), 64 * 1024);
+    }
+
+    private void assertMatchesSequentialParse(String input, int minChunk) {
+        var sequential = new Parser(new Lexer(input));
+        var expected = sequential.parseProgram();
+        var parallel = new ParallelParser(ByteBuffer.wrap(input.getBytes()), ForkJoinPool.commonPool(), minChunk);
+        var program = parallel.parseProgram();
+        assertEquals(expected.statements, program.statements, "statements differ for:\n" + input);
+        assertEquals(sequential.errors(), parallel.errors(), "errors differ for:\n" + input);
+    }
+}
@@ -1,11 +1,16 @@
 package org.monkey.parser;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.monkey.ast.*;
 import org.monkey.lexer.Lexer;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -98,6 +103,19 @@ class ParserTest {
             assertEquals("5", literal.tokenLiteral());
         }
 
+        @Test
+        void testIntegerLiteralLimits() {
+            Parser parser = new Parser(new Lexer("9223372036854775807;"));
+            Program program = parser.parseProgram();
+            checkParserErrors(parser);
+            IntegerLiteral literal = (IntegerLiteral) ((ExpressionStatement) program.getStatements().getFirst()).expression();
+            assertEquals(Long.MAX_VALUE, literal.value());
+
+            parser = new Parser(new Lexer("9223372036854775808;"));
+            parser.parseProgram();
+            assertEquals(List.of("could not parse 9223372036854775808 as integer"), parser.errors());
+        }
+
         @Test
         void testBooleanExpression() {
             record BooleanTest(String input, boolean expectedBoolean) { }
@@ -205,6 +223,24 @@ class ParserTest {
         testIdentifier(alternativeExp.expression(), "y");
     }
 
+    @Test
+    void testIfWithoutElseLeavesTheNextStatement() {
+        String input = "if (x) { x } let y = 2; y";
+
+        Parser parser = new Parser(new Lexer(input));
+        Program program = parser.parseProgram();
+        checkParserErrors(parser);
+
+        assertEquals(3, program.getStatements().size());
+        ExpressionStatement expStmt = (ExpressionStatement) program.getStatements().getFirst();
+        assertInstanceOf(IfExpression.class, expStmt.expression());
+        assertNull(((IfExpression) expStmt.expression()).alternative());
+
+        testLetStatement((LetStatement) program.getStatements().get(1), "y");
+        ExpressionStatement last = (ExpressionStatement) program.getStatements().get(2);
+        testIdentifier(last.expression(), "y");
+    }
+
 
     @Nested
     class ParseFunctionLiteralTests {
@@ -678,6 +714,27 @@ class ParserTest {
         }
     }
 
+    @Test
+    void testParseStatementEvents() throws IOException {
+        var file = Files.createTempFile("monkey", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable("org.monkey.ParseStatement").withoutThreshold();
+            recording.start();
+            new Parser(new Lexer("let x = 5;\nreturn x;\nlet = 1; x")).parseProgram();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        var events = RecordingFile.readAllEvents(file).stream()
+                                  .map(event -> event.getString("statement") + "@" + event.getLong("offset")
+                                          + "+" + event.getLong("length") + "!" + event.getInt("errors"))
+                                  .toList();
+        Files.delete(file);
+        assertEquals(List.of("LetStatement@0+11!0", "ReturnStatement@11+10!0", "let@21+4!1",
+                             "ExpressionStatement@25+2!1", "ExpressionStatement@27+3!0", "ExpressionStatement@30+1!0"),
+                     events, "wrong parse events");
+    }
+
     private void checkParserErrors(Parser parser) {
         var errors = parser.errors();
         if (errors.isEmpty()) {
@@ -0,0 +1,102 @@
+package org.monkey.resolver;
+
+import org.junit.jupiter.api.Test;
+import org.monkey.ast.ExpressionStatement;
+import org.monkey.ast.InfixExpression;
+import org.monkey.ast.Program;
+import org.monkey.lexer.Lexer;
+import org.monkey.object.Environment;
+import org.monkey.parser.Parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResolverTest {
+
+    @Test
+    void testGlobalSlots() {
+        var env = new Environment();
+        var program = resolve("let a = 1; let b = 2; b;", env);
+
+        var let = (SlotLetStatement) program.getStatements().get(1);
+        assertEquals(1, let.slot(), "wrong slot for b");
+
+        var ident = (SlotIdentifier) ((ExpressionStatement) program.getStatements().get(2)).expression();
+        assertEquals(0, ident.depth(), "wrong depth for b");
+        assertEquals(1, ident.slot(), "wrong slot for b");
+    }
+
+    @Test
+    void testFunctionSlots() {
+        var program = resolve("""
+                              let c = 1;
+                              fn(a, b) { let d = a; b + c };
+                              """, new Environment());
+
+        var literal = (SlotFunctionLiteral) ((ExpressionStatement) program.getStatements().get(1)).expression();
+        assertEquals(3, literal.frameSize(), "wrong frame size");
+
+        var let = (SlotLetStatement) literal.body().statements().getFirst();
+        assertEquals(2, let.slot(), "wrong slot for d");
+
+        var sum = (InfixExpression) ((ExpressionStatement) literal.body().statements().get(1)).expression();
+        var b = (SlotIdentifier) sum.left();
+        assertEquals(0, b.depth(), "wrong depth for b");
+        assertEquals(1, b.slot(), "wrong slot for b");
+
+        var c = (SlotIdentifier) sum.right();
+        assertEquals(1, c.depth(), "wrong depth for c");
+        assertEquals(0, c.slot(), "wrong slot for c");
+    }
+
+    @Test
+    void testBuiltInsResolvedOnce() {
+        var program = resolve("len", new Environment());
+        var expression = ((ExpressionStatement) program.getStatements().getFirst()).expression();
+        assertInstanceOf(BuiltInIdentifier.class, expression);
+    }
+
+    @Test
+    void testGlobalsShadowBuiltIns() {
+        var program = resolve("let f = fn() { len }; let len = 1;", new Environment());
+        var literal = (SlotFunctionLiteral) ((SlotLetStatement) program.getStatements().getFirst()).value();
+        var expression = ((ExpressionStatement) literal.body().statements().getFirst()).expression();
+        assertInstanceOf(SlotIdentifier.class, expression);
+    }
+
+    @Test
+    void testUnsetSlotsFallBackOutward() {
+        var program = resolve("let y = 1; let f = fn() { let g = fn() { y }; let y = 5; g() };", new Environment());
+        var f = (SlotFunctionLiteral) ((SlotLetStatement) program.getStatements().get(1)).value();
+        var g = (SlotFunctionLiteral) ((SlotLetStatement) f.body().statements().getFirst()).value();
+        var y = (SlotIdentifier) ((ExpressionStatement) g.body().statements().getFirst()).expression();
+        assertEquals(1, y.depth(), "y is not f's");
+        assertEquals(1, y.slot(), "wrong slot for f's y");
+
+        var global = assertInstanceOf(SlotIdentifier.class, y.fallback(), "no fallback to the global y");
+        assertEquals(2, global.depth(), "wrong depth for the global y");
+        assertEquals(0, global.slot(), "wrong slot for the global y");
+        assertNull(global.fallback(), "y is not a builtin");
+
+        program = resolve("let f = fn() { len }; let len = 1;", new Environment());
+        var literal = (SlotFunctionLiteral) ((SlotLetStatement) program.getStatements().getFirst()).value();
+        var len = (SlotIdentifier) ((ExpressionStatement) literal.body().statements().getFirst()).expression();
+        assertInstanceOf(BuiltInIdentifier.class, len.fallback(), "an unset global does not fall back to the builtin");
+    }
+
+    @Test
+    void testGlobalsPersistAcrossPrograms() {
+        var env = new Environment();
+        resolve("let a = 1; let b = 2;", env);
+        var program = resolve("b", env);
+
+        var ident = (SlotIdentifier) ((ExpressionStatement) program.getStatements().getFirst()).expression();
+        assertEquals(1, ident.slot(), "wrong slot for b");
+    }
+
+    private Program resolve(String input, Environment env) {
+        var parser = new Parser(new Lexer(input));
+        var program = parser.parseProgram();
+        assertTrue(parser.errors().isEmpty(), "parser errors: " + parser.errors());
+        return new Resolver(env).resolve(program);
+    }
+}
@@ -0,0 +1,618 @@
+package org.monkey.vm;
+
+import org.junit.jupiter.api.Test;
+import org.monkey.compiler.Compiler;
+import org.monkey.lexer.Lexer;
+import org.monkey.object.*;
+import org.monkey.object.Boolean;
+import org.monkey.object.Error;
+import org.monkey.object.Integer;
+import org.monkey.object.String;
+import org.monkey.parser.Parser;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VMTest {
+
+    private static final Boolean TRUE = new Boolean(true);
+    private static final Boolean FALSE = new Boolean(false);
+
+    @Test
+    void testEvalIntegerExpression() {
+        record TestCase(java.lang.String input, int expected) { }
+
+        var tests = List.of(
+                new TestCase("5", 5),
+                new TestCase("10", 10),
+                new TestCase("-5", -5),
+                new TestCase("-10", -10),
+                new TestCase("5 + 5 + 5 + 5 - 10", 10),
+                new TestCase("2 * 2 * 2 * 2 * 2", 32),
+                new TestCase("-50 + 100 + -50", 0),
+                new TestCase("5 * 2 + 10", 20),
+                new TestCase("5 + 2 * 10", 25),
+                new TestCase("20 + 2 * -10", 0),
+                new TestCase("50 / 2 * 2 + 10", 60),
+                new TestCase("2 * (5 + 10)", 30),
+                new TestCase("3 * 3 * 3 + 10", 37),
+                new TestCase("3 * (3 * 3) + 10", 37),
+                new TestCase("(5 + 10 * 2 + 15 / 3) * 2 + -10", 50)
+        );
+
+        for (TestCase tt : tests) {
+            var evaluated = testEval(tt.input);
+            testIntegerObject(evaluated, tt.expected);
+        }
+    }
+
+    @Test
+    void testEvalBooleanExpression() {
+        record TestCase(java.lang.String input, boolean expected) { }
+
+        var tests = List.of(
+                new TestCase("true", true),
+                new TestCase("false", false),
+                new TestCase("1 < 2", true),
+                new TestCase("1 > 2", false),
+                new TestCase("1 < 1", false),
+                new TestCase("1 > 1", false),
+                new TestCase("1 == 1", true),
+                new TestCase("1 != 1", false),
+                new TestCase("1 == 2", false),
+                new TestCase("1 != 2", true),
+                new TestCase("true == true", true),
+                new TestCase("false == false", true),
+                new TestCase("true == false", false),
+                new TestCase("true != false", true),
+                new TestCase("false != true", true),
+                new TestCase("(1 < 2) == true", true),
+                new TestCase("(1 < 2) == false", false),
+                new TestCase("(1 > 2) == true", false),
+                new TestCase("(1 > 2) == false", true)
+        );
+
+        for (TestCase tt : tests) {
+            var evaluated = testEval(tt.input);
+            testBooleanObject(evaluated, tt.expected);
+        }
+    }
+
+    @Test
+    void testBangOperator() {
+        record TestCase(java.lang.String input, boolean expected) { }
+
+        var tests = List.of(
+                new TestCase("!true", false),
+                new TestCase("!false", true),
+                new TestCase("!5", false),
+                new TestCase("!!true", true),
+                new TestCase("!!false", false),
+                new TestCase("!!5", true)
+        );
+
+        for (TestCase tt : tests) {
+            var evaluated = testEval(tt.input);
+            testBooleanObject(evaluated, tt.expected);
+        }
+    }
+
+    @Test
+    void testIfElseExpressions() {
+        record TestCase(java.lang.String input, java.lang.Object expected) { }
+
+        var tests = List.of(
+                new TestCase("if (true) { 10 }", 10),
+                new TestCase("if (false) { 10 }", null),
+                new TestCase("if (1) { 10 }", 10),
+                new TestCase("if (1 < 2) { 10 }", 10),
+                new TestCase("if (1 > 2) { 10 }", null),
+                new TestCase("if (1 > 2) { 10 } else { 20 }", 20),
+                new TestCase("if (1 < 2) { 10 } else { 20 }", 10)
+        );
+
+        for (TestCase tt : tests) {
+            var evaluated = testEval(tt.input);
+            if (tt.expected instanceof java.lang.Integer) {
+                testIntegerObject(evaluated, (java.lang.Integer) tt.expected);
+            } else {
+                testNullObject(evaluated);
+            }
+        }
+    }
+
+    @Test
+    void testReturnStatements() {
+        record TestCase(java.lang.String input, int expected) { }
+
+        var tests = List.of(
+                new TestCase("return 10;", 10),
+                new TestCase("return 10; 9;", 10),
+                new TestCase("return 2 * 5; 9;", 10),
+                new TestCase("9; return 2 * 5; 9;", 10),
+                new TestCase("if (10 > 1) { return 10; }", 10),
+                new TestCase("""
+                             if (10 > 1) {
+                                 if (10 > 1) {
+                                     return 10;
+                                 }
+                                 return 1;
+                             }
+                             """, 10),
+                new TestCase("""
+                             let f = fn(x) {
+                                 return x;
+                                 x + 10;
+                             };
+                             f(10);
+                             """, 10),
+                new TestCase("""
+                             let f = fn(x) {
+                                 let result = x + 10;
+                                 return result;
+                                 return 10;
+                             };
+                             f(10);
+                             """, 20)
+        );
+
+        for (TestCase tt : tests) {
+            var evaluated = testEval(tt.input);
+            testIntegerObject(evaluated, tt.expected);
+        }
+    }
+
+    @Test
+    void testErrorHandling() {
+        record TestCase(java.lang.String input, java.lang.String expectedMessage) { }
+
+        var tests = List.of(
+                new TestCase("5 + true;", "type mismatch: INTEGER + BOOLEAN"),
+                new TestCase("5 + true; 5;", "type mismatch: INTEGER + BOOLEAN"),
+                new TestCase("-true", "unknown operator: -BOOLEAN"),
+                new TestCase("true + false;", "unknown operator: BOOLEAN + BOOLEAN"),
+                new TestCase("5; true + false; 5", "unknown operator: BOOLEAN + BOOLEAN"),
+                new TestCase("if (10 > 1) { true + false; }", "unknown operator: BOOLEAN + BOOLEAN"),
+                new TestCase("""
+                             if (10 > 1) {
+                                 if (10 > 1) {
+                                     return true + false;
+                                 }
+                                 return 1;
+                             }
+                             """, "unknown operator: BOOLEAN + BOOLEAN"),
+                new TestCase("foobar", "identifier not found: foobar"),
+                new TestCase("let f = fn(x) { if (false) { let y = 1; } y }; f(1)", "identifier not found: y")
+        );
+
+        for (TestCase tt : tests) {
+            var evaluated = testEval(tt.input);
+            assertInstanceOf(Error.class, evaluated,
+                             "no error object returned. got=" + evaluated.getClass());
+            var error = (Error) evaluated;
+            assertEquals(tt.expectedMessage, error.message().value(),
+                         "wrong error message");
+        }
+    }
+
+    @Test
+    void testLetStatements() {
+        record TestCase(java.lang.String input, int expected) { }
+
+        var tests = List.of(
+                new TestCase("let a = 5; a;", 5),
+                new TestCase("let a = 5 * 5; a;", 25),
+                new TestCase("let a = 5; let b = a; b;", 5),
+                new TestCase("let a = 5; let b = a; let c = a + b + 5; c;", 15)
+        );
+
+        for (TestCase tt : tests) {
+            testIntegerObject(testEval(tt.input), tt.expected);
+        }
+    }
+
+    @Test
+    void testFunctionObject() {
+        var input = "fn(x) { x + 2; };";
+
+        var evaluated = testEval(input);
+        assertInstanceOf(Closure.class, evaluated,
+                         "object is not Closure. got=" + evaluated.getClass());
+        var closure = (Closure) evaluated;
+
+        assertEquals(1, closure.fn().numParameters(),
+                     "function has wrong parameters");
+    }
+
+    @Test
+    void testFunctionApplication() {
+        record TestCase(java.lang.String input, int expected) { }
+
+        var tests = List.of(
+                new TestCase("let identity = fn(x) { x; }; identity(5);", 5),
+                new TestCase("let identity = fn(x) { return x; }; identity(5);", 5),
+                new TestCase("let double = fn(x) { x * 2; }; double(5);", 10),
+                new TestCase("let add = fn(x, y) { x + y; }; add(5, 5);", 10),
+                new TestCase("let add = fn(x, y) { x + y; }; add(5 + 5, add(5, 5));", 20),
+                new TestCase("fn(x) { x; }(5)", 5)
+        );
+
+        for (TestCase tt : tests) {
+            testIntegerObject(testEval(tt.input), tt.expected);
+        }
+    }
+
+    @Test
+    void testClosures() {
+        var input = """
+                    let newAdder = fn(x) {
+                        fn(y) { x + y };
+                    };
+                    let addTwo = newAdder(2);
+                    addTwo(2);
+                    """;
+
+        testIntegerObject(testEval(input), 4);
+    }
+
+    @Test
+    void testStringLiteral() {
+        var input = "\"Hello World!\"";
+
+        var evaluated = testEval(input);
+        assertInstanceOf(String.class, evaluated,
+                         "object is not String. got=" + evaluated.getClass());
+        var str = (String) evaluated;
+        assertEquals("Hello World!", str.value(),
+                     "String has wrong value");
+    }
+
+    @Test
+    void testStringConcatenation() {
+        var input = "\"Hello\" + \" \" + \"World!\"";
+
+        var evaluated = testEval(input);
+        assertInstanceOf(String.class, evaluated,
+                         "object is not String. got=" + evaluated.getClass());
+        var str = (String) evaluated;
+        assertEquals("Hello World!", str.value(),
+                     "String has wrong value");
+    }
+
+    @Test
+    void testBuiltinFunctions() {
+        record TestCase(java.lang.String input, java.lang.Object expected) { }
+
+        var tests = List.of(
+                // String tests
+                new TestCase("""
+                             len("")
+                             """.trim(), 0),
+                new TestCase("""
+                             len("four")
+                             """.trim(), 4),
+                new TestCase("""
+                             len("hello world")
+                             """, 11),
+                new TestCase("len(1)", "argument to `len` not supported, got INTEGER"),
+                new TestCase("""
+                             len("one", "two")
+                             """, "wrong number of arguments. got=2, want=1"),
+
+                // Array tests
+                new TestCase("len([])", 0),
+                new TestCase("len([1, 2, 3])", 3),
+                new TestCase("first([1, 2, 3])", 1),
+                new TestCase("first([])", null),
+                new TestCase("first(1)", "argument to `first` must be ARRAY, got INTEGER"),
+                new TestCase("last([1, 2, 3])", 3),
+                new TestCase("last([])", null),
+                new TestCase("last(1)", "argument to `last` must be ARRAY, got INTEGER"),
+                new TestCase("rest([1, 2, 3])", List.of(2, 3)),
+                new TestCase("rest([])", null),
+                new TestCase("rest(1)", "argument to `rest` must be ARRAY, got INTEGER"),
+                new TestCase("push([], 1)", List.of(1)),
+                new TestCase("push(1, 1)", "argument to `push` must be ARRAY, got INTEGER")
+        );
+
+        for (TestCase tt : tests) {
+            var evaluated = testEval(tt.input);
+
+            switch (tt.expected) {
+                case java.lang.Integer i -> testIntegerObject(evaluated, i);
+                case java.lang.String s -> {
+                    assertInstanceOf(Error.class, evaluated,
+                                     "object is not Error. got=" + evaluated.getClass());
+                    var error = (Error) evaluated;
+                    assertEquals(s, error.message().value(),
+                                 "wrong error message");
+                }
+                case List<?> l -> {
+                    assertInstanceOf(Array.class, evaluated,
+                                     "obj not Array. got=" + evaluated.getClass());
+                    var array = (Array) evaluated;
+                    assertEquals(l.size(), array.elements().size(),
+                                 "wrong num of elements");
+                    for (int i = 0; i < l.size(); i++) {
+                        testIntegerObject(array.elements().get(i), (java.lang.Integer) l.get(i));
+                    }
+                }
+                case null, default -> testNullObject(evaluated);
+            }
+        }
+    }
+
+    @Test
+    void testArrayLiterals() {
+        var input = "[1, 2 * 2, 3 + 3]";
+
+        var evaluated = testEval(input);
+        assertInstanceOf(Array.class, evaluated,
+                         "object is not Array. got=" + evaluated.getClass());
+        var result = (Array) evaluated;
+
+        assertEquals(3, result.elements().size(),
+                     "array has wrong num of elements");
+
+        testIntegerObject(result.elements().get(0), 1);
+        testIntegerObject(result.elements().get(1), 4);
+        testIntegerObject(result.elements().get(2), 6);
+    }
+
+    @Test
+    void testArrayIndexExpressions() {
+        record TestCase(java.lang.String input, java.lang.Object expected) { }
+
+        var tests = List.of(
+                new TestCase("[1, 2, 3][0]", 1),
+                new TestCase("[1, 2, 3][1]", 2),
+                new TestCase("[1, 2, 3][2]", 3),
+                new TestCase("let i = 0; [1][i];", 1),
+                new TestCase("[1, 2, 3][1 + 1];", 3),
+                new TestCase("let myArray = [1, 2, 3]; myArray[2];", 3),
+                new TestCase("[1, 2, 3][3]", null),
+                new TestCase("[1, 2, 3][-1]", null)
+        );
+
+        for (TestCase tt : tests) {
+            var evaluated = testEval(tt.input);
+            if (tt.expected instanceof java.lang.Integer i) {
+                testIntegerObject(evaluated, i);
+            } else {
+                testNullObject(evaluated);
+            }
+        }
+    }
+
+    @Test
+    void testHashLiterals() {
+        var input = """
+                    let two = "two";
+                    {
+                        "one": 10 - 9,
+                        two: 1 + 1,
+                        "thr" + "ee": 6 / 2,
+                        4: 4,
+                        true: 5,
+                        false: 6
+                    }""";
+
+        var evaluated = testEval(input);
+        assertInstanceOf(Hash.class, evaluated,
+                         "Eval didn't return Hash. got=" + evaluated.getClass());
+        var result = (Hash) evaluated;
+
+        var expected = new java.util.HashMap<Hashable, java.lang.Integer>();
+        expected.put(new String("one"), 1);
+        expected.put(new String("two"), 2);
+        expected.put(new String("three"), 3);
+        expected.put(new Integer(4), 4);
+        expected.put(TRUE, 5);
+        expected.put(FALSE, 6);
+
+        assertEquals(expected.size(), result.size(),
+                     "Hash has wrong num of pairs");
+
+        for (var entry : expected.entrySet()) {
+            var value = result.get(entry.getKey());
+            assertNotNull(value, "no pair for given key in Pairs");
+            testIntegerObject(value, entry.getValue());
+        }
+    }
+
+    @Test
+    void testEnclosingEnvironments() {
+        var input = """
+                    let first = 10;
+                    let second = 10;
+                    let third = 10;
+                                
+                    let ourFunction = fn(first) {
+                        let second = 20;
+                        first + second + third;
+                    };
+                                
+                    ourFunction(20) + first + second;""";
+
+        testIntegerObject(testEval(input), 70);
+    }
+
+    @Test
+    void testHashIndexExpressions() {
+        record TestCase(java.lang.String input, java.lang.Object expected) { }
+
+        var tests = List.of(
+                new TestCase("""
+                             {"foo": 5}["foo"]
+                             """, 5),
+                new TestCase("""
+                             {"foo": 5}["bar"]
+                             """, null),
+                new TestCase("""
+                             let key = "foo";
+                             {"foo": 5}[key]
+                             """, 5),
+                new TestCase("""
+                             {}["foo"]
+                             """, null),
+                new TestCase("""
+                             {5: 5}[5]
+                             """, 5),
+                new TestCase("""
+                             {true: 5}[true]
+                             """, 5),
+                new TestCase("""
+                             {false: 5}[false]
+                             """, 5)
+        );
+
+        for (TestCase tt : tests) {
+            var evaluated = testEval(tt.input);
+            if (tt.expected instanceof java.lang.Integer i) {
+                testIntegerObject(evaluated, i);
+            } else {
+                testNullObject(evaluated);
+            }
+        }
+    }
+
+    @Test
+    void testRecursiveFunctions() {
+        record TestCase(java.lang.String input, int expected) { }
+
+        var tests = List.of(
+                new TestCase("""
+                             let countDown = fn(x) { if (x == 0) { return 0; } else { countDown(x - 1); } };
+                             countDown(1);
+                             """, 0),
+                new TestCase("""
+                             let wrapper = fn() {
+                                 let countDown = fn(x) { if (x == 0) { return 0; } else { countDown(x - 1); } };
+                                 countDown(1);
+                             };
+                             wrapper();
+                             """, 0),
+                new TestCase("""
+                             let fibonacci = fn(x) {
+                                 if (x == 0) {
+                                     0
+                                 } else {
+                                     if (x == 1) { 1 } else { fibonacci(x - 1) + fibonacci(x - 2) }
+                                 }
+                             };
+                             fibonacci(15);
+                             """, 610),
+                new TestCase("""
+                             let f = fn() { g() + 1 };
+                             let g = fn() { 41 };
+                             f();
+                             """, 42)
+        );
+
+        for (TestCase tt : tests) {
+            testIntegerObject(testEval(tt.input), tt.expected);
+        }
+    }
+
+    @Test
+    void testCallingFunctionsWithWrongArguments() {
+        var evaluated = testEval("fn(a, b) { a + b; }(1);");
+        assertInstanceOf(Error.class, evaluated,
+                         "no error object returned. got=" + evaluated.getClass());
+        assertEquals("wrong number of arguments: want=2, got=1", ((Error) evaluated).message().value(),
+                     "wrong error message");
+    }
+
+    @Test
+    void testSixtyFourBitIntegers() {
+        record TestCase(java.lang.String input, long expected) { }
+
+        var tests = List.of(
+                new TestCase("2147483647 + 1", 2147483648L),
+                new TestCase("65536 * 65536", 4294967296L),
+                new TestCase("-9223372036854775807 - 1", Long.MIN_VALUE),
+                new TestCase("9223372036854775807 / 3", 3074457345618258602L),
+                new TestCase("let a = [1, 2, 3]; a[4294967296 - 4294967295]", 2)
+        );
+
+        for (TestCase tt : tests) {
+            testIntegerObject(testEval(tt.input), tt.expected);
+        }
+        testBooleanObject(testEval("4294967296 == 4294967296"), true);
+        testBooleanObject(testEval("4294967296 != 0"), true);
+    }
+
+    @Test
+    void testOperandsPastOneAndTwoBytes() {
+        var globals = new StringBuilder();
+        for (int i = 0; i < 70_000; i++) {
+            globals.append("let g").append(name(i)).append(" = ").append(i).append(";\n");
+        }
+        testIntegerObject(testEval(globals + "g" + name(69_999) + " + g" + name(65_536)), 69_999 + 65_536);
+
+        var parameters = new StringJoiner(", ");
+        var arguments = new StringJoiner(", ");
+        var locals = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            parameters.add("p" + name(i));
+            arguments.add(java.lang.String.valueOf(i));
+            locals.append("let l").append(name(i)).append(" = p").append(name(i)).append(";\n");
+        }
+        var input = "let f = fn(" + parameters + ") {\n" + locals
+                    + "fn() { l" + name(299) + " + l" + name(256) + " }\n};\nf(" + arguments + ")()";
+        testIntegerObject(testEval(input), 299 + 256);
+    }
+
+    @Test
+    void testMemoizedCallsGoThroughTheCache() {
+        var input = "let fib = memo(fn(n) { if (n < 2) { n } else { fib(n - 1) + fib(n - 2) } }); fib(30); fib";
+        var fib = testEval(input);
+
+        assertInstanceOf(Memoized.class, fib, "memo returns a wrapper");
+        var cache = ((Memoized) fib).cache();
+        assertEquals(31, cache.misses(), "the function ran more than once per argument");
+        assertEquals(28, cache.hits(), "calls did not hit the cache");
+        assertEquals(31, cache.size(), "results were not cached");
+
+        testIntegerObject(testEval(input.substring(0, input.length() - "; fib".length())), 832040);
+        assertInstanceOf(Error.class, testEval("let f = memo(fn(n) { n + true }); f(1)"), "error was not returned");
+    }
+
+    // identifiers are letters only, so the n-th generated name spells n in base 26
+    private static java.lang.String name(int n) {
+        var sb = new StringBuilder();
+        do {
+            sb.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return sb.toString();
+    }
+
+    private org.monkey.object.Object testEval(java.lang.String input) {
+        var l = new Lexer(input);
+        var p = new Parser(l);
+        var program = p.parseProgram();
+        var compiler = new Compiler();
+        compiler.compile(program);
+
+        return new VM(compiler.bytecode()).run();
+    }
+
+    private void testIntegerObject(org.monkey.object.Object obj, long expected) {
+        assertInstanceOf(Integer.class, obj, "object is not Integer. got=" + obj.getClass());
+        var result = (Integer) obj;
+        assertEquals(expected, result.value(), "object has wrong value");
+    }
+
+    private void testBooleanObject(org.monkey.object.Object obj, boolean expected) {
+        assertInstanceOf(Boolean.class, obj, "object is not Boolean. got=" + obj.getClass());
+        var result = (Boolean) obj;
+        assertEquals(expected, result.value(), "object has wrong value");
+    }
+
+    private void testNullObject(org.monkey.object.Object obj) {
+        assertEquals(obj, new Null(), "object is not NULL");
+    }
+}
\ No newline at end of file